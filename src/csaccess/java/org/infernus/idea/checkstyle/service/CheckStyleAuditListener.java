@@ -2,9 +2,10 @@ package org.infernus.idea.checkstyle.service;
 
 import com.intellij.openapi.application.Application;
 import com.intellij.openapi.application.ApplicationManager;
-import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
 import com.intellij.psi.PsiFile;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import com.puppycrawl.tools.checkstyle.api.AuditEvent;
 import com.puppycrawl.tools.checkstyle.api.AuditListener;
 import org.infernus.idea.checkstyle.checker.Problem;
@@ -12,24 +13,45 @@ import org.infernus.idea.checkstyle.checks.Check;
 import org.infernus.idea.checkstyle.csapi.Issue;
 import org.infernus.idea.checkstyle.csapi.ProcessResultsThread;
 import org.infernus.idea.checkstyle.csapi.SeverityLevel;
+import org.infernus.idea.checkstyle.exception.CheckStylePluginException;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.*;
-
-
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+
+/**
+ * Collects the events of an audit.
+ * <p>
+ * When given files to map them to, the issues of each file are mapped onto its PSI as soon as Checkstyle has finished
+ * with the file, on another thread and in a short read action, while Checkstyle moves on to the next file. Only the
+ * issues of the files not yet mapped are held. Otherwise the issues are kept as they are, for {@link #getIssues()}.
+ * <p>
+ * The mapping pool is shared by all listeners, so concurrent audits don't each create a pool of their own.
+ */
 public class CheckStyleAuditListener
         implements AuditListener {
 
     private static final Logger LOG = Logger.getInstance(CheckStyleAuditListener.class);
 
+    private static final ExecutorService MAPPING_EXECUTOR = AppExecutorUtil.createBoundedApplicationPoolExecutor(
+            "CheckStyle-IDEA Result Mapping", Runtime.getRuntime().availableProcessors());
+
     private final boolean suppressErrors;
     private final List<Check> checks;
     private final int tabWidth;
     private final Optional<String> baseDir;
     private final Map<String, PsiFile> fileNamesToPsiFiles;
 
-    private final List<Issue> errors = Collections.synchronizedList(new ArrayList<>());
-    private Map<PsiFile, List<Problem>> problems = Collections.emptyMap();
+    private final boolean mapFilesAsFinished;
+
+    private final Map<String, List<Issue>> unfinishedFiles = new HashMap<>();
+    private final List<Issue> errors = new ArrayList<>();
+    private final List<Future<Map<PsiFile, List<Problem>>>> fileMappings = new ArrayList<>();
+    private List<Issue> issues = Collections.emptyList();
+    private Map<PsiFile, List<Problem>> problems;
 
     public CheckStyleAuditListener(@NotNull final Map<String, PsiFile> fileNamesToPsiFiles,
                                    final boolean suppressErrors,
@@ -41,48 +63,101 @@ public class CheckStyleAuditListener
         this.suppressErrors = suppressErrors;
         this.tabWidth = tabWidth;
         this.baseDir = baseDir;
+
+        final Application application = ApplicationManager.getApplication();
+        this.mapFilesAsFinished = !fileNamesToPsiFiles.isEmpty()
+                && application != null;  // can be null in unit tests
     }
 
 
-    public void auditStarted(final AuditEvent auditEvent) {
+    public synchronized void auditStarted(final AuditEvent auditEvent) {
+        unfinishedFiles.clear();
         errors.clear();
+        fileMappings.clear();
+        issues = Collections.emptyList();
+        problems = null;
     }
 
-    public void auditFinished(final AuditEvent auditEvent) {
-        List<Issue> errorsCopy;
-        synchronized (errors) {
-            errorsCopy = new ArrayList<>(errors);
-        }
-        final ProcessResultsThread findThread = new ProcessResultsThread(suppressErrors, checks, tabWidth, baseDir,
-                errorsCopy, fileNamesToPsiFiles);
-
-        final Application application = ApplicationManager.getApplication();
-        if (application != null) {  // can be null in unit tests
-            ReadAction.run(findThread);
-            problems = findThread.getProblems();
-        }
+    public synchronized void auditFinished(final AuditEvent auditEvent) {
+        // anything reported against a file after it was finished, or against no file at all
+        new ArrayList<>(unfinishedFiles.keySet()).forEach(this::finishFile);
+        issues = new ArrayList<>(errors);
+        errors.clear();
     }
 
     public void fileStarted(final AuditEvent auditEvent) {
         // do nothing
     }
 
-    public void fileFinished(final AuditEvent auditEvent) {
-        // do nothing
+    public synchronized void fileFinished(final AuditEvent auditEvent) {
+        finishFile(auditEvent.getFileName());
     }
 
-    public void addError(final AuditEvent auditEvent) {
-        errors.add(toIssue(auditEvent));
+    public synchronized void addError(final AuditEvent auditEvent) {
+        addIssue(toIssue(auditEvent));
     }
 
-    public void addException(final AuditEvent auditEvent, final Throwable throwable) {
+    public synchronized void addException(final AuditEvent auditEvent, final Throwable throwable) {
         LOG.warn("Exception during CheckStyle execution", throwable);
-        errors.add(toIssue(auditEvent));
+        addIssue(toIssue(auditEvent));
     }
 
+    private void addIssue(final Issue issue) {
+        unfinishedFiles.computeIfAbsent(issue.fileName, key -> new ArrayList<>()).add(issue);
+    }
+
+    private void finishFile(final String fileName) {
+        final List<Issue> fileIssues = unfinishedFiles.remove(fileName);
+        if (fileIssues == null) {
+            return;
+        }
+
+        if (mapFilesAsFinished) {
+            fileMappings.add(MAPPING_EXECUTOR.submit(() -> ProcessResultsThread.processInChunks(
+                    suppressErrors, checks, tabWidth, baseDir, fileIssues, fileNamesToPsiFiles)));
+        } else {
+            errors.addAll(fileIssues);
+        }
+    }
 
+
+    /**
+     * @return the issues reported by the last audit, when they weren't mapped onto the PSI as each file finished.
+     */
+    @NotNull
+    public synchronized List<Issue> getIssues() {
+        return Collections.unmodifiableList(issues);
+    }
+
+    /**
+     * Wait for the issues of the last audit to be mapped onto the PSI. This is called once the checker has been
+     * released, so the checker isn't held while waiting for the mapping of the last files.
+     *
+     * @return the problems found, by file.
+     */
     @NotNull
-    public Map<PsiFile, List<Problem>> getProblems() {
+    public synchronized Map<PsiFile, List<Problem>> getProblems() {
+        if (problems == null) {
+            final Map<PsiFile, List<Problem>> mappedProblems = new HashMap<>();
+            try {
+                for (final Future<Map<PsiFile, List<Problem>>> fileMapping : fileMappings) {
+                    fileMapping.get().forEach((psiFile, fileProblems) ->
+                            mappedProblems.computeIfAbsent(psiFile, key -> new ArrayList<>()).addAll(fileProblems));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ProcessCanceledException(e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new CheckStylePluginException("An error occurred while mapping results to files.", e.getCause());
+            } finally {
+                fileMappings.forEach(fileMapping -> fileMapping.cancel(true));
+                fileMappings.clear();
+            }
+            problems = mappedProblems;
+        }
         return problems;
     }
 
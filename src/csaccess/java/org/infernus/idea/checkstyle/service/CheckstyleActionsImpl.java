@@ -16,6 +16,7 @@ import org.infernus.idea.checkstyle.checker.ScannableFile;
 import org.infernus.idea.checkstyle.csapi.CheckstyleActions;
 import org.infernus.idea.checkstyle.csapi.CheckstyleInternalObject;
 import org.infernus.idea.checkstyle.csapi.ConfigVisitor;
+import org.infernus.idea.checkstyle.csapi.Issue;
 import org.infernus.idea.checkstyle.csapi.TabWidthAndBaseDirProvider;
 import org.infernus.idea.checkstyle.exception.CheckStylePluginException;
 import org.infernus.idea.checkstyle.exception.CheckStylePluginParseException;
@@ -23,9 +24,12 @@ import org.infernus.idea.checkstyle.exception.CheckstyleServiceException;
 import org.infernus.idea.checkstyle.exception.CheckstyleToolException;
 import org.infernus.idea.checkstyle.model.ConfigurationLocation;
 import org.infernus.idea.checkstyle.service.cmd.CheckstyleCommand;
+import org.infernus.idea.checkstyle.service.cmd.OpAudit;
+import org.infernus.idea.checkstyle.service.cmd.OpAuditMerged;
 import org.infernus.idea.checkstyle.service.cmd.OpCreateChecker;
 import org.infernus.idea.checkstyle.service.cmd.OpDestroyChecker;
 import org.infernus.idea.checkstyle.service.cmd.OpLoadConfiguration;
+import org.infernus.idea.checkstyle.service.cmd.OpMergeCheckers;
 import org.infernus.idea.checkstyle.service.cmd.OpPeruseConfiguration;
 import org.infernus.idea.checkstyle.service.cmd.OpScan;
 import org.jetbrains.annotations.NotNull;
@@ -78,6 +82,27 @@ public class CheckstyleActionsImpl implements CheckstyleActions {
     }
 
 
+    @Override
+    public List<Issue> audit(@NotNull final CheckstyleInternalObject checkerWithConfig,
+                             @NotNull final List<ScannableFile> scannableFiles) {
+        return executeCommand(new OpAudit(checkerWithConfig, scannableFiles));
+    }
+
+
+    @Override
+    public CheckstyleInternalObject mergeCheckers(@NotNull final List<CheckstyleInternalObject> checkersWithConfig,
+                                                  @NotNull final ClassLoader loaderOfCheckedCode) {
+        return executeCommand(new OpMergeCheckers(checkersWithConfig, loaderOfCheckedCode));
+    }
+
+
+    @Override
+    public List<List<Issue>> auditMerged(@NotNull final CheckstyleInternalObject mergedChecker,
+                                         @NotNull final List<ScannableFile> scannableFiles) {
+        return executeCommand(new OpAuditMerged(mergedChecker, scannableFiles));
+    }
+
+
     @Override
     public CheckstyleInternalObject loadConfiguration(@NotNull final ConfigurationLocation inputFile,
                                                       final boolean ignoreVariables,
@@ -10,6 +10,7 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.Set;
 
 
 /**
@@ -41,6 +42,15 @@ public interface RulesContainer {
         return null;
     }
 
+    /**
+     * Called once the rules have been parsed.
+     *
+     * @param propertyNames the names of the properties used by the rules.
+     */
+    default void propertiesFound(@NotNull final Set<String> propertyNames) {
+        // ignored by default
+    }
+
 
     class ConfigurationLocationRulesContainer implements RulesContainer {
         private final ConfigurationLocation configurationLocation;
@@ -56,7 +66,12 @@ public interface RulesContainer {
 
         @Override
         public InputStream inputStream(@NotNull final ClassLoader checkstyleClassLoader) throws IOException {
-            return configurationLocation.resolve(checkstyleClassLoader);
+            return configurationLocation.resolveForParsing(checkstyleClassLoader);
+        }
+
+        @Override
+        public void propertiesFound(@NotNull final Set<String> propertyNames) {
+            configurationLocation.setPropertiesInFile(propertyNames);
         }
 
         public String resolveAssociatedFile(final String fileName,
@@ -0,0 +1,77 @@
+package org.infernus.idea.checkstyle.service.cmd;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import org.infernus.idea.checkstyle.csapi.Issue;
+import org.infernus.idea.checkstyle.service.CheckStyleAuditListener;
+import org.infernus.idea.checkstyle.service.entities.MergedCheckerWithConfig;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Passes the events of an audit by a merged checker on to a listener for each checker it was composed from.
+ * Events which can't be attributed to a single checker, such as a file failing to parse, are passed to all of them,
+ * as each would have reported them had it been run separately.
+ */
+final class AttributingAuditListener implements AuditListener {
+
+    private final MergedCheckerWithConfig mergedChecker;
+    private final List<CheckStyleAuditListener> sourceListeners = new ArrayList<>();
+
+    AttributingAuditListener(@NotNull final MergedCheckerWithConfig mergedChecker) {
+        this.mergedChecker = mergedChecker;
+        for (int source = 0; source < mergedChecker.getSourceCount(); ++source) {
+            sourceListeners.add(new CheckStyleAuditListener(
+                    Collections.emptyMap(), false, 0, Optional.empty(), Collections.emptyList()));
+        }
+    }
+
+    @Override
+    public void auditStarted(final AuditEvent auditEvent) {
+        sourceListeners.forEach(listener -> listener.auditStarted(auditEvent));
+    }
+
+    @Override
+    public void auditFinished(final AuditEvent auditEvent) {
+        sourceListeners.forEach(listener -> listener.auditFinished(auditEvent));
+    }
+
+    @Override
+    public void fileStarted(final AuditEvent auditEvent) {
+        sourceListeners.forEach(listener -> listener.fileStarted(auditEvent));
+    }
+
+    @Override
+    public void fileFinished(final AuditEvent auditEvent) {
+        sourceListeners.forEach(listener -> listener.fileFinished(auditEvent));
+    }
+
+    @Override
+    public void addError(final AuditEvent auditEvent) {
+        final int source = mergedChecker.sourceOf(auditEvent.getModuleId());
+        if (source >= 0 && source < sourceListeners.size()) {
+            sourceListeners.get(source).addError(auditEvent);
+        } else {
+            sourceListeners.forEach(listener -> listener.addError(auditEvent));
+        }
+    }
+
+    @Override
+    public void addException(final AuditEvent auditEvent, final Throwable throwable) {
+        sourceListeners.forEach(listener -> listener.addException(auditEvent, throwable));
+    }
+
+    /**
+     * @return the issues reported by the last audit, for each checker the merged checker was composed from.
+     */
+    @NotNull
+    List<List<Issue>> getIssues() {
+        final List<List<Issue>> issues = new ArrayList<>();
+        sourceListeners.forEach(listener -> issues.add(listener.getIssues()));
+        return issues;
+    }
+}
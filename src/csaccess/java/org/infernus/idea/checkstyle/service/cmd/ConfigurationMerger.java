@@ -0,0 +1,266 @@
+package org.infernus.idea.checkstyle.service.cmd;
+
+import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import static org.infernus.idea.checkstyle.util.Strings.isBlank;
+
+/**
+ * Composes several configurations into one, so that Checkstyle need only read and parse a file once to apply the
+ * rules of all of them. Each check is given a module ID, unless it has one already, by which the events it raises
+ * may be attributed to the configuration it came from.
+ * <p>
+ * Configurations are only composed when this cannot change their results: the {@code Checker} and
+ * {@code TreeWalker} modules of each must have the same properties, and their filters must be the same, as the
+ * filters of the composed configuration apply to the checks of all of them.
+ */
+final class ConfigurationMerger {
+
+    static final String MODULE_ID_PREFIX = "checkstyle-idea-location-";
+
+    private static final String CHECKER = "Checker";
+    private static final String TREE_WALKER = "TreeWalker";
+    private static final String FILTER_SUFFIX = "Filter";
+    private static final String ID = "id";
+
+    private ConfigurationMerger() {
+    }
+
+    /**
+     * @param configurations the configurations to compose.
+     * @return the composed configuration, or empty if the configurations are not compatible.
+     */
+    @NotNull
+    static Optional<MergedConfiguration> merge(@NotNull final List<Configuration> configurations) {
+        if (configurations.size() < 2 || !areCompatible(configurations)) {
+            return Optional.empty();
+        }
+
+        final Configuration firstChecker = configurations.get(0);
+        final DefaultConfiguration mergedChecker = withoutChildren(firstChecker);
+        filtersOf(firstChecker).forEach(filter -> mergedChecker.addChild(ParsedConfigurationCache.copyOf(filter)));
+
+        DefaultConfiguration mergedTreeWalker = null;
+        final Map<String, Integer> sourcesByModuleId = new HashMap<>();
+        for (int source = 0; source < configurations.size(); ++source) {
+            for (final Configuration child : childrenOf(configurations.get(source))) {
+                if (TREE_WALKER.equals(child.getName())) {
+                    if (mergedTreeWalker == null) {
+                        mergedTreeWalker = withoutChildren(child);
+                        final DefaultConfiguration treeWalker = mergedTreeWalker;
+                        filtersOf(child).forEach(filter ->
+                                treeWalker.addChild(ParsedConfigurationCache.copyOf(filter)));
+                    }
+                    for (final Configuration check : checksOf(child)) {
+                        mergedTreeWalker.addChild(attributed(check, source, sourcesByModuleId));
+                    }
+                } else if (!isFilter(child)) {
+                    mergedChecker.addChild(attributed(child, source, sourcesByModuleId));
+                }
+            }
+        }
+        if (mergedTreeWalker != null) {
+            mergedChecker.addChild(mergedTreeWalker);
+        }
+
+        return Optional.of(new MergedConfiguration(mergedChecker, sourcesByModuleId));
+    }
+
+    private static boolean areCompatible(@NotNull final List<Configuration> configurations) {
+        final Configuration firstChecker = configurations.get(0);
+        Configuration firstTreeWalker = null;
+        final Map<String, Integer> sourcesByExplicitId = new HashMap<>();
+
+        for (int source = 0; source < configurations.size(); ++source) {
+            final Configuration checker = configurations.get(source);
+            if (!CHECKER.equals(checker.getName())
+                    || !haveSameProperties(firstChecker, checker)
+                    || !areSameModules(filtersOf(firstChecker), filtersOf(checker))) {
+                return false;
+            }
+
+            final List<Configuration> treeWalkers = childrenNamed(checker, TREE_WALKER);
+            if (treeWalkers.size() > 1) {
+                return false;
+            }
+            for (final Configuration treeWalker : treeWalkers) {
+                if (firstTreeWalker == null) {
+                    firstTreeWalker = treeWalker;
+                } else if (!haveSameProperties(firstTreeWalker, treeWalker)
+                        || !areSameModules(filtersOf(firstTreeWalker), filtersOf(treeWalker))) {
+                    return false;
+                }
+                if (!hasIdsOnlyFrom(source, checksOf(treeWalker), sourcesByExplicitId)) {
+                    return false;
+                }
+            }
+            if (!hasIdsOnlyFrom(source, checksOf(checker), sourcesByExplicitId)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The IDs users have given modules may be referred to by filters, so are kept; but we can only tell which
+     * configuration a module came from if no other configuration uses the same ID.
+     */
+    private static boolean hasIdsOnlyFrom(final int source,
+                                          @NotNull final List<Configuration> checks,
+                                          @NotNull final Map<String, Integer> sourcesByExplicitId) {
+        for (final Configuration check : checks) {
+            final String id = OpLoadConfiguration.getAttributeOrNull(check, ID);
+            if (isBlank(id)) {
+                continue;
+            }
+            if (id.startsWith(MODULE_ID_PREFIX)
+                    || sourcesByExplicitId.computeIfAbsent(id, key -> source) != source) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @NotNull
+    private static DefaultConfiguration attributed(@NotNull final Configuration check,
+                                                   final int source,
+                                                   @NotNull final Map<String, Integer> sourcesByModuleId) {
+        final DefaultConfiguration attributedCheck = ParsedConfigurationCache.copyOf(check);
+        String id = OpLoadConfiguration.getAttributeOrNull(check, ID);
+        if (isBlank(id)) {
+            id = MODULE_ID_PREFIX + source;
+            attributedCheck.addAttribute(ID, id);
+        }
+        sourcesByModuleId.put(id, source);
+        return attributedCheck;
+    }
+
+    @NotNull
+    private static DefaultConfiguration withoutChildren(@NotNull final Configuration source) {
+        final DefaultConfiguration target = new DefaultConfiguration(source.getName());
+        for (final String attributeName : attributeNamesOf(source)) {
+            target.addAttribute(attributeName, OpLoadConfiguration.getAttributeOrNull(source, attributeName));
+        }
+        messagesOf(source).forEach(target::addMessage);
+        return target;
+    }
+
+    private static boolean areSameModules(@NotNull final List<Configuration> modules,
+                                          @NotNull final List<Configuration> otherModules) {
+        if (modules.size() != otherModules.size()) {
+            return false;
+        }
+        for (int i = 0; i < modules.size(); ++i) {
+            if (!isSameModule(modules.get(i), otherModules.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSameModule(@NotNull final Configuration module, @NotNull final Configuration other) {
+        return haveSameProperties(module, other) && areSameModules(childrenOf(module), childrenOf(other));
+    }
+
+    private static boolean haveSameProperties(@NotNull final Configuration module,
+                                              @NotNull final Configuration other) {
+        return Objects.equals(module.getName(), other.getName())
+                && attributesOf(module).equals(attributesOf(other))
+                && messagesOf(module).equals(messagesOf(other));
+    }
+
+    @NotNull
+    private static Map<String, String> attributesOf(@NotNull final Configuration module) {
+        final Map<String, String> attributes = new HashMap<>();
+        for (final String attributeName : attributeNamesOf(module)) {
+            attributes.put(attributeName, OpLoadConfiguration.getAttributeOrNull(module, attributeName));
+        }
+        return attributes;
+    }
+
+    @NotNull
+    private static List<String> attributeNamesOf(@NotNull final Configuration module) {
+        final String[] attributeNames = module.getAttributeNames();
+        return attributeNames != null ? Arrays.asList(attributeNames) : Collections.emptyList();
+    }
+
+    @NotNull
+    private static Map<String, String> messagesOf(@NotNull final Configuration module) {
+        final Map<String, String> messages = CheckstyleBridge.messagesFrom(module);
+        return messages != null ? messages : Collections.emptyMap();
+    }
+
+    @NotNull
+    private static List<Configuration> childrenOf(@NotNull final Configuration module) {
+        final Configuration[] children = module.getChildren();
+        return children != null ? Arrays.asList(children) : Collections.emptyList();
+    }
+
+    @NotNull
+    private static List<Configuration> childrenNamed(@NotNull final Configuration module, @NotNull final String name) {
+        final List<Configuration> namedChildren = new ArrayList<>();
+        for (final Configuration child : childrenOf(module)) {
+            if (name.equals(child.getName())) {
+                namedChildren.add(child);
+            }
+        }
+        return namedChildren;
+    }
+
+    @NotNull
+    private static List<Configuration> filtersOf(@NotNull final Configuration module) {
+        final List<Configuration> filters = new ArrayList<>();
+        for (final Configuration child : childrenOf(module)) {
+            if (isFilter(child)) {
+                filters.add(child);
+            }
+        }
+        return filters;
+    }
+
+    @NotNull
+    private static List<Configuration> checksOf(@NotNull final Configuration module) {
+        final List<Configuration> checks = new ArrayList<>();
+        for (final Configuration child : childrenOf(module)) {
+            if (!isFilter(child) && !TREE_WALKER.equals(child.getName())) {
+                checks.add(child);
+            }
+        }
+        return checks;
+    }
+
+    private static boolean isFilter(@NotNull final Configuration module) {
+        return module.getName() != null && module.getName().endsWith(FILTER_SUFFIX);
+    }
+
+    static final class MergedConfiguration {
+        private final DefaultConfiguration configuration;
+        private final Map<String, Integer> sourcesByModuleId;
+
+        private MergedConfiguration(@NotNull final DefaultConfiguration configuration,
+                                    @NotNull final Map<String, Integer> sourcesByModuleId) {
+            this.configuration = configuration;
+            this.sourcesByModuleId = sourcesByModuleId;
+        }
+
+        @NotNull
+        DefaultConfiguration getConfiguration() {
+            return configuration;
+        }
+
+        @NotNull
+        Map<String, Integer> getSourcesByModuleId() {
+            return sourcesByModuleId;
+        }
+    }
+}
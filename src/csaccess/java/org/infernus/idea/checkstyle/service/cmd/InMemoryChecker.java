@@ -0,0 +1,207 @@
+package org.infernus.idea.checkstyle.service.cmd;
+
+import com.puppycrawl.tools.checkstyle.Checker;
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import com.puppycrawl.tools.checkstyle.api.BeforeExecutionFileFilter;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.FileSetCheck;
+import com.puppycrawl.tools.checkstyle.api.FileText;
+import com.puppycrawl.tools.checkstyle.api.Filter;
+import com.puppycrawl.tools.checkstyle.api.LocalizedMessage;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * A Checker which can also audit content held in memory, such as that of an unsaved document, so that no temporary
+ * copy need be written to disk.
+ * <p>
+ * Checkstyle only audits files, so the modules the Checker is configured with are recorded as they're added, and
+ * the in-memory audit follows {@link Checker#process(List)} using only the public API of the modules and the
+ * Checker's dispatch of events. The issue type passed between them differs between Checkstyle versions, but is only
+ * handled as an erased collection here, so this works with each of them.
+ * <p>
+ * Configurations this can't follow faithfully are audited from files as usual: those which filter files before
+ * execution, keep a Checkstyle cache file, or contain modules which read the audited file from disk themselves.
+ */
+public class InMemoryChecker extends Checker {
+
+    /** The simple class names of modules which read the audited file from disk, rather than using its text. */
+    private static final Set<String> DISK_READING_MODULES = Set.of(
+            "NewlineAtEndOfFileCheck",
+            "SuppressWithPlainTextCommentFilter");
+
+    // not initialised here, as the superclass constructor adds a listener before they would be
+    private List<AuditListener> listeners;
+    private List<FileSetCheck> fileSetChecks;
+
+    private String charset = System.getProperty("file.encoding", StandardCharsets.UTF_8.name());
+    private String[] fileExtensions;
+    private boolean filtersBeforeExecution;
+    private boolean usesCacheFile;
+    private boolean readsFilesFromDisk;
+
+    @Override
+    public void addListener(final AuditListener listener) {
+        super.addListener(listener);
+        listeners().add(listener);
+    }
+
+    @Override
+    public void removeListener(final AuditListener listener) {
+        super.removeListener(listener);
+        listeners().remove(listener);
+    }
+
+    @Override
+    public void addFileSetCheck(final FileSetCheck fileSetCheck) {
+        super.addFileSetCheck(fileSetCheck);
+        fileSetChecks().add(fileSetCheck);
+        readsFilesFromDisk |= DISK_READING_MODULES.contains(fileSetCheck.getClass().getSimpleName());
+    }
+
+    @Override
+    public void addFilter(final Filter filter) {
+        super.addFilter(filter);
+        readsFilesFromDisk |= DISK_READING_MODULES.contains(filter.getClass().getSimpleName());
+    }
+
+    @Override
+    public void addBeforeExecutionFileFilter(final BeforeExecutionFileFilter filter) {
+        super.addBeforeExecutionFileFilter(filter);
+        filtersBeforeExecution = true;
+    }
+
+    @Override
+    public void setCharset(final String charset) throws UnsupportedEncodingException {
+        super.setCharset(charset);
+        this.charset = charset;
+    }
+
+    @Override
+    public void setFileExtensions(final String... extensions) {
+        super.setFileExtensions(extensions);
+        this.fileExtensions = extensions;
+    }
+
+    @Override
+    public void setCacheFile(final String fileName) throws IOException {
+        super.setCacheFile(fileName);
+        usesCacheFile = fileName != null;
+    }
+
+    /**
+     * @return true if this Checker's configuration can be audited in memory.
+     */
+    public boolean canProcessInMemory() {
+        return !filtersBeforeExecution && !usesCacheFile && !readsFilesFromDisk;
+    }
+
+    /**
+     * Audit content held in memory, as {@link Checker#process(List)} would audit the same content read from files.
+     *
+     * @param contentByFileName the encoded content to audit, by the name of the file it is reported against. The
+     *                          file need not exist. The content is decoded with the Checker's charset, as it would be
+     *                          when read from the file.
+     * @throws CheckstyleException if the content of a file could not be audited.
+     */
+    public void processInMemory(@NotNull final Map<String, byte[]> contentByFileName) throws CheckstyleException {
+        final List<AuditListener> auditListeners = new ArrayList<>(listeners());
+        final AuditEvent auditEvent = new AuditEvent(this);
+        auditListeners.forEach(listener -> listener.auditStarted(auditEvent));
+        for (final FileSetCheck fileSetCheck : fileSetChecks()) {
+            fileSetCheck.beginProcessing(charset);
+        }
+
+        for (final Map.Entry<String, byte[]> fileContent : contentByFileName.entrySet()) {
+            final String fileName = fileContent.getKey();
+            if (!matchesFileExtension(fileName)) {
+                continue;
+            }
+
+            try {
+                fireFileStarted(fileName);
+                final File file = new File(fileName);
+                final String content = new String(fileContent.getValue(), Charset.forName(charset));
+                final FileText fileText = new FileText(file, linesOf(content));
+                final SortedSet<LocalizedMessage> fileMessages = new TreeSet<>();
+                for (final FileSetCheck fileSetCheck : fileSetChecks()) {
+                    fileMessages.addAll(fileSetCheck.process(file, fileText));
+                }
+                fireErrors(fileName, fileMessages);
+                fireFileFinished(fileName);
+
+            } catch (Exception e) {
+                throw new CheckstyleException("Exception was thrown while processing " + fileName, e);
+            }
+        }
+
+        fileSetChecks().forEach(FileSetCheck::finishProcessing);
+        fileSetChecks().forEach(FileSetCheck::destroy);
+        auditListeners.forEach(listener -> listener.auditFinished(auditEvent));
+    }
+
+    private boolean matchesFileExtension(@NotNull final String fileName) {
+        if (fileExtensions == null || fileExtensions.length == 0) {
+            return true;
+        }
+        final String lowerCaseFileName = fileName.toLowerCase(Locale.ROOT);
+        for (final String extension : fileExtensions) {
+            final String dottedExtension = extension.startsWith(".") ? extension : "." + extension;
+            if (lowerCaseFileName.endsWith(dottedExtension.toLowerCase(Locale.ROOT))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Split content into lines as {@link FileText} does when reading a file: at each line terminator, with a final
+     * line only if the content doesn't end with a terminator.
+     */
+    @NotNull
+    static List<String> linesOf(@NotNull final String content) {
+        final List<String> lines = new ArrayList<>();
+        int lineStart = 0;
+        for (int i = 0; i < content.length(); i++) {
+            final char currentChar = content.charAt(i);
+            if (currentChar == '\n' || currentChar == '\r') {
+                lines.add(content.substring(lineStart, i));
+                if (currentChar == '\r' && i + 1 < content.length() && content.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                lineStart = i + 1;
+            }
+        }
+        if (lineStart < content.length()) {
+            lines.add(content.substring(lineStart));
+        }
+        return lines;
+    }
+
+    private List<AuditListener> listeners() {
+        if (listeners == null) {
+            listeners = new ArrayList<>();
+        }
+        return listeners;
+    }
+
+    private List<FileSetCheck> fileSetChecks() {
+        if (fileSetChecks == null) {
+            fileSetChecks = new ArrayList<>();
+        }
+        return fileSetChecks;
+    }
+}
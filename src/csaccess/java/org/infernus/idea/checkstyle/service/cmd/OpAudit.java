@@ -0,0 +1,94 @@
+package org.infernus.idea.checkstyle.service.cmd;
+
+import com.intellij.openapi.project.Project;
+import com.puppycrawl.tools.checkstyle.Checker;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import org.infernus.idea.checkstyle.checker.ScannableFile;
+import org.infernus.idea.checkstyle.csapi.CheckstyleInternalObject;
+import org.infernus.idea.checkstyle.csapi.Issue;
+import org.infernus.idea.checkstyle.exception.CheckstyleVersionMixException;
+import org.infernus.idea.checkstyle.service.CheckStyleAuditListener;
+import org.infernus.idea.checkstyle.service.entities.CheckerWithConfig;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Run Checkstyle over a list of files, returning the raw issues. Unlike {@link OpScan}, no PSI access is required.
+ */
+public class OpAudit implements CheckstyleCommand<List<Issue>> {
+
+    private final CheckerWithConfig checkerWithConfig;
+    private final List<ScannableFile> scannableFiles;
+
+    public OpAudit(@NotNull final CheckstyleInternalObject checkerWithConfig,
+                   @NotNull final List<ScannableFile> scannableFiles) {
+        if (!(checkerWithConfig instanceof CheckerWithConfig)) {
+            throw new CheckstyleVersionMixException(CheckerWithConfig.class, checkerWithConfig);
+        }
+        this.checkerWithConfig = (CheckerWithConfig) checkerWithConfig;
+        this.scannableFiles = scannableFiles;
+    }
+
+    @NotNull
+    @Override
+    public List<Issue> execute(@NotNull final Project project) throws CheckstyleException {
+        if (scannableFiles.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return processAndAudit(checkerWithConfig, scannableFiles, new CheckStyleAuditListener(
+                Collections.emptyMap(), false, 0, Optional.empty(), Collections.emptyList())).getIssues();
+    }
+
+    static <L extends AuditListener> L processAndAudit(@NotNull final CheckerWithConfig checkerWithConfig,
+                                                       @NotNull final List<ScannableFile> scannableFiles,
+                                                       @NotNull final L auditListener)
+            throws CheckstyleException {
+        final Checker checker = checkerWithConfig.getChecker();
+        checkerWithConfig.getCheckerLock().lock();
+        checker.addListener(auditListener);
+        try {
+            final Map<String, byte[]> unwrittenContent = unwrittenContentOf(scannableFiles);
+            if (unwrittenContent != null && checker instanceof InMemoryChecker
+                    && ((InMemoryChecker) checker).canProcessInMemory()) {
+                ((InMemoryChecker) checker).processInMemory(unwrittenContent);
+            } else {
+                checker.process(scannableFiles.stream()
+                        .map(ScannableFile::getFile)
+                        .filter(Objects::nonNull)
+                        .collect(toList()));
+            }
+        } finally {
+            checker.removeListener(auditListener);
+            checkerWithConfig.getCheckerLock().unlock();
+        }
+        return auditListener;
+    }
+
+    /**
+     * @return the content of the files by the name they're audited under, if every file is an unwritten temporary
+     * copy, such as those of edited documents which are audited as they're edited; otherwise null, as the files must
+     * be audited from disk.
+     */
+    @Nullable
+    private static Map<String, byte[]> unwrittenContentOf(@NotNull final List<ScannableFile> scannableFiles) {
+        final Map<String, byte[]> contentByFileName = new LinkedHashMap<>();
+        for (final ScannableFile scannableFile : scannableFiles) {
+            final byte[] content = scannableFile.getUnwrittenContent();
+            if (content == null) {
+                return null;
+            }
+            contentByFileName.put(scannableFile.getAbsolutePath(), content);
+        }
+        return contentByFileName;
+    }
+}
@@ -0,0 +1,46 @@
+package org.infernus.idea.checkstyle.service.cmd;
+
+import com.intellij.openapi.project.Project;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import org.infernus.idea.checkstyle.checker.ScannableFile;
+import org.infernus.idea.checkstyle.csapi.CheckstyleInternalObject;
+import org.infernus.idea.checkstyle.csapi.Issue;
+import org.infernus.idea.checkstyle.exception.CheckstyleVersionMixException;
+import org.infernus.idea.checkstyle.service.entities.MergedCheckerWithConfig;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Run a merged checker over a list of files, returning the raw issues of each checker it was composed from.
+ */
+public class OpAuditMerged implements CheckstyleCommand<List<List<Issue>>> {
+
+    private final MergedCheckerWithConfig mergedChecker;
+    private final List<ScannableFile> scannableFiles;
+
+    public OpAuditMerged(@NotNull final CheckstyleInternalObject mergedChecker,
+                         @NotNull final List<ScannableFile> scannableFiles) {
+        if (!(mergedChecker instanceof MergedCheckerWithConfig)) {
+            throw new CheckstyleVersionMixException(MergedCheckerWithConfig.class, mergedChecker);
+        }
+        this.mergedChecker = (MergedCheckerWithConfig) mergedChecker;
+        this.scannableFiles = scannableFiles;
+    }
+
+    @NotNull
+    @Override
+    public List<List<Issue>> execute(@NotNull final Project project) throws CheckstyleException {
+        if (scannableFiles.isEmpty()) {
+            final List<List<Issue>> noIssues = new ArrayList<>();
+            for (int source = 0; source < mergedChecker.getSourceCount(); ++source) {
+                noIssues.add(Collections.emptyList());
+            }
+            return noIssues;
+        }
+        return OpAudit.processAndAudit(mergedChecker, scannableFiles, new AttributingAuditListener(mergedChecker))
+                .getIssues();
+    }
+}
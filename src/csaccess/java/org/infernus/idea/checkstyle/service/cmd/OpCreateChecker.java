@@ -7,17 +7,21 @@ import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
 import com.puppycrawl.tools.checkstyle.api.Configuration;
 import org.infernus.idea.checkstyle.CheckstyleProjectService;
 import org.infernus.idea.checkstyle.checker.CheckStyleChecker;
+import org.infernus.idea.checkstyle.checks.Check;
+import org.infernus.idea.checkstyle.checks.CheckFactory;
 import org.infernus.idea.checkstyle.csapi.TabWidthAndBaseDirProvider;
 import org.infernus.idea.checkstyle.exception.CheckstyleServiceException;
 import org.infernus.idea.checkstyle.exception.CheckstyleToolException;
 import org.infernus.idea.checkstyle.model.ConfigurationLocation;
 import org.infernus.idea.checkstyle.service.Configurations;
 import org.infernus.idea.checkstyle.service.entities.CheckerWithConfig;
+import org.infernus.idea.checkstyle.service.entities.CsConfigObject;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -52,9 +56,23 @@ public class OpCreateChecker
     public CheckStyleChecker execute(@NotNull final Project project) throws CheckstyleException {
 
         final Configuration csConfig = loadConfig(project);
+        final Checker checker = configuredChecker(csConfig, loaderOfCheckedCode);
 
-        final Checker checker = new Checker();
-        checker.setModuleClassLoader(getClass().getClassLoader());   // for Checkstyle to load modules (checks)
+        final List<Check> checks = CheckFactory.getChecks(checkstyleProjectService, new CsConfigObject(csConfig));
+        CheckerWithConfig cwc = new CheckerWithConfig(checker, csConfig, checks);
+        final TabWidthAndBaseDirProvider configs = configurations != null
+                ? configurations
+                : new Configurations(module, csConfig);
+        return new CheckStyleChecker(cwc, configs.tabWidth(), configs.baseDir(),
+                checkstyleProjectService.getCheckstyleInstance(), location.getNamedScope(), checks,
+                OpLoadConfiguration.associatedFilesOf(csConfig));
+    }
+
+    @NotNull
+    static Checker configuredChecker(@NotNull final Configuration csConfig,
+                                     @NotNull final ClassLoader loaderOfCheckedCode) throws CheckstyleException {
+        final Checker checker = new InMemoryChecker();
+        checker.setModuleClassLoader(OpCreateChecker.class.getClassLoader());   // for Checkstyle to load modules (checks)
         setClassLoader(checker, loaderOfCheckedCode); // for checks to load the classes and resources to be analyzed
 
         try {
@@ -63,16 +81,10 @@ public class OpCreateChecker
             // e.g. java.lang.NoClassDefFoundError thrown by Checkstyle for pre-8.0 custom checks
             throw new CheckstyleToolException(e);
         }
-
-        CheckerWithConfig cwc = new CheckerWithConfig(checker, csConfig);
-        final TabWidthAndBaseDirProvider configs = configurations != null
-                ? configurations
-                : new Configurations(module, csConfig);
-        return new CheckStyleChecker(cwc, configs.tabWidth(), configs.baseDir(),
-                checkstyleProjectService.getCheckstyleInstance(), location.getNamedScope());
+        return checker;
     }
 
-    private void setClassLoader(final Checker checker, final ClassLoader classLoader) {
+    private static void setClassLoader(final Checker checker, final ClassLoader classLoader) {
         try {
             Method classLoaderMethod = null;
             try {
@@ -21,15 +21,22 @@ import org.infernus.idea.checkstyle.service.SimpleResolver;
 import org.infernus.idea.checkstyle.service.entities.CsConfigObject;
 import org.infernus.idea.checkstyle.service.entities.HasCsConfig;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.xml.sax.InputSource;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 import static java.lang.String.format;
 import static org.infernus.idea.checkstyle.CheckStyleBundle.message;
@@ -40,6 +47,10 @@ import static org.infernus.idea.checkstyle.util.Strings.isBlank;
 
 /**
  * Load a Checkstyle configuration file.
+ * <p>
+ * Parsed configurations are cached by the content of the rules and the values of the properties they resolve, as
+ * many modules and checkers will load the same rules. The properties used by the rules are found by the same parse,
+ * and reported to the rules' container.
  */
 public class OpLoadConfiguration
         implements CheckstyleCommand<HasCsConfig> {
@@ -49,6 +60,9 @@ public class OpLoadConfiguration
     private static final String TREE_WALKER_ELEMENT = "TreeWalker";
     private static final Map<String, String> FILENAME_REPLACEMENTS = buildReplacementsMap();
 
+    private static final ParsedConfigurationCache PARSED_CONFIGURATIONS =
+            new ParsedConfigurationCache(ParsedConfigurationCache.DEFAULT_MAX_ENTRIES);
+
     @FunctionalInterface
     private interface ConfigurationLoaderWrapper {
         Configuration loadConfiguration(InputStream inputStream)
@@ -61,7 +75,7 @@ public class OpLoadConfiguration
             this::loadConfigurationForCheckstyle825AndAbove);
 
     private final RulesContainer rulesContainer;
-    private final PropertyResolver resolver;
+    private final RecordingResolver resolver;
     private final Module module;
     private final CheckstyleProjectService checkstyleProjectService;
 
@@ -109,9 +123,9 @@ public class OpLoadConfiguration
         this.checkstyleProjectService = checkstyleProjectService;
 
         if (properties != null) {
-            resolver = new SimpleResolver(properties);
+            resolver = new RecordingResolver(new SimpleResolver(properties));
         } else {
-            resolver = new IgnoringResolver();
+            resolver = new RecordingResolver(new IgnoringResolver());
         }
     }
 
@@ -132,7 +146,8 @@ public class OpLoadConfiguration
     @Override
     public HasCsConfig execute(@NotNull final Project currentProject) throws CheckstyleException {
         try (InputStream is = rulesContainer.inputStream(checkstyleClassLoader())) {
-            Configuration configuration = callLoadConfiguration(is);
+            final byte[] rules = is != null ? is.readAllBytes() : new byte[0];
+            Configuration configuration = loadConfiguration(rules);
             if (configuration == null) {
                 // from the CS code this state appears to occur when there's no <module> element found
                 // in the input stream
@@ -146,6 +161,27 @@ public class OpLoadConfiguration
         }
     }
 
+    @Nullable
+    private Configuration loadConfiguration(@NotNull final byte[] rules) {
+        final String contentHash = ParsedConfigurationCache.contentHashOf(rules);
+        final Optional<ParsedConfigurationCache.ParsedConfiguration> cachedConfiguration =
+                PARSED_CONFIGURATIONS.get(contentHash, resolver.delegate);
+        if (cachedConfiguration.isPresent()) {
+            rulesContainer.propertiesFound(cachedConfiguration.get().getPropertyNames());
+            return cachedConfiguration.get().getConfiguration();
+        }
+
+        final Configuration configuration = callLoadConfiguration(new ByteArrayInputStream(rules));
+        if (configuration != null) {
+            rulesContainer.propertiesFound(resolver.getPropertyNames());
+        }
+        if (configuration instanceof DefaultConfiguration) {
+            PARSED_CONFIGURATIONS.put(contentHash, (DefaultConfiguration) configuration,
+                    resolver.getResolvedProperties());
+        }
+        return configuration;
+    }
+
     Configuration callLoadConfiguration(final InputStream inputStream) {
         for (ConfigurationLoaderWrapper loaderFunction : loaderFunctions) {
             try {
@@ -203,6 +239,34 @@ public class OpLoadConfiguration
     }
 
 
+    /**
+     * Find the local files a configuration refers to, once their paths have been resolved.
+     *
+     * @param rootElement the resolved configuration.
+     * @return the absolute paths of the files referred to which exist on the local filesystem.
+     */
+    @NotNull
+    static Set<String> associatedFilesOf(@NotNull final Configuration rootElement) {
+        final Set<String> associatedFiles = new HashSet<>();
+        addAssociatedFiles(rootElement, associatedFiles);
+        return associatedFiles;
+    }
+
+    private static void addAssociatedFiles(@NotNull final Configuration rootElement,
+                                           @NotNull final Set<String> associatedFiles) {
+        for (final Configuration currentChild : rootElement.getChildren()) {
+            if (FILENAME_REPLACEMENTS.containsKey(currentChild.getName())) {
+                final String fileName = getAttributeOrNull(currentChild,
+                        FILENAME_REPLACEMENTS.get(currentChild.getName()));
+                if (!isBlank(fileName) && new File(fileName).isFile()) {
+                    associatedFiles.add(new File(fileName).getAbsolutePath());
+                }
+            } else if (TREE_WALKER_ELEMENT.equals(currentChild.getName())) {
+                addAssociatedFiles(currentChild, associatedFiles);
+            }
+        }
+    }
+
     private void checkFilenameForProperty(final Project project,
                                           final DefaultConfiguration configRoot,
                                           final Configuration configModule,
@@ -242,7 +306,7 @@ public class OpLoadConfiguration
         return !"true".equalsIgnoreCase(getAttributeOrNull(configModule, "optional"));
     }
 
-    private String getAttributeOrNull(final Configuration element, final String attributeName) {
+    static String getAttributeOrNull(final Configuration element, final String attributeName) {
         try {
             return element.getAttribute(attributeName);
         } catch (CheckstyleException e) {
@@ -298,4 +362,37 @@ public class OpLoadConfiguration
             }
         }
     }
+
+
+    /**
+     * Records the properties requested while parsing, these being the properties the rules use, and the values they
+     * resolved to.
+     */
+    private static final class RecordingResolver implements PropertyResolver {
+        private final PropertyResolver delegate;
+        private final Map<String, String> resolvedProperties = new LinkedHashMap<>();
+
+        RecordingResolver(@NotNull final PropertyResolver delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String resolve(final String name) {
+            final String value = delegate.resolve(name);
+            if (name != null) {
+                resolvedProperties.put(name, value);
+            }
+            return value;
+        }
+
+        @NotNull
+        Set<String> getPropertyNames() {
+            return resolvedProperties.keySet();
+        }
+
+        @NotNull
+        Map<String, String> getResolvedProperties() {
+            return resolvedProperties;
+        }
+    }
 }
@@ -0,0 +1,65 @@
+package org.infernus.idea.checkstyle.service.cmd;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.puppycrawl.tools.checkstyle.Checker;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import org.infernus.idea.checkstyle.csapi.CheckstyleInternalObject;
+import org.infernus.idea.checkstyle.exception.CheckstyleToolException;
+import org.infernus.idea.checkstyle.exception.CheckstyleVersionMixException;
+import org.infernus.idea.checkstyle.service.entities.CheckerWithConfig;
+import org.infernus.idea.checkstyle.service.entities.MergedCheckerWithConfig;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Command which composes the configurations of several checkers into a single checker, if they are compatible.
+ *
+ * @see ConfigurationMerger
+ */
+public class OpMergeCheckers implements CheckstyleCommand<CheckstyleInternalObject> {
+
+    private static final Logger LOG = Logger.getInstance(OpMergeCheckers.class);
+
+    private final List<Configuration> configurations = new ArrayList<>();
+    private final ClassLoader loaderOfCheckedCode;
+
+    public OpMergeCheckers(@NotNull final List<CheckstyleInternalObject> checkersWithConfig,
+                           @NotNull final ClassLoader loaderOfCheckedCode) {
+        for (final CheckstyleInternalObject checkerWithConfig : checkersWithConfig) {
+            if (!(checkerWithConfig instanceof CheckerWithConfig)) {
+                throw new CheckstyleVersionMixException(CheckerWithConfig.class, checkerWithConfig);
+            }
+            configurations.add(((CheckerWithConfig) checkerWithConfig).getConfiguration());
+        }
+        this.loaderOfCheckedCode = loaderOfCheckedCode;
+    }
+
+    @Nullable
+    @Override
+    public CheckstyleInternalObject execute(@NotNull final Project project) {
+        final Optional<ConfigurationMerger.MergedConfiguration> mergedConfiguration =
+                ConfigurationMerger.merge(configurations);
+        if (mergedConfiguration.isEmpty()) {
+            LOG.debug("Configurations are not compatible, and will not be merged");
+            return null;
+        }
+
+        try {
+            final Checker checker = OpCreateChecker.configuredChecker(
+                    mergedConfiguration.get().getConfiguration(), loaderOfCheckedCode);
+            return new MergedCheckerWithConfig(checker, mergedConfiguration.get().getConfiguration(),
+                    mergedConfiguration.get().getSourcesByModuleId(), configurations.size());
+
+        } catch (CheckstyleException | CheckstyleToolException e) {
+            // e.g. a custom module which doesn't accept an ID; the configurations can still be used separately
+            LOG.debug("Merged configuration could not be loaded, and will not be used", e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package org.infernus.idea.checkstyle.service.cmd;
+
+import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+import com.puppycrawl.tools.checkstyle.PropertyResolver;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import org.jetbrains.annotations.NotNull;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * The configurations parsed from rules, by the content of the rules and the values of the properties they resolved,
+ * so that modules and checkers sharing rules need not each parse them. Properties the rules don't use, such as the
+ * base directory of a module, don't affect which configuration is found. This class is loaded by the Checkstyle
+ * class loader, so a cache is specific to one Checkstyle version, and is discarded with it.
+ * <p>
+ * Only the content of the rules themselves is considered: a change to a file they include as an XML entity is not
+ * seen until the rules change, or Checkstyle is reloaded.
+ */
+final class ParsedConfigurationCache {
+
+    static final int DEFAULT_MAX_ENTRIES = 32;
+
+    private final Map<Key, ParsedConfiguration> parsedConfigurations;
+
+    ParsedConfigurationCache(final int maxEntries) {
+        this.parsedConfigurations = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Key, ParsedConfiguration> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @NotNull
+    static String contentHashOf(@NotNull final byte[] rules) {
+        try {
+            return Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(rules));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by this JVM", e);
+        }
+    }
+
+    /**
+     * @param contentHash the hash of the content of the rules.
+     * @param resolver    the resolver the rules would be parsed with.
+     * @return the configuration parsed from the rules, if known with each property they use resolving to the same
+     *         value; the configuration is a copy, which the caller may modify.
+     */
+    @NotNull
+    Optional<ParsedConfiguration> get(@NotNull final String contentHash,
+                                      @NotNull final PropertyResolver resolver) {
+        final ParsedConfiguration parsedConfiguration;
+        synchronized (parsedConfigurations) {
+            Key matchingKey = null;
+            for (final Key key : parsedConfigurations.keySet()) {
+                if (key.matches(contentHash, resolver)) {
+                    matchingKey = key;
+                    break;
+                }
+            }
+            if (matchingKey == null) {
+                return Optional.empty();
+            }
+            parsedConfiguration = parsedConfigurations.get(matchingKey);
+        }
+        return Optional.of(new ParsedConfiguration(
+                copyOf(parsedConfiguration.configuration), parsedConfiguration.propertyNames));
+    }
+
+    /**
+     * @param contentHash        the hash of the content of the rules.
+     * @param configuration      the configuration parsed from them, which is copied, so the caller may go on to
+     *                           modify it.
+     * @param resolvedProperties the properties the rules use, and the values they resolved to.
+     */
+    void put(@NotNull final String contentHash,
+             @NotNull final DefaultConfiguration configuration,
+             @NotNull final Map<String, String> resolvedProperties) {
+        final Key key = new Key(contentHash, Collections.unmodifiableMap(new LinkedHashMap<>(resolvedProperties)));
+        final ParsedConfiguration parsedConfiguration = new ParsedConfiguration(
+                copyOf(configuration), key.resolvedProperties.keySet());
+        synchronized (parsedConfigurations) {
+            parsedConfigurations.put(key, parsedConfiguration);
+        }
+    }
+
+    int size() {
+        synchronized (parsedConfigurations) {
+            return parsedConfigurations.size();
+        }
+    }
+
+    @NotNull
+    static DefaultConfiguration copyOf(@NotNull final Configuration source) {
+        final DefaultConfiguration target = new DefaultConfiguration(source.getName());
+
+        if (source.getAttributeNames() != null) {
+            for (final String attributeName : source.getAttributeNames()) {
+                target.addAttribute(attributeName, OpLoadConfiguration.getAttributeOrNull(source, attributeName));
+            }
+        }
+
+        final Map<String, String> messages = CheckstyleBridge.messagesFrom(source);
+        if (messages != null) {
+            messages.forEach(target::addMessage);
+        }
+
+        if (source.getChildren() != null) {
+            for (final Configuration child : source.getChildren()) {
+                target.addChild(copyOf(child));
+            }
+        }
+        return target;
+    }
+
+    static final class ParsedConfiguration {
+        private final DefaultConfiguration configuration;
+        private final Set<String> propertyNames;
+
+        private ParsedConfiguration(@NotNull final DefaultConfiguration configuration,
+                                    @NotNull final Set<String> propertyNames) {
+            this.configuration = configuration;
+            this.propertyNames = propertyNames;
+        }
+
+        @NotNull
+        DefaultConfiguration getConfiguration() {
+            return configuration;
+        }
+
+        @NotNull
+        Set<String> getPropertyNames() {
+            return propertyNames;
+        }
+    }
+
+    static final class Key {
+        private final String contentHash;
+        private final Map<String, String> resolvedProperties;
+
+        private Key(@NotNull final String contentHash, @NotNull final Map<String, String> resolvedProperties) {
+            this.contentHash = contentHash;
+            this.resolvedProperties = resolvedProperties;
+        }
+
+        private boolean matches(@NotNull final String otherContentHash, @NotNull final PropertyResolver resolver) {
+            if (!contentHash.equals(otherContentHash)) {
+                return false;
+            }
+            for (final Map.Entry<String, String> resolvedProperty : resolvedProperties.entrySet()) {
+                if (!Objects.equals(resolvedProperty.getValue(), resolver.resolve(resolvedProperty.getKey()))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (other == null || getClass() != other.getClass()) {
+                return false;
+            }
+            final Key key = (Key) other;
+            return contentHash.equals(key.contentHash)
+                    && resolvedProperties.equals(key.resolvedProperties);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(contentHash, resolvedProperties);
+        }
+    }
+}
@@ -2,7 +2,10 @@ package org.infernus.idea.checkstyle.service.entities;
 
 import com.puppycrawl.tools.checkstyle.Checker;
 import com.puppycrawl.tools.checkstyle.api.Configuration;
+import org.infernus.idea.checkstyle.checks.Check;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -12,10 +15,16 @@ public class CheckerWithConfig implements HasChecker, HasCsConfig {
     private final Checker checker;
     private final Lock lock = new ReentrantLock();
     private final Configuration configuration;
+    private final List<Check> checks;
 
     public CheckerWithConfig(final Checker checker, final Configuration configuration) {
+        this(checker, configuration, Collections.emptyList());
+    }
+
+    public CheckerWithConfig(final Checker checker, final Configuration configuration, final List<Check> checks) {
         this.checker = checker;
         this.configuration = configuration;
+        this.checks = checks;
     }
 
     @Override
@@ -31,4 +40,11 @@ public class CheckerWithConfig implements HasChecker, HasCsConfig {
     public Configuration getConfiguration() {
         return configuration;
     }
+
+    /**
+     * @return the plugin's additional checks, configured once for this checker.
+     */
+    public List<Check> getChecks() {
+        return checks;
+    }
 }
@@ -0,0 +1,46 @@
+package org.infernus.idea.checkstyle.service.entities;
+
+import com.puppycrawl.tools.checkstyle.Checker;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+
+
+/**
+ * A checker whose configuration was composed from those of several checkers. The events raised by its checks are
+ * attributed to the checker they came from by their module ID.
+ */
+public class MergedCheckerWithConfig extends CheckerWithConfig {
+
+    private final Map<String, Integer> sourcesByModuleId;
+    private final int sourceCount;
+
+    public MergedCheckerWithConfig(@NotNull final Checker checker,
+                                   @NotNull final Configuration configuration,
+                                   @NotNull final Map<String, Integer> sourcesByModuleId,
+                                   final int sourceCount) {
+        super(checker, configuration);
+        this.sourcesByModuleId = Map.copyOf(sourcesByModuleId);
+        this.sourceCount = sourceCount;
+    }
+
+    /**
+     * @return the number of checkers this checker was composed from.
+     */
+    public int getSourceCount() {
+        return sourceCount;
+    }
+
+    /**
+     * @param moduleId the ID of the module which raised an event.
+     * @return the index of the checker the module came from, or -1 if the event cannot be attributed to one.
+     */
+    public int sourceOf(@Nullable final String moduleId) {
+        if (moduleId == null) {
+            return -1;
+        }
+        return sourcesByModuleId.getOrDefault(moduleId, -1);
+    }
+}
@@ -11,6 +11,8 @@ import java.util.Collections;
 import java.util.Optional;
 
 import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
 
 
 public class CheckStyleAuditListenerTest {
@@ -42,6 +44,32 @@ public class CheckStyleAuditListenerTest {
         underTest.addError(new AuditEvent("source", "filename.java"));  // quite unlikely to happen in real life
     }
 
+    @Test
+    public void issuesAreKeptAsEachFileIsFinished() {
+        final CheckStyleAuditListener underTest = new CheckStyleAuditListener(Collections.emptyMap(), false, 2,
+                Optional.empty(), Collections.emptyList());
+        underTest.auditStarted(null);
+        underTest.fileStarted(new AuditEvent("source", "filename.java"));
+        underTest.addError(createDummyEvent(SeverityLevel.WARNING));
+        underTest.addError(createDummyEvent(SeverityLevel.ERROR));
+        underTest.fileFinished(new AuditEvent("source", "filename.java"));
+        underTest.auditFinished(null);
+
+        assertThat(underTest.getIssues(), hasSize(2));
+    }
+
+    @Test
+    public void issuesOfAnUnfinishedFileAreKeptWhenTheAuditFinishes() {
+        final CheckStyleAuditListener underTest = new CheckStyleAuditListener(Collections.emptyMap(), false, 2,
+                Optional.empty(), Collections.emptyList());
+        underTest.auditStarted(null);
+        underTest.addException(createDummyEvent(SeverityLevel.ERROR),
+                new IllegalArgumentException("Exception for unit testing only - not a real exception"));
+        underTest.auditFinished(null);
+
+        assertThat(underTest.getIssues(), hasSize(1));
+    }
+
     private AuditEvent createDummyEvent(@Nullable final SeverityLevel severityLevel) {
         try {
             return (AuditEvent) auditEvent().newInstance("source", "filename.java", createMessage(severityLevel));
@@ -0,0 +1,128 @@
+package org.infernus.idea.checkstyle.service.cmd;
+
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.infernus.idea.checkstyle.service.ConfigurationBuilder.checker;
+import static org.infernus.idea.checkstyle.service.ConfigurationBuilder.config;
+
+public class ConfigurationMergerTest {
+
+    @Test
+    public void theChecksOfCompatibleConfigurationsShareASingleTreeWalker() {
+        final ConfigurationMerger.MergedConfiguration merged = ConfigurationMerger.merge(List.of(
+                checker().withChild(config("TreeWalker").withChild(config("LineLength"))).build(),
+                checker().withChild(config("TreeWalker").withChild(config("MagicNumber"))).build())).orElseThrow();
+
+        final List<Configuration> treeWalkers = childrenNamed(merged.getConfiguration(), "TreeWalker");
+        assertThat(treeWalkers, hasSize(1));
+        assertThat(namesOf(treeWalkers.get(0).getChildren()), contains("LineLength", "MagicNumber"));
+    }
+
+    @Test
+    public void checksAreGivenAnIdIdentifyingTheirConfiguration() {
+        final ConfigurationMerger.MergedConfiguration merged = ConfigurationMerger.merge(List.of(
+                checker().withChild(config("FileLength"))
+                        .withChild(config("TreeWalker").withChild(config("LineLength"))).build(),
+                checker().withChild(config("TreeWalker").withChild(config("MagicNumber"))).build())).orElseThrow();
+
+        final Configuration treeWalker = childrenNamed(merged.getConfiguration(), "TreeWalker").get(0);
+        final String lineLengthId = idOf(treeWalker.getChildren()[0]);
+        final String magicNumberId = idOf(treeWalker.getChildren()[1]);
+        final String fileLengthId = idOf(childrenNamed(merged.getConfiguration(), "FileLength").get(0));
+
+        assertThat(merged.getSourcesByModuleId().get(lineLengthId), is(0));
+        assertThat(merged.getSourcesByModuleId().get(fileLengthId), is(0));
+        assertThat(merged.getSourcesByModuleId().get(magicNumberId), is(1));
+    }
+
+    @Test
+    public void idsGivenByTheRulesAreKept() {
+        final ConfigurationMerger.MergedConfiguration merged = ConfigurationMerger.merge(List.of(
+                checker().withChild(config("TreeWalker")
+                        .withChild(config("LineLength").withAttribute("id", "lineLength"))).build(),
+                checker().withChild(config("TreeWalker").withChild(config("MagicNumber"))).build())).orElseThrow();
+
+        final Configuration treeWalker = childrenNamed(merged.getConfiguration(), "TreeWalker").get(0);
+        assertThat(idOf(treeWalker.getChildren()[0]), is("lineLength"));
+        assertThat(merged.getSourcesByModuleId().get("lineLength"), is(0));
+    }
+
+    @Test
+    public void identicalFiltersAreAppliedOnce() {
+        final ConfigurationMerger.MergedConfiguration merged = ConfigurationMerger.merge(List.of(
+                checker().withChild(config("SuppressionFilter").withAttribute("file", "suppressions.xml"))
+                        .withChild(config("TreeWalker").withChild(config("LineLength"))).build(),
+                checker().withChild(config("SuppressionFilter").withAttribute("file", "suppressions.xml"))
+                        .withChild(config("TreeWalker").withChild(config("MagicNumber"))).build())).orElseThrow();
+
+        assertThat(childrenNamed(merged.getConfiguration(), "SuppressionFilter"), hasSize(1));
+    }
+
+    @Test
+    public void configurationsWithDifferentFiltersAreNotMerged() {
+        assertThat(ConfigurationMerger.merge(List.of(
+                checker().withChild(config("SuppressionFilter").withAttribute("file", "suppressions.xml"))
+                        .withChild(config("TreeWalker").withChild(config("LineLength"))).build(),
+                checker().withChild(config("TreeWalker").withChild(config("MagicNumber"))).build())).isPresent(),
+                is(false));
+    }
+
+    @Test
+    public void configurationsWithDifferentTreeWalkerPropertiesAreNotMerged() {
+        assertThat(ConfigurationMerger.merge(List.of(
+                checker().withChild(config("TreeWalker").withAttribute("tabWidth", "4")
+                        .withChild(config("LineLength"))).build(),
+                checker().withChild(config("TreeWalker").withAttribute("tabWidth", "8")
+                        .withChild(config("MagicNumber"))).build())).isPresent(),
+                is(false));
+    }
+
+    @Test
+    public void configurationsWithDifferentCheckerPropertiesAreNotMerged() {
+        assertThat(ConfigurationMerger.merge(List.of(
+                checker().withAttribute("severity", "error")
+                        .withChild(config("TreeWalker").withChild(config("LineLength"))).build(),
+                checker().withChild(config("TreeWalker").withChild(config("MagicNumber"))).build())).isPresent(),
+                is(false));
+    }
+
+    @Test
+    public void configurationsSharingAnIdAreNotMerged() {
+        assertThat(ConfigurationMerger.merge(List.of(
+                checker().withChild(config("TreeWalker")
+                        .withChild(config("LineLength").withAttribute("id", "aCheck"))).build(),
+                checker().withChild(config("TreeWalker")
+                        .withChild(config("MagicNumber").withAttribute("id", "aCheck"))).build())).isPresent(),
+                is(false));
+    }
+
+    @Test
+    public void aSingleConfigurationIsNotMerged() {
+        assertThat(ConfigurationMerger.merge(List.of(
+                checker().withChild(config("TreeWalker").withChild(config("LineLength"))).build())).isPresent(),
+                is(false));
+    }
+
+    private static List<Configuration> childrenNamed(final Configuration configuration, final String name) {
+        return Arrays.stream(configuration.getChildren())
+                .filter(child -> name.equals(child.getName()))
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> namesOf(final Configuration[] configurations) {
+        return Arrays.stream(configurations)
+                .map(Configuration::getName)
+                .collect(Collectors.toList());
+    }
+
+    private static String idOf(final Configuration configuration) {
+        return OpLoadConfiguration.getAttributeOrNull(configuration, "id");
+    }
+}
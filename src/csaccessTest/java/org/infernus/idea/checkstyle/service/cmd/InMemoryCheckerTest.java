@@ -0,0 +1,143 @@
+package org.infernus.idea.checkstyle.service.cmd;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import org.infernus.idea.checkstyle.service.ConfigurationBuilder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Collections.singletonList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.infernus.idea.checkstyle.service.ConfigurationBuilder.checker;
+import static org.infernus.idea.checkstyle.service.ConfigurationBuilder.config;
+
+public class InMemoryCheckerTest {
+
+    private static final String CONTENT = "class Example {\r\n    // TODO\n\n    // TODO\r}";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void contentIsAuditedWithoutTheFileExisting() throws CheckstyleException {
+        final File file = new File(temporaryFolder.getRoot(), "Example.java");
+        final RecordingListener listener = new RecordingListener();
+
+        final InMemoryChecker checker = checkerFor(config("RegexpSingleline").withAttribute("format", "TODO"));
+        checker.addListener(listener);
+        checker.processInMemory(Map.of(file.getAbsolutePath(), CONTENT.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(file.exists(), is(false));
+        assertThat(listener.errors, contains(file.getAbsolutePath() + ":2", file.getAbsolutePath() + ":4"));
+    }
+
+    @Test
+    public void contentIsAuditedAsItWouldBeFromAFile() throws Exception {
+        final File file = temporaryFolder.newFile("Example.java");
+        Files.write(file.toPath(), CONTENT.getBytes(StandardCharsets.UTF_8));
+        final ConfigurationBuilder rules = config("RegexpSingleline").withAttribute("format", "TODO");
+
+        final RecordingListener inMemoryListener = new RecordingListener();
+        final InMemoryChecker inMemoryChecker = checkerFor(rules);
+        inMemoryChecker.addListener(inMemoryListener);
+        inMemoryChecker.processInMemory(Map.of(file.getAbsolutePath(), Files.readAllBytes(file.toPath())));
+
+        final RecordingListener fileListener = new RecordingListener();
+        final InMemoryChecker fileChecker = checkerFor(rules);
+        fileChecker.addListener(fileListener);
+        fileChecker.process(singletonList(file));
+
+        assertThat(inMemoryListener.errors, is(equalTo(fileListener.errors)));
+        assertThat(inMemoryListener.auditsFinished, is(1));
+    }
+
+    @Test
+    public void contentWithoutAMatchingExtensionIsNotAudited() throws CheckstyleException {
+        final RecordingListener listener = new RecordingListener();
+
+        final InMemoryChecker checker = checkerFor(config("RegexpSingleline").withAttribute("format", "TODO"));
+        checker.setFileExtensions("java");
+        checker.addListener(listener);
+        checker.processInMemory(Map.of("Example.txt", CONTENT.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(listener.errors, is(empty()));
+    }
+
+    @Test
+    public void aConfigurationWithoutModulesReadingFromDiskCanBeProcessedInMemory() throws CheckstyleException {
+        assertThat(checkerFor(config("RegexpSingleline").withAttribute("format", "TODO")).canProcessInMemory(),
+                is(true));
+    }
+
+    @Test
+    public void aConfigurationWithAModuleReadingFromDiskCannotBeProcessedInMemory() throws CheckstyleException {
+        assertThat(checkerFor(config("NewlineAtEndOfFile")).canProcessInMemory(), is(false));
+    }
+
+    @Test
+    public void linesAreSplitAtEachKindOfLineTerminator() {
+        assertThat(InMemoryChecker.linesOf("a\r\nb\rc\n\nd"), contains("a", "b", "c", "", "d"));
+    }
+
+    @Test
+    public void aFinalLineTerminatorDoesNotStartAnotherLine() {
+        assertThat(InMemoryChecker.linesOf("a\nb\n"), contains("a", "b"));
+    }
+
+    private InMemoryChecker checkerFor(final ConfigurationBuilder module) throws CheckstyleException {
+        final Configuration configuration = checker().withChild(module).build();
+        final InMemoryChecker checker = new InMemoryChecker();
+        checker.setModuleClassLoader(getClass().getClassLoader());
+        checker.configure(configuration);
+        return checker;
+    }
+
+    private static class RecordingListener implements AuditListener {
+        private final List<String> errors = new ArrayList<>();
+        private int auditsFinished;
+
+        @Override
+        public void auditStarted(final AuditEvent event) {
+            // not required
+        }
+
+        @Override
+        public void auditFinished(final AuditEvent event) {
+            auditsFinished++;
+        }
+
+        @Override
+        public void fileStarted(final AuditEvent event) {
+            // not required
+        }
+
+        @Override
+        public void fileFinished(final AuditEvent event) {
+            // not required
+        }
+
+        @Override
+        public void addError(final AuditEvent event) {
+            errors.add(event.getFileName() + ":" + event.getLine());
+        }
+
+        @Override
+        public void addException(final AuditEvent event, final Throwable throwable) {
+            throw new AssertionError("Unexpected exception", throwable);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package org.infernus.idea.checkstyle.service.cmd;
+
+import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import org.infernus.idea.checkstyle.service.ConfigurationBuilder;
+import org.infernus.idea.checkstyle.service.IgnoringResolver;
+import org.infernus.idea.checkstyle.service.SimpleResolver;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.infernus.idea.checkstyle.service.ConfigurationMatcher.configEqualTo;
+
+public class ParsedConfigurationCacheTest {
+
+    private static final byte[] RULES = "<module name=\"Checker\"/>".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] OTHER_RULES = "<module name=\"Checker\"> </module>".getBytes(StandardCharsets.UTF_8);
+
+    private final ParsedConfigurationCache underTest = new ParsedConfigurationCache(2);
+
+    @Test
+    public void aConfigurationIsFoundForTheSameRulesAndProperties() {
+        underTest.put(hashOf(RULES), configuration(), Map.of("aProperty", "aValue"));
+
+        final ParsedConfigurationCache.ParsedConfiguration parsedConfiguration =
+                underTest.get(hashOf(RULES.clone()), resolverOf(Map.of("aProperty", "aValue")))
+                        .orElseThrow();
+
+        assertThat(parsedConfiguration.getConfiguration(), is(configEqualTo(configuration())));
+        assertThat(parsedConfiguration.getPropertyNames(), contains("aProperty"));
+    }
+
+    @Test
+    public void aConfigurationIsNotFoundForDifferentRules() {
+        underTest.put(hashOf(RULES), configuration(), Map.of());
+
+        assertThat(underTest.get(hashOf(OTHER_RULES), new IgnoringResolver()).isPresent(), is(false));
+    }
+
+    @Test
+    public void aConfigurationIsNotFoundForDifferentProperties() {
+        underTest.put(hashOf(RULES), configuration(), Map.of("aProperty", "aValue"));
+
+        assertThat(underTest.get(hashOf(RULES), resolverOf(Map.of("aProperty", "anotherValue"))).isPresent(),
+                is(false));
+        assertThat(underTest.get(hashOf(RULES), new IgnoringResolver()).isPresent(), is(false));
+    }
+
+    @Test
+    public void modulesWithDifferentBaseDirectoriesShareAConfigurationWhenTheRulesDoNotUseThem() {
+        underTest.put(hashOf(RULES), configuration(), Map.of("aProperty", "aValue"));
+
+        final Optional<ParsedConfigurationCache.ParsedConfiguration> firstModuleConfiguration = underTest.get(
+                hashOf(RULES), resolverOf(Map.of("aProperty", "aValue", "basedir", "/project/aModule")));
+        final Optional<ParsedConfigurationCache.ParsedConfiguration> secondModuleConfiguration = underTest.get(
+                hashOf(RULES), resolverOf(Map.of("aProperty", "aValue", "basedir", "/project/anotherModule")));
+
+        assertThat(firstModuleConfiguration.isPresent(), is(true));
+        assertThat(secondModuleConfiguration.isPresent(), is(true));
+        assertThat(underTest.size(), is(1));
+    }
+
+    @Test
+    public void aPropertyWhichWasNotSetMustStillBeUnset() {
+        final Map<String, String> unsetProperty = new HashMap<>();
+        unsetProperty.put("aProperty", null);
+        underTest.put(hashOf(RULES), configuration(), unsetProperty);
+
+        assertThat(underTest.get(hashOf(RULES), resolverOf(Map.of())).isPresent(), is(true));
+        assertThat(underTest.get(hashOf(RULES), resolverOf(Map.of("aProperty", "aValue"))).isPresent(), is(false));
+    }
+
+    @Test
+    public void changesToAFoundConfigurationDoNotAffectTheCache() {
+        underTest.put(hashOf(RULES), configuration(), Map.of());
+
+        final DefaultConfiguration foundConfiguration =
+                underTest.get(hashOf(RULES), new IgnoringResolver()).orElseThrow().getConfiguration();
+        foundConfiguration.removeChild(foundConfiguration.getChildren()[0]);
+
+        assertThat(underTest.get(hashOf(RULES), new IgnoringResolver()).orElseThrow().getConfiguration(),
+                is(configEqualTo(configuration())));
+    }
+
+    @Test
+    public void theLeastRecentlyUsedConfigurationIsRemovedWhenTheCacheIsFull() {
+        underTest.put(hashOf(RULES), configuration(), Map.of());
+        underTest.put(hashOf(OTHER_RULES), configuration(), Map.of());
+        underTest.get(hashOf(RULES), new IgnoringResolver());
+
+        underTest.put(hashOf(RULES), configuration(), Map.of("aProperty", "aValue"));
+
+        assertThat(underTest.size(), is(2));
+        assertThat(underTest.get(hashOf(OTHER_RULES), new IgnoringResolver()).isPresent(), is(false));
+        assertThat(underTest.get(hashOf(RULES), new IgnoringResolver()).isPresent(), is(true));
+    }
+
+    private String hashOf(final byte[] rules) {
+        return ParsedConfigurationCache.contentHashOf(rules);
+    }
+
+    private SimpleResolver resolverOf(final Map<String, String> properties) {
+        return new SimpleResolver(properties);
+    }
+
+    private DefaultConfiguration configuration() {
+        final Configuration configuration = ConfigurationBuilder.checker()
+                .withChild(ConfigurationBuilder.config("TreeWalker")
+                        .withChild(ConfigurationBuilder.config("SuppressionFilter")
+                                .withAttribute("file", "suppressions.xml")
+                                .withMessage("aKey", "aMessage")))
+                .build();
+        return (DefaultConfiguration) configuration;
+    }
+}
@@ -0,0 +1,139 @@
+package org.infernus.idea.checkstyle.csapi;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares mapping the issues of a file to offsets with a {@link LineIndex} against the line search
+ * {@link ProcessResultsThread} used before it, which copied the file's text for each issue and grew a cache of
+ * line offsets as it went.
+ * <p>
+ * The text is copied where the IDE would copy it, by {@code PsiFile.textToCharArray()}. Run with
+ * {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LineIndexBenchmark {
+
+    private static final int TAB_WIDTH = 4;
+
+    @Param({"1000", "10000"})
+    private int lineCount;
+
+    @Param({"10", "1000"})
+    private int issueCount;
+
+    private char[] text;
+    private int[] issueLines;
+    private int[] issueColumns;
+
+    @Setup
+    public void setUp() {
+        final StringBuilder content = new StringBuilder();
+        for (int line = 1; line <= lineCount; ++line) {
+            content.append("\tprivate int field").append(line).append(" = ").append(line).append(";\n");
+        }
+        text = content.toString().toCharArray();
+
+        issueLines = new int[issueCount];
+        issueColumns = new int[issueCount];
+        for (int i = 0; i < issueCount; ++i) {
+            issueLines[i] = 1 + (int) ((long) i * lineCount / issueCount);
+            issueColumns[i] = TAB_WIDTH + 8;
+        }
+    }
+
+    @Benchmark
+    public int lineIndex() {
+        final LineIndex lineIndex = LineIndex.of(text.clone(), TAB_WIDTH);
+        int offsets = 0;
+        for (int i = 0; i < issueCount; ++i) {
+            offsets += lineIndex.offsetOf(issueLines[i], issueColumns[i]);
+        }
+        return offsets;
+    }
+
+    @Benchmark
+    public int lineSearch() {
+        final List<Integer> lineLengthCache = new ArrayList<>();
+        lineLengthCache.add(0); // line 1 is offset 0
+        int offsets = 0;
+        for (int i = 0; i < issueCount; ++i) {
+            offsets += findPosition(lineLengthCache, issueLines[i], issueColumns[i], text.clone());
+        }
+        return offsets;
+    }
+
+    /*
+     * The line search used before LineIndex, less its tracking of positions after the end of a line.
+     */
+
+    private static int findPosition(final List<Integer> lineLengthCache,
+                                    final int lineNumber,
+                                    final int columnNumber,
+                                    final char[] text) {
+        if (lineNumber == 0) {
+            return columnNumber;
+        } else if (lineNumber <= lineLengthCache.size()) {
+            return lineLengthCache.get(lineNumber - 1) + columnNumber;
+        } else {
+            return searchFromEndOfCachedData(lineLengthCache, lineNumber, columnNumber, text);
+        }
+    }
+
+    private static int searchFromEndOfCachedData(final List<Integer> lineLengthCache,
+                                                 final int lineNumber,
+                                                 final int columnNumber,
+                                                 final char[] text) {
+        int offset = lineLengthCache.get(lineLengthCache.size() - 1);
+        int line = lineLengthCache.size();
+
+        int column = 0;
+        for (int i = offset; i < text.length; ++i) {
+            final char character = text[i];
+
+            final char nextChar = nextCharacter(text, i);
+            if (character == '\n' || character == '\r' && nextChar != '\n') {
+                ++line;
+                ++offset;
+                lineLengthCache.add(offset);
+                column = 0;
+            } else if (character == '\t') {
+                column += TAB_WIDTH;
+                ++offset;
+            } else {
+                ++column;
+                ++offset;
+            }
+
+            if (lineNumber == line && columnNumber == column) {
+                break;
+            }
+        }
+        return offset;
+    }
+
+    private static char nextCharacter(final char[] text, final int i) {
+        if ((i + 1) < text.length) {
+            return text[i + 1];
+        }
+        return '\0';
+    }
+}
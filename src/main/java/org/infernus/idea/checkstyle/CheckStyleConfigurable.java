@@ -4,6 +4,7 @@ import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.options.Configurable;
 import com.intellij.openapi.project.Project;
 import org.infernus.idea.checkstyle.checker.CheckerFactoryCache;
+import org.infernus.idea.checkstyle.checker.ScanResultCache;
 import org.infernus.idea.checkstyle.config.PluginConfiguration;
 import org.infernus.idea.checkstyle.config.PluginConfigurationBuilder;
 import org.infernus.idea.checkstyle.config.PluginConfigurationManager;
@@ -74,6 +75,7 @@ public class CheckStyleConfigurable
                 .withScanBeforeCheckin(pluginConfigurationManager.getCurrent().isScanBeforeCheckin())
                 .build();
         pluginConfigurationManager.setCurrent(newConfig, true);
+        project.getService(ScanResultCache.class).invalidate();
 
         activateCurrentCheckstyleVersion(newConfig.getCheckstyleVersion(), newConfig.getThirdPartyClasspath());
         if (!newConfig.isCopyLibs()) {
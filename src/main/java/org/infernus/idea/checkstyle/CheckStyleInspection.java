@@ -14,6 +14,7 @@ import org.infernus.idea.checkstyle.checker.CheckerFactory;
 import org.infernus.idea.checkstyle.checker.Problem;
 import org.infernus.idea.checkstyle.checker.ScannableFile;
 import org.infernus.idea.checkstyle.config.ConfigurationLocationSource;
+import org.infernus.idea.checkstyle.config.PluginConfiguration;
 import org.infernus.idea.checkstyle.config.PluginConfigurationManager;
 import org.infernus.idea.checkstyle.csapi.SeverityLevel;
 import org.infernus.idea.checkstyle.exception.CheckStylePluginParseException;
@@ -28,14 +29,15 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
 
 import static java.util.Collections.singletonList;
 import static java.util.Optional.ofNullable;
 import static java.util.function.Predicate.not;
 import static java.util.stream.Collectors.toList;
 import static org.infernus.idea.checkstyle.CheckStyleBundle.message;
-import static org.infernus.idea.checkstyle.util.Async.asyncResultOf;
 import static org.infernus.idea.checkstyle.util.Notifications.showException;
 import static org.infernus.idea.checkstyle.util.Notifications.showWarning;
 
@@ -43,7 +45,6 @@ public class CheckStyleInspection extends LocalInspectionTool {
 
     private static final Logger LOG = Logger.getInstance(CheckStyleInspection.class);
     private static final List<Problem> NO_PROBLEMS_FOUND = Collections.emptyList();
-    private static final long FIVE_SECONDS = 5000L;
 
     private final Object configPanelLock = new Object();
     private CheckStyleInspectionPanel configPanel;
@@ -68,9 +69,10 @@ public class CheckStyleInspection extends LocalInspectionTool {
         }
 
         final Module module = moduleOf(psiFile);
+        final PluginConfiguration pluginConfiguration = configurationManager(manager.getProject()).getCurrent();
         List<ScannableFile> scannableFiles = ScannableFile.createAndValidate(
                 singletonList(psiFile),
-                manager.getProject(),
+                pluginConfiguration,
                 module,
                 null);
         if (scannableFiles.isEmpty()) {
@@ -80,19 +82,22 @@ public class CheckStyleInspection extends LocalInspectionTool {
 
         try {
             return asProblemDescriptors(
-                    asyncResultOf(() -> {
-                        try {
-                            return inspectFile(psiFile, scannableFiles, module, manager);
-                        } finally {
-                            scannableFiles.forEach(ScannableFile::deleteIfRequired);
-                        }
-                    }, NO_PROBLEMS_FOUND, FIVE_SECONDS),
+                    inspectionScheduler(manager.getProject()).inspect(
+                            psiFile.getViewProvider().getVirtualFile(),
+                            psiFile.getModificationStamp(),
+                            () -> inspectFile(psiFile, scannableFiles, module, pluginConfiguration, manager),
+                            () -> scannableFiles.forEach(ScannableFile::deleteIfRequired),
+                            pluginConfiguration.getInspectionTimeout()),
                     manager, isOnTheFly);
 
         } catch (ProcessCanceledException | AssertionError e) {
             LOG.debug("Inspection cancelled when scanning: " + psiFile.getName());
             return noProblemsFound(manager);
 
+        } catch (ExecutionException e) {
+            handleInspectionFailure(e.getCause(), psiFile, module, manager.getProject());
+            return noProblemsFound(manager);
+
         } catch (Throwable e) {
             LOG.warn("CheckStyle threw an exception when inspecting: " + psiFile.getName(), e);
             showException(manager.getProject(), e);
@@ -117,6 +122,7 @@ public class CheckStyleInspection extends LocalInspectionTool {
     private List<Problem> inspectFile(@NotNull final PsiFile psiFile,
                                       @NotNull final List<ScannableFile> scannableFiles,
                                       @Nullable final Module module,
+                                      @NotNull final PluginConfiguration pluginConfiguration,
                                       @NotNull final InspectionManager manager) {
         LOG.debug("Inspection has been invoked for " + psiFile.getName());
 
@@ -126,12 +132,26 @@ public class CheckStyleInspection extends LocalInspectionTool {
                     configurationLocationSource(manager.getProject())
                             .getConfigurationLocations(module, null));
 
-            // Check file with every non-blocked location
-            return configurationLocations.stream()
+            final List<ConfigurationLocation> activeLocations = configurationLocations.stream()
                     .filter(not(ConfigurationLocation::isBlocked))
+                    .collect(toList());
+
+            // Check file with every non-blocked location, in a single pass where possible
+            if (pluginConfiguration.isMergeLocations() && activeLocations.size() > 1) {
+                final Optional<List<Problem>> mergedProblems = checkerFactory(psiFile.getProject())
+                        .mergedChecker(module, activeLocations)
+                        .map(checker -> checker.scan(scannableFiles, pluginConfiguration.isSuppressErrors()))
+                        .map(results -> results.getOrDefault(psiFile, NO_PROBLEMS_FOUND))
+                        .map(this::dropIgnoredProblems);
+                if (mergedProblems.isPresent()) {
+                    return mergedProblems.get();
+                }
+            }
+
+            return activeLocations.stream()
                     .map(configurationLocation -> checkerFactory(psiFile.getProject())
                             .checker(module, configurationLocation)
-                            .map(checker -> checker.scan(scannableFiles, configurationManager(psiFile.getProject()).getCurrent().isSuppressErrors()))
+                            .map(checker -> checker.scan(scannableFiles, pluginConfiguration.isSuppressErrors()))
                             .map(results -> results.get(psiFile))
                             .map(this::dropIgnoredProblems)
                             .orElse(NO_PROBLEMS_FOUND)
@@ -164,6 +184,26 @@ public class CheckStyleInspection extends LocalInspectionTool {
                 .collect(toList());
     }
 
+    /**
+     * Handle an exception which escaped the inspection itself, as it would have been had it been thrown within.
+     */
+    private void handleInspectionFailure(final Throwable e,
+                                         final @NotNull PsiFile psiFile,
+                                         final @Nullable Module module,
+                                         final @NotNull Project project) {
+        if (e instanceof ProcessCanceledException) {
+            LOG.debug("Process cancelled when scanning: " + psiFile.getName());
+
+        } else if (e instanceof CheckStylePluginParseException) {
+            LOG.debug("Parse exception caught when scanning: " + psiFile.getName(), e);
+
+        } else {
+            handlePluginException(e, psiFile,
+                    new ArrayList<>(configurationLocationSource(project).getConfigurationLocations(module, null)),
+                    project);
+        }
+    }
+
     private void handlePluginException(final Throwable e,
                                        final @NotNull PsiFile psiFile,
                                        final List<ConfigurationLocation> configurationLocations,
@@ -206,6 +246,10 @@ public class CheckStyleInspection extends LocalInspectionTool {
                 .orElse(ProblemDescriptor.EMPTY_ARRAY);
     }
 
+    private InspectionScheduler inspectionScheduler(final Project project) {
+        return project.getService(InspectionScheduler.class);
+    }
+
     private CheckerFactory checkerFactory(final Project project) {
         return project.getService(CheckerFactory.class);
     }
@@ -14,12 +14,14 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.SortedSet;
-import java.util.concurrent.Callable;
 
 
 /**
  * Makes the Checkstyle tool available to the plugin in the correct version. Registered in {@code plugin.xml}.
  * This must be a project-level service because the Checkstyle version is chosen per project.
+ * <p>
+ * The class loader and actions of the active version are created on first use and then shared, so that callers,
+ * which include every checker creation and inspection, need only read a volatile field once they exist.
  */
 public class CheckstyleProjectService {
 
@@ -27,8 +29,7 @@ public class CheckstyleProjectService {
 
     private final Project project;
 
-    private Callable<CheckstyleClassLoaderContainer> checkstyleClassLoaderFactory = null;
-    private CheckstyleClassLoaderContainer checkstyleClassLoaderContainer = null;
+    private volatile ActiveCheckstyle activeCheckstyle = null;
 
     private final SortedSet<String> supportedVersions;
 
@@ -65,35 +66,22 @@ public class CheckstyleProjectService {
 
     public void activateCheckstyleVersion(@Nullable final String requestedVersion,
                                           @Nullable final List<String> thirdPartyJars) {
-        String checkstyleVersionToLoad = versionToLoad(requestedVersion);
-        synchronized (project) {
-            checkstyleClassLoaderContainer = null;
-            checkstyleClassLoaderFactory = new Callable<>() {
-                @Override
-                public CheckstyleClassLoaderContainer call() {
-                    return new CheckstyleClassLoaderContainer(
-                            project,
-                            CheckstyleProjectService.this,
-                            checkstyleVersionToLoad,
-                            toListOfUrls(thirdPartyJars));
-                }
+        activeCheckstyle = new ActiveCheckstyle(versionToLoad(requestedVersion), toListOfUrls(thirdPartyJars));
+    }
 
-                @NotNull
-                private List<URL> toListOfUrls(@Nullable final List<String> jarFilePaths) {
-                    List<URL> result = new ArrayList<>();
-                    if (jarFilePaths != null) {
-                        for (final String absolutePath : jarFilePaths) {
-                            try {
-                                result.add(new File(absolutePath).toURI().toURL());
-                            } catch (MalformedURLException e) {
-                                LOG.warn("Skipping malformed third party classpath entry: " + absolutePath, e);
-                            }
-                        }
-                    }
-                    return result;
+    @NotNull
+    private static List<URL> toListOfUrls(@Nullable final List<String> jarFilePaths) {
+        List<URL> result = new ArrayList<>();
+        if (jarFilePaths != null) {
+            for (final String absolutePath : jarFilePaths) {
+                try {
+                    result.add(new File(absolutePath).toURI().toURL());
+                } catch (MalformedURLException e) {
+                    LOG.warn("Skipping malformed third party classpath entry: " + absolutePath, e);
                 }
-            };
+            }
         }
+        return result;
     }
 
     @NotNull
@@ -104,11 +92,17 @@ public class CheckstyleProjectService {
         return getDefaultVersion();
     }
 
+    /**
+     * @return the Checkstyle version which is, or will be on first use, loaded for this project.
+     */
+    @NotNull
+    public String getActiveCheckstyleVersion() {
+        return activeCheckstyle.version;
+    }
+
     public CheckstyleActions getCheckstyleInstance() {
         try {
-            synchronized (project) {
-                return checkstyleClassLoaderContainer().loadCheckstyleImpl();
-            }
+            return activeCheckstyle.loaded().checkstyleActions;
         } catch (CheckStylePluginException e) {
             throw e;
         } catch (Exception e) {
@@ -119,9 +113,7 @@ public class CheckstyleProjectService {
     @NotNull
     public ClassLoader underlyingClassLoader() {
         try {
-            synchronized (project) {
-                return checkstyleClassLoaderContainer().getClassLoader();
-            }
+            return activeCheckstyle.loaded().classLoaderContainer.getClassLoader();
         } catch (CheckStylePluginException e) {
             throw e;
         } catch (Exception e) {
@@ -129,15 +121,52 @@ public class CheckstyleProjectService {
         }
     }
 
-    private CheckstyleClassLoaderContainer checkstyleClassLoaderContainer() throws Exception {
-        if (checkstyleClassLoaderContainer == null) {
-            checkstyleClassLoaderContainer = checkstyleClassLoaderFactory.call();
+    private static PluginConfigurationManager pluginConfigurationManager(final Project project) {
+        return project.getService(PluginConfigurationManager.class);
+    }
+
+    /**
+     * A Checkstyle version activated for the project, which is loaded on first use. Activating another version
+     * replaces the instance, so callers still using this one are unaffected.
+     */
+    private final class ActiveCheckstyle {
+        private final String version;
+        private final List<URL> thirdPartyClassPath;
+
+        private volatile LoadedCheckstyle loadedCheckstyle;
+
+        ActiveCheckstyle(@NotNull final String version,
+                         @NotNull final List<URL> thirdPartyClassPath) {
+            this.version = version;
+            this.thirdPartyClassPath = thirdPartyClassPath;
+        }
+
+        @NotNull
+        LoadedCheckstyle loaded() {
+            LoadedCheckstyle result = loadedCheckstyle;
+            if (result == null) {
+                synchronized (this) {
+                    result = loadedCheckstyle;
+                    if (result == null) {
+                        final CheckstyleClassLoaderContainer classLoaderContainer = new CheckstyleClassLoaderContainer(
+                                project, CheckstyleProjectService.this, version, thirdPartyClassPath);
+                        result = new LoadedCheckstyle(classLoaderContainer, classLoaderContainer.loadCheckstyleImpl());
+                        loadedCheckstyle = result;
+                    }
+                }
+            }
+            return result;
         }
-        // Don't worry about caching, class loaders do lots of caching.
-        return this.checkstyleClassLoaderContainer;
     }
 
-    private static PluginConfigurationManager pluginConfigurationManager(final Project project) {
-        return project.getService(PluginConfigurationManager.class);
+    private static final class LoadedCheckstyle {
+        private final CheckstyleClassLoaderContainer classLoaderContainer;
+        private final CheckstyleActions checkstyleActions;
+
+        LoadedCheckstyle(@NotNull final CheckstyleClassLoaderContainer classLoaderContainer,
+                         @NotNull final CheckstyleActions checkstyleActions) {
+            this.classLoaderContainer = classLoaderContainer;
+            this.checkstyleActions = checkstyleActions;
+        }
     }
 }
@@ -0,0 +1,224 @@
+package org.infernus.idea.checkstyle;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.infernus.idea.checkstyle.checker.Problem;
+import org.infernus.idea.checkstyle.util.Async;
+import org.infernus.idea.checkstyle.util.LatencySamples;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs the on-the-fly inspections of files on a pool, keeping at most one inspection of each file.
+ * <p>
+ * A request to inspect a file supersedes any unfinished inspection of an earlier version of it, which is cancelled,
+ * so a burst of edits doesn't queue an audit for each. A request for a version which is already being inspected, as
+ * when highlighting restarts without an edit, waits for that inspection rather than starting another. An inspection
+ * which has timed out is only cancelled once none of the requests sharing it are still waiting for it.
+ */
+public class InspectionScheduler {
+
+    private static final Logger LOG = Logger.getInstance(InspectionScheduler.class);
+
+    private static final String INSPECTION_POOL_NAME = "CheckStyle-IDEA Inspection";
+    private static final int LATENCY_SAMPLES = 1000;
+    private static final int LATENCY_LOG_INTERVAL = 500;
+
+    private final Map<VirtualFile, Inspection> inspections = new HashMap<>();
+    private final LatencySamples latencies = new LatencySamples(LATENCY_SAMPLES);
+    private final Executor executor;
+
+    public InspectionScheduler() {
+        this(AppExecutorUtil.createBoundedApplicationPoolExecutor(INSPECTION_POOL_NAME,
+                Runtime.getRuntime().availableProcessors()));
+    }
+
+    InspectionScheduler(@NotNull final Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Inspect a file and wait for the result.
+     *
+     * @param file              the file.
+     * @param modificationStamp the modification stamp of the version of the file being inspected.
+     * @param inspection        the inspection.
+     * @param cleanup           run once the inspection is finished with, or at once if the file is already being
+     *                          inspected at this version.
+     * @param timeoutInMs       the maximum time to wait, after which the inspection is cancelled if no other request
+     *                          is waiting for it.
+     * @return the problems found.
+     * @throws ExecutionException       if the inspection failed.
+     * @throws ProcessCanceledException if the inspection is cancelled or superseded, the wait is cancelled or the
+     *                                  timeout is exhausted.
+     */
+    @NotNull
+    public List<Problem> inspect(@NotNull final VirtualFile file,
+                                 final long modificationStamp,
+                                 @NotNull final Callable<List<Problem>> inspection,
+                                 @NotNull final Runnable cleanup,
+                                 final long timeoutInMs) throws ExecutionException {
+        final Future<List<Problem>> scheduledInspection = schedule(file, modificationStamp, inspection, cleanup);
+        boolean timedOut = false;
+        try {
+            return Async.resultOf(scheduledInspection, timeoutInMs);
+
+        } catch (TimeoutException e) {
+            LOG.debug("Inspection of " + file.getName() + " exhausted timeout of " + timeoutInMs + "ms.");
+            timedOut = true;
+            throw new ProcessCanceledException(e);
+
+        } catch (CancellationException e) {
+            throw new ProcessCanceledException(e);
+
+        } finally {
+            stopWaiting(scheduledInspection, timedOut);
+        }
+    }
+
+    /**
+     * Schedule an inspection of a file, or join the inspection of the same version if one is in progress.
+     *
+     * @return the inspection.
+     */
+    @NotNull
+    Future<List<Problem>> schedule(@NotNull final VirtualFile file,
+                                   final long modificationStamp,
+                                   @NotNull final Callable<List<Problem>> inspection,
+                                   @NotNull final Runnable cleanup) {
+        final Inspection existingInspection;
+        final Inspection newInspection;
+        synchronized (inspections) {
+            existingInspection = inspections.get(file);
+            if (existingInspection != null
+                    && existingInspection.modificationStamp == modificationStamp
+                    && !existingInspection.isCancelled()) {
+                ++existingInspection.waiters;
+                newInspection = null;
+            } else {
+                newInspection = new Inspection(file, modificationStamp, inspection, cleanup);
+                inspections.put(file, newInspection);
+            }
+        }
+
+        if (newInspection == null) {
+            cleanup.run();
+            return existingInspection;
+        }
+
+        if (existingInspection != null) {
+            LOG.debug("Cancelling superseded inspection of " + file.getName());
+            existingInspection.cancel(true);
+        }
+        executor.execute(newInspection);
+        return newInspection;
+    }
+
+    /**
+     * Stop waiting for a scheduled inspection. Once its last waiter has stopped waiting, an inspection which any of
+     * them gave up on is cancelled, and is no longer joined by later requests.
+     *
+     * @param scheduledInspection the inspection, as returned by {@link #schedule}.
+     * @param timedOut            whether the wait timed out.
+     */
+    void stopWaiting(@NotNull final Future<List<Problem>> scheduledInspection, final boolean timedOut) {
+        final Inspection inspection = (Inspection) scheduledInspection;
+        final boolean cancel;
+        synchronized (inspections) {
+            inspection.timedOut |= timedOut;
+            cancel = --inspection.waiters == 0 && inspection.timedOut && !inspection.isDone();
+            if (cancel) {
+                inspections.remove(inspection.file, inspection);
+            }
+        }
+
+        if (cancel) {
+            LOG.debug("Cancelling timed out inspection of " + inspection.file.getName());
+            inspection.cancel(true);
+        }
+    }
+
+    /**
+     * @return the latencies of the recent inspections, from request to result.
+     */
+    @NotNull
+    public LatencySamples getLatencies() {
+        return latencies;
+    }
+
+    private void finished(final Inspection inspection) {
+        synchronized (inspections) {
+            inspections.remove(inspection.file, inspection);
+        }
+
+        if (!inspection.isCancelled()) {
+            latencies.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inspection.requestTime));
+            if (latencies.getTotalCount() % LATENCY_LOG_INTERVAL == 0) {
+                LOG.debug("Inspection latency: " + latencies);
+            }
+        }
+    }
+
+    private final class Inspection extends FutureTask<List<Problem>> {
+        private final VirtualFile file;
+        private final long modificationStamp;
+        private final Runnable cleanup;
+        private final long requestTime = System.nanoTime();
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        // guarded by inspections
+        private int waiters = 1;
+        private boolean timedOut;
+
+        Inspection(@NotNull final VirtualFile file,
+                   final long modificationStamp,
+                   @NotNull final Callable<List<Problem>> inspection,
+                   @NotNull final Runnable cleanup) {
+            super(inspection);
+            this.file = file;
+            this.modificationStamp = modificationStamp;
+            this.cleanup = cleanup;
+        }
+
+        @Override
+        public void run() {
+            if (!claimed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                super.run();
+            } finally {
+                cleanup.run();
+            }
+        }
+
+        @Override
+        public boolean cancel(final boolean mayInterruptIfRunning) {
+            final boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (claimed.compareAndSet(false, true)) {
+                // it never started, so won't clean up after itself
+                cleanup.run();
+            }
+            return cancelled;
+        }
+
+        @Override
+        protected void done() {
+            finished(this);
+        }
+    }
+}
@@ -107,13 +107,21 @@ public class StaticScanner {
         }
 
         @Override
-        public void scanStarting(final List<PsiFile> filesToScan) {
+        public void scanStarting() {
+        }
+
+        @Override
+        public void filesFound(final int count) {
         }
 
         @Override
         public void filesScanned(final int count) {
         }
 
+        @Override
+        public void partialResultsAvailable(final Map<PsiFile, List<Problem>> partialResults) {
+        }
+
         @Override
         public void scanCompletedSuccessfully(final ConfigurationLocationResult configurationLocationResult,
                                               final Map<PsiFile, List<Problem>> scanResults) {
@@ -124,6 +132,11 @@ public class StaticScanner {
         public void scanFailedWithError(final CheckStylePluginException error) {
             checkComplete(future);
         }
+
+        @Override
+        public void scanCancelled() {
+            checkComplete(future);
+        }
     }
 
 }
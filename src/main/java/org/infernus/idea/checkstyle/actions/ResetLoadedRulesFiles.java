@@ -6,11 +6,12 @@ import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.fileEditor.FileDocumentManager;
 import org.infernus.idea.checkstyle.config.PluginConfigurationManager;
 import org.infernus.idea.checkstyle.checker.CheckerFactoryCache;
+import org.infernus.idea.checkstyle.checker.ScanResultCache;
 import org.infernus.idea.checkstyle.model.ConfigurationLocation;
 import org.jetbrains.annotations.NotNull;
 
 /**
- * Clear the Checker cache and blocks, forcing reloading of rules files.
+ * Clear the Checker cache, cached results and blocks, forcing reloading of rules files.
  */
 public class ResetLoadedRulesFiles extends BaseAction {
 
@@ -32,6 +33,7 @@ public class ResetLoadedRulesFiles extends BaseAction {
                     .getLocations()
                     .forEach(ConfigurationLocation::reset);
             project.getService(CheckerFactoryCache.class).invalidate();
+            project.getService(ScanResultCache.class).invalidate();
         });
     }
 }
@@ -1,16 +1,14 @@
 package org.infernus.idea.checkstyle.actions;
 
 import com.intellij.openapi.project.Project;
-import com.intellij.openapi.vfs.VfsUtilCore;
 import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.openapi.vfs.VirtualFileVisitor;
 import com.intellij.util.ThrowableRunnable;
 import org.infernus.idea.checkstyle.StaticScanner;
 import org.infernus.idea.checkstyle.model.ConfigurationLocation;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+import java.util.Collections;
 
 
 abstract class ScanAllFilesTask implements ThrowableRunnable<RuntimeException> {
@@ -24,29 +22,15 @@ abstract class ScanAllFilesTask implements ThrowableRunnable<RuntimeException> {
         this.selectedOverride = selectedOverride;
     }
 
+    /**
+     * Start a scan of the files under the roots. The files are found by the scan itself, so nothing is searched here.
+     */
     @Override
     public void run() {
+        final VirtualFile[] roots = files();
         project.getService(StaticScanner.class)
-                .asyncScanFiles(flattenFiles(files()), selectedOverride);
+                .asyncScanFiles(roots != null ? Arrays.asList(roots) : Collections.emptyList(), selectedOverride);
     }
 
     protected abstract VirtualFile[] files();
-
-    private List<VirtualFile> flattenFiles(final VirtualFile[] files) {
-        final List<VirtualFile> flattened = new ArrayList<>();
-        if (files != null) {
-            for (final VirtualFile file : files) {
-                flattened.add(file);
-                VfsUtilCore.visitChildrenRecursively(file, new VirtualFileVisitor<>() {
-                    @Override
-                    @NotNull
-                    public Result visitFileEx(@NotNull final VirtualFile file) {
-                        flattened.add(file);
-                        return CONTINUE;
-                    }
-                });
-            }
-        }
-        return flattened;
-    }
 }
@@ -0,0 +1,109 @@
+package org.infernus.idea.checkstyle.checker;
+
+import org.infernus.idea.checkstyle.exception.CheckStylePluginException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Passes batches of items from a source, run on one thread, to a consumer on another.
+ * <p>
+ * Only a few batches are held at once: the source waits while they are full, so it never gets far ahead of the
+ * consumer. The source is expected to stop when interrupted, which is how the consumer cancels it.
+ *
+ * @param <T> the type of the items.
+ */
+final class BatchPipeline<T> implements Runnable {
+
+    private final List<T> endOfBatches = Collections.unmodifiableList(new ArrayList<>());
+
+    private final Source<T> source;
+    private final int batchSize;
+    private final BlockingQueue<List<T>> batches;
+
+    private volatile Throwable failure;
+
+    /**
+     * @param source        the source of the batches.
+     * @param batchSize     the maximum number of items in a batch.
+     * @param queuedBatches the maximum number of batches held while waiting for the consumer.
+     */
+    BatchPipeline(@NotNull final Source<T> source,
+                  final int batchSize,
+                  final int queuedBatches) {
+        this.source = source;
+        this.batchSize = batchSize;
+        this.batches = new ArrayBlockingQueue<>(queuedBatches);
+    }
+
+    /**
+     * Pass all the batches of the source to the queue, followed by the end of the batches.
+     */
+    @Override
+    public void run() {
+        try {
+            source.batches(batchSize, batches::put);
+        } catch (InterruptedException e) {
+            // the consumer has finished with us
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Throwable e) {
+            failure = e;
+        }
+
+        try {
+            batches.put(endOfBatches);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Wait for the next batch from the source.
+     *
+     * @return the next batch, or null if the source has no more.
+     * @throws InterruptedException if interrupted while waiting for the batch.
+     */
+    @Nullable
+    List<T> next() throws InterruptedException {
+        final List<T> batch = batches.take();
+        if (batch != endOfBatches) {
+            return batch;
+        }
+
+        // leave the end in place for any further calls
+        batches.offer(endOfBatches);
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        if (failure != null) {
+            throw new CheckStylePluginException("An error occurred while finding files to scan.", failure);
+        }
+        return null;
+    }
+
+    @FunctionalInterface
+    interface Source<T> {
+        /**
+         * Pass the items of the source to a consumer, in batches of at most the given size.
+         *
+         * @param batchSize     the maximum number of items in a batch.
+         * @param batchConsumer the consumer of the batches.
+         * @throws InterruptedException if the thread is interrupted.
+         */
+        void batches(int batchSize, @NotNull BatchConsumer<T> batchConsumer) throws InterruptedException;
+    }
+
+    @FunctionalInterface
+    interface BatchConsumer<T> {
+        void accept(@NotNull List<T> batch) throws InterruptedException;
+    }
+}
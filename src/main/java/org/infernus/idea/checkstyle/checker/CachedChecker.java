@@ -1,41 +1,329 @@
 package org.infernus.idea.checkstyle.checker;
 
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.psi.PsiFile;
+import org.infernus.idea.checkstyle.exception.CheckStylePluginException;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Value for checker cache.
+ * <p>
+ * Entries live until something they were created from changes, as described by their {@link CheckerDependencies},
+ * or until they are evicted by the cache.
+ * <p>
+ * A Checkstyle {@code Checker} may only process one batch of files at a time, so each entry holds a small pool of
+ * identically configured checkers. The pool starts with the checker it was created with and grows on demand, up to
+ * {@link #DEFAULT_MAX_POOL_SIZE}, when all existing checkers are busy. New checkers are created in the background,
+ * with the borrower taking whichever checker is free first.
  */
 class CachedChecker {
 
-    /**
-     * We cache purely to ignore repeated requests in a multi-file scan. Hence we'll treat the cached
-     * value as valid for time in ms.
-     */
-    private static final int CACHE_VALID_TIME = 60000;
+    private static final Logger LOG = Logger.getInstance(CachedChecker.class);
+
+    static final int DEFAULT_MAX_POOL_SIZE = Runtime.getRuntime().availableProcessors();
 
-    private final CheckStyleChecker checkStyleChecker;
+    private final Deque<CheckStyleChecker> idleCheckers = new ArrayDeque<>();
+    private final List<CheckStyleChecker> allCheckers = new ArrayList<>();
+    private final CheckStyleChecker pooledChecker;
+    @Nullable
+    private final Supplier<CheckStyleChecker> additionalCheckers;
+    private final Executor creationExecutor;
+    private final int maxPoolSize;
+    @Nullable
+    private final ScanResultCache scanResultCache;
+    @Nullable
+    private final String configurationFingerprint;
+    private final CheckerDependencies dependencies;
 
-    private long timeStamp;
+    private final List<Runnable> destroyActions = new ArrayList<>();
+
+    private int poolSize;
+    private int checkersInUse;
+    private boolean destroyed;
+    private boolean destroyActionsRun;
 
     CachedChecker(@NotNull final CheckStyleChecker checkStyleChecker) {
-        this.checkStyleChecker = checkStyleChecker;
-        this.timeStamp = System.currentTimeMillis();
+        this(checkStyleChecker, null, 1);
+    }
+
+    /**
+     * @param checkStyleChecker  the initial member of the pool.
+     * @param additionalCheckers creates further checkers with the same configuration as the initial member. It may
+     *                           return null if a checker could not be created, in which case we wait for a busy one.
+     * @param maxPoolSize        the maximum number of checkers held by this pool.
+     */
+    CachedChecker(@NotNull final CheckStyleChecker checkStyleChecker,
+                  @Nullable final Supplier<CheckStyleChecker> additionalCheckers,
+                  final int maxPoolSize) {
+        this(checkStyleChecker, additionalCheckers, Runnable::run, maxPoolSize, null, null,
+                CheckerDependencies.NONE);
+    }
+
+    /**
+     * @param checkStyleChecker        the initial member of the pool.
+     * @param additionalCheckers       creates further checkers with the same configuration as the initial member.
+     * @param creationExecutor         runs the creation of further checkers.
+     * @param maxPoolSize              the maximum number of checkers held by this pool.
+     * @param scanResultCache          the cache of previous results, or null if results should not be cached.
+     * @param configurationFingerprint the fingerprint of the configuration of this pool's checkers, or null if
+     *                                 results should not be cached.
+     * @param dependencies             what this pool's checkers were created from.
+     */
+    CachedChecker(@NotNull final CheckStyleChecker checkStyleChecker,
+                  @Nullable final Supplier<CheckStyleChecker> additionalCheckers,
+                  @NotNull final Executor creationExecutor,
+                  final int maxPoolSize,
+                  @Nullable final ScanResultCache scanResultCache,
+                  @Nullable final String configurationFingerprint,
+                  @NotNull final CheckerDependencies dependencies) {
+        this.additionalCheckers = additionalCheckers;
+        this.creationExecutor = creationExecutor;
+        this.maxPoolSize = Math.max(1, maxPoolSize);
+        this.scanResultCache = scanResultCache;
+        this.configurationFingerprint = configurationFingerprint;
+        this.dependencies = dependencies;
+
+        this.allCheckers.add(checkStyleChecker);
+        this.idleCheckers.add(checkStyleChecker);
+        this.poolSize = 1;
+        this.pooledChecker = new PooledCheckStyleChecker(checkStyleChecker);
     }
 
+    /**
+     * @return a checker that takes a member of the pool for the duration of each scan.
+     */
     public CheckStyleChecker getCheckStyleChecker() {
-        this.timeStamp = System.currentTimeMillis();
-        return checkStyleChecker;
+        return pooledChecker;
     }
 
-    private long getTimeStamp() {
-        return timeStamp;
+    @NotNull
+    CheckerDependencies getDependencies() {
+        return dependencies;
     }
 
-    public boolean isValid() {
-        return (getTimeStamp() + CACHE_VALID_TIME) >= System.currentTimeMillis();
+    /**
+     * Register an action to run once this pool has been destroyed and none of its checkers remain in use, e.g. to
+     * release resources shared by its checkers. If that is already the case, the action is run immediately.
+     *
+     * @param action the action.
+     */
+    void onDestroyed(@NotNull final Runnable action) {
+        synchronized (this) {
+            if (!destroyActionsRun) {
+                destroyActions.add(action);
+                return;
+            }
+        }
+        action.run();
+    }
+
+    /**
+     * Withdraw an action registered by {@link #onDestroyed(Runnable)}, if it has not yet run.
+     *
+     * @param action the action, or one equal to it.
+     */
+    synchronized void removeOnDestroyed(@NotNull final Runnable action) {
+        destroyActions.remove(action);
     }
 
     public void destroy() {
-        checkStyleChecker.destroy();
+        final List<CheckStyleChecker> checkersToDestroy;
+        final boolean released;
+        synchronized (this) {
+            destroyed = true;
+            checkersToDestroy = new ArrayList<>(idleCheckers);
+            idleCheckers.clear();
+            released = releaseIfUnused();
+            notifyAll();
+        }
+
+        // checkers still in use are destroyed when they're returned
+        checkersToDestroy.forEach(CheckStyleChecker::destroy);
+        if (released) {
+            runDestroyActions();
+        }
+    }
+
+    synchronized int size() {
+        return allCheckers.size();
+    }
+
+    @NotNull
+    CheckStyleChecker borrowChecker() {
+        final boolean growPool;
+        synchronized (this) {
+            final CheckStyleChecker idleChecker = nextIdleChecker();
+            if (idleChecker != null) {
+                return idleChecker;
+            }
+
+            growPool = additionalCheckers != null && poolSize < maxPoolSize;
+            if (growPool) {
+                // a checker being created is in use, so that the pool isn't released during its creation
+                ++poolSize;
+                ++checkersInUse;
+            }
+        }
+
+        if (growPool) {
+            try {
+                creationExecutor.execute(this::growPool);
+            } catch (RejectedExecutionException e) {
+                LOG.debug("Unable to schedule the creation of an additional pooled checker", e);
+                addToPool(null);
+            }
+        }
+
+        return waitForIdleChecker();
+    }
+
+    private void growPool() {
+        addToPool(createAdditionalChecker());
+    }
+
+    private void addToPool(@Nullable final CheckStyleChecker newChecker) {
+        final boolean released;
+        synchronized (this) {
+            --checkersInUse;
+            if (newChecker != null && !destroyed) {
+                LOG.debug("Growing checker pool to " + (allCheckers.size() + 1));
+                allCheckers.add(newChecker);
+                idleCheckers.push(newChecker);
+                notifyAll();
+                return;
+            }
+            --poolSize;
+            released = releaseIfUnused();
+        }
+        if (newChecker != null) {
+            newChecker.destroy();
+        }
+        if (released) {
+            runDestroyActions();
+        }
+    }
+
+    void returnChecker(@NotNull final CheckStyleChecker checker) {
+        final boolean released;
+        synchronized (this) {
+            --checkersInUse;
+            if (!destroyed) {
+                idleCheckers.push(checker);
+                notifyAll();
+                return;
+            }
+            released = releaseIfUnused();
+        }
+        checker.destroy();
+        if (released) {
+            runDestroyActions();
+        }
+    }
+
+    /**
+     * @return true if the pool has been destroyed and no checkers remain in use, and this has not been reported before.
+     */
+    private boolean releaseIfUnused() {
+        if (destroyed && checkersInUse == 0 && !destroyActionsRun) {
+            destroyActionsRun = true;
+            return true;
+        }
+        return false;
+    }
+
+    private void runDestroyActions() {
+        final List<Runnable> actions;
+        synchronized (this) {
+            actions = new ArrayList<>(destroyActions);
+            destroyActions.clear();
+        }
+        for (final Runnable action : actions) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                LOG.warn("Failed to release resources of destroyed checker pool", e);
+            }
+        }
+    }
+
+    @Nullable
+    private CheckStyleChecker createAdditionalChecker() {
+        try {
+            return additionalCheckers.get();
+        } catch (RuntimeException e) {
+            LOG.debug("Failed to create an additional pooled checker; waiting for an existing one", e);
+            return null;
+        }
+    }
+
+    @Nullable
+    private CheckStyleChecker nextIdleChecker() {
+        if (destroyed) {
+            throw new CheckStylePluginException("Checker has been destroyed");
+        }
+        final CheckStyleChecker idleChecker = idleCheckers.poll();
+        if (idleChecker != null) {
+            ++checkersInUse;
+        }
+        return idleChecker;
+    }
+
+    @NotNull
+    private synchronized CheckStyleChecker waitForIdleChecker() {
+        CheckStyleChecker idleChecker = nextIdleChecker();
+        while (idleChecker == null) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ProcessCanceledException(e);
+            }
+            idleChecker = nextIdleChecker();
+        }
+        return idleChecker;
+    }
+
+    private final class PooledCheckStyleChecker extends CheckStyleChecker {
+
+        PooledCheckStyleChecker(@NotNull final CheckStyleChecker prototype) {
+            super(prototype);
+        }
+
+        @NotNull
+        @Override
+        public Map<PsiFile, List<Problem>> scan(@NotNull final List<ScannableFile> scannableFiles,
+                                                final boolean suppressErrors) {
+            if (scanResultCache == null || configurationFingerprint == null) {
+                return withPooledChecker(checker -> checker.scan(scannableFiles, suppressErrors));
+            }
+            return scanResultCache.scan(this, configurationFingerprint, scannableFiles, suppressErrors,
+                    filesToAudit -> withPooledChecker(checker -> checker.audit(filesToAudit)));
+        }
+
+        private <T> T withPooledChecker(final Function<CheckStyleChecker, T> action) {
+            final CheckStyleChecker checker = borrowChecker();
+            try {
+                return action.apply(checker);
+            } finally {
+                returnChecker(checker);
+            }
+        }
+
+        @Override
+        public void destroy() {
+            CachedChecker.this.destroy();
+        }
     }
 }
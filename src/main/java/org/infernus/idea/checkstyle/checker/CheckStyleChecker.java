@@ -3,16 +3,21 @@ package org.infernus.idea.checkstyle.checker;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.search.scope.packageSet.NamedScope;
+import org.infernus.idea.checkstyle.checks.Check;
 import org.infernus.idea.checkstyle.csapi.CheckstyleActions;
 import org.infernus.idea.checkstyle.csapi.CheckstyleInternalObject;
+import org.infernus.idea.checkstyle.csapi.Issue;
+import org.infernus.idea.checkstyle.csapi.ProcessResultsThread;
 import org.infernus.idea.checkstyle.model.NamedScopeHelper;
 import org.infernus.idea.checkstyle.util.ClassLoaderDumper;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 
@@ -26,17 +31,41 @@ public class CheckStyleChecker {
     private final int tabWidth;
     private final Optional<String> baseDir;
     private final Optional<NamedScope> namedScope;
+    private final List<Check> checks;
+    private final Set<String> associatedFiles;
 
     public CheckStyleChecker(@NotNull final CheckstyleInternalObject checkerWithConfig,
                              final int tabWidth,
                              @NotNull final Optional<String> baseDir,
                              @NotNull final CheckstyleActions csServiceInstance,
-                             final Optional<NamedScope> namedScope) {
+                             final Optional<NamedScope> namedScope,
+                             @NotNull final List<Check> checks) {
+        this(checkerWithConfig, tabWidth, baseDir, csServiceInstance, namedScope, checks, Collections.emptySet());
+    }
+
+    /**
+     * @param checkerWithConfig the Checkstyle checker and its configuration.
+     * @param tabWidth          the tab width.
+     * @param baseDir           the base directory of the checker, if any.
+     * @param csServiceInstance the Checkstyle version to use.
+     * @param namedScope        the scope of files to check, if any.
+     * @param checks            the plugin's additional checks, configured for this checker.
+     * @param associatedFiles   the local files the configuration refers to, such as suppressions or headers.
+     */
+    public CheckStyleChecker(@NotNull final CheckstyleInternalObject checkerWithConfig,
+                             final int tabWidth,
+                             @NotNull final Optional<String> baseDir,
+                             @NotNull final CheckstyleActions csServiceInstance,
+                             final Optional<NamedScope> namedScope,
+                             @NotNull final List<Check> checks,
+                             @NotNull final Set<String> associatedFiles) {
         this.checkerWithConfig = checkerWithConfig;
         this.tabWidth = tabWidth;
         this.baseDir = baseDir;
         this.csServiceInstance = csServiceInstance;
         this.namedScope = namedScope;
+        this.checks = checks;
+        this.associatedFiles = associatedFiles;
 
         if (LOG.isDebugEnabled()) {
             LOG.debug("Creating Checkstyle instances with CheckStyle classpath:\n"
@@ -44,19 +73,94 @@ public class CheckStyleChecker {
         }
     }
 
+    /**
+     * Create a checker sharing the Checkstyle instance and settings of another.
+     *
+     * @param prototype the checker to copy.
+     */
+    CheckStyleChecker(@NotNull final CheckStyleChecker prototype) {
+        this.checkerWithConfig = prototype.checkerWithConfig;
+        this.tabWidth = prototype.tabWidth;
+        this.baseDir = prototype.baseDir;
+        this.csServiceInstance = prototype.csServiceInstance;
+        this.namedScope = prototype.namedScope;
+        this.checks = prototype.checks;
+        this.associatedFiles = prototype.associatedFiles;
+    }
+
+    @NotNull
+    CheckstyleInternalObject getCheckerWithConfig() {
+        return checkerWithConfig;
+    }
+
+    @NotNull
+    Set<String> getAssociatedFiles() {
+        return associatedFiles;
+    }
+
     @NotNull
     public Map<PsiFile, List<Problem>> scan(@NotNull final List<ScannableFile> scannableFiles,
                                             final boolean suppressErrors) {
-        final List<ScannableFile> filteredFiles = this.namedScope.map(scope -> scannableFiles.stream()
+        final List<ScannableFile> filteredFiles = filesInScope(scannableFiles);
+
+        if (filteredFiles.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        return csServiceInstance.scan(checkerWithConfig, filteredFiles, suppressErrors, tabWidth, baseDir);
+    }
+
+    @NotNull
+    List<ScannableFile> filesInScope(@NotNull final List<ScannableFile> scannableFiles) {
+        return this.namedScope.map(scope -> scannableFiles.stream()
                         .filter(scannableFile -> NamedScopeHelper.isFileInScope(scannableFile.getPsiFile(), scope))
                         .collect(Collectors.toList()))
                 .orElse(scannableFiles);
+    }
 
-        if (filteredFiles.isEmpty()) {
+    /**
+     * Run Checkstyle over files without mapping the results onto the PSI. No scope filtering is applied.
+     *
+     * @param scannableFiles the files to audit.
+     * @return the issues reported.
+     */
+    @NotNull
+    List<Issue> audit(@NotNull final List<ScannableFile> scannableFiles) {
+        if (scannableFiles.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return csServiceInstance.audit(checkerWithConfig, scannableFiles);
+    }
+
+    /**
+     * Map issues onto the PSI of the files they were reported against.
+     *
+     * @param issues         the issues, as returned by {@link #audit(List)}.
+     * @param scannableFiles the files the issues may belong to.
+     * @param suppressErrors whether errors should be suppressed.
+     * @return the problems found, by file.
+     */
+    @NotNull
+    Map<PsiFile, List<Problem>> problemsFor(@NotNull final List<Issue> issues,
+                                            @NotNull final List<ScannableFile> scannableFiles,
+                                            final boolean suppressErrors) {
+        if (issues.isEmpty()) {
             return Collections.emptyMap();
         }
 
-        return csServiceInstance.scan(checkerWithConfig, filteredFiles, suppressErrors, tabWidth, baseDir);
+        final Map<String, PsiFile> fileNamesToPsiFiles = new HashMap<>();
+        scannableFiles.forEach(file -> fileNamesToPsiFiles.put(file.getAbsolutePath(), file.getPsiFile()));
+
+        return ProcessResultsThread.processInChunks(suppressErrors, checks, tabWidth, baseDir, issues,
+                fileNamesToPsiFiles);
+    }
+
+    /**
+     * @param issue an issue reported by this checker.
+     * @return the path of the file the issue was reported against, as given by {@link ScannableFile#getAbsolutePath()}.
+     */
+    String fileNameOf(@NotNull final Issue issue) {
+        return ProcessResultsThread.fileNameOf(issue, baseDir);
     }
 
     public void destroy() {
@@ -0,0 +1,84 @@
+package org.infernus.idea.checkstyle.checker;
+
+import com.intellij.openapi.util.io.FileUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * What a cached checker was created from, beyond its location and module, so that it may be discarded when any of
+ * it changes.
+ */
+final class CheckerDependencies {
+
+    static final CheckerDependencies NONE = new CheckerDependencies(null, Collections.emptySet());
+
+    @Nullable
+    private final String checkstyleVersion;
+    private final Set<String> filePaths;
+    @Nullable
+    private final String classpathFingerprint;
+
+    /**
+     * @param checkstyleVersion the Checkstyle version the checker was created with, or null if unknown.
+     * @param filePaths         the local files the checker was created from, e.g. the rules and suppressions files.
+     */
+    CheckerDependencies(@Nullable final String checkstyleVersion,
+                        @NotNull final Collection<String> filePaths) {
+        this(checkstyleVersion, filePaths, null);
+    }
+
+    /**
+     * @param checkstyleVersion    the Checkstyle version the checker was created with, or null if unknown.
+     * @param filePaths            the local files the checker was created from, e.g. the rules and suppressions
+     *                             files.
+     * @param classpathFingerprint the fingerprint of the classpath of the checked code, or null if unknown.
+     */
+    CheckerDependencies(@Nullable final String checkstyleVersion,
+                        @NotNull final Collection<String> filePaths,
+                        @Nullable final String classpathFingerprint) {
+        this.checkstyleVersion = checkstyleVersion;
+        this.classpathFingerprint = classpathFingerprint;
+        this.filePaths = filePaths.stream()
+                .filter(Objects::nonNull)
+                .map(FileUtil::toSystemIndependentName)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    boolean isCreatedWith(@Nullable final String activeCheckstyleVersion) {
+        return checkstyleVersion == null || checkstyleVersion.equals(activeCheckstyleVersion);
+    }
+
+    /**
+     * @param currentClasspathFingerprint the fingerprint of the classpath of the checked code as it is now, or null
+     *                                    if it has none.
+     * @return true if the checker was created with a different, or an unknown, classpath.
+     */
+    boolean isClasspathChanged(@Nullable final String currentClasspathFingerprint) {
+        return classpathFingerprint == null || !classpathFingerprint.equals(currentClasspathFingerprint);
+    }
+
+    /**
+     * @param changedPath the system-independent path of a changed file or directory.
+     * @return true if the change affects a file this checker was created from.
+     */
+    boolean isAffectedBy(@NotNull final String changedPath) {
+        final String changedDirectory = changedPath.endsWith("/") ? changedPath : changedPath + "/";
+        for (final String filePath : filePaths) {
+            if (filePath.equals(changedPath) || filePath.startsWith(changedDirectory)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @NotNull
+    Set<String> getFilePaths() {
+        return filePaths;
+    }
+}
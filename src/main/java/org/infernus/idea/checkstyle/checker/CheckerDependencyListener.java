@@ -0,0 +1,80 @@
+package org.infernus.idea.checkstyle.checker;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.module.ModuleManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ModuleRootEvent;
+import com.intellij.openapi.roots.ModuleRootListener;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileMoveEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFilePropertyChangeEvent;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Discards cached checkers when something they were created from changes: a file they were loaded from, such as the
+ * rules or suppressions, or the classpath of the checked code when module roots change. Registered in
+ * {@code plugin.xml}.
+ * <p>
+ * Only changes to files known to the VFS are seen; the <em>Reload Rules Files</em> action remains for anything else.
+ */
+public class CheckerDependencyListener implements BulkFileListener, ModuleRootListener {
+
+    private static final Logger LOG = Logger.getInstance(CheckerDependencyListener.class);
+
+    private final Project project;
+
+    public CheckerDependencyListener(@NotNull final Project project) {
+        this.project = project;
+    }
+
+    @Override
+    public void after(@NotNull final List<? extends VFileEvent> events) {
+        final CheckerFactoryCache checkerFactoryCache = project.getServiceIfCreated(CheckerFactoryCache.class);
+        if (checkerFactoryCache == null || events.isEmpty()) {
+            return;
+        }
+
+        if (checkerFactoryCache.invalidateCheckersAffectedBy(changedPathsOf(events))) {
+            LOG.debug("Checker dependencies have changed; cached results will be discarded");
+            final ScanResultCache scanResultCache = project.getServiceIfCreated(ScanResultCache.class);
+            if (scanResultCache != null) {
+                scanResultCache.invalidate();
+            }
+        }
+    }
+
+    @Override
+    public void rootsChanged(@NotNull final ModuleRootEvent event) {
+        final CheckerFactoryCache checkerFactoryCache = project.getServiceIfCreated(CheckerFactoryCache.class);
+        if (checkerFactoryCache == null) {
+            return;
+        }
+
+        final ModuleClassPathBuilder moduleClassPathBuilder = project.getService(ModuleClassPathBuilder.class);
+        final ModuleManager moduleManager = ModuleManager.getInstance(project);
+        if (checkerFactoryCache.invalidateModuleCheckers(moduleName ->
+                moduleClassPathBuilder.classpathFingerprintOf(moduleManager.findModuleByName(moduleName)))) {
+            LOG.debug("Module classpaths have changed; their checkers have been discarded");
+        }
+    }
+
+    @NotNull
+    private Set<String> changedPathsOf(@NotNull final List<? extends VFileEvent> events) {
+        final Set<String> changedPaths = new HashSet<>();
+        for (final VFileEvent event : events) {
+            changedPaths.add(event.getPath());
+            if (event instanceof VFileMoveEvent) {
+                changedPaths.add(((VFileMoveEvent) event).getNewPath());
+            } else if (event instanceof VFilePropertyChangeEvent
+                    && ((VFilePropertyChangeEvent) event).isRename()) {
+                changedPaths.add(((VFilePropertyChangeEvent) event).getNewPath());
+            }
+        }
+        return changedPaths;
+    }
+}
@@ -2,13 +2,19 @@ package org.infernus.idea.checkstyle.checker;
 
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.module.Module;
+import com.intellij.openapi.progress.ProcessCanceledException;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.project.ProjectUtil;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import org.infernus.idea.checkstyle.CheckstyleProjectService;
+import org.infernus.idea.checkstyle.csapi.CheckstyleActions;
+import org.infernus.idea.checkstyle.csapi.CheckstyleInternalObject;
 import org.infernus.idea.checkstyle.exception.CheckStylePluginException;
 import org.infernus.idea.checkstyle.exception.CheckstyleToolException;
 import org.infernus.idea.checkstyle.model.ConfigurationLocation;
+import org.infernus.idea.checkstyle.model.FileConfigurationLocation;
+import org.infernus.idea.checkstyle.util.Async;
 import org.infernus.idea.checkstyle.util.ClassLoaderDumper;
 import org.infernus.idea.checkstyle.util.Notifications;
 import org.jetbrains.annotations.NotNull;
@@ -16,9 +22,22 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import static org.infernus.idea.checkstyle.CheckStyleBundle.message;
 import static org.infernus.idea.checkstyle.util.Exceptions.rootCauseOf;
@@ -31,9 +50,22 @@ import static org.infernus.idea.checkstyle.util.Strings.isBlank;
 public class CheckerFactory {
     private static final Logger LOG = Logger.getInstance(CheckerFactory.class);
 
+    private static final ExecutorService CREATION_EXECUTOR = AppExecutorUtil.createBoundedApplicationPoolExecutor(
+            "CheckStyle-IDEA Checker Creation", Math.max(2, Runtime.getRuntime().availableProcessors() / 2));
+
+    /**
+     * Checks whose results for a file depend on other files, so can't be cached against the file's content alone.
+     */
+    private static final Set<String> CROSS_FILE_CHECKS = Set.of("Translation", "JavadocPackage");
+
+    private final SharedCreations<CheckerFactoryCacheKey, CachedChecker> checkersBeingCreated
+            = new SharedCreations<>();
+    private final Map<List<CachedChecker>, CompletableFuture<Optional<CachedChecker>>> mergedCheckers
+            = new ConcurrentHashMap<>();
+
     private final Project project;
     private CheckstyleProjectService checkstyleProjectService;
-    private  CheckerFactoryCache cache;
+    private CheckerFactoryCache cache;
 
     @SuppressWarnings("unused") // IDEA's DI
     public CheckerFactory(@NotNull final Project project) {
@@ -65,16 +97,218 @@ public class CheckerFactory {
                 return Optional.of(cachedChecker.getCheckStyleChecker());
             }
             return Optional.empty();
+        } catch (ProcessCanceledException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CheckStylePluginException("Couldn't create Checker from " + location, e);
+        }
+    }
+
+
+    /**
+     * Create and cache the checker for a location ahead of its use, at minimum thread priority so as to compete as
+     * little as possible with the work of opening a project. A request for the checker while it is being created
+     * shares this creation.
+     *
+     * @param module   the module, if any.
+     * @param location the location.
+     */
+    public void prewarm(@Nullable final Module module,
+                        @NotNull final ConfigurationLocation location) {
+        LOG.debug("Pre-warming CheckStyle checker with location ", location);
+
+        try {
+            getOrCreateCachedChecker(location, module, Thread.MIN_PRIORITY);
+        } catch (ProcessCanceledException e) {
+            throw e;
         } catch (Exception e) {
             throw new CheckStylePluginException("Couldn't create Checker from " + location, e);
         }
     }
 
+    /**
+     * Get a checker which applies the rules of several locations in a single pass over each file.
+     * <p>
+     * The merged checker is kept for as long as the checkers of all its locations are.
+     *
+     * @param module    the module, if any.
+     * @param locations the locations to merge.
+     * @return the checker, or empty if a checker could not be created for every location or their rules can't be
+     * merged, in which case the locations should be checked separately.
+     */
+    public Optional<CheckStyleChecker> mergedChecker(@Nullable final Module module,
+                                                     @NotNull final List<ConfigurationLocation> locations) {
+        if (locations.size() < 2) {
+            return Optional.empty();
+        }
+        LOG.debug("Getting merged CheckStyle checker with locations ", locations);
+
+        try {
+            final List<CachedChecker> locationCheckers = new ArrayList<>();
+            for (final ConfigurationLocation location : locations) {
+                final CachedChecker locationChecker = getOrCreateCachedChecker(location, module);
+                if (locationChecker == null) {
+                    return Optional.empty();
+                }
+                locationCheckers.add(locationChecker);
+            }
+
+            final List<CachedChecker> key = List.copyOf(locationCheckers);
+            final CompletableFuture<Optional<CachedChecker>> newMerge = new CompletableFuture<>();
+            final CompletableFuture<Optional<CachedChecker>> existingMerge = mergedCheckers.putIfAbsent(key, newMerge);
+            if (existingMerge != null) {
+                return resultOf(existingMerge).map(CachedChecker::getCheckStyleChecker);
+            }
+
+            key.forEach(locationChecker -> locationChecker.onDestroyed(new MergedCheckerDiscard(key)));
+            CompletableFuture.supplyAsync(() -> createMergedChecker(key, module), CREATION_EXECUTOR)
+                    .whenComplete((mergedChecker, error) -> {
+                        if (error != null) {
+                            if (mergedCheckers.remove(key, newMerge)) {
+                                withdrawMergedCheckerDiscard(key);
+                            }
+                            newMerge.completeExceptionally(error);
+                        } else {
+                            newMerge.complete(mergedChecker);
+                        }
+                    });
+            return resultOf(newMerge).map(CachedChecker::getCheckStyleChecker);
+
+        } catch (ProcessCanceledException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CheckStylePluginException("Couldn't create merged Checker from " + locations, e);
+        }
+    }
+
+    private void discardMergedChecker(@NotNull final List<CachedChecker> locationCheckers) {
+        final CompletableFuture<Optional<CachedChecker>> merge = mergedCheckers.remove(locationCheckers);
+        if (merge != null) {
+            withdrawMergedCheckerDiscard(locationCheckers);
+            merge.thenAccept(mergedChecker -> mergedChecker.ifPresent(CachedChecker::destroy));
+        }
+    }
+
+    /**
+     * Withdraw the discard of a merged checker from its location checkers, so that the checkers which outlive the
+     * merge don't accumulate an action for each merge they were part of.
+     */
+    private void withdrawMergedCheckerDiscard(@NotNull final List<CachedChecker> locationCheckers) {
+        final MergedCheckerDiscard discard = new MergedCheckerDiscard(locationCheckers);
+        locationCheckers.forEach(locationChecker -> locationChecker.removeOnDestroyed(discard));
+    }
+
+    @NotNull
+    private Optional<CachedChecker> createMergedChecker(@NotNull final List<CachedChecker> locationCheckers,
+                                                        @Nullable final Module module) {
+        final List<CheckStyleChecker> checkers = locationCheckers.stream()
+                .map(CachedChecker::getCheckStyleChecker)
+                .collect(Collectors.toList());
+
+        final ClassLoader loaderOfCheckedCode = moduleClassPathBuilder().acquire(module);
+        CachedChecker mergedChecker = null;
+        try {
+            final CheckStyleChecker checker = mergeCheckers(checkers, loaderOfCheckedCode);
+            if (checker != null) {
+                mergedChecker = new CachedChecker(checker,
+                        () -> mergeCheckers(checkers, loaderOfCheckedCode),
+                        CREATION_EXECUTOR,
+                        CachedChecker.DEFAULT_MAX_POOL_SIZE,
+                        null,
+                        null,
+                        CheckerDependencies.NONE);
+            }
+        } catch (ProcessCanceledException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            // each location's checker has been created successfully, so they can still be used separately
+            LOG.info("Unable to merge checkers; locations will be checked separately", e);
+        } finally {
+            if (mergedChecker != null) {
+                mergedChecker.onDestroyed(() -> moduleClassPathBuilder().release(loaderOfCheckedCode));
+            } else {
+                moduleClassPathBuilder().release(loaderOfCheckedCode);
+            }
+        }
+        return Optional.ofNullable(mergedChecker);
+    }
+
+    /**
+     * Create a checker from the configurations of the given checkers, with the classloader of the checked code as
+     * the thread's context classloader.
+     *
+     * @return the checker, or null if the configurations can't be merged.
+     */
+    @Nullable
+    private CheckStyleChecker mergeCheckers(@NotNull final List<CheckStyleChecker> checkers,
+                                            @NotNull final ClassLoader loaderOfCheckedCode) {
+        final Thread currentThread = Thread.currentThread();
+        final ClassLoader originalContextClassLoader = currentThread.getContextClassLoader();
+        currentThread.setContextClassLoader(loaderOfCheckedCode);
+
+        try {
+            final CheckstyleActions checkstyleActions = checkstyleProjectService.getCheckstyleInstance();
+            final CheckstyleInternalObject mergedChecker = checkstyleActions.mergeCheckers(checkers.stream()
+                    .map(CheckStyleChecker::getCheckerWithConfig)
+                    .collect(Collectors.toList()), loaderOfCheckedCode);
+            if (mergedChecker == null) {
+                return null;
+            }
+            return new MergedCheckStyleChecker(mergedChecker, checkstyleActions, checkers);
+        } finally {
+            currentThread.setContextClassLoader(originalContextClassLoader);
+        }
+    }
 
     private CachedChecker getOrCreateCachedChecker(@NotNull final ConfigurationLocation location,
                                                    @Nullable final Module module) {
-        final Optional<CachedChecker> cachedChecker = cache.get(location, module);
+        return getOrCreateCachedChecker(location, module, Thread.NORM_PRIORITY);
+    }
+
+    private CachedChecker getOrCreateCachedChecker(@NotNull final ConfigurationLocation location,
+                                                   @Nullable final Module module,
+                                                   final int creationPriority) {
+        final Optional<CachedChecker> cachedChecker = validCachedChecker(location, module);
+        if (cachedChecker.isPresent()) {
+            return cachedChecker.get();
+        }
+
+        // concurrent requests for the same checker share a single creation, which continues if they're cancelled
+        final CheckerFactoryCacheKey key = new CheckerFactoryCacheKey(location, module);
+        return resultOf(checkersBeingCreated.createOrJoin(key,
+                () -> withPriority(creationPriority, () -> createAndCacheChecker(location, module)),
+                CREATION_EXECUTOR));
+    }
+
+    private static <T> T withPriority(final int priority, @NotNull final Supplier<T> action) {
+        final Thread currentThread = Thread.currentThread();
+        final int originalPriority = currentThread.getPriority();
+        if (priority == originalPriority) {
+            return action.get();
+        }
+
+        try {
+            // threads created while loading the checker inherit this priority
+            currentThread.setPriority(priority);
+            return action.get();
+        } finally {
+            currentThread.setPriority(originalPriority);
+        }
+    }
+
+    private Optional<CachedChecker> validCachedChecker(@NotNull final ConfigurationLocation location,
+                                                       @Nullable final Module module) {
+        return cache.get(location, module)
+                .filter(checker -> checker.getDependencies()
+                        .isCreatedWith(checkstyleProjectService.getActiveCheckstyleVersion()));
+    }
+
+    @Nullable
+    private CachedChecker createAndCacheChecker(@NotNull final ConfigurationLocation location,
+                                                @Nullable final Module module) {
+        final Optional<CachedChecker> cachedChecker = validCachedChecker(location, module);
         if (cachedChecker.isPresent()) {
+            // created by a request which completed after our caller looked in the cache
             return cachedChecker.get();
         }
 
@@ -82,10 +316,22 @@ public class CheckerFactory {
         final CachedChecker checker = createChecker(location, module);
         if (checker != null) {
             cache.put(location, module, checker);
-            return checker;
         }
+        return checker;
+    }
 
-        return null;
+    private static <T> T resultOf(@NotNull final Future<T> future) {
+        try {
+            return Async.resultOf(future);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new CheckStylePluginException("Checker creation failed", cause);
+        }
     }
 
     private Map<String, String> addEclipseCsProperties(final ConfigurationLocation location,
@@ -130,17 +376,34 @@ public class CheckerFactory {
 
     private CachedChecker createChecker(@NotNull final ConfigurationLocation location,
                                         @Nullable final Module module) {
-        final ListPropertyResolver propertyResolver;
+        // the properties used by the rules are updated when the rules are parsed
+        final Map<String, String> properties = removeEmptyProperties(location.getProperties());
+        final ListPropertyResolver propertyResolver = new ListPropertyResolver(
+                addEclipseCsProperties(location, module, properties));
+
+        // fingerprinted first, so a change to the classpath while the checker is created is seen as a change
+        final String classpathFingerprint = moduleClassPathBuilder().classpathFingerprintOf(module);
+        final ClassLoader loaderOfCheckedCode = moduleClassPathBuilder().acquire(module);
+        CachedChecker cachedChecker = null;
         try {
-            location.ensurePropertiesAreUpToDate(checkstyleProjectService.underlyingClassLoader());
-            final Map<String, String> properties = removeEmptyProperties(location.getProperties());
-            propertyResolver = new ListPropertyResolver(addEclipseCsProperties(location, module, properties));
-        } catch (IOException e) {
-            LOG.info("CheckStyle properties could not be loaded: " + location.getLocation(), e);
-            return blockAndShowMessage(location, module, e, "checkstyle.file-io-failed", location.getLocation());
+            cachedChecker = createChecker(location, module, propertyResolver, loaderOfCheckedCode,
+                    classpathFingerprint);
+        } finally {
+            if (cachedChecker != null) {
+                cachedChecker.onDestroyed(() -> moduleClassPathBuilder().release(loaderOfCheckedCode));
+            } else {
+                moduleClassPathBuilder().release(loaderOfCheckedCode);
+            }
         }
+        return cachedChecker;
+    }
 
-        final ClassLoader loaderOfCheckedCode = moduleClassPathBuilder().build(module);
+    @Nullable
+    private CachedChecker createChecker(@NotNull final ConfigurationLocation location,
+                                        @Nullable final Module module,
+                                        @NotNull final ListPropertyResolver propertyResolver,
+                                        @NotNull final ClassLoader loaderOfCheckedCode,
+                                        @Nullable final String classpathFingerprint) {
         if (LOG.isDebugEnabled()) {
             LOG.debug("Call to create new checker with properties:\n"
                     + dumpProperties(propertyResolver)
@@ -160,7 +423,95 @@ public class CheckerFactory {
             return blockAndShowException(location, module, (Throwable) workerResult);
         }
 
-        return (CachedChecker) workerResult;
+        final CheckStyleChecker checker = (CheckStyleChecker) workerResult;
+        final CheckerDependencies dependencies = dependenciesOf(location, checker, classpathFingerprint);
+        return new CachedChecker(checker,
+                () -> createAdditionalChecker(location, module, propertyResolver, loaderOfCheckedCode),
+                CREATION_EXECUTOR,
+                CachedChecker.DEFAULT_MAX_POOL_SIZE,
+                project.getService(ScanResultCache.class),
+                configurationFingerprint(location, propertyResolver, checker, dependencies),
+                dependencies);
+    }
+
+    @NotNull
+    private CheckerDependencies dependenciesOf(@NotNull final ConfigurationLocation location,
+                                               @NotNull final CheckStyleChecker checker,
+                                               @Nullable final String classpathFingerprint) {
+        final Set<String> filePaths = new HashSet<>(checker.getAssociatedFiles());
+        final String rulesFile = location.getLocation();
+        if (location instanceof FileConfigurationLocation && !isBlank(rulesFile)) {
+            // for rules within a JAR, it's the JAR we'll be notified of changes to
+            final int jarSeparator = rulesFile.indexOf("!/");
+            filePaths.add(new File(jarSeparator >= 0 ? rulesFile.substring(0, jarSeparator) : rulesFile)
+                    .getAbsolutePath());
+        }
+        return new CheckerDependencies(checkstyleProjectService.getActiveCheckstyleVersion(), filePaths,
+                classpathFingerprint);
+    }
+
+    /**
+     * @return the fingerprint of the configuration, including the content of the files it depends on, or null if
+     * these can't be read or the rules contain checks that depend on other files, in which case results will not be
+     * cached.
+     */
+    @Nullable
+    private String configurationFingerprint(@NotNull final ConfigurationLocation location,
+                                            @NotNull final ListPropertyResolver propertyResolver,
+                                            @NotNull final CheckStyleChecker checker,
+                                            @NotNull final CheckerDependencies dependencies) {
+        try (InputStream rulesContent = location.resolve(checkstyleProjectService.underlyingClassLoader())) {
+            if (hasCrossFileChecks(checker)) {
+                LOG.debug("Rules contain checks depending on other files; results will not be cached for "
+                        + location);
+                return null;
+            }
+            return ScanResultCache.fingerprintOf(location, propertyResolver.getPropertyNamesToValues(),
+                    checkstyleProjectService.getActiveCheckstyleVersion(), rulesContent, dependencies.getFilePaths());
+        } catch (IOException | RuntimeException e) {
+            LOG.debug("Unable to fingerprint rules; results will not be cached for " + location, e);
+            return null;
+        }
+    }
+
+    private boolean hasCrossFileChecks(@NotNull final CheckStyleChecker checker) {
+        final AtomicBoolean crossFileChecks = new AtomicBoolean();
+        checkstyleProjectService.getCheckstyleInstance().peruseConfiguration(checker.getCheckerWithConfig(),
+                module -> {
+                    if (CROSS_FILE_CHECKS.contains(simpleCheckNameOf(module.getName()))) {
+                        crossFileChecks.set(true);
+                    }
+                });
+        return crossFileChecks.get();
+    }
+
+    @NotNull
+    private static String simpleCheckNameOf(@NotNull final String moduleName) {
+        final String simpleName = moduleName.substring(moduleName.lastIndexOf('.') + 1);
+        if (simpleName.endsWith("Check")) {
+            return simpleName.substring(0, simpleName.length() - "Check".length());
+        }
+        return simpleName;
+    }
+
+    /**
+     * Create a further checker for a location that has already been successfully loaded, to allow concurrent scans.
+     * Failures are not reported to the user, as the pool can continue with the checkers it already has.
+     * <p>
+     * The pool runs this on {@link #CREATION_EXECUTOR}, so the worker is executed directly.
+     */
+    @Nullable
+    private CheckStyleChecker createAdditionalChecker(@NotNull final ConfigurationLocation location,
+                                                      @Nullable final Module module,
+                                                      final ListPropertyResolver resolver,
+                                                      @NotNull final ClassLoader loaderOfCheckedCode) {
+        final Object workerResult = executeWorker(location, module, resolver, loaderOfCheckedCode);
+        if (workerResult instanceof CheckStyleChecker) {
+            return (CheckStyleChecker) workerResult;
+        }
+
+        LOG.debug("Additional checker could not be created for " + location, (Throwable) workerResult);
+        return null;
     }
 
     private Map<String, String> removeEmptyProperties(final Map<String, String> properties) {
@@ -174,23 +525,15 @@ public class CheckerFactory {
     }
 
 
+    /**
+     * Create a checker. This must be called on the creation executor.
+     */
     private Object executeWorker(@NotNull final ConfigurationLocation location,
                                  @Nullable final Module module,
                                  final ListPropertyResolver resolver,
                                  @NotNull final ClassLoader loaderOfCheckedCode) {
-        final CheckerFactoryWorker worker = new CheckerFactoryWorker(location,
-                resolver.getPropertyNamesToValues(), project, module, checkstyleProjectService, loaderOfCheckedCode);
-        worker.start();
-
-        while (worker.isAlive()) {
-            try {
-                worker.join();
-            } catch (InterruptedException ignored) {
-                Thread.currentThread().interrupt();
-            }
-        }
-
-        return worker.getResult();
+        return new CheckerFactoryWorker(location, resolver.getPropertyNamesToValues(), project, module,
+                checkstyleProjectService, loaderOfCheckedCode).call();
     }
 
     private CachedChecker blockAndShowMessage(final ConfigurationLocation location,
@@ -260,4 +603,37 @@ public class CheckerFactory {
         }
         return dump.toString();
     }
+
+    /**
+     * Discards the merged checker of some location checkers when any of them is destroyed. Discards of the same
+     * location checkers are equal, so one may be withdrawn from the checkers which remain.
+     */
+    private final class MergedCheckerDiscard implements Runnable {
+        private final List<CachedChecker> locationCheckers;
+
+        MergedCheckerDiscard(@NotNull final List<CachedChecker> locationCheckers) {
+            this.locationCheckers = locationCheckers;
+        }
+
+        @Override
+        public void run() {
+            discardMergedChecker(locationCheckers);
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (other == null || getClass() != other.getClass()) {
+                return false;
+            }
+            return locationCheckers.equals(((MergedCheckerDiscard) other).locationCheckers);
+        }
+
+        @Override
+        public int hashCode() {
+            return locationCheckers.hashCode();
+        }
+    }
 }
@@ -8,32 +8,60 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+/**
+ * Caches checkers by location and module.
+ * <p>
+ * Checkers are kept until something they were created from changes, which is signalled by the
+ * {@link CheckerDependencyListener}, or until the cache is invalidated. The number of checkers is bounded, the least
+ * recently used being discarded first.
+ */
 public class CheckerFactoryCache implements Disposable {
 
     private static final Logger LOG = Logger.getInstance(CheckerFactoryCache.class);
 
-    private final Map<CheckerFactoryCacheKey, CachedChecker> cache = new ConcurrentHashMap<>();
+    static final int DEFAULT_MAX_ENTRIES = 64;
 
-    public Optional<CachedChecker> get(@NotNull final ConfigurationLocation location,
-                                       @Nullable final Module module) {
-        cleanUpExpiredCachedCheckers();
+    private final int maxEntries;
+    private final Map<CheckerFactoryCacheKey, CachedChecker> cache;
+    /**
+     * Checkers evicted by the cache, which are destroyed once the cache lock is released. Guarded by the cache.
+     */
+    private final List<CachedChecker> evictedCheckers = new ArrayList<>();
+
+    public CheckerFactoryCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
 
-        final CheckerFactoryCacheKey key = new CheckerFactoryCacheKey(location, module);
+    CheckerFactoryCache(final int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<CheckerFactoryCacheKey, CachedChecker> eldest) {
+                if (size() > maxEntries) {
+                    LOG.debug("Checker cache is full; discarding least recently used checker");
+                    // destroyed by the caller once the cache lock is released
+                    evictedCheckers.add(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
 
-        final CachedChecker cachedChecker = cache.get(key);
-        if (cachedChecker != null && cachedChecker.isValid()) {
-            LOG.debug("Valid cached checker found; returning for ", location);
-            return Optional.of(cachedChecker);
+    public Optional<CachedChecker> get(@NotNull final ConfigurationLocation location,
+                                       @Nullable final Module module) {
+        final CachedChecker cachedChecker;
+        synchronized (cache) {
+            cachedChecker = cache.get(new CheckerFactoryCacheKey(location, module));
         }
 
         if (cachedChecker != null) {
-            LOG.debug("Invalid cached checker found; deleting and returning empty for ", location);
-            cache.remove(key);
-            destroyChecker(cachedChecker);
+            LOG.debug("Cached checker found; returning for ", location);
         }
-        return Optional.empty();
+        return Optional.ofNullable(cachedChecker);
     }
 
     @Override
@@ -44,43 +72,109 @@ public class CheckerFactoryCache implements Disposable {
     public void put(@NotNull final ConfigurationLocation location,
                     @Nullable final Module module,
                     @NotNull final CachedChecker checker) {
-        cache.put(new CheckerFactoryCacheKey(location, module), checker);
+        final CachedChecker replacedChecker;
+        final List<CachedChecker> checkersToDestroy;
+        synchronized (cache) {
+            replacedChecker = cache.put(new CheckerFactoryCacheKey(location, module), checker);
+            checkersToDestroy = new ArrayList<>(evictedCheckers);
+            evictedCheckers.clear();
+        }
+
+        if (replacedChecker != null && replacedChecker != checker) {
+            destroyChecker(replacedChecker);
+        }
+        checkersToDestroy.forEach(this::destroyChecker);
     }
 
     public void invalidate() {
         LOG.debug("Cache invalidation requested");
 
-        List<CachedChecker> existingCheckers = new ArrayList<>(cache.values());
-        cache.clear();
+        invalidateIf((key, checker) -> true);
+    }
 
-        existingCheckers.forEach(this::destroyChecker);
+    /**
+     * Discard the checkers created for a location, as its rules have changed.
+     *
+     * @param location the location.
+     */
+    public void invalidateCheckersFor(@NotNull final ConfigurationLocation location) {
+        invalidateIf((key, checker) -> key.isFor(location));
     }
 
-    private void destroyChecker(final CachedChecker cachedChecker) {
-        try {
-            if (cachedChecker != null) {
-                cachedChecker.destroy();
-            }
-        } catch (Exception ignored) {
-        }
+    /**
+     * Discard the checkers created from any of the given files.
+     *
+     * @param changedPaths the system-independent paths of changed files or directories.
+     * @return true if any checker was discarded.
+     */
+    boolean invalidateCheckersAffectedBy(@NotNull final Collection<String> changedPaths) {
+        return invalidateIf((key, checker) -> changedPaths.stream()
+                .anyMatch(changedPath -> checker.getDependencies().isAffectedBy(changedPath)));
     }
 
-    private void cleanUpExpiredCachedCheckers() {
-        try {
-            List<CachedChecker> checkersToDestroy = new ArrayList<>();
+    /**
+     * Discard the checkers created for modules whose classpath has changed since.
+     *
+     * @param classpathFingerprints the current fingerprint of the classpath of a module, by module name; null if
+     *                              the module no longer exists.
+     * @return true if any checker was discarded.
+     */
+    boolean invalidateModuleCheckers(@NotNull final Function<String, String> classpathFingerprints) {
+        final Set<String> moduleNames = new HashSet<>();
+        synchronized (cache) {
+            cache.keySet().stream()
+                    .map(CheckerFactoryCacheKey::getModuleName)
+                    .filter(Objects::nonNull)
+                    .forEach(moduleNames::add);
+        }
+
+        // fingerprinting reads the module's classpath, so is done without holding the cache lock
+        final Map<String, String> fingerprintsByModule = new HashMap<>();
+        moduleNames.forEach(moduleName ->
+                fingerprintsByModule.put(moduleName, classpathFingerprints.apply(moduleName)));
+
+        return invalidateIf((key, checker) -> key.isForModule()
+                && checker.getDependencies().isClasspathChanged(fingerprintsByModule.get(key.getModuleName())));
+    }
 
+    private boolean invalidateIf(@NotNull final BiPredicate<CheckerFactoryCacheKey, CachedChecker> predicate) {
+        final List<CachedChecker> checkersToDestroy = new ArrayList<>();
+        synchronized (cache) {
             for (Iterator<Map.Entry<CheckerFactoryCacheKey, CachedChecker>> i = cache.entrySet().iterator(); i.hasNext();) {
-                Map.Entry<CheckerFactoryCacheKey, CachedChecker> cacheEntry = i.next();
-                if (cacheEntry.getValue() == null || !cacheEntry.getValue().isValid()) {
+                final Map.Entry<CheckerFactoryCacheKey, CachedChecker> cacheEntry = i.next();
+                if (predicate.test(cacheEntry.getKey(), cacheEntry.getValue())) {
                     checkersToDestroy.add(cacheEntry.getValue());
                     i.remove();
                 }
             }
+        }
+
+        if (!checkersToDestroy.isEmpty()) {
+            LOG.debug("Discarding ", checkersToDestroy.size(), " cached checkers");
+        }
+        checkersToDestroy.forEach(this::destroyChecker);
+        return !checkersToDestroy.isEmpty();
+    }
 
-            checkersToDestroy.forEach(this::destroyChecker);
+    /**
+     * @return the number of checkers that may be cached before the least recently used are discarded.
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
 
-        } catch (Exception e) {
-            LOG.error("Cleanup failed", e);
+    int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private void destroyChecker(final CachedChecker cachedChecker) {
+        try {
+            if (cachedChecker != null) {
+                cachedChecker.destroy();
+            }
+        } catch (Exception ignored) {
         }
     }
 }
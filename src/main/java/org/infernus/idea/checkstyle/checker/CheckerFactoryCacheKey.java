@@ -10,6 +10,9 @@ import org.jetbrains.annotations.Nullable;
 
 class CheckerFactoryCacheKey {
 
+    private static final String NO_PROJECT = "noProject";
+    private static final String NO_MODULE = "noModule";
+
     private final String projectName;
     private final String moduleName;
     private final ConfigurationLocation location;
@@ -19,11 +22,24 @@ class CheckerFactoryCacheKey {
 
 
     CheckerFactoryCacheKey(@NotNull final ConfigurationLocation location, @Nullable final Module module) {
-        this.projectName = module != null ? module.getProject().getName() : "noProject";
-        this.moduleName = module != null ? module.getName() : "noModule";
+        this.projectName = module != null ? module.getProject().getName() : NO_PROJECT;
+        this.moduleName = module != null ? module.getName() : NO_MODULE;
         this.location = location;
     }
 
+    boolean isForModule() {
+        return !NO_MODULE.equals(moduleName);
+    }
+
+    @Nullable
+    String getModuleName() {
+        return isForModule() ? moduleName : null;
+    }
+
+    boolean isFor(@NotNull final ConfigurationLocation configurationLocation) {
+        return location.equals(configurationLocation);
+    }
+
 
     @Override
     public boolean equals(final Object pOther) {
@@ -8,9 +8,14 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Map;
-
-
-class CheckerFactoryWorker extends Thread {
+import java.util.concurrent.Callable;
+
+/**
+ * Creates a checker, with the classloader of the checked code as the thread's context classloader.
+ * <p>
+ * The result is the checker on success, or the exception thrown on failure.
+ */
+class CheckerFactoryWorker implements Callable<Object> {
     private final ConfigurationLocation location;
     private final Map<String, String> properties;
     private final Project project;
@@ -18,8 +23,6 @@ class CheckerFactoryWorker extends Thread {
     private final CheckstyleProjectService checkstyleProjectService;
     private final ClassLoader loaderOfCheckedCode;
 
-    private Object threadReturn = null;
-
     CheckerFactoryWorker(@NotNull final ConfigurationLocation location,
                          @Nullable final Map<String, String> properties,
                          @NotNull final Project project,
@@ -35,22 +38,19 @@ class CheckerFactoryWorker extends Thread {
     }
 
     @Override
-    public void run() {
-        super.run();
-
-        setContextClassLoader(loaderOfCheckedCode);
+    public Object call() {
+        final Thread currentThread = Thread.currentThread();
+        final ClassLoader originalContextClassLoader = currentThread.getContextClassLoader();
+        currentThread.setContextClassLoader(loaderOfCheckedCode);
 
         try {
-            final CheckStyleChecker checker = checkstyleProjectService
+            return checkstyleProjectService
                     .getCheckstyleInstance()
                     .createChecker(module, location, properties, loaderOfCheckedCode);
-            threadReturn = new CachedChecker(checker);
         } catch (RuntimeException e) {
-            threadReturn = e;
+            return e;
+        } finally {
+            currentThread.setContextClassLoader(originalContextClassLoader);
         }
     }
-
-    public Object getResult() {
-        return threadReturn;
-    }
 }
@@ -2,29 +2,45 @@ package org.infernus.idea.checkstyle.checker;
 
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import org.apache.commons.codec.binary.Base32;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.infernus.idea.checkstyle.util.TempDirProvider;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.TimeUnit;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.regex.Pattern;
 
 
 /**
  * Replaces URLs pointing to files inside the project directory with URLs pointing to copies of these files stored in a
  * temporary directory. This prevents them from getting locked by our classloaders.
+ * <p>
+ * The size and modification time of each library are kept in a manifest in the temporary directory, so a library
+ * that has not changed since it was last copied costs a stat of the library and a check that its copy still exists,
+ * rather than a resolution of its real path. Changed libraries are copied in parallel, via the
+ * {@link LibraryCopyStore} if one is given.
  */
 public class ClasspathStabilizer {
 
@@ -32,16 +48,34 @@ public class ClasspathStabilizer {
 
     static final String HASHFOLDER = "hashed";
 
+    static final String MANIFEST_FILE = "copied-libraries.properties";
+
     /**
      * number of characters in the relative path of the library up to which we would still use the path as-is; above
      * that, we use hashes of the path instead in order to avoid path length problems on Windows
      */
     private static final int CLEAR_PATH_THRESHOLD_CHARS = 50;
 
+    private static final ExecutorService COPY_EXECUTOR = AppExecutorUtil.createBoundedApplicationPoolExecutor(
+            "CheckStyle-IDEA Library Copy", Math.max(2, Runtime.getRuntime().availableProcessors() / 2));
+
+    /**
+     * Stabilizers sharing a directory, e.g. for modules of the same project, must take turns with its manifest. The
+     * locks are striped by directory, so there are a fixed number however many projects are opened.
+     */
+    private static final Object[] COPY_DIR_LOCKS = new Object[16];
+
+    static {
+        Arrays.setAll(COPY_DIR_LOCKS, i -> new Object());
+    }
+
     private final Project project;
 
     private final Path copyDir;
 
+    @Nullable
+    private final LibraryCopyStore libraryCopyStore;
+
 
     /**
      * Constructor.
@@ -50,8 +84,22 @@ public class ClasspathStabilizer {
      * @param pTempDir project-specific directory to keep copied libs in, retained after IDEA is closed
      */
     public ClasspathStabilizer(@NotNull final Project pProject, @NotNull final Path pTempDir) {
+        this(pProject, pTempDir, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param pProject          the current IDEA project
+     * @param pTempDir          project-specific directory to keep copied libs in, retained after IDEA is closed
+     * @param pLibraryCopyStore the store to copy libs via, or {@code null} to copy them directly
+     */
+    public ClasspathStabilizer(@NotNull final Project pProject,
+                               @NotNull final Path pTempDir,
+                               @Nullable final LibraryCopyStore pLibraryCopyStore) {
         project = pProject;
         copyDir = pTempDir;
+        libraryCopyStore = pLibraryCopyStore;
     }
 
 
@@ -61,15 +109,9 @@ public class ClasspathStabilizer {
         try {
             final Optional<Path> projectDir = getProjectDir();
             if (projectDir.isPresent()) {
-                final List<URL> stabilizedList = new ArrayList<>(pUrls.size() + 1);
-                for (final URL url : pUrls) {
-                    URL stabilizedUrl = url;
-                    if (residesInProject(projectDir.get(), url)) {
-                        stabilizedUrl = locateOrCreateCopy(projectDir.get(), url);
-                    }
-                    stabilizedList.add(stabilizedUrl);
+                synchronized (lockFor(copyDir)) {
+                    result = stabilize(projectDir.get(), pUrls);
                 }
-                result = stabilizedList.toArray(new URL[0]);
             }
         } catch (IOException | URISyntaxException | RuntimeException e) {
             LOG.warn("Failed to stabilize the classpath. Using original classpath. Some files may become locked.", e);
@@ -82,32 +124,128 @@ public class ClasspathStabilizer {
 
 
     @NotNull
-    private URL locateOrCreateCopy(@NotNull final Path pProjectDir, final URL pUrl) throws IOException,
+    private static Object lockFor(@NotNull final Path pCopyDir) {
+        return COPY_DIR_LOCKS[Math.floorMod(pCopyDir.toAbsolutePath().hashCode(), COPY_DIR_LOCKS.length)];
+    }
+
+
+    @NotNull
+    private URL[] stabilize(@NotNull final Path pProjectDir, @NotNull final List<URL> pUrls) throws IOException,
             URISyntaxException {
-        final Path urlPath = Paths.get(pUrl.toURI()).toRealPath();
-        final Path relativePathSrc = pProjectDir.relativize(urlPath);
-        final Path relativePathTarget = buildTargetRelativePath(relativePathSrc);
-        final Path targetPath = copyDir.resolve(relativePathTarget);
-        if (needsUpdate(targetPath, urlPath)) {
-            if (targetPath.getParent() != null) {
-                Files.createDirectories(targetPath.getParent());
+        final Manifest manifest = Manifest.load(copyDir.resolve(MANIFEST_FILE));
+        final Map<Path, Path> copiesToMake = new LinkedHashMap<>();
+
+        final List<URL> stabilizedList = new ArrayList<>(pUrls.size() + 1);
+        for (final URL url : pUrls) {
+            stabilizedList.add(locateOrPlanCopy(pProjectDir, url, manifest, copiesToMake));
+        }
+
+        if (!copiesToMake.isEmpty()) {
+            makeCopies(copiesToMake);
+            if (libraryCopyStore != null) {
+                libraryCopyStore.cleanUp();
+            }
+        }
+        if (manifest.isChanged()) {
+            manifest.save();
+        }
+        return stabilizedList.toArray(new URL[0]);
+    }
+
+
+    @NotNull
+    private URL locateOrPlanCopy(@NotNull final Path pProjectDir,
+                                 @NotNull final URL pUrl,
+                                 @NotNull final Manifest pManifest,
+                                 @NotNull final Map<Path, Path> pCopiesToMake) throws IOException,
+            URISyntaxException {
+        if (!"file".equals(pUrl.getProtocol())) {
+            return pUrl;
+        }
+
+        final Path urlPath = Paths.get(pUrl.toURI());
+        final BasicFileAttributes attributes = regularFileAttributesOf(urlPath);
+        if (attributes == null) {
+            return pUrl;
+        }
+
+        final ManifestEntry knownEntry = pManifest.get(urlPath);
+        if (knownEntry != null && knownEntry.describes(attributes)) {
+            if (knownEntry.targetRelativePath == null) {
+                return pUrl;
+            }
+            final Path targetPath = copyDir.resolve(knownEntry.targetRelativePath);
+            if (Files.exists(targetPath)) {
+                return targetPath.toUri().toURL();
             }
-            Files.copy(urlPath, targetPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
         }
+
+        final Path realPath = urlPath.toRealPath();
+        if (!realPath.startsWith(pProjectDir)) {
+            pManifest.put(urlPath, new ManifestEntry(attributes, null));
+            return pUrl;
+        }
+
+        final Path relativePathTarget = buildTargetRelativePath(pProjectDir.relativize(realPath));
+        final Path targetPath = copyDir.resolve(relativePathTarget);
+        pCopiesToMake.put(targetPath, realPath);
+        pManifest.put(urlPath, new ManifestEntry(attributes, relativePathTarget.toString()));
         return targetPath.toUri().toURL();
     }
 
 
-    private boolean needsUpdate(@NotNull final Path pTargetPath, @NotNull final Path pSourcePath) throws IOException {
-        boolean result = true;
-        if (Files.exists(pTargetPath)) {
-            final long sizeSource = Files.size(pSourcePath);
-            final long sizeTarget = Files.size(pTargetPath);
-            final long modTimeSecsSource = Files.getLastModifiedTime(pSourcePath).to(TimeUnit.SECONDS);
-            final long modTimeSecsTarget = Files.getLastModifiedTime(pTargetPath).to(TimeUnit.SECONDS);
-            result = sizeSource != sizeTarget || modTimeSecsSource != modTimeSecsTarget;
+    @Nullable
+    private BasicFileAttributes regularFileAttributesOf(@NotNull final Path pPath) {
+        try {
+            final BasicFileAttributes attributes = Files.readAttributes(pPath, BasicFileAttributes.class);
+            if (attributes.isRegularFile()) {
+                return attributes;
+            }
+        } catch (IOException e) {
+            // not present, or not readable: either way, not ours to copy
+        }
+        return null;
+    }
+
+
+    private void makeCopies(@NotNull final Map<Path, Path> pCopiesToMake) throws IOException {
+        if (pCopiesToMake.size() == 1) {
+            final Map.Entry<Path, Path> copy = pCopiesToMake.entrySet().iterator().next();
+            copy(copy.getValue(), copy.getKey());
+            return;
+        }
+
+        final List<Future<?>> copies = new ArrayList<>(pCopiesToMake.size());
+        pCopiesToMake.forEach((targetPath, sourcePath) -> copies.add(COPY_EXECUTOR.submit(() -> {
+            copy(sourcePath, targetPath);
+            return null;
+        })));
+        for (final Future<?> copy : copies) {
+            try {
+                copy.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw new IOException("Failed to copy library", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while copying libraries", e);
+            }
         }
-        return result;
+    }
+
+
+    private void copy(@NotNull final Path pSourcePath, @NotNull final Path pTargetPath) throws IOException {
+        if (libraryCopyStore != null) {
+            libraryCopyStore.copy(pSourcePath, pTargetPath);
+            return;
+        }
+
+        if (pTargetPath.getParent() != null) {
+            Files.createDirectories(pTargetPath.getParent());
+        }
+        Files.copy(pSourcePath, pTargetPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
     }
 
 
@@ -116,7 +254,8 @@ public class ClasspathStabilizer {
         Path result = pRelativePathSrc;
         if (pRelativePathSrc.toString().length() > CLEAR_PATH_THRESHOLD_CHARS
                 || pRelativePathSrc.startsWith(HASHFOLDER)
-                || pRelativePathSrc.equals(Paths.get(TempDirProvider.README_FILE))) {
+                || pRelativePathSrc.equals(Paths.get(TempDirProvider.README_FILE))
+                || pRelativePathSrc.equals(Paths.get(MANIFEST_FILE))) {
             final Path parent = pRelativePathSrc.getParent();
             final String parentHash = hash(parent != null ? parent.toString() : "");
             result = Paths.get(HASHFOLDER, parentHash, pRelativePathSrc.getFileName().toString());
@@ -136,20 +275,6 @@ public class ClasspathStabilizer {
     }
 
 
-    private boolean residesInProject(@NotNull final Path pProjectDir, @NotNull final URL pUrl) throws IOException,
-            URISyntaxException {
-        boolean result = false;
-        if ("file".equals(pUrl.getProtocol())) {
-            Path urlPath = Paths.get(pUrl.toURI());
-            if (Files.isRegularFile(urlPath)) {
-                urlPath = urlPath.toRealPath();
-                result = urlPath.startsWith(pProjectDir);
-            }
-        }
-        return result;
-    }
-
-
     private Optional<Path> getProjectDir() throws IOException {
         Optional<Path> result = Optional.empty();
         String basePath = project.getBasePath();
@@ -164,4 +289,105 @@ public class ClasspathStabilizer {
         }
         return result;
     }
+
+
+    private static final class ManifestEntry {
+        private final long size;
+        private final long lastModifiedMillis;
+        @Nullable
+        private final String targetRelativePath;
+
+        ManifestEntry(@NotNull final BasicFileAttributes pAttributes, @Nullable final String pTargetRelativePath) {
+            this(pAttributes.size(), pAttributes.lastModifiedTime().toMillis(), pTargetRelativePath);
+        }
+
+        private ManifestEntry(final long pSize,
+                              final long pLastModifiedMillis,
+                              @Nullable final String pTargetRelativePath) {
+            size = pSize;
+            lastModifiedMillis = pLastModifiedMillis;
+            targetRelativePath = pTargetRelativePath;
+        }
+
+        boolean describes(@NotNull final BasicFileAttributes pAttributes) {
+            return size == pAttributes.size() && lastModifiedMillis == pAttributes.lastModifiedTime().toMillis();
+        }
+
+        @Nullable
+        static ManifestEntry parse(@NotNull final String pValue) {
+            final String[] parts = pValue.split(",", 3);
+            if (parts.length != 3) {
+                return null;
+            }
+            try {
+                return new ManifestEntry(Long.parseLong(parts[0]), Long.parseLong(parts[1]),
+                        parts[2].isEmpty() ? null : parts[2]);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        @NotNull
+        String format() {
+            return size + "," + lastModifiedMillis + "," + (targetRelativePath != null ? targetRelativePath : "");
+        }
+    }
+
+
+    /**
+     * The libraries seen in the copy directory, by their path in the project: both those copied, and those that
+     * were found to reside outside the project.
+     */
+    private static final class Manifest {
+        private final Path file;
+        private final Properties entries;
+        private boolean changed;
+
+        private Manifest(@NotNull final Path pFile, @NotNull final Properties pEntries) {
+            file = pFile;
+            entries = pEntries;
+        }
+
+        @NotNull
+        static Manifest load(@NotNull final Path pFile) {
+            final Properties entries = new Properties();
+            if (Files.isRegularFile(pFile)) {
+                try (InputStream in = Files.newInputStream(pFile)) {
+                    entries.load(in);
+                } catch (IOException | IllegalArgumentException e) {
+                    LOG.debug("Ignoring unreadable manifest " + pFile, e);
+                    entries.clear();
+                }
+            }
+            return new Manifest(pFile, entries);
+        }
+
+        @Nullable
+        ManifestEntry get(@NotNull final Path pSourcePath) {
+            final String value = entries.getProperty(pSourcePath.toString());
+            return value != null ? ManifestEntry.parse(value) : null;
+        }
+
+        void put(@NotNull final Path pSourcePath, @NotNull final ManifestEntry pEntry) {
+            entries.setProperty(pSourcePath.toString(), pEntry.format());
+            changed = true;
+        }
+
+        boolean isChanged() {
+            return changed;
+        }
+
+        void save() throws IOException {
+            Files.createDirectories(file.getParent());
+            final Path tempFile = Files.createTempFile(file.getParent(), MANIFEST_FILE, ".tmp");
+            try {
+                try (OutputStream out = Files.newOutputStream(tempFile)) {
+                    entries.store(out, "Libraries copied by CheckStyle-IDEA");
+                }
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+        }
+    }
 }
@@ -0,0 +1,305 @@
+package org.infernus.idea.checkstyle.checker;
+
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.IndexNotReadyException;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.JavaProjectRootsUtil;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.search.FileTypeIndex;
+import com.intellij.psi.search.GlobalSearchScopesCore;
+import com.intellij.psi.search.scope.packageSet.NamedScope;
+import org.infernus.idea.checkstyle.config.PluginConfiguration;
+import org.infernus.idea.checkstyle.model.ConfigurationLocation;
+import org.infernus.idea.checkstyle.model.NamedScopeHelper;
+import org.infernus.idea.checkstyle.model.ScanScope;
+import org.infernus.idea.checkstyle.util.FileTypes;
+import org.infernus.idea.checkstyle.util.ReadActions;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Finds the files to scan under a set of roots, a batch at a time.
+ * <p>
+ * Candidates are found with the project's indices, and are filtered by scan scope, file type, test and generated
+ * sources and named scope on their virtual file alone. A PSI file is only resolved for a candidate when its batch is
+ * requested, so nothing is created for files that won't be scanned, and the files of a large project are never all
+ * held at once.
+ * <p>
+ * The filters are those of {@link PsiFileValidator}, which still has the final say on each file.
+ * <p>
+ * The read lock is only taken for a few hundred files or directories at a time, in read actions which give way to
+ * writes and then resume from where they stopped.
+ */
+final class FileEnumerator {
+
+    /** The number of candidate files checked in a single read action. */
+    private static final int FILES_PER_READ_ACTION = 500;
+
+    /** The number of directories searched in a single read action. */
+    private static final int DIRECTORIES_PER_READ_ACTION = 100;
+
+    private final Project project;
+    private final List<VirtualFile> roots;
+    private final ScanScope scanScope;
+    private final List<NamedScope> namedScopes;
+
+    FileEnumerator(@NotNull final Project project,
+                   @NotNull final List<VirtualFile> roots,
+                   @NotNull final PluginConfiguration pluginConfiguration,
+                   @Nullable final ConfigurationLocation overrideConfigLocation) {
+        this.project = project;
+        this.roots = List.copyOf(roots);
+        this.scanScope = pluginConfiguration.getScanScope();
+        this.namedScopes = namedScopesOf(overrideConfigLocation != null
+                ? Collections.singletonList(overrideConfigLocation)
+                : pluginConfiguration.getActiveLocations());
+    }
+
+    private static List<NamedScope> namedScopesOf(final Iterable<ConfigurationLocation> locations) {
+        final List<NamedScope> scopes = new ArrayList<>();
+        locations.forEach(location -> location.getNamedScope().ifPresent(scopes::add));
+        return scopes;
+    }
+
+    /**
+     * Pass the files under the roots to a consumer, in batches of at most the given size. The roots are searched
+     * lazily, and each batch is passed on as soon as it fills, so the first batches are available long before the
+     * search is complete, and the candidates of the batch being filled are the only ones held.
+     *
+     * @param batchSize     the maximum number of files in a batch.
+     * @param batchConsumer the consumer of the batches, which is called outside of any read action.
+     * @throws InterruptedException if the thread is interrupted, either here or by the consumer.
+     */
+    void enumerate(final int batchSize,
+                   @NotNull final BatchPipeline.BatchConsumer<PsiFile> batchConsumer) throws InterruptedException {
+        final PendingBatch pendingBatch = new PendingBatch(batchSize, batchConsumer);
+        for (final VirtualFile root : outermostRoots()) {
+            checkNotInterrupted();
+            addCandidatesUnder(root, pendingBatch);
+        }
+        pendingBatch.flush();
+    }
+
+    /**
+     * @return the roots which aren't under another root, so that no file is found twice.
+     */
+    private List<VirtualFile> outermostRoots() {
+        final List<VirtualFile> outermostRoots = new ArrayList<>();
+        for (final VirtualFile root : roots) {
+            if (roots.stream().noneMatch(otherRoot -> otherRoot != root
+                    && VfsUtilCore.isAncestor(otherRoot, root, true))
+                    && !outermostRoots.contains(root)) {
+                outermostRoots.add(root);
+            }
+        }
+        return outermostRoots;
+    }
+
+    private void addCandidatesUnder(final VirtualFile root,
+                                    final PendingBatch pendingBatch) throws InterruptedException {
+        if (!root.isDirectory()) {
+            pendingBatch.addAll(ReadActions.compute("checking a file to scan",
+                    () -> root.isValid() && isCandidate(root)
+                            ? Collections.singletonList(root)
+                            : Collections.<VirtualFile>emptyList()));
+            return;
+        }
+
+        if (!scanScope.includeNonJavaSources()) {
+            final Collection<VirtualFile> javaFiles = javaFilesUnder(root);
+            if (javaFiles != null) {
+                addCandidatesOf(javaFiles.iterator(), pendingBatch);
+                return;
+            }
+        }
+
+        addSearchedCandidatesUnder(root, pendingBatch);
+    }
+
+    /**
+     * @return the Java files under the root, as known by the index, or null if the index isn't available.
+     */
+    @Nullable
+    private Collection<VirtualFile> javaFilesUnder(final VirtualFile root) {
+        try {
+            return ReadActions.compute("finding Java files to scan", () -> {
+                if (!root.isValid() || DumbService.isDumb(project)) {
+                    return null;
+                }
+                return FileTypeIndex.getFiles(JavaFileType.INSTANCE,
+                        GlobalSearchScopesCore.directoryScope(project, root, true));
+            });
+        } catch (IndexNotReadyException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Check the files found by the index a number of files at a time, taking each chunk from the index's iterator
+     * only as it's checked.
+     */
+    private void addCandidatesOf(final Iterator<VirtualFile> files,
+                                 final PendingBatch pendingBatch) throws InterruptedException {
+        while (files.hasNext()) {
+            checkNotInterrupted();
+
+            final List<VirtualFile> chunk = new ArrayList<>(FILES_PER_READ_ACTION);
+            while (files.hasNext() && chunk.size() < FILES_PER_READ_ACTION) {
+                chunk.add(files.next());
+            }
+            pendingBatch.addAll(ReadActions.compute("finding files to scan", () -> candidatesOf(chunk)));
+        }
+    }
+
+    private List<VirtualFile> candidatesOf(final List<VirtualFile> files) {
+        return files.stream()
+                .filter(file -> file.isValid() && isCandidate(file))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Search the project content under a root, a number of directories at a time. Each step starts from a copy of
+     * the directories still to search, so a step which gives way to a write starts again from the same place.
+     */
+    private void addSearchedCandidatesUnder(final VirtualFile root,
+                                            final PendingBatch pendingBatch) throws InterruptedException {
+        Deque<VirtualFile> directoriesToSearch = new ArrayDeque<>(Collections.singletonList(root));
+        while (!directoriesToSearch.isEmpty()) {
+            checkNotInterrupted();
+
+            final Deque<VirtualFile> directoriesAtStartOfStep = directoriesToSearch;
+            final SearchStep step = ReadActions.compute("finding files to scan",
+                    () -> searchStep(new ArrayDeque<>(directoriesAtStartOfStep)));
+            pendingBatch.addAll(step.candidates);
+            directoriesToSearch = step.directoriesToSearch;
+        }
+    }
+
+    private SearchStep searchStep(final Deque<VirtualFile> directoriesToSearch) {
+        final ProjectFileIndex fileIndex = fileIndex();
+        final List<VirtualFile> candidates = new ArrayList<>();
+        for (int searched = 0; searched < DIRECTORIES_PER_READ_ACTION && !directoriesToSearch.isEmpty(); ++searched) {
+            final VirtualFile directory = directoriesToSearch.pop();
+            if (!directory.isValid() || !fileIndex.isInContent(directory)) {
+                continue;
+            }
+
+            for (final VirtualFile child : directory.getChildren()) {
+                if (child.isDirectory()) {
+                    directoriesToSearch.push(child);
+                } else if (fileIndex.isInContent(child) && isCandidate(child)) {
+                    candidates.add(child);
+                }
+            }
+        }
+        return new SearchStep(candidates, directoriesToSearch);
+    }
+
+    private boolean isCandidate(final VirtualFile file) {
+        return !file.isDirectory()
+                && isInSource(file)
+                && isValidFileType(file)
+                && isScannableIfTest(file)
+                && !JavaProjectRootsUtil.isInGeneratedCode(file, project)
+                && isInNamedScope(file);
+    }
+
+    private boolean isInSource(final VirtualFile file) {
+        return scanScope == ScanScope.Everything || fileIndex().isInSourceContent(file);
+    }
+
+    private boolean isValidFileType(final VirtualFile file) {
+        return scanScope.includeNonJavaSources() || FileTypes.isJava(file.getFileType());
+    }
+
+    private boolean isScannableIfTest(final VirtualFile file) {
+        return scanScope.includeTestClasses() || !fileIndex().isInTestSourceContent(file);
+    }
+
+    private boolean isInNamedScope(final VirtualFile file) {
+        return namedScopes.stream()
+                .anyMatch(scope -> NamedScopeHelper.mayContain(project, file, scope));
+    }
+
+    private List<PsiFile> psiFilesFor(final List<VirtualFile> files) {
+        final PsiManager psiManager = PsiManager.getInstance(project);
+        return files.stream()
+                .filter(VirtualFile::isValid)
+                .map(psiManager::findFile)
+                .flatMap(psiFile -> Optional.ofNullable(psiFile).stream())
+                .collect(Collectors.toList());
+    }
+
+    private ProjectFileIndex fileIndex() {
+        return ProjectFileIndex.getInstance(project);
+    }
+
+    private static void checkNotInterrupted() throws InterruptedException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedException();
+        }
+    }
+
+    /**
+     * The candidates of the batch being filled, which is resolved and passed to the consumer once full.
+     */
+    private final class PendingBatch {
+        private final int batchSize;
+        private final BatchPipeline.BatchConsumer<PsiFile> batchConsumer;
+        private final List<VirtualFile> candidates = new ArrayList<>();
+
+        PendingBatch(final int batchSize, final BatchPipeline.BatchConsumer<PsiFile> batchConsumer) {
+            this.batchSize = batchSize;
+            this.batchConsumer = batchConsumer;
+        }
+
+        void addAll(final List<VirtualFile> newCandidates) throws InterruptedException {
+            for (final VirtualFile candidate : newCandidates) {
+                candidates.add(candidate);
+                if (candidates.size() >= batchSize) {
+                    flush();
+                }
+            }
+        }
+
+        void flush() throws InterruptedException {
+            if (candidates.isEmpty()) {
+                return;
+            }
+            checkNotInterrupted();
+
+            final List<VirtualFile> batchCandidates = List.copyOf(candidates);
+            candidates.clear();
+            final List<PsiFile> batch = ReadActions.compute("resolving files to scan",
+                    () -> psiFilesFor(batchCandidates));
+            if (!batch.isEmpty()) {
+                batchConsumer.accept(batch);
+            }
+        }
+    }
+
+    private static final class SearchStep {
+        private final List<VirtualFile> candidates;
+        private final Deque<VirtualFile> directoriesToSearch;
+
+        SearchStep(final List<VirtualFile> candidates, final Deque<VirtualFile> directoriesToSearch) {
+            this.candidates = candidates;
+            this.directoriesToSearch = directoriesToSearch;
+        }
+    }
+}
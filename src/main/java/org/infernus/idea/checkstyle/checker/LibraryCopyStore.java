@@ -0,0 +1,207 @@
+package org.infernus.idea.checkstyle.checker;
+
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.diagnostic.Logger;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * An application-wide store of the libraries copied from projects by the {@link ClasspathStabilizer}, keyed by their
+ * content, so that a library used by several projects, or several times in one, is only stored once. Copies are hard
+ * links to the stored library where the filesystem allows. Where it doesn't, e.g. when the copy is on another
+ * filesystem, the library is copied directly and the store is bypassed. Registered in {@code plugin.xml}.
+ * <p>
+ * The store is bounded in size, the least recently used libraries being removed first. A removed library is only
+ * removed from the store: any copies linked to it remain.
+ */
+public class LibraryCopyStore {
+
+    private static final Logger LOG = Logger.getInstance(LibraryCopyStore.class);
+
+    static final long DEFAULT_MAX_SIZE_BYTES = 1024L * 1024L * 1024L;
+
+    private static final String LIBRARY_EXTENSION = ".jar";
+
+    private final Path storeDir;
+    private final long maxSizeBytes;
+    private final ReadWriteLock cleanUpLock = new ReentrantReadWriteLock();
+    /** Whether copies on a filesystem may be linked to the store, by filesystem. */
+    private final Map<FileStore, Boolean> linkableFileStores = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unused") // IDEA's DI
+    public LibraryCopyStore() {
+        this(Paths.get(PathManager.getSystemPath(), "checkstyle-idea", "libraries"), DEFAULT_MAX_SIZE_BYTES);
+    }
+
+    LibraryCopyStore(@NotNull final Path storeDir, final long maxSizeBytes) {
+        this.storeDir = storeDir;
+        this.maxSizeBytes = maxSizeBytes;
+    }
+
+    /**
+     * Make a copy of a library, adding its content to the store if it's not already present.
+     *
+     * @param source the library.
+     * @param target the path of the copy, which is replaced if it exists.
+     * @throws IOException if the library could not be copied.
+     */
+    void copy(@NotNull final Path source, @NotNull final Path target) throws IOException {
+        final Path targetDir = target.toAbsolutePath().getParent();
+        Files.createDirectories(targetDir);
+        final FileStore targetFileStore = Files.getFileStore(targetDir);
+        if (!isLinkable(targetFileStore)) {
+            Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+            return;
+        }
+
+        cleanUpLock.readLock().lock();
+        try {
+            final Path storedLibrary = store(source);
+            Files.deleteIfExists(target);
+            try {
+                Files.createLink(target, storedLibrary);
+            } catch (UnsupportedOperationException | IOException e) {
+                LOG.debug("Unable to link to stored library; libraries will be copied directly to ", targetFileStore);
+                linkableFileStores.put(targetFileStore, false);
+                Files.copy(storedLibrary, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            cleanUpLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param targetFileStore the filesystem of a copy.
+     * @return true if the copy may be a hard link to the store, which requires them to share a filesystem. This is
+     * decided once for each filesystem, so a failure to link is not repeated.
+     */
+    boolean isLinkable(@NotNull final FileStore targetFileStore) throws IOException {
+        final Boolean knownLinkable = linkableFileStores.get(targetFileStore);
+        if (knownLinkable != null) {
+            return knownLinkable;
+        }
+
+        Files.createDirectories(storeDir);
+        final boolean linkable = targetFileStore.equals(Files.getFileStore(storeDir));
+        linkableFileStores.putIfAbsent(targetFileStore, linkable);
+        return linkable;
+    }
+
+    @NotNull
+    private Path store(@NotNull final Path source) throws IOException {
+        final Path storedLibrary = pathFor(contentHashOf(source));
+        if (Files.exists(storedLibrary)) {
+            Files.setLastModifiedTime(storedLibrary, FileTime.fromMillis(System.currentTimeMillis()));
+            return storedLibrary;
+        }
+
+        Files.createDirectories(storeDir);
+        final Path tempFile = Files.createTempFile(storeDir, "library", ".tmp");
+        try {
+            // the library may have changed since we hashed it, so it's stored by the hash of what we copy
+            final MessageDigest digest = DigestUtils.getSha256Digest();
+            try (InputStream in = new DigestInputStream(Files.newInputStream(source), digest)) {
+                Files.copy(in, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            final Path copiedLibrary = pathFor(Hex.encodeHexString(digest.digest()));
+            Files.createDirectories(copiedLibrary.getParent());
+            Files.move(tempFile, copiedLibrary, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return copiedLibrary;
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    @NotNull
+    private String contentHashOf(@NotNull final Path source) throws IOException {
+        try (InputStream in = Files.newInputStream(source)) {
+            return DigestUtils.sha256Hex(in);
+        }
+    }
+
+    @NotNull
+    private Path pathFor(@NotNull final String contentHash) {
+        return storeDir.resolve(contentHash.substring(0, 2)).resolve(contentHash + LIBRARY_EXTENSION);
+    }
+
+    /**
+     * Remove the least recently used libraries until the store is within its size bound.
+     */
+    void cleanUp() {
+        cleanUpLock.writeLock().lock();
+        try {
+            if (!Files.isDirectory(storeDir)) {
+                return;
+            }
+
+            final List<StoredLibrary> storedLibraries = storedLibraries();
+            long size = storedLibraries.stream().mapToLong(library -> library.size).sum();
+            if (size <= maxSizeBytes) {
+                return;
+            }
+
+            storedLibraries.sort(Comparator.comparing(library -> library.lastModified));
+            for (final StoredLibrary storedLibrary : storedLibraries) {
+                if (size <= maxSizeBytes) {
+                    break;
+                }
+                try {
+                    Files.deleteIfExists(storedLibrary.path);
+                    size -= storedLibrary.size;
+                } catch (IOException e) {
+                    LOG.debug("Unable to remove stored library: " + storedLibrary.path, e);
+                }
+            }
+
+        } catch (IOException | RuntimeException e) {
+            LOG.info("Failed to clean up the library store " + storeDir, e);
+        } finally {
+            cleanUpLock.writeLock().unlock();
+        }
+    }
+
+    @NotNull
+    private List<StoredLibrary> storedLibraries() throws IOException {
+        final List<StoredLibrary> storedLibraries = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(storeDir, 2)) {
+            for (final Path path : (Iterable<Path>) paths::iterator) {
+                if (path.getFileName().toString().endsWith(LIBRARY_EXTENSION)) {
+                    final BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                    if (attributes.isRegularFile()) {
+                        storedLibraries.add(new StoredLibrary(path, attributes));
+                    }
+                }
+            }
+        }
+        return storedLibraries;
+    }
+
+    private static final class StoredLibrary {
+        private final Path path;
+        private final long size;
+        private final FileTime lastModified;
+
+        StoredLibrary(@NotNull final Path path, @NotNull final BasicFileAttributes attributes) {
+            this.path = path;
+            this.size = attributes.size();
+            this.lastModified = attributes.lastModifiedTime();
+        }
+    }
+}
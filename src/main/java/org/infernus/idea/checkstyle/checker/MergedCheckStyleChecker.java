@@ -0,0 +1,80 @@
+package org.infernus.idea.checkstyle.checker;
+
+import com.intellij.psi.PsiFile;
+import org.infernus.idea.checkstyle.csapi.CheckstyleActions;
+import org.infernus.idea.checkstyle.csapi.CheckstyleInternalObject;
+import org.infernus.idea.checkstyle.csapi.Issue;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Applies the rules of several locations in a single Checkstyle run, so that each file is read and parsed once
+ * however many locations apply to it. Each issue is attributed to the location it came from, and is mapped onto the
+ * PSI by that location's checker, with the location's scope, settings and additional checks.
+ * <p>
+ * Results are not held by the {@link ScanResultCache}, which is keyed by the configuration of a single location.
+ */
+class MergedCheckStyleChecker extends CheckStyleChecker {
+
+    private final CheckstyleInternalObject mergedChecker;
+    private final CheckstyleActions csServiceInstance;
+    private final List<CheckStyleChecker> locationCheckers;
+
+    /**
+     * @param mergedChecker     the Checkstyle checker composed from those of the locations.
+     * @param csServiceInstance the Checkstyle version to use.
+     * @param locationCheckers  the checkers of the locations, in the order they were composed.
+     */
+    MergedCheckStyleChecker(@NotNull final CheckstyleInternalObject mergedChecker,
+                            @NotNull final CheckstyleActions csServiceInstance,
+                            @NotNull final List<CheckStyleChecker> locationCheckers) {
+        super(mergedChecker, 0, Optional.empty(), csServiceInstance, Optional.empty(), Collections.emptyList());
+        this.mergedChecker = mergedChecker;
+        this.csServiceInstance = csServiceInstance;
+        this.locationCheckers = List.copyOf(locationCheckers);
+    }
+
+    @NotNull
+    @Override
+    public Map<PsiFile, List<Problem>> scan(@NotNull final List<ScannableFile> scannableFiles,
+                                            final boolean suppressErrors) {
+        final List<List<ScannableFile>> filesInScopeOfLocations = new ArrayList<>();
+        final Set<ScannableFile> filesToAudit = new LinkedHashSet<>();
+        for (final CheckStyleChecker locationChecker : locationCheckers) {
+            final List<ScannableFile> filesInScope = locationChecker.filesInScope(scannableFiles);
+            filesInScopeOfLocations.add(filesInScope);
+            filesToAudit.addAll(filesInScope);
+        }
+
+        if (filesToAudit.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        final List<List<Issue>> issuesOfLocations = csServiceInstance.auditMerged(
+                mergedChecker, new ArrayList<>(filesToAudit));
+
+        final Map<PsiFile, List<Problem>> problems = new HashMap<>();
+        for (int i = 0; i < locationCheckers.size(); ++i) {
+            final CheckStyleChecker locationChecker = locationCheckers.get(i);
+            final List<ScannableFile> filesInScope = filesInScopeOfLocations.get(i);
+            final Set<String> fileNamesInScope = filesInScope.stream()
+                    .map(ScannableFile::getAbsolutePath)
+                    .collect(Collectors.toSet());
+            final List<Issue> issuesInScope = issuesOfLocations.get(i).stream()
+                    .filter(issue -> fileNamesInScope.contains(locationChecker.fileNameOf(issue)))
+                    .collect(Collectors.toList());
+            ScanFiles.mergeResults(problems,
+                    locationChecker.problemsFor(issuesInScope, filesInScope, suppressErrors));
+        }
+        return problems;
+    }
+}
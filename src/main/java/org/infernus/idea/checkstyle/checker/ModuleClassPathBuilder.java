@@ -1,39 +1,97 @@
 package org.infernus.idea.checkstyle.checker;
 
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.module.ModuleUtil;
 import com.intellij.openapi.project.Project;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.infernus.idea.checkstyle.config.PluginConfigurationManager;
 import org.infernus.idea.checkstyle.util.ModulePaths;
 import org.infernus.idea.checkstyle.util.TempDirProvider;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
+import java.io.IOException;
 import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.MessageDigest;
 import java.util.*;
 
 
-public class ModuleClassPathBuilder {
+/**
+ * Builds the classloaders of the code being checked.
+ * <p>
+ * Modules often have identical classpaths, so classloaders are shared by all checkers with the same ordered
+ * classpath. Each is counted against the checkers which acquire it, and closed when the last of them releases it.
+ */
+public class ModuleClassPathBuilder implements Disposable {
     private static final Logger LOG = Logger.getInstance(ModuleClassPathBuilder.class);
 
+    private static final String FILTERED_RESOURCE = "commons-logging.properties";
+
     private final Project project;
 
+    private final Map<String, SharedClassLoader> classLoadersByFingerprint = new HashMap<>();
+    private final Map<ClassLoader, SharedClassLoader> classLoaders = new IdentityHashMap<>();
+
     public ModuleClassPathBuilder(@NotNull final Project project) {
         this.project = project;
     }
 
-    public ClassLoader build(final Module baseModule) {
+    /**
+     * Acquire the classloader for the code of a module, which must be released when it is no longer used.
+     *
+     * @param baseModule the module, or null if there is none.
+     * @return the classloader.
+     */
+    @NotNull
+    public ClassLoader acquire(@Nullable final Module baseModule) {
         if (baseModule == null) {
             return getClass().getClassLoader();
         }
 
         final Project baseModuleProject = baseModule.getProject();
+        final List<URL> outputPaths = classpathOf(baseModule);
+
+        URL[] effectiveClasspath = outputPaths.toArray(new URL[0]);
+        if (wantsCopyLibs()) {
+            final Optional<File> tempDir = new TempDirProvider().forCopiedLibraries(baseModuleProject);
+            if (tempDir.isPresent()) {
+                final Path t = Paths.get(tempDir.get().toURI());
+                effectiveClasspath = new ClasspathStabilizer(baseModuleProject, t,
+                        ApplicationManager.getApplication().getService(LibraryCopyStore.class)).stabilize(outputPaths);
+            }
+        }
+        return acquire(effectiveClasspath);
+    }
+
+    /**
+     * Fingerprint the classpath of a module, as it is configured rather than as it may be copied, so that changes to
+     * the module's roots which don't affect its classpath may be recognised.
+     *
+     * @param module the module, or null if there is none.
+     * @return the fingerprint, or null if there is no module.
+     */
+    @Nullable
+    public String classpathFingerprintOf(@Nullable final Module module) {
+        if (module == null || module.isDisposed()) {
+            return null;
+        }
+        return fingerprintOf(classpathOf(module).toArray(new URL[0]));
+    }
+
+    @NotNull
+    private List<URL> classpathOf(@NotNull final Module baseModule) {
         final List<URL> outputPaths = new ArrayList<>();
 
-        final Set<Module> transitiveDependencies = new HashSet<>();
+        final Set<Module> transitiveDependencies = new LinkedHashSet<>();
         ModuleUtil.getDependencies(baseModule, transitiveDependencies);
         for (Module moduleInScope : transitiveDependencies) {
             if (LOG.isDebugEnabled()) {
@@ -42,20 +100,87 @@ public class ModuleClassPathBuilder {
             outputPaths.addAll(ModulePaths.compilerOutputPathsFor(moduleInScope));
             outputPaths.addAll(ModulePaths.libraryPathsFor(moduleInScope));
         }
+        return outputPaths;
+    }
 
-        if (LOG.isDebugEnabled()) {
-            LOG.debug("Creating class-loader with URLs: " + outputPaths);
+    @NotNull
+    ClassLoader acquire(@NotNull final URL[] classpath) {
+        final String fingerprint = fingerprintOf(classpath);
+        synchronized (classLoaders) {
+            SharedClassLoader sharedClassLoader = classLoadersByFingerprint.get(fingerprint);
+            if (sharedClassLoader == null) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Creating class-loader with URLs: " + Arrays.toString(classpath));
+                }
+                sharedClassLoader = new SharedClassLoader(fingerprint,
+                        new ResourceFilteringURLClassLoader(classpath, getClass().getClassLoader(), FILTERED_RESOURCE));
+                classLoadersByFingerprint.put(fingerprint, sharedClassLoader);
+                classLoaders.put(sharedClassLoader.classLoader, sharedClassLoader);
+            } else {
+                LOG.debug("Reusing class-loader with fingerprint ", fingerprint);
+            }
+
+            ++sharedClassLoader.references;
+            return sharedClassLoader.classLoader;
         }
+    }
 
-        URL[] effectiveClasspath = outputPaths.toArray(new URL[0]);
-        if (wantsCopyLibs()) {
-            final Optional<File> tempDir = new TempDirProvider().forCopiedLibraries(baseModuleProject);
-            if (tempDir.isPresent()) {
-                final Path t = Paths.get(tempDir.get().toURI());
-                effectiveClasspath = new ClasspathStabilizer(baseModuleProject, t).stabilize(outputPaths);
+    /**
+     * Release a classloader returned by {@link #acquire(Module)}.
+     *
+     * @param classLoader the classloader.
+     */
+    public void release(@NotNull final ClassLoader classLoader) {
+        final SharedClassLoader classLoaderToClose;
+        synchronized (classLoaders) {
+            final SharedClassLoader sharedClassLoader = classLoaders.get(classLoader);
+            if (sharedClassLoader == null || --sharedClassLoader.references > 0) {
+                return;
             }
+
+            classLoaders.remove(classLoader);
+            classLoadersByFingerprint.remove(sharedClassLoader.fingerprint);
+            classLoaderToClose = sharedClassLoader;
+        }
+
+        close(classLoaderToClose);
+    }
+
+    @Override
+    public void dispose() {
+        final List<SharedClassLoader> classLoadersToClose;
+        synchronized (classLoaders) {
+            classLoadersToClose = new ArrayList<>(classLoaders.values());
+            classLoaders.clear();
+            classLoadersByFingerprint.clear();
+        }
+
+        classLoadersToClose.forEach(this::close);
+    }
+
+    int size() {
+        synchronized (classLoaders) {
+            return classLoaders.size();
         }
-        return new ResourceFilteringURLClassLoader(effectiveClasspath, getClass().getClassLoader(), "commons-logging.properties");
+    }
+
+    private void close(@NotNull final SharedClassLoader sharedClassLoader) {
+        LOG.debug("Closing class-loader with fingerprint ", sharedClassLoader.fingerprint);
+        try {
+            sharedClassLoader.classLoader.close();
+        } catch (IOException e) {
+            LOG.debug("Failed to close class-loader", e);
+        }
+    }
+
+    @NotNull
+    private static String fingerprintOf(@NotNull final URL[] classpath) {
+        final MessageDigest digest = DigestUtils.getSha256Digest();
+        for (final URL url : classpath) {
+            digest.update(url.toExternalForm().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        return Hex.encodeHexString(digest.digest());
     }
 
     private PluginConfigurationManager pluginConfigurationManager() {
@@ -65,4 +190,15 @@ public class ModuleClassPathBuilder {
     private boolean wantsCopyLibs() {
         return pluginConfigurationManager().getCurrent().isCopyLibs();
     }
+
+    private static final class SharedClassLoader {
+        private final String fingerprint;
+        private final URLClassLoader classLoader;
+        private int references;
+
+        SharedClassLoader(@NotNull final String fingerprint, @NotNull final URLClassLoader classLoader) {
+            this.fingerprint = fingerprint;
+            this.classLoader = classLoader;
+        }
+    }
 }
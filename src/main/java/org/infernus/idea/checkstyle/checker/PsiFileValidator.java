@@ -1,115 +1,251 @@
 package org.infernus.idea.checkstyle.checker;
 
 import com.intellij.openapi.module.Module;
-import com.intellij.openapi.module.ModuleUtil;
+import com.intellij.openapi.project.Project;
 import com.intellij.openapi.roots.JavaProjectRootsUtil;
-import com.intellij.openapi.roots.ModuleRootManager;
 import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.util.Pair;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiDocumentManager;
-import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
-import org.infernus.idea.checkstyle.config.PluginConfigurationManager;
+import com.intellij.psi.search.scope.packageSet.NamedScope;
+import org.infernus.idea.checkstyle.config.PluginConfiguration;
 import org.infernus.idea.checkstyle.model.ConfigurationLocation;
 import org.infernus.idea.checkstyle.model.NamedScopeHelper;
 import org.infernus.idea.checkstyle.model.ScanScope;
 import org.infernus.idea.checkstyle.util.FileTypes;
+import org.infernus.idea.checkstyle.util.ReadActions;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import static com.intellij.openapi.util.Pair.pair;
+
+/**
+ * Decides which files may be scanned.
+ * <p>
+ * What the project knows of a file's location - its module, and whether it is in source, test or generated code - is
+ * the same for every file of a directory, so it is looked up once per directory and remembered for the life of the
+ * validator. A validator is intended to last for a single scan, and is not thread-safe.
+ */
 final class PsiFileValidator {
 
-    private PsiFileValidator() {
+    /** The number of files validated in a single read action, so that writes aren't held up by a large batch. */
+    private static final int FILES_PER_READ_ACTION = 500;
+
+    private final ScanScope scanScope;
+    private final List<NamedScope> namedScopes;
+    private final FileFacts fileFacts;
+
+    private final Map<VirtualFile, DirectoryFacts> directories = new HashMap<>();
+
+    PsiFileValidator(@NotNull final Project project,
+                     @NotNull final PluginConfiguration pluginConfig,
+                     @Nullable final ConfigurationLocation overrideConfigLocation) {
+        this(pluginConfig, overrideConfigLocation, new ProjectFileFacts(project));
+    }
+
+    PsiFileValidator(@NotNull final PluginConfiguration pluginConfig,
+                     @Nullable final ConfigurationLocation overrideConfigLocation,
+                     @NotNull final FileFacts fileFacts) {
+        this.scanScope = pluginConfig.getScanScope();
+        this.namedScopes = namedScopesOf(overrideConfigLocation != null
+                ? Collections.singletonList(overrideConfigLocation)
+                : pluginConfig.getActiveLocations());
+        this.fileFacts = fileFacts;
     }
 
-    public static boolean isScannable(@Nullable final PsiFile psiFile,
-                                      @NotNull final Optional<Module> module,
-                                      @NotNull final PluginConfigurationManager pluginConfig,
-                                      @Nullable final ConfigurationLocation overrideConfigLocation) {
-        return psiFile != null
+    private static List<NamedScope> namedScopesOf(final Collection<ConfigurationLocation> locations) {
+        final List<NamedScope> scopes = new ArrayList<>();
+        locations.forEach(location -> location.getNamedScope().ifPresent(scopes::add));
+        return scopes;
+    }
+
+    /**
+     * Is a file scannable? This must be called with the read lock held.
+     *
+     * @param psiFile the file.
+     * @param module  the module the file must belong to, if any.
+     * @return true if the file may be scanned.
+     */
+    boolean isScannable(@NotNull final PsiFile psiFile,
+                        @NotNull final Optional<Module> module) {
+        final DirectoryFacts directory = directoryFactsFor(psiFile);
+        return directory != null
                 && psiFile.isValid()
                 && psiFile.isPhysical()
-                && hasDocument(psiFile)
-                && isInSource(psiFile, pluginConfig, overrideConfigLocation)
-                && isValidFileType(psiFile, pluginConfig)
-                && isScannableIfTest(psiFile, pluginConfig)
-                && modulesMatch(psiFile, module)
-                && !isGenerated(psiFile);
+                && isInSource(directory)
+                && isValidFileType(psiFile)
+                && isScannableIfTest(directory)
+                && modulesMatch(directory, module)
+                && !directory.generated
+                && isInNamedScopeIfPresent(psiFile)
+                && fileFacts.hasDocument(psiFile);
     }
 
-    private static boolean hasDocument(final PsiFile psiFile) {
-        return PsiDocumentManager.getInstance(psiFile.getProject()).getDocument(psiFile) != null;
+    /**
+     * Find the scannable files of a batch, taking the read lock for a few hundred files at a time, in read actions
+     * which give way to writes.
+     * <p>
+     * Files which don't belong to a module are left out, as there are no locations to scan them with.
+     *
+     * @param psiFiles the files to validate.
+     * @return the scannable files, by the module they belong to.
+     */
+    @NotNull
+    Map<Module, List<PsiFile>> scannableFilesByModule(@NotNull final Collection<PsiFile> psiFiles) {
+        final Map<Module, List<PsiFile>> filesByModule = new LinkedHashMap<>();
+        ReadActions.computeInChunks("validating files to scan", new ArrayList<>(psiFiles), FILES_PER_READ_ACTION,
+                        this::scannableFilesWithModules)
+                .forEach(chunk -> chunk.forEach(fileWithModule -> filesByModule
+                        .computeIfAbsent(fileWithModule.second, key -> new ArrayList<>())
+                        .add(fileWithModule.first)));
+        return filesByModule;
     }
 
-    private static boolean isValidFileType(final PsiFile psiFile,
-                                           final PluginConfigurationManager pluginConfig) {
-        return pluginConfig.getCurrent().getScanScope().includeNonJavaSources()
-                || FileTypes.isJava(psiFile.getFileType());
+    /**
+     * Validate files under the read lock. This has no effect beyond the memoised facts, so may be run again.
+     */
+    @NotNull
+    private List<Pair<PsiFile, Module>> scannableFilesWithModules(@NotNull final List<PsiFile> psiFiles) {
+        final List<Pair<PsiFile, Module>> scannableFiles = new ArrayList<>();
+        for (final PsiFile psiFile : psiFiles) {
+            final DirectoryFacts directory = directoryFactsFor(psiFile);
+            if (directory != null && directory.module != null && isScannable(psiFile, Optional.empty())) {
+                scannableFiles.add(pair(psiFile, directory.module));
+            }
+        }
+        return scannableFiles;
     }
 
-    private static boolean isScannableIfTest(final PsiFile psiFile,
-                                             final PluginConfigurationManager pluginConfig) {
-        return pluginConfig.getCurrent().getScanScope().includeTestClasses()
-                || !isTestClass(psiFile);
+    @Nullable
+    private DirectoryFacts directoryFactsFor(final PsiFile psiFile) {
+        final VirtualFile directory = fileFacts.directoryOf(psiFile);
+        if (directory == null) {
+            return null;
+        }
+        return directories.computeIfAbsent(directory, key -> fileFacts.directoryFactsFor(psiFile));
     }
 
-    private static boolean isGenerated(final PsiFile psiFile) {
-        return JavaProjectRootsUtil.isInGeneratedCode(psiFile.getVirtualFile(), psiFile.getProject());
+    private boolean isValidFileType(final PsiFile psiFile) {
+        return scanScope.includeNonJavaSources()
+                || FileTypes.isJava(psiFile.getFileType());
     }
 
-    private static boolean isInSource(
-            @NotNull final PsiFile psiFile,
-            @NotNull final PluginConfigurationManager pluginConfig,
-            @Nullable final ConfigurationLocation overrideConfigLocation) {
-        final boolean shouldBeScanned = pluginConfig.getCurrent().getScanScope() == ScanScope.Everything
-                || (psiFile.getVirtualFile() != null
-                        && ProjectFileIndex.getInstance(psiFile.getProject()).isInSourceContent(psiFile.getVirtualFile()));
-        return shouldBeScanned && isInNamedScopeIfPresent(
-                psiFile,
-                overrideConfigLocation != null
-                        ? Collections.singletonList(overrideConfigLocation)
-                        : pluginConfig.getCurrent().getActiveLocations());
+    private boolean isScannableIfTest(final DirectoryFacts directory) {
+        return scanScope.includeTestClasses()
+                || !directory.inTestSourceContent;
+    }
+
+    private boolean isInSource(final DirectoryFacts directory) {
+        return scanScope == ScanScope.Everything
+                || directory.inSourceContent;
     }
 
     /**
-     * Returns true, if the given psiFile is contained in any named scope of the given pluginConfig.
-     * If no NamedScope is provided, true will be returned.
+     * Returns true, if the given psiFile is contained in any named scope of the active locations.
+     * If no NamedScope is provided, false will be returned.
      */
-    private static boolean isInNamedScopeIfPresent(@NotNull final PsiFile psiFile,
-                                                   final Collection<ConfigurationLocation> activeLocations) {
-        return activeLocations.stream()
-                .map(ConfigurationLocation::getNamedScope)
-                .flatMap(Optional::stream)
-                .anyMatch(scope -> NamedScopeHelper.isFileInScope(psiFile, scope));
+    private boolean isInNamedScopeIfPresent(@NotNull final PsiFile psiFile) {
+        return namedScopes.stream()
+                .anyMatch(scope -> fileFacts.isInNamedScope(psiFile, scope));
     }
 
-    private static boolean isTestClass(final PsiElement element) {
-        final VirtualFile elementFile = element.getContainingFile().getVirtualFile();
-        if (elementFile == null) {
-            return false;
+    private static boolean modulesMatch(final DirectoryFacts directory,
+                                        final Optional<Module> module) {
+        if (module.isEmpty()) {
+            return true;
         }
+        return directory.module != null && directory.module.equals(module.get());
+    }
 
-        final Module module = ModuleUtil.findModuleForPsiElement(element);
-        if (module == null) {
-            return false;
+    /**
+     * What the project knows of a directory, shared by all of its files.
+     */
+    static final class DirectoryFacts {
+        @Nullable
+        private final Module module;
+        private final boolean inSourceContent;
+        private final boolean inTestSourceContent;
+        private final boolean generated;
+
+        DirectoryFacts(@Nullable final Module module,
+                       final boolean inSourceContent,
+                       final boolean inTestSourceContent,
+                       final boolean generated) {
+            this.module = module;
+            this.inSourceContent = inSourceContent;
+            this.inTestSourceContent = inTestSourceContent;
+            this.generated = generated;
         }
+    }
 
-        final ModuleRootManager moduleRootManager = ModuleRootManager.getInstance(module);
-        return moduleRootManager != null
-                && moduleRootManager.getFileIndex().isInTestSourceContent(elementFile);
+    /**
+     * The questions the validator asks of the project, which are called with the read lock held.
+     */
+    interface FileFacts {
+        /**
+         * @return the directory containing the file, or null if the file has no virtual file.
+         */
+        @Nullable
+        VirtualFile directoryOf(@NotNull PsiFile psiFile);
+
+        /**
+         * @return the facts of the directory containing the file, which are asked for once per directory.
+         */
+        @NotNull
+        DirectoryFacts directoryFactsFor(@NotNull PsiFile psiFile);
+
+        boolean hasDocument(@NotNull PsiFile psiFile);
+
+        boolean isInNamedScope(@NotNull PsiFile psiFile, @NotNull NamedScope namedScope);
     }
 
-    private static boolean modulesMatch(final PsiFile psiFile,
-                                        final Optional<Module> module) {
-        if (module.isEmpty()) {
-            return true;
+    private static final class ProjectFileFacts implements FileFacts {
+        private final Project project;
+
+        ProjectFileFacts(@NotNull final Project project) {
+            this.project = project;
+        }
+
+        @Nullable
+        @Override
+        public VirtualFile directoryOf(@NotNull final PsiFile psiFile) {
+            final VirtualFile file = psiFile.getVirtualFile();
+            if (file == null) {
+                return null;
+            }
+            return file.getParent() != null ? file.getParent() : file;
+        }
+
+        @NotNull
+        @Override
+        public DirectoryFacts directoryFactsFor(@NotNull final PsiFile psiFile) {
+            final VirtualFile file = psiFile.getVirtualFile();
+            final ProjectFileIndex fileIndex = ProjectFileIndex.getInstance(project);
+            return new DirectoryFacts(
+                    fileIndex.getModuleForFile(file),
+                    fileIndex.isInSourceContent(file),
+                    fileIndex.isInTestSourceContent(file),
+                    JavaProjectRootsUtil.isInGeneratedCode(file, project));
+        }
+
+        @Override
+        public boolean hasDocument(@NotNull final PsiFile psiFile) {
+            return PsiDocumentManager.getInstance(project).getDocument(psiFile) != null;
         }
-        final Module elementModule = ModuleUtil.findModuleForPsiElement(psiFile);
-        return elementModule != null && elementModule.equals(module.get());
-    }
 
+        @Override
+        public boolean isInNamedScope(@NotNull final PsiFile psiFile, @NotNull final NamedScope namedScope) {
+            return NamedScopeHelper.isFileInScopeUnderReadLock(psiFile, namedScope);
+        }
+    }
 }
@@ -1,28 +1,33 @@
 package org.infernus.idea.checkstyle.checker;
 
-import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.module.Module;
-import com.intellij.openapi.module.ModuleUtil;
+import com.intellij.openapi.progress.ProcessCanceledException;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Pair;
-import com.intellij.openapi.vfs.VfsUtilCore;
 import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.openapi.vfs.VirtualFileVisitor;
 import com.intellij.psi.PsiFile;
-import com.intellij.psi.PsiManager;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import org.infernus.idea.checkstyle.config.ConfigurationLocationSource;
+import org.infernus.idea.checkstyle.config.PluginConfiguration;
 import org.infernus.idea.checkstyle.config.PluginConfigurationManager;
 import org.infernus.idea.checkstyle.exception.CheckStylePluginException;
 import org.infernus.idea.checkstyle.exception.CheckStylePluginParseException;
 import org.infernus.idea.checkstyle.model.ConfigurationLocation;
 import org.infernus.idea.checkstyle.util.Notifications;
+import org.infernus.idea.checkstyle.util.ReadLockMonitor;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -36,52 +41,61 @@ public class ScanFiles implements Callable<Map<PsiFile, List<Problem>>> {
 
     private static final Logger LOG = Logger.getInstance(ScanFiles.class);
 
-    private final List<PsiFile> files;
-    private final Map<Module, Set<PsiFile>> moduleToFiles;
+    private static final String SCAN_POOL_NAME = "CheckStyle-IDEA Scan";
+
+    /** The number of files found at a time when the chunk size doesn't limit it. */
+    private static final int DEFAULT_BATCH_SIZE = 500;
+
+    /** The number of batches of files which may be found ahead of the scan. */
+    private static final int QUEUED_BATCHES = 4;
+
+    private final List<VirtualFile> roots;
     private final Set<ScannerListener> listeners = new CopyOnWriteArraySet<>();
     private final Project project;
     @Nullable
     private final ConfigurationLocation overrideConfigLocation;
+    private final ReadLockMonitor readLockMonitor;
+
+    /** Set once the scan has stopped, so that work already handed to the pool doesn't carry on without it. */
+    private volatile boolean stopped;
+
+    /** The configuration for the duration of a scan, taken when the scan starts. */
+    private volatile PluginConfiguration pluginConfiguration;
 
+    /**
+     * @param project                the project being scanned.
+     * @param virtualFiles           the files to scan, and the directories to scan all files under.
+     * @param overrideConfigLocation the location to scan with in place of those configured, if any.
+     */
     public ScanFiles(@NotNull final Project project,
                      @NotNull final List<VirtualFile> virtualFiles,
                      @Nullable final ConfigurationLocation overrideConfigLocation) {
         this.project = project;
         this.overrideConfigLocation = overrideConfigLocation;
-
-        files = findAllFilesFor(virtualFiles);
-        moduleToFiles = mapsModulesToFiles();
+        this.roots = List.copyOf(virtualFiles);
+        this.readLockMonitor = new ReadLockMonitor(() -> stopped);
     }
 
-    private List<PsiFile> findAllFilesFor(@NotNull final List<VirtualFile> virtualFiles) {
-        final List<PsiFile> childFiles = new ArrayList<>();
-        final PsiManager psiManager = PsiManager.getInstance(project);
-        for (final VirtualFile virtualFile : virtualFiles) {
-            childFiles.addAll(buildFilesList(psiManager, virtualFile));
+    @Override
+    public final Map<PsiFile, List<Problem>> call() {
+        try {
+            return readLockMonitor.compute(this::scan);
+        } finally {
+            LOG.debug("Read lock use during scan of " + project.getName() + ": " + readLockMonitor);
         }
-        return childFiles;
     }
 
-    private Map<Module, Set<PsiFile>> mapsModulesToFiles() {
-        return ReadAction.compute(() -> {
-            final Map<Module, Set<PsiFile>> modulesToFiles = new HashMap<>();
-            for (final PsiFile file : files) {
-                final Module module = ModuleUtil.findModuleForPsiElement(file);
-                Set<PsiFile> filesForModule = modulesToFiles.computeIfAbsent(module, key -> new HashSet<>());
-                filesForModule.add(file);
-            }
-            return modulesToFiles;
-        });
-    }
-
-    @Override
-    public final Map<PsiFile, List<Problem>> call() {
+    private Map<PsiFile, List<Problem>> scan() {
         try {
-            fireCheckStarting(files);
-            final Pair<ConfigurationLocationResult, Map<PsiFile, List<Problem>>> scanResult =
-                    processFilesForModuleInfoAndScan();
+            pluginConfiguration = configurationManager().getCurrent();
+            fireCheckStarting();
+            final Pair<ConfigurationLocationResult, Map<PsiFile, List<Problem>>> scanResult = findAndScanFiles();
             return scanCompletedSuccessfully(scanResult.first, scanResult.second);
 
+        } catch (ProcessCanceledException e) {
+            LOG.debug("Scan cancelled", e);
+            fireScanCancelled();
+            return emptyMap();
         } catch (CheckStylePluginParseException e) {
             LOG.debug("Parse exception caught during scan", e);
             return scanFailedWithError(e, false);
@@ -114,8 +128,12 @@ public class ScanFiles implements Callable<Map<PsiFile, List<Problem>>> {
         listeners.add(listener);
     }
 
-    private void fireCheckStarting(final List<PsiFile> filesToScan) {
-        listeners.forEach(listener -> listener.scanStarting(filesToScan));
+    private void fireCheckStarting() {
+        listeners.forEach(ScannerListener::scanStarting);
+    }
+
+    private void fireFilesFound(final int count) {
+        listeners.forEach(listener -> listener.filesFound(count));
     }
 
     private void fireScanCompletedSuccessfully(final ConfigurationLocationResult configLocationResult,
@@ -127,51 +145,265 @@ public class ScanFiles implements Callable<Map<PsiFile, List<Problem>>> {
         listeners.forEach(listener -> listener.scanFailedWithError(error));
     }
 
+    private void fireScanCancelled() {
+        listeners.forEach(ScannerListener::scanCancelled);
+    }
+
     private void fireFilesScanned(final int count) {
         listeners.forEach(listener -> listener.filesScanned(count));
     }
 
-    private List<PsiFile> buildFilesList(final PsiManager psiManager, final VirtualFile virtualFile) {
-        return ReadAction.compute(() -> {
-            final FindChildFiles visitor = new FindChildFiles(virtualFile, psiManager);
-            VfsUtilCore.visitChildrenRecursively(virtualFile, visitor);
-            return visitor.locatedFiles;
-        });
+    private void firePartialResultsAvailable(final Map<PsiFile, List<Problem>> partialResults) {
+        listeners.forEach(listener -> listener.partialResultsAvailable(partialResults));
     }
 
-    private Pair<ConfigurationLocationResult, Map<PsiFile, List<Problem>>> processFilesForModuleInfoAndScan() {
+    private void fireChunkScanned(final List<ScannableFile> chunk,
+                                  final Map<PsiFile, List<Problem>> chunkResults) {
+        final Map<PsiFile, List<Problem>> chunkFilesWithProblems = filesWithProblems(chunk.stream()
+                .map(ScannableFile::getPsiFile)
+                .collect(Collectors.toList()), chunkResults);
+        if (!chunkFilesWithProblems.isEmpty()) {
+            firePartialResultsAvailable(chunkFilesWithProblems);
+        }
+        fireFilesScanned(chunk.size());
+    }
+
+    /**
+     * Find the files to scan on one thread while scanning those already found on this one, so a scan starts with the
+     * first batch of files rather than once every file has been found.
+     * <p>
+     * The files of modules without rules are skipped. The rules are only reported as not present if no module of the
+     * scan has any, so the result doesn't depend on the order in which the files are found.
+     */
+    private Pair<ConfigurationLocationResult, Map<PsiFile, List<Problem>>> findAndScanFiles() {
+        final int scanThreads = pluginConfiguration.getScanThreads();
+        final int chunkSize = pluginConfiguration.getScanChunkSize();
+        final boolean suppressErrors = pluginConfiguration.isSuppressErrors();
+
+        final BatchPipeline<PsiFile> fileBatches = new BatchPipeline<>(
+                new FileEnumerator(project, roots, pluginConfiguration, overrideConfigLocation)::enumerate,
+                chunkSize > 0 ? chunkSize : DEFAULT_BATCH_SIZE,
+                QUEUED_BATCHES);
+        final Future<?> fileSearch = AppExecutorUtil.getAppExecutorService()
+                .submit(readLockMonitor.wrap(fileBatches));
+        final ExecutorService executor = scanThreads > 1
+                ? AppExecutorUtil.createBoundedApplicationPoolExecutor(SCAN_POOL_NAME, scanThreads)
+                : null;
+
+        final PsiFileValidator validator = new PsiFileValidator(project, pluginConfiguration, overrideConfigLocation);
+        final Map<Module, Optional<List<ConfigurationLocation>>> moduleToLocations = new HashMap<>();
+        final List<CompletableFuture<Map<PsiFile, List<Problem>>>> moduleScans = new ArrayList<>();
         final Map<PsiFile, List<Problem>> fileResults = new HashMap<>();
+        boolean moduleWithRulesFound = false;
+        boolean moduleWithoutRulesFound = false;
+        try {
+            List<PsiFile> batch;
+            while ((batch = fileBatches.next()) != null) {
+                checkNotCancelled();
+                fireFilesFound(batch.size());
+
+                final Map<Module, List<PsiFile>> scannableFilesByModule = validator.scannableFilesByModule(batch);
+                final int scannableFileCount = scannableFilesByModule.values().stream().mapToInt(List::size).sum();
+                if (scannableFileCount < batch.size()) {
+                    fireFilesScanned(batch.size() - scannableFileCount);
+                }
 
-        for (final Module module : moduleToFiles.keySet()) {
-            if (module == null) {
-                continue;
+                for (final Map.Entry<Module, List<PsiFile>> moduleFiles : scannableFilesByModule.entrySet()) {
+                    final Module module = moduleFiles.getKey();
+                    final List<PsiFile> filesForModule = moduleFiles.getValue();
+
+                    final Optional<List<ConfigurationLocation>> locations =
+                            moduleToLocations.computeIfAbsent(module, this::activeLocationsFor);
+                    if (locations.isEmpty()) {
+                        // the files of other modules may still have rules, so they're scanned regardless
+                        moduleWithoutRulesFound = true;
+                        fireFilesScanned(filesForModule.size());
+                        continue;
+                    }
+
+                    moduleWithRulesFound = true;
+
+                    if (executor == null) {
+                        fileResults.putAll(filesWithProblems(filesForModule,
+                                checkFiles(module, filesForModule, locations.get(), chunkSize)));
+                    } else {
+                        moduleScans.add(scanModuleAsync(module, filesForModule, locations.get(),
+                                chunkSize, suppressErrors, readLockMonitor.wrap(executor)));
+                        collectCompletedScans(moduleScans, fileResults, scanThreads);
+                    }
+                }
             }
 
-            final List<ConfigurationLocationResult> locationResults = configurationLocation(overrideConfigLocation, module);
-            if (locationResults.isEmpty()) {
+            collectCompletedScans(moduleScans, fileResults, 0);
+            if (moduleWithoutRulesFound && !moduleWithRulesFound) {
                 return pair(resultOf(NOT_PRESENT), emptyMap());
             }
+            return pair(resultOf(PRESENT), fileResults);
 
-            final Set<PsiFile> filesForModule = moduleToFiles.get(module);
-            if (filesForModule.isEmpty()) {
-                continue;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProcessCanceledException(e);
+
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+
+        } finally {
+            stopped = true;
+            fileSearch.cancel(true);
+            moduleScans.forEach(moduleScan -> moduleScan.cancel(true));
+            if (executor != null) {
+                executor.shutdownNow();
             }
+        }
+    }
+
+    /**
+     * @return the locations to scan the files of a module with, or empty if the module has none at all.
+     */
+    private Optional<List<ConfigurationLocation>> activeLocationsFor(final Module module) {
+        final List<ConfigurationLocationResult> locationResults = configurationLocation(overrideConfigLocation, module);
+        if (locationResults.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(locationResults.stream()
+                .filter(configurationLocationResult -> configurationLocationResult.status != BLOCKED)
+                .map(configurationLocationResult -> configurationLocationResult.location)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Move the results of completed scans into the file results, waiting until fewer than the given number of scans
+     * are still running. Holding back the search for files while the scans catch up bounds the files in memory.
+     */
+    private static void collectCompletedScans(final List<CompletableFuture<Map<PsiFile, List<Problem>>>> moduleScans,
+                                              final Map<PsiFile, List<Problem>> fileResults,
+                                              final int maximumRunning)
+            throws InterruptedException, ExecutionException {
+        while (true) {
+            final Iterator<CompletableFuture<Map<PsiFile, List<Problem>>>> scans = moduleScans.iterator();
+            while (scans.hasNext()) {
+                final CompletableFuture<Map<PsiFile, List<Problem>>> scan = scans.next();
+                if (scan.isDone()) {
+                    fileResults.putAll(scan.get());
+                    scans.remove();
+                }
+            }
+
+            if (moduleScans.isEmpty() || moduleScans.size() < maximumRunning) {
+                return;
+            }
+            CompletableFuture.anyOf(moduleScans.toArray(new CompletableFuture[0])).get();
+        }
+    }
+
+    /**
+     * Scan the files of a module with each location/chunk combination on a bounded pool. Scannable files are created
+     * once and only deleted when every location has finished with them.
+     */
+    private CompletableFuture<Map<PsiFile, List<Problem>>> scanModuleAsync(final Module module,
+                                                                           final List<PsiFile> filesForModule,
+                                                                           final List<ConfigurationLocation> locations,
+                                                                           final int chunkSize,
+                                                                           final boolean suppressErrors,
+                                                                           final Executor executor) {
+        return CompletableFuture
+                .supplyAsync(() -> createScannableFiles(module, filesForModule), executor)
+                .thenCompose(scannableFiles -> {
+                    final Optional<CheckStyleChecker> mergedChecker = mergedCheckerFor(module, locations);
+                    final List<CompletableFuture<Map<PsiFile, List<Problem>>>> chunkScans = chunksOf(scannableFiles, chunkSize).stream()
+                            .map(chunk -> scanChunkAsync(module, locations, mergedChecker, chunk, suppressErrors, executor))
+                            .collect(Collectors.toList());
+                    return allOf(chunkScans)
+                            .whenComplete((ignored, error) -> scannableFiles.forEach(ScannableFile::deleteIfRequired));
+                })
+                .thenApply(moduleResults -> filesWithProblems(filesForModule, moduleResults));
+    }
+
+    private CompletableFuture<Map<PsiFile, List<Problem>>> scanChunkAsync(final Module module,
+                                                                          final List<ConfigurationLocation> locations,
+                                                                          final Optional<CheckStyleChecker> mergedChecker,
+                                                                          final List<ScannableFile> chunk,
+                                                                          final boolean suppressErrors,
+                                                                          final Executor executor) {
+        final CompletableFuture<Map<PsiFile, List<Problem>>> chunkScan;
+        if (mergedChecker.isPresent()) {
+            chunkScan = CompletableFuture.supplyAsync(() -> {
+                checkNotCancelled();
+                return mergedChecker.get().scan(chunk, suppressErrors);
+            }, executor);
+        } else {
+            chunkScan = allOf(locations.stream()
+                    .map(location -> CompletableFuture.supplyAsync(
+                            () -> checkFiles(module, location, chunk, suppressErrors), executor))
+                    .collect(Collectors.toList()));
+        }
+        return chunkScan
+                .thenApply(chunkResults -> {
+                    fireChunkScanned(chunk, chunkResults);
+                    return chunkResults;
+                });
+    }
+
+    /**
+     * @return a future completing when all the given scans have, with their merged results.
+     */
+    private static CompletableFuture<Map<PsiFile, List<Problem>>> allOf(
+            final List<CompletableFuture<Map<PsiFile, List<Problem>>>> scans) {
+        return CompletableFuture.allOf(scans.toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> {
+                    final Map<PsiFile, List<Problem>> mergedResults = new HashMap<>();
+                    scans.forEach(scan -> mergeResults(mergedResults, scan.join()));
+                    return mergedResults;
+                });
+    }
+
+    /**
+     * Create the scannable files for the validated files of a module, reporting any that couldn't be created as
+     * complete.
+     */
+    private List<ScannableFile> createScannableFiles(final Module module,
+                                                     final List<PsiFile> filesToScan) {
+        checkNotCancelled();
+        final List<ScannableFile> scannableFiles = ScannableFile.createAll(filesToScan, module);
+        if (scannableFiles.size() < filesToScan.size()) {
+            fireFilesScanned(filesToScan.size() - scannableFiles.size());
+        }
+        return scannableFiles;
+    }
+
+    static <T> List<List<T>> chunksOf(final List<T> items, final int chunkSize) {
+        if (chunkSize <= 0 || items.size() <= chunkSize) {
+            return items.isEmpty() ? Collections.emptyList() : List.of(items);
+        }
 
-            final List<ConfigurationLocation> locationsToCheck = locationResults.stream()
-                    .filter(configurationLocationResult -> configurationLocationResult.status != BLOCKED)
-                    .map(configurationLocationResult -> configurationLocationResult.location)
-                    .collect(Collectors.toList());
+        final List<List<T>> chunks = new ArrayList<>();
+        for (int start = 0; start < items.size(); start += chunkSize) {
+            chunks.add(items.subList(start, Math.min(start + chunkSize, items.size())));
+        }
+        return chunks;
+    }
 
-            fileResults.putAll(filesWithProblems(filesForModule,
-                    checkFiles(module, filesForModule, locationsToCheck)));
-            fireFilesScanned(filesForModule.size());
+    private static RuntimeException unwrap(final Throwable cause) {
+        if (cause instanceof CompletionException && cause.getCause() != null) {
+            return unwrap(cause.getCause());
         }
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new CheckStylePluginException("An error occurred while scanning a file.", cause);
+    }
 
-        return pair(resultOf(PRESENT), fileResults);
+    private void checkNotCancelled() {
+        if (stopped || Thread.currentThread().isInterrupted()) {
+            throw new ProcessCanceledException();
+        }
     }
 
     @NotNull
-    private Map<PsiFile, List<Problem>> filesWithProblems(final Set<PsiFile> filesForModule,
+    private Map<PsiFile, List<Problem>> filesWithProblems(final Collection<PsiFile> filesForModule,
                                                           final Map<PsiFile, List<Problem>> moduleFileResults) {
         final Map<PsiFile, List<Problem>> moduleResults = new HashMap<>();
         for (final PsiFile psiFile : filesForModule) {
@@ -197,31 +429,65 @@ public class ScanFiles implements Callable<Map<PsiFile, List<Problem>>> {
     }
 
     private Map<PsiFile, List<Problem>> checkFiles(final Module module,
-                                                   final Set<PsiFile> filesToScan,
-                                                   final List<ConfigurationLocation> configurationLocations) {
+                                                   final List<PsiFile> filesToScan,
+                                                   final List<ConfigurationLocation> configurationLocations,
+                                                   final int chunkSize) {
         final List<ScannableFile> scannableFiles = new ArrayList<>();
         try {
-            scannableFiles.addAll(ScannableFile.createAndValidate(filesToScan, module.getProject(), module, this.overrideConfigLocation));
-
-            return configurationLocations.stream().map(configurationLocation -> checkerFactory().checker(module, configurationLocation)
-                    .map(checker -> checker.scan(scannableFiles, configurationManager().getCurrent().isSuppressErrors()))
-                    .orElseThrow(() -> new CheckStylePluginException("Could not create checker")))
-                    .flatMap(e -> e.entrySet().stream())
-                    .collect(Collectors.toMap(
-                            Map.Entry::getKey,
-                            Map.Entry::getValue,
-                            (List<Problem> e1, List<Problem> e2) -> {
-                                // Merge function to join multiple list of problems for the same file
-                                // If the same (equals) problem is contained in e1 and e2 only one gets added
-                                return Stream.concat(e1.stream(), e2.stream())
-                                        .distinct()
-                                        .collect(Collectors.toList());
-                            }));
+            scannableFiles.addAll(createScannableFiles(module, filesToScan));
+
+            final boolean suppressErrors = pluginConfiguration.isSuppressErrors();
+            final Optional<CheckStyleChecker> mergedChecker = mergedCheckerFor(module, configurationLocations);
+            final Map<PsiFile, List<Problem>> moduleResults = new HashMap<>();
+            for (final List<ScannableFile> chunk : chunksOf(scannableFiles, chunkSize)) {
+                checkNotCancelled();
+                final Map<PsiFile, List<Problem>> chunkResults = new HashMap<>();
+                if (mergedChecker.isPresent()) {
+                    mergeResults(chunkResults, mergedChecker.get().scan(chunk, suppressErrors));
+                } else {
+                    configurationLocations.forEach(configurationLocation ->
+                            mergeResults(chunkResults, checkFiles(module, configurationLocation, chunk, suppressErrors)));
+                }
+                mergeResults(moduleResults, chunkResults);
+                fireChunkScanned(chunk, chunkResults);
+            }
+            return moduleResults;
         } finally {
             scannableFiles.forEach(ScannableFile::deleteIfRequired);
         }
     }
 
+    /**
+     * @return a checker applying all the locations in a single pass, if so configured and the locations allow it.
+     */
+    private Optional<CheckStyleChecker> mergedCheckerFor(final Module module,
+                                                         final List<ConfigurationLocation> configurationLocations) {
+        if (!pluginConfiguration.isMergeLocations() || configurationLocations.size() < 2) {
+            return Optional.empty();
+        }
+        return checkerFactory().mergedChecker(module, configurationLocations);
+    }
+
+    private Map<PsiFile, List<Problem>> checkFiles(final Module module,
+                                                   final ConfigurationLocation configurationLocation,
+                                                   final List<ScannableFile> scannableFiles,
+                                                   final boolean suppressErrors) {
+        checkNotCancelled();
+        return checkerFactory().checker(module, configurationLocation)
+                .map(checker -> checker.scan(scannableFiles, suppressErrors))
+                .orElseThrow(() -> new CheckStylePluginException("Could not create checker"));
+    }
+
+    static void mergeResults(final Map<PsiFile, List<Problem>> mergedResults,
+                             final Map<PsiFile, List<Problem>> locationResults) {
+        // Merge function to join multiple list of problems for the same file
+        // If the same (equals) problem is contained in both lists only one gets added
+        locationResults.forEach((file, problems) -> mergedResults.merge(file, problems,
+                (List<Problem> e1, List<Problem> e2) -> Stream.concat(e1.stream(), e2.stream())
+                        .distinct()
+                        .collect(Collectors.toList())));
+    }
+
     private CheckerFactory checkerFactory() {
         return project.getService(CheckerFactory.class);
     }
@@ -233,28 +499,4 @@ public class ScanFiles implements Callable<Map<PsiFile, List<Problem>>> {
     private ConfigurationLocationSource configurationLocationSource() {
         return project.getService(ConfigurationLocationSource.class);
     }
-
-    private static class FindChildFiles extends VirtualFileVisitor {
-
-        private final VirtualFile virtualFile;
-        private final PsiManager psiManager;
-
-        private final List<PsiFile> locatedFiles = new ArrayList<>();
-
-        FindChildFiles(final VirtualFile virtualFile, final PsiManager psiManager) {
-            this.virtualFile = virtualFile;
-            this.psiManager = psiManager;
-        }
-
-        @Override
-        public boolean visitFile(@NotNull final VirtualFile file) {
-            if (!file.isDirectory()) {
-                final PsiFile psiFile = psiManager.findFile(virtualFile);
-                if (psiFile != null) {
-                    locatedFiles.add(psiFile);
-                }
-            }
-            return true;
-        }
-    }
 }
@@ -0,0 +1,356 @@
+package org.infernus.idea.checkstyle.checker;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiFile;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.infernus.idea.checkstyle.CheckstyleProjectService;
+import org.infernus.idea.checkstyle.csapi.Issue;
+import org.infernus.idea.checkstyle.model.ConfigurationLocation;
+import org.infernus.idea.checkstyle.util.TempDirProvider;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Caches the issues Checkstyle reported for a file, keyed by the file's content and the configuration it was
+ * checked with, so that unchanged files need not be audited again. Registered in {@code plugin.xml}.
+ * <p>
+ * Only the raw issues are cached; they are mapped onto the PSI afresh for each scan, as the PSI elements of a
+ * previous scan may no longer be valid. The content of the files the rules depend on (e.g. suppressions) is part of
+ * the key, so a change to them is seen even when it happens while no checker is watching them; the cache is also
+ * cleared when the loaded rules are reset, the configuration is changed, or a file a checker was created from
+ * changes. Rules with checks whose results depend on other files, such as translations, are not cached at all.
+ * <p>
+ * The content hash of a file on disk is kept with the file's modification time and size, so that the file is only
+ * read again once either changes.
+ * <p>
+ * The results are persisted when the project is closed, and loaded again on first use, so that a restart does not
+ * require every file to be audited again.
+ */
+public class ScanResultCache implements Disposable {
+
+    private static final Logger LOG = Logger.getInstance(ScanResultCache.class);
+
+    static final int DEFAULT_MAX_ENTRIES = 20000;
+
+    private final Project project;
+    private final int maxEntries;
+    @Nullable
+    private final ScanResultCacheStore store;
+    private final Map<ScanResultCacheKey, List<Issue>> issuesByKey;
+    private final Map<String, HashedContent> contentHashesByPath;
+
+    private boolean loaded;
+    @Nullable
+    private CompletableFuture<Void> loading;
+
+    @SuppressWarnings("unused") // IDEA's DI
+    public ScanResultCache(@NotNull final Project project) {
+        this(project, DEFAULT_MAX_ENTRIES,
+                new ScanResultCacheStore(new TempDirProvider().forScanResultCache(project)));
+    }
+
+    ScanResultCache(@NotNull final Project project, final int maxEntries) {
+        this(project, maxEntries, null);
+    }
+
+    ScanResultCache(@NotNull final Project project,
+                    final int maxEntries,
+                    @Nullable final ScanResultCacheStore store) {
+        this.project = project;
+        this.maxEntries = maxEntries;
+        this.store = store;
+        this.issuesByKey = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<ScanResultCacheKey, List<Issue>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.contentHashesByPath = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, HashedContent> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Create a fingerprint of everything about a checker's configuration that may affect its results.
+     *
+     * @param location          the configuration location.
+     * @param properties        the resolved properties the checker was created with.
+     * @param checkstyleVersion the version of Checkstyle in use.
+     * @param rulesContent      the content of the rules file.
+     * @param dependencyPaths   the paths of the files the configuration depends on, whose content is included.
+     * @return the fingerprint.
+     * @throws IOException if the rules or a file they depend on could not be read.
+     */
+    @NotNull
+    static String fingerprintOf(@NotNull final ConfigurationLocation location,
+                                @NotNull final Map<String, String> properties,
+                                @NotNull final String checkstyleVersion,
+                                @NotNull final InputStream rulesContent,
+                                @NotNull final Collection<String> dependencyPaths) throws IOException {
+        final MessageDigest digest = DigestUtils.getSha256Digest();
+        update(digest, checkstyleVersion);
+        update(digest, location.getId());
+        update(digest, String.valueOf(location.getType()));
+        update(digest, location.getLocation());
+        new TreeMap<>(properties).forEach((name, value) -> {
+            update(digest, name);
+            update(digest, value);
+        });
+        DigestUtils.updateDigest(digest, rulesContent);
+        for (final String dependencyPath : new TreeSet<>(dependencyPaths)) {
+            update(digest, dependencyPath);
+            final Path dependency = Paths.get(dependencyPath);
+            if (Files.isRegularFile(dependency)) {
+                try (InputStream dependencyContent = Files.newInputStream(dependency)) {
+                    DigestUtils.updateDigest(digest, dependencyContent);
+                }
+            } else {
+                update(digest, null);
+            }
+        }
+        return DigestUtils.sha256Hex(digest.digest());
+    }
+
+    private static void update(final MessageDigest digest, @Nullable final String value) {
+        digest.update(String.valueOf(value).getBytes(UTF_8));
+        digest.update((byte) 0);
+    }
+
+    /**
+     * Scan files, auditing only those without a cached result.
+     *
+     * @param checker                  the checker to scope files and map issues with.
+     * @param configurationFingerprint the fingerprint of the checker's configuration.
+     * @param scannableFiles           the files to scan.
+     * @param suppressErrors           whether errors should be suppressed.
+     * @param auditor                  audits the files without a cached result.
+     * @return the problems found, by file.
+     */
+    @NotNull
+    Map<PsiFile, List<Problem>> scan(@NotNull final CheckStyleChecker checker,
+                                     @NotNull final String configurationFingerprint,
+                                     @NotNull final List<ScannableFile> scannableFiles,
+                                     final boolean suppressErrors,
+                                     @NotNull final Function<List<ScannableFile>, List<Issue>> auditor) {
+        final List<ScannableFile> filesInScope = checker.filesInScope(scannableFiles);
+        if (filesInScope.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        final List<Issue> issues = new ArrayList<>();
+        final Map<ScannableFile, ScanResultCacheKey> filesToAudit = new LinkedHashMap<>();
+        for (final ScannableFile file : filesInScope) {
+            final ScanResultCacheKey key = keyFor(file, configurationFingerprint, suppressErrors);
+            final List<Issue> cachedIssues = key != null ? get(key) : null;
+            if (cachedIssues != null) {
+                cachedIssues.forEach(issue -> issues.add(rebase(issue, file)));
+            } else {
+                filesToAudit.put(file, key);
+            }
+        }
+
+        LOG.debug("Cached results found for ", filesInScope.size() - filesToAudit.size(), " of ",
+                filesInScope.size(), " files");
+
+        if (!filesToAudit.isEmpty()) {
+            final List<Issue> auditedIssues = auditor.apply(new ArrayList<>(filesToAudit.keySet()));
+            cacheIssues(checker, filesToAudit, auditedIssues);
+            issues.addAll(auditedIssues);
+        }
+
+        return checker.problemsFor(issues, filesInScope, suppressErrors);
+    }
+
+    @Nullable
+    private ScanResultCacheKey keyFor(@NotNull final ScannableFile file,
+                                      @NotNull final String configurationFingerprint,
+                                      final boolean suppressErrors) {
+        final String contentHash = contentHashOf(file);
+        if (contentHash == null) {
+            return null;
+        }
+        return new ScanResultCacheKey(file.getSourcePath(), contentHash, configurationFingerprint, suppressErrors);
+    }
+
+    @Nullable
+    String contentHashOf(@NotNull final ScannableFile file) {
+        if (file.isTemporaryCopy()) {
+            // the content is held in memory, and the copy's attributes say nothing about it
+            return file.getContentHash();
+        }
+
+        final BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(Paths.get(file.getAbsolutePath()), BasicFileAttributes.class);
+        } catch (IOException | RuntimeException e) {
+            return file.getContentHash();
+        }
+
+        final long lastModified = attributes.lastModifiedTime().toMillis();
+        final long size = attributes.size();
+        synchronized (this) {
+            final HashedContent hashedContent = contentHashesByPath.get(file.getAbsolutePath());
+            if (hashedContent != null && hashedContent.lastModified == lastModified && hashedContent.size == size) {
+                return hashedContent.contentHash;
+            }
+        }
+
+        final String contentHash = file.getContentHash();
+        if (contentHash != null) {
+            synchronized (this) {
+                contentHashesByPath.put(file.getAbsolutePath(), new HashedContent(lastModified, size, contentHash));
+            }
+        }
+        return contentHash;
+    }
+
+    private void cacheIssues(@NotNull final CheckStyleChecker checker,
+                             @NotNull final Map<ScannableFile, ScanResultCacheKey> auditedFiles,
+                             @NotNull final List<Issue> auditedIssues) {
+        final Map<String, List<Issue>> issuesByFileName = new HashMap<>();
+        auditedFiles.keySet().forEach(file -> issuesByFileName.put(file.getAbsolutePath(), new ArrayList<>()));
+
+        for (final Issue issue : auditedIssues) {
+            final List<Issue> fileIssues = issuesByFileName.get(checker.fileNameOf(issue));
+            if (fileIssues == null) {
+                // we can't tell which file this belongs to, so can't safely cache any of the batch
+                LOG.debug("Not caching results: could not map issue to an audited file: ", issue.fileName);
+                return;
+            }
+            fileIssues.add(issue);
+        }
+
+        auditedFiles.forEach((file, key) -> {
+            if (key != null && !file.isExcludedFromAudit()) {
+                put(key, issuesByFileName.get(file.getAbsolutePath()));
+            }
+        });
+    }
+
+    @NotNull
+    private Issue rebase(@NotNull final Issue issue, @NotNull final ScannableFile file) {
+        return new Issue(file.getAbsolutePath(), issue.lineNumber, issue.columnNumber, issue.message,
+                issue.severityLevel, issue.sourceName);
+    }
+
+    @Nullable
+    List<Issue> get(@NotNull final ScanResultCacheKey key) {
+        ensureLoaded();
+        synchronized (this) {
+            return issuesByKey.get(key);
+        }
+    }
+
+    void put(@NotNull final ScanResultCacheKey key, @NotNull final List<Issue> issues) {
+        ensureLoaded();
+        synchronized (this) {
+            issuesByKey.put(key, Collections.unmodifiableList(new ArrayList<>(issues)));
+        }
+    }
+
+    synchronized int size() {
+        return issuesByKey.size();
+    }
+
+    public synchronized void invalidate() {
+        LOG.debug("Scan result cache invalidation requested");
+        issuesByKey.clear();
+        loaded = true;
+        if (store != null) {
+            store.delete();
+        }
+    }
+
+    @Override
+    public synchronized void dispose() {
+        final String checkstyleVersion = activeCheckstyleVersion();
+        if (store != null && loaded && checkstyleVersion != null) {
+            store.save(checkstyleVersion, new LinkedHashMap<>(issuesByKey));
+        }
+    }
+
+    /**
+     * Load the persisted results, if this has not yet been done. The store is read by the first caller without
+     * holding the monitor, and any concurrent callers wait for it to finish.
+     */
+    private void ensureLoaded() {
+        final CompletableFuture<Void> load;
+        final boolean loadHere;
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            loadHere = loading == null;
+            if (loadHere) {
+                loading = new CompletableFuture<>();
+            }
+            load = loading;
+        }
+
+        if (!loadHere) {
+            load.join();
+            return;
+        }
+
+        Map<ScanResultCacheKey, List<Issue>> storedEntries = Collections.emptyMap();
+        try {
+            final String checkstyleVersion = activeCheckstyleVersion();
+            if (store != null && checkstyleVersion != null) {
+                storedEntries = store.load(checkstyleVersion, maxEntries);
+            }
+        } finally {
+            synchronized (this) {
+                if (!loaded) {
+                    // entries added since are newer, so take precedence; an invalidation will have set loaded
+                    final Map<ScanResultCacheKey, List<Issue>> currentEntries = new LinkedHashMap<>(issuesByKey);
+                    issuesByKey.clear();
+                    issuesByKey.putAll(storedEntries);
+                    issuesByKey.putAll(currentEntries);
+                    loaded = true;
+                }
+                loading = null;
+            }
+            load.complete(null);
+        }
+    }
+
+    private static final class HashedContent {
+        private final long lastModified;
+        private final long size;
+        private final String contentHash;
+
+        HashedContent(final long lastModified, final long size, @NotNull final String contentHash) {
+            this.lastModified = lastModified;
+            this.size = size;
+            this.contentHash = contentHash;
+        }
+    }
+
+    @Nullable
+    private String activeCheckstyleVersion() {
+        final CheckstyleProjectService checkstyleProjectService
+                = project.getServiceIfCreated(CheckstyleProjectService.class);
+        if (checkstyleProjectService != null) {
+            return checkstyleProjectService.getActiveCheckstyleVersion();
+        }
+        return null;
+    }
+}
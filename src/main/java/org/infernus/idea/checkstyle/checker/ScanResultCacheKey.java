@@ -0,0 +1,62 @@
+package org.infernus.idea.checkstyle.checker;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+
+/**
+ * Identifies the result of auditing one version of a file with one checker configuration.
+ */
+final class ScanResultCacheKey {
+
+    private final String filePath;
+    private final String contentHash;
+    private final String configurationFingerprint;
+    private final boolean suppressErrors;
+
+    ScanResultCacheKey(@NotNull final String filePath,
+                       @NotNull final String contentHash,
+                       @NotNull final String configurationFingerprint,
+                       final boolean suppressErrors) {
+        this.filePath = filePath;
+        this.contentHash = contentHash;
+        this.configurationFingerprint = configurationFingerprint;
+        this.suppressErrors = suppressErrors;
+    }
+
+    String getFilePath() {
+        return filePath;
+    }
+
+    String getContentHash() {
+        return contentHash;
+    }
+
+    String getConfigurationFingerprint() {
+        return configurationFingerprint;
+    }
+
+    boolean isSuppressErrors() {
+        return suppressErrors;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final ScanResultCacheKey that = (ScanResultCacheKey) o;
+        return suppressErrors == that.suppressErrors
+                && Objects.equals(filePath, that.filePath)
+                && Objects.equals(contentHash, that.contentHash)
+                && Objects.equals(configurationFingerprint, that.configurationFingerprint);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(filePath, contentHash, configurationFingerprint, suppressErrors);
+    }
+}
@@ -0,0 +1,200 @@
+package org.infernus.idea.checkstyle.checker;
+
+import com.intellij.openapi.diagnostic.Logger;
+import org.infernus.idea.checkstyle.csapi.Issue;
+import org.infernus.idea.checkstyle.csapi.SeverityLevel;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Reads and writes the contents of a {@link ScanResultCache} to disk.
+ * <p>
+ * The file starts with a header of a magic number, the format version and the Checkstyle version the results were
+ * created with. A file with a different header is discarded as a whole. Entries are written in least-recently-used
+ * order, so that the order is preserved for eviction after reloading.
+ * <p>
+ * Entries are only valid across restarts because their configuration fingerprint covers the content of the files the
+ * rules depend on, so a suppressions file changed while the IDE was closed gives a fingerprint no entry matches.
+ * Files written before the fingerprint covered them have an earlier format version, and are discarded.
+ */
+class ScanResultCacheStore {
+
+    private static final Logger LOG = Logger.getInstance(ScanResultCacheStore.class);
+
+    private static final int MAGIC = 0x43534943; // CSIC
+    private static final int FORMAT_VERSION = 3;
+
+    private static final String NO_VALUE = "";
+    private static final int MAX_STRING_LENGTH = 16 * 1024 * 1024;
+
+    private final File storeFile;
+
+    ScanResultCacheStore(@NotNull final File storeFile) {
+        this.storeFile = storeFile;
+    }
+
+    /**
+     * Load the persisted results.
+     *
+     * @param checkstyleVersion the Checkstyle version now in use.
+     * @param maxEntries        the maximum number of entries to load.
+     * @return the entries, in least-recently-used order; or an empty map if there are no valid persisted results.
+     */
+    @NotNull
+    Map<ScanResultCacheKey, List<Issue>> load(@NotNull final String checkstyleVersion, final int maxEntries) {
+        final Map<ScanResultCacheKey, List<Issue>> entries = new LinkedHashMap<>();
+        if (!storeFile.isFile()) {
+            return entries;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(new FileInputStream(storeFile))))) {
+            if (in.readInt() != MAGIC
+                    || in.readInt() != FORMAT_VERSION
+                    || !checkstyleVersion.equals(readString(in))) {
+                LOG.debug("Discarding persisted scan results with an obsolete header: ", storeFile);
+                return entries;
+            }
+
+            final int entryCount = in.readInt();
+            final int entriesToSkip = Math.max(0, entryCount - maxEntries);
+            for (int i = 0; i < entryCount; i++) {
+                final ScanResultCacheKey key = readKey(in);
+                final List<Issue> issues = readIssues(in, key.getFilePath());
+                if (i >= entriesToSkip) {
+                    entries.put(key, issues);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            LOG.info("Unable to read persisted scan results from " + storeFile + "; they will be discarded", e);
+            entries.clear();
+        }
+
+        LOG.debug("Loaded ", entries.size(), " persisted scan results from ", storeFile);
+        return entries;
+    }
+
+    /**
+     * Persist results, replacing any existing file.
+     *
+     * @param checkstyleVersion the Checkstyle version the results were created with.
+     * @param entries           the entries, in least-recently-used order.
+     */
+    void save(@NotNull final String checkstyleVersion,
+              @NotNull final Map<ScanResultCacheKey, List<Issue>> entries) {
+        final File parentDir = storeFile.getAbsoluteFile().getParentFile();
+        if (parentDir == null || !(parentDir.isDirectory() || parentDir.mkdirs())) {
+            LOG.debug("Unable to create directory for persisted scan results: ", parentDir);
+            return;
+        }
+
+        final File tempFile = new File(parentDir, storeFile.getName() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(new FileOutputStream(tempFile))))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                writeString(out, checkstyleVersion);
+
+                out.writeInt(entries.size());
+                for (Map.Entry<ScanResultCacheKey, List<Issue>> entry : entries.entrySet()) {
+                    writeKey(out, entry.getKey());
+                    writeIssues(out, entry.getValue());
+                }
+            }
+            Files.move(tempFile.toPath(), storeFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            LOG.debug("Persisted ", entries.size(), " scan results to ", storeFile);
+
+        } catch (IOException | RuntimeException e) {
+            LOG.info("Unable to persist scan results to " + storeFile, e);
+            //noinspection ResultOfMethodCallIgnored
+            tempFile.delete();
+        }
+    }
+
+    void delete() {
+        if (storeFile.exists() && !storeFile.delete()) {
+            LOG.debug("Unable to delete persisted scan results: ", storeFile);
+        }
+    }
+
+    private void writeKey(final DataOutputStream out, final ScanResultCacheKey key) throws IOException {
+        writeString(out, key.getFilePath());
+        writeString(out, key.getContentHash());
+        writeString(out, key.getConfigurationFingerprint());
+        out.writeBoolean(key.isSuppressErrors());
+    }
+
+    private ScanResultCacheKey readKey(final DataInputStream in) throws IOException {
+        return new ScanResultCacheKey(readString(in), readString(in), readString(in), in.readBoolean());
+    }
+
+    private void writeIssues(final DataOutputStream out, final List<Issue> issues) throws IOException {
+        out.writeInt(issues.size());
+        for (Issue issue : issues) {
+            out.writeInt(issue.lineNumber);
+            out.writeInt(issue.columnNumber);
+            writeNullable(out, issue.message);
+            writeNullable(out, issue.severityLevel != null ? issue.severityLevel.name() : null);
+            writeNullable(out, issue.sourceName);
+        }
+    }
+
+    private List<Issue> readIssues(final DataInputStream in, final String fileName) throws IOException {
+        final int issueCount = in.readInt();
+        final List<Issue> issues = new ArrayList<>(issueCount);
+        for (int i = 0; i < issueCount; i++) {
+            final int lineNumber = in.readInt();
+            final int columnNumber = in.readInt();
+            final String message = readNullable(in);
+            final String severityLevel = readNullable(in);
+            final String sourceName = readNullable(in);
+            issues.add(new Issue(fileName, lineNumber, columnNumber, message,
+                    severityLevel != null ? SeverityLevel.valueOf(severityLevel) : null, sourceName));
+        }
+        return issues;
+    }
+
+    private void writeNullable(final DataOutputStream out, @Nullable final String value) throws IOException {
+        out.writeBoolean(value != null);
+        writeString(out, Objects.requireNonNullElse(value, NO_VALUE));
+    }
+
+    @Nullable
+    private String readNullable(final DataInputStream in) throws IOException {
+        final boolean present = in.readBoolean();
+        final String value = readString(in);
+        return present ? value : null;
+    }
+
+    private void writeString(final DataOutputStream out, @NotNull final String value) throws IOException {
+        // not writeUTF, which is limited to 64KB of encoded data; a message may be longer
+        final byte[] bytes = value.getBytes(UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    @NotNull
+    private String readString(final DataInputStream in) throws IOException {
+        final int length = in.readInt();
+        if (length < 0 || length > MAX_STRING_LENGTH) {
+            throw new IOException("Invalid string length: " + length);
+        }
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, UTF_8);
+    }
+}
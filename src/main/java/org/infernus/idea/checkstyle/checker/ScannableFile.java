@@ -8,22 +8,29 @@ import com.intellij.openapi.module.Module;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.project.ProjectUtil;
 import com.intellij.openapi.roots.ModuleRootManager;
-import com.intellij.openapi.util.ThrowableComputable;
+import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiJavaFile;
-import org.infernus.idea.checkstyle.config.PluginConfigurationManager;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.infernus.idea.checkstyle.config.PluginConfiguration;
 import org.infernus.idea.checkstyle.model.ConfigurationLocation;
+import org.infernus.idea.checkstyle.util.ReadActions;
 import org.infernus.idea.checkstyle.util.TempDirProvider;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -46,49 +53,83 @@ public class ScannableFile {
     private static final AtomicInteger TEMP_FILE_SOURCE = new AtomicInteger();
     private static final int MAX_TEMP_FILE_SUFFIX = 999;
 
+    /** The number of files validated in a single read action. */
+    private static final int FILES_PER_READ_ACTION = 500;
+
     private final File realFile;
     private final File baseTempDir;
     private final PsiFile psiFile;
+    private final String sourcePath;
+
+    private byte[] pendingContent;
+    private boolean copyUnwritable;
+    private String contentHash;
 
     /**
      * Create a new scannable file from a PSI file.
      * <p>
-     * If required this will create a temporary copy of the file.
+     * If required this will capture the content of the file, for a temporary copy. The copy is only written when
+     * the file is first needed by Checkstyle, so no copy is made if cached results can be used.
      *
      * @param psiFile the psiFile to create the file from.
      * @param module  the module the file belongs to.
-     * @throws IOException if file creation is required and fails.
+     * @throws IOException if the content of the file cannot be captured.
      */
     public ScannableFile(@NotNull final PsiFile psiFile, @Nullable final Module module) throws IOException {
         this.psiFile = psiFile;
+        this.sourcePath = virtualFileOf(psiFile).map(VirtualFile::getPath).orElse(null);
 
         if (!existsOnFilesystem(psiFile) || documentIsModifiedAndUnsaved(psiFile)) {
             baseTempDir = prepareBaseTmpDirFor(psiFile);
-            realFile = createTemporaryFileFor(psiFile, module, baseTempDir);
+            realFile = temporaryFileFor(psiFile, module, baseTempDir);
+            pendingContent = contentsOf(psiFile);
         } else {
             baseTempDir = null;
             realFile = new File(pathOf(psiFile));
         }
     }
 
+    /**
+     * Create scannable files for those of the given files which should be scanned.
+     *
+     * @param psiFiles               the candidate files.
+     * @param pluginConfiguration    the configuration for the scan, which is used for every file.
+     * @param module                 the module the files belong to, if known.
+     * @param overrideConfigLocation the location to scan with instead of the active locations, if any.
+     * @return the scannable files.
+     */
     public static List<ScannableFile> createAndValidate(@NotNull final Collection<PsiFile> psiFiles,
-                                                        @NotNull final Project project,
+                                                        @NotNull final PluginConfiguration pluginConfiguration,
                                                         @Nullable final Module module,
                                                         @Nullable final ConfigurationLocation overrideConfigLocation) {
-        ThrowableComputable<List<ScannableFile>, RuntimeException> action = () -> psiFiles.stream()
-                .filter(currentFile -> PsiFileValidator.isScannable(
-                        currentFile,
-                        ofNullable(module),
-                        configurationManager(project),
-                        overrideConfigLocation))
+        final Map<Project, PsiFileValidator> validators = new HashMap<>();
+        final List<PsiFile> scannableFiles = ReadActions.computeInChunks("validating files to scan",
+                        psiFiles.stream().filter(Objects::nonNull).collect(Collectors.toList()),
+                        FILES_PER_READ_ACTION,
+                        chunk -> chunk.stream()
+                                .filter(currentFile -> validators.computeIfAbsent(currentFile.getProject(),
+                                                project -> new PsiFileValidator(project, pluginConfiguration, overrideConfigLocation))
+                                        .isScannable(currentFile, ofNullable(module)))
+                                .collect(Collectors.toList()))
+                .stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+        return createAll(scannableFiles, module);
+    }
+
+    /**
+     * Create scannable files for files which are already known to be scannable.
+     *
+     * @param psiFiles the files, as validated by a {@link PsiFileValidator}.
+     * @param module   the module the files belong to.
+     * @return the scannable files.
+     */
+    static List<ScannableFile> createAll(@NotNull final Collection<PsiFile> psiFiles,
+                                         @Nullable final Module module) {
+        return psiFiles.stream()
                 .map(currentFile -> ScannableFile.create(currentFile, module))
                 .filter(Objects::nonNull)
                 .collect(Collectors.toCollection(CopyOnWriteArrayList::new));
-        return ReadAction.compute(action);
-    }
-
-    private static PluginConfigurationManager configurationManager(final Project project) {
-        return project.getService(PluginConfigurationManager.class);
     }
 
     @Nullable
@@ -114,15 +155,10 @@ public class ScannableFile {
                 .orElseThrow(() -> new IllegalStateException("PSIFile " + "does not have associated virtual file: " + file));
     }
 
-    private File createTemporaryFileFor(@NotNull final PsiFile file,
-                                        @Nullable final Module module,
-                                        @NotNull final File tempDir) throws IOException {
-        final File temporaryFile = new File(parentDirFor(file, module, tempDir), file.getName());
-        temporaryFile.deleteOnExit();
-
-        writeContentsToFile(file, temporaryFile);
-
-        return temporaryFile;
+    private File temporaryFileFor(@NotNull final PsiFile file,
+                                  @Nullable final Module module,
+                                  @NotNull final File tempDir) {
+        return new File(parentDirFor(file, module, tempDir), file.getName());
     }
 
     private File parentDirFor(@NotNull final PsiFile file,
@@ -142,9 +178,6 @@ public class ScannableFile {
             tmpDirForFile = baseTmpDir;
         }
 
-        //noinspection ResultOfMethodCallIgnored
-        tmpDirForFile.mkdirs();
-
         return tmpDirForFile;
     }
 
@@ -213,19 +246,35 @@ public class ScannableFile {
                 .map(fileDocumentManager::isDocumentUnsaved).orElse(false);
     }
 
-    private void writeContentsToFile(final PsiFile file, final File outFile) throws IOException {
+    private byte[] contentsOf(final PsiFile file) throws IOException {
         final String lineSeparator = CodeStyle.getSettings(file.getProject()).getLineSeparator();
+        // IDEA uses \n internally
+        final String contents = StringUtil.convertLineSeparators(file.getText(), lineSeparator);
 
-        final Writer tempFileOut = writerTo(outFile, charSetOf(file));
-        for (final char character : file.getText().toCharArray()) {
-            if (character == '\n') { // IDEA uses \n internally
-                tempFileOut.write(lineSeparator);
-            } else {
-                tempFileOut.write(character);
-            }
+        final ByteBuffer encodedContents = charSetOf(file).newEncoder().encode(CharBuffer.wrap(contents));
+        final byte[] bytes = new byte[encodedContents.remaining()];
+        encodedContents.get(bytes);
+        return bytes;
+    }
+
+    private void writeTemporaryFile() {
+        if (pendingContent == null) {
+            return;
+        }
+
+        try {
+            //noinspection ResultOfMethodCallIgnored
+            realFile.getParentFile().mkdirs();
+            realFile.deleteOnExit();
+            Files.write(realFile.toPath(), pendingContent);
+            pendingContent = null;
+        } catch (IOException e) {
+            LOG.warn("Failure when creating temporary file", e);
+            // as when the copy was written eagerly, a file we can't copy is excluded rather than retried
+            pendingContent = null;
+            copyUnwritable = true;
+            delete(realFile);
         }
-        tempFileOut.flush();
-        tempFileOut.close();
     }
 
     @NotNull
@@ -237,13 +286,33 @@ public class ScannableFile {
         return ofNullable(file.getVirtualFile());
     }
 
-    @NotNull
-    private Writer writerTo(final File outFile, final Charset charset) throws FileNotFoundException {
-        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outFile), charset.newEncoder()));
+    /**
+     * @return the file to pass to Checkstyle. If a temporary copy is required, it is written by this call. If the
+     * copy could not be written this is null, and the file should not be audited.
+     */
+    @Nullable
+    public synchronized File getFile() {
+        writeTemporaryFile();
+        if (copyUnwritable) {
+            return null;
+        }
+        return realFile;
     }
 
-    public File getFile() {
-        return realFile;
+    /**
+     * @return the content of the temporary copy, if one is required and has not yet been written, so that it may be
+     * audited without writing it; otherwise null.
+     */
+    @Nullable
+    public synchronized byte[] getUnwrittenContent() {
+        return pendingContent;
+    }
+
+    /**
+     * @return true if a temporary copy was required but could not be written, in which case the file is not audited.
+     */
+    public synchronized boolean isExcludedFromAudit() {
+        return copyUnwritable;
     }
 
     public static void deleteIfRequired(@Nullable final ScannableFile scannableFile) {
@@ -252,7 +321,8 @@ public class ScannableFile {
         }
     }
 
-    private void deleteIfRequired() {
+    private synchronized void deleteIfRequired() {
+        pendingContent = null;
         if (baseTempDir != null && baseTempDir.getName().startsWith(TEMPFILE_DIR_PREFIX)) {
             delete(baseTempDir);
         }
@@ -284,6 +354,39 @@ public class ScannableFile {
         return psiFile;
     }
 
+    /**
+     * @return the path of the file in the project, which differs from {@link #getAbsolutePath()} when a temporary
+     * copy is scanned. This falls back to the scanned path for files without a virtual file.
+     */
+    @NotNull
+    public String getSourcePath() {
+        return ofNullable(sourcePath).orElseGet(this::getAbsolutePath);
+    }
+
+    /**
+     * @return true if Checkstyle is passed a temporary copy of the file's content, rather than the file itself.
+     */
+    public boolean isTemporaryCopy() {
+        return baseTempDir != null;
+    }
+
+    /**
+     * @return a SHA-256 digest of the content which will be passed to Checkstyle, or null if it could not be read.
+     */
+    @Nullable
+    public synchronized String getContentHash() {
+        if (contentHash == null && pendingContent != null) {
+            contentHash = DigestUtils.sha256Hex(pendingContent);
+        } else if (contentHash == null) {
+            try (InputStream content = new BufferedInputStream(new FileInputStream(realFile))) {
+                contentHash = DigestUtils.sha256Hex(content);
+            } catch (IOException e) {
+                LOG.debug("Unable to hash content of " + realFile, e);
+            }
+        }
+        return contentHash;
+    }
+
     @Override
     public String toString() {
         return String.format("[ScannableFile: file=%s; temporary=%s]", realFile.toString(), baseTempDir != null);
@@ -8,13 +8,32 @@ import java.util.Map;
 
 public interface ScannerListener {
 
-    void scanStarting(List<PsiFile> filesToScan);
+    void scanStarting();
+
+    /**
+     * Called as files to scan are found, which continues while the first files found are being scanned.
+     *
+     * @param count the number of files found since the last call.
+     */
+    void filesFound(int count);
 
     void filesScanned(int count);
 
+    /**
+     * Called when part of a scan completes, before {@link #scanCompletedSuccessfully}.
+     *
+     * @param partialResults the files with problems from the completed part of the scan.
+     */
+    void partialResultsAvailable(Map<PsiFile, List<Problem>> partialResults);
+
     void scanCompletedSuccessfully(ConfigurationLocationResult configurationLocationResult,
                                    Map<PsiFile, List<Problem>> scanResults);
 
     void scanFailedWithError(CheckStylePluginException error);
 
+    /**
+     * Called in place of {@link #scanCompletedSuccessfully} when the scan is cancelled before it completes.
+     */
+    void scanCancelled();
+
 }
@@ -0,0 +1,45 @@
+package org.infernus.idea.checkstyle.checker;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Creations in progress, by key, so that concurrent requests for the same value share a single creation.
+ * <p>
+ * A creation is forgotten once it completes, so a later request starts a new one; callers are expected to cache
+ * the value themselves. A creation continues if its requesters stop waiting for it.
+ *
+ * @param <K> the type of the key.
+ * @param <V> the type of the value created.
+ */
+class SharedCreations<K, V> {
+
+    private final Map<K, CompletableFuture<V>> creationsInProgress = new ConcurrentHashMap<>();
+
+    /**
+     * Start a creation, or join the one in progress for the same key.
+     *
+     * @param key      the key of the value.
+     * @param creation creates the value.
+     * @param executor runs the creation.
+     * @return the creation.
+     */
+    @NotNull
+    CompletableFuture<V> createOrJoin(@NotNull final K key,
+                                      @NotNull final Supplier<V> creation,
+                                      @NotNull final Executor executor) {
+        final CompletableFuture<V> sharedCreation = creationsInProgress.computeIfAbsent(key,
+                keyToCreate -> CompletableFuture.supplyAsync(creation, executor));
+        sharedCreation.whenComplete((value, error) -> creationsInProgress.remove(key, sharedCreation));
+        return sharedCreation;
+    }
+
+    int size() {
+        return creationsInProgress.size();
+    }
+}
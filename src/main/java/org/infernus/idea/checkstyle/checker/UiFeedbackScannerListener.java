@@ -19,11 +19,21 @@ public class UiFeedbackScannerListener implements ScannerListener {
 
 
     @Override
-    public void scanStarting(final List<PsiFile> filesToScan) {
+    public void scanStarting() {
         ApplicationManager.getApplication().invokeLater(() -> {
             final CheckStyleToolWindowPanel toolWindowPanel = toolWindowPanel();
             if (toolWindowPanel != null) {
-                toolWindowPanel.displayInProgress(filesToScan.size());
+                toolWindowPanel.displayInProgress();
+            }
+        });
+    }
+
+    @Override
+    public void filesFound(final int count) {
+        ApplicationManager.getApplication().invokeLater(() -> {
+            final CheckStyleToolWindowPanel toolWindowPanel = toolWindowPanel();
+            if (toolWindowPanel != null) {
+                toolWindowPanel.increaseProgressBarMaximumBy(count);
             }
         });
     }
@@ -38,6 +48,16 @@ public class UiFeedbackScannerListener implements ScannerListener {
         });
     }
 
+    @Override
+    public void partialResultsAvailable(final Map<PsiFile, List<Problem>> partialResults) {
+        ApplicationManager.getApplication().invokeLater(() -> {
+            final CheckStyleToolWindowPanel toolWindowPanel = toolWindowPanel();
+            if (toolWindowPanel != null) {
+                toolWindowPanel.displayPartialResults(partialResults);
+            }
+        });
+    }
+
     @Override
     public void scanCompletedSuccessfully(final ConfigurationLocationResult configurationLocationResult,
                                           final Map<PsiFile, List<Problem>> scanResults) {
@@ -69,6 +89,16 @@ public class UiFeedbackScannerListener implements ScannerListener {
         });
     }
 
+    @Override
+    public void scanCancelled() {
+        ApplicationManager.getApplication().invokeLater(() -> {
+            final CheckStyleToolWindowPanel toolWindowPanel = toolWindowPanel();
+            if (toolWindowPanel != null) {
+                toolWindowPanel.displayWarningResult("plugin.results.scan-cancelled");
+            }
+        });
+    }
+
     @Nullable
     private CheckStyleToolWindowPanel toolWindowPanel() {
         return CheckStyleToolWindowPanel.panelFor(project);
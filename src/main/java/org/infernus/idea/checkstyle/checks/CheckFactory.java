@@ -8,6 +8,7 @@ import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.function.Function;
 
@@ -19,20 +20,34 @@ public final class CheckFactory {
 
     private static final Logger LOG = Logger.getInstance(CheckFactory.class);
 
-    private static final List<Function<Project, Check>> CHECKS = Arrays.asList(
-            (project) -> new JavadocPackageCheck(project.getService(CheckstyleProjectService.class)),
-            (project) -> new PackageHtmlCheck());
+    private static final List<Function<CheckstyleProjectService, Check>> CHECKS = Arrays.asList(
+            JavadocPackageCheck::new,
+            (checkstyleProjectService) -> new PackageHtmlCheck());
 
     private CheckFactory() {
     }
 
     @NotNull
     public static List<Check> getChecks(final Project project, final CheckstyleInternalObject config) {
+        return getChecks(project.getService(CheckstyleProjectService.class), config);
+    }
+
+    /**
+     * Create and configure the checks for a configuration. The checks hold no state beyond their configuration,
+     * so the result may be shared by all scans with the configuration.
+     *
+     * @param checkstyleProjectService the Checkstyle service of the project.
+     * @param config                   the Checkstyle configuration.
+     * @return the configured checks.
+     */
+    @NotNull
+    public static List<Check> getChecks(final CheckstyleProjectService checkstyleProjectService,
+                                        final CheckstyleInternalObject config) {
         final List<Check> checks = new ArrayList<>();
 
-        for (final Function<Project, Check> checkFactory : CHECKS) {
+        for (final Function<CheckstyleProjectService, Check> checkFactory : CHECKS) {
             try {
-                final Check check = checkFactory.apply(project);
+                final Check check = checkFactory.apply(checkstyleProjectService);
                 check.configure(config);
                 checks.add(check);
             } catch (Exception e) {
@@ -40,6 +55,6 @@ public final class CheckFactory {
             }
         }
 
-        return checks;
+        return Collections.unmodifiableList(checks);
     }
 }
@@ -3,6 +3,8 @@ package org.infernus.idea.checkstyle.config;
 import com.intellij.openapi.components.PersistentStateComponent;
 import com.intellij.openapi.components.State;
 import com.intellij.openapi.components.Storage;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.openapi.util.SimpleModificationTracker;
 import com.intellij.util.xmlb.annotations.MapAnnotation;
 import org.infernus.idea.checkstyle.CheckStylePlugin;
 import org.jetbrains.annotations.NotNull;
@@ -13,10 +15,12 @@ import java.util.TreeMap;
 
 @State(name = CheckStylePlugin.ID_PLUGIN + "-app", storages = {@Storage("checkstyle-idea.xml")})
 public class ApplicationConfigurationState
-        implements PersistentStateComponent<ApplicationConfigurationState.ApplicationSettings> {
+        implements PersistentStateComponent<ApplicationConfigurationState.ApplicationSettings>, ModificationTracker {
 
     private static final String LAST_ACTIVE_PLUGIN_VERSION = "last-active-plugin-version";
 
+    private final SimpleModificationTracker modificationTracker = new SimpleModificationTracker();
+
     private ApplicationSettings applicationSettings = defaultApplicationSettings();
 
     @NotNull
@@ -30,6 +34,12 @@ public class ApplicationConfigurationState
 
     public void loadState(@NotNull final ApplicationSettings sourceApplicationSettings) {
         applicationSettings = sourceApplicationSettings;
+        modificationTracker.incModificationCount();
+    }
+
+    @Override
+    public long getModificationCount() {
+        return modificationTracker.getModificationCount();
     }
 
     @NotNull
@@ -41,6 +51,7 @@ public class ApplicationConfigurationState
 
     void setCurrentConfig(@NotNull final PluginConfiguration currentPluginConfig) {
         applicationSettings = ApplicationSettings.create(currentPluginConfig.getLastActivePluginVersion());
+        modificationTracker.incModificationCount();
     }
 
     static class ApplicationSettings {
@@ -24,6 +24,10 @@ public class PluginConfiguration {
     private final List<String> thirdPartyClasspath;
     private final SortedSet<String> activeLocationIds;
     private final boolean scanBeforeCheckin;
+    private final int scanThreads;
+    private final int scanChunkSize;
+    private final boolean mergeLocations;
+    private final int inspectionTimeout;
     private final String lastActivePluginVersion;
 
     PluginConfiguration(@NotNull final String checkstyleVersion,
@@ -34,6 +38,10 @@ public class PluginConfiguration {
                         @NotNull final List<String> thirdPartyClasspath,
                         @NotNull final SortedSet<String> activeLocationIds,
                         final boolean scanBeforeCheckin,
+                        final int scanThreads,
+                        final int scanChunkSize,
+                        final boolean mergeLocations,
+                        final int inspectionTimeout,
                         @Nullable final String lastActivePluginVersion) {
         this.checkstyleVersion = checkstyleVersion;
         this.scanScope = scanScope;
@@ -41,10 +49,14 @@ public class PluginConfiguration {
         this.copyLibs = copyLibs;
         this.locations = Collections.unmodifiableSortedSet(locations);
         this.thirdPartyClasspath = Collections.unmodifiableList(thirdPartyClasspath);
-        this.activeLocationIds = activeLocationIds.stream()
+        this.activeLocationIds = Collections.unmodifiableSortedSet(activeLocationIds.stream()
                 .filter(Objects::nonNull)
-		        .collect(Collectors.toCollection(TreeSet::new));
+		        .collect(Collectors.toCollection(TreeSet::new)));
         this.scanBeforeCheckin = scanBeforeCheckin;
+        this.scanThreads = scanThreads;
+        this.scanChunkSize = scanChunkSize;
+        this.mergeLocations = mergeLocations;
+        this.inspectionTimeout = inspectionTimeout;
         this.lastActivePluginVersion = lastActivePluginVersion;
     }
 
@@ -105,6 +117,44 @@ public class PluginConfiguration {
         return scanBeforeCheckin;
     }
 
+    /**
+     * The number of worker threads used by a static scan. A value of 1 scans modules one after the other.
+     *
+     * @return the maximum number of concurrent module/location scans.
+     */
+    public int getScanThreads() {
+        return scanThreads;
+    }
+
+    /**
+     * The number of files passed to Checkstyle in a single batch by a static scan. A value of 0 passes the files of
+     * a module at once, as they are found.
+     *
+     * @return the maximum number of files in a scan batch, or 0 if batches are not split.
+     */
+    public int getScanChunkSize() {
+        return scanChunkSize;
+    }
+
+    /**
+     * Whether the rules of all active locations should be applied in a single Checkstyle run over each file, where
+     * they are compatible, rather than in a run for each location.
+     *
+     * @return true if compatible locations are merged.
+     */
+    public boolean isMergeLocations() {
+        return mergeLocations;
+    }
+
+    /**
+     * How long the on-the-fly inspection of a file waits for Checkstyle before giving up on it.
+     *
+     * @return the inspection timeout, in milliseconds.
+     */
+    public int getInspectionTimeout() {
+        return inspectionTimeout;
+    }
+
     public boolean hasChangedFrom(final Object other) {
         return this.equals(other) && locationsAreEqual((PluginConfiguration) other);
     }
@@ -139,13 +189,18 @@ public class PluginConfiguration {
                 && Objects.equals(thirdPartyClasspath, otherDto.thirdPartyClasspath)
                 && Objects.equals(activeLocationIds, otherDto.activeLocationIds)
                 && Objects.equals(scanBeforeCheckin, otherDto.scanBeforeCheckin)
+                && Objects.equals(scanThreads, otherDto.scanThreads)
+                && Objects.equals(scanChunkSize, otherDto.scanChunkSize)
+                && Objects.equals(mergeLocations, otherDto.mergeLocations)
+                && Objects.equals(inspectionTimeout, otherDto.inspectionTimeout)
                 && Objects.equals(lastActivePluginVersion, otherDto.lastActivePluginVersion);
     }
 
     @Override
     public int hashCode() {
         return Objects.hash(checkstyleVersion, scanScope, suppressErrors, copyLibs, locations, thirdPartyClasspath,
-                activeLocationIds, scanBeforeCheckin, lastActivePluginVersion);
+                activeLocationIds, scanBeforeCheckin, scanThreads, scanChunkSize, mergeLocations, inspectionTimeout,
+                lastActivePluginVersion);
     }
 
 }
@@ -14,6 +14,10 @@ import org.jetbrains.annotations.Nullable;
 import java.util.*;
 
 public final class PluginConfigurationBuilder {
+    public static final int DEFAULT_SCAN_THREADS = 1;
+    public static final int DEFAULT_SCAN_CHUNK_SIZE = 0;
+    public static final int DEFAULT_INSPECTION_TIMEOUT = 5000;
+
     private String checkstyleVersion;
     private ScanScope scanScope;
     private boolean suppressErrors;
@@ -22,6 +26,10 @@ public final class PluginConfigurationBuilder {
     private List<String> thirdPartyClasspath;
     private SortedSet<String> activeLocationIds;
     private boolean scanBeforeCheckin;
+    private int scanThreads;
+    private int scanChunkSize;
+    private boolean mergeLocations;
+    private int inspectionTimeout;
     private String lastActivePluginVersion;
 
     private PluginConfigurationBuilder(@NotNull final String checkstyleVersion,
@@ -32,6 +40,10 @@ public final class PluginConfigurationBuilder {
                                        @NotNull final List<String> thirdPartyClasspath,
                                        @NotNull final SortedSet<String> activeLocationIds,
                                        final boolean scanBeforeCheckin,
+                                       final int scanThreads,
+                                       final int scanChunkSize,
+                                       final boolean mergeLocations,
+                                       final int inspectionTimeout,
                                        @Nullable final String lastActivePluginVersion) {
         this.checkstyleVersion = checkstyleVersion;
         this.scanScope = scanScope;
@@ -41,6 +53,10 @@ public final class PluginConfigurationBuilder {
         this.thirdPartyClasspath = thirdPartyClasspath;
         this.activeLocationIds = activeLocationIds;
         this.scanBeforeCheckin = scanBeforeCheckin;
+        this.scanThreads = scanThreads;
+        this.scanChunkSize = scanChunkSize;
+        this.mergeLocations = mergeLocations;
+        this.inspectionTimeout = inspectionTimeout;
         this.lastActivePluginVersion = lastActivePluginVersion;
     }
 
@@ -62,6 +78,10 @@ public final class PluginConfigurationBuilder {
                 Collections.emptyList(),
                 Collections.emptySortedSet(),
                 false,
+                DEFAULT_SCAN_THREADS,
+                DEFAULT_SCAN_CHUNK_SIZE,
+                false,
+                DEFAULT_INSPECTION_TIMEOUT,
                 CheckStylePlugin.version());
     }
 
@@ -75,6 +95,10 @@ public final class PluginConfigurationBuilder {
                 Collections.emptyList(),
                 Collections.emptySortedSet(),
                 false,
+                DEFAULT_SCAN_THREADS,
+                DEFAULT_SCAN_CHUNK_SIZE,
+                false,
+                DEFAULT_INSPECTION_TIMEOUT,
                 "aVersion");
     }
 
@@ -87,6 +111,10 @@ public final class PluginConfigurationBuilder {
                 source.getThirdPartyClasspath(),
                 source.getActiveLocationIds(),
                 source.isScanBeforeCheckin(),
+                source.getScanThreads(),
+                source.getScanChunkSize(),
+                source.isMergeLocations(),
+                source.getInspectionTimeout(),
                 source.getLastActivePluginVersion());
     }
 
@@ -115,6 +143,26 @@ public final class PluginConfigurationBuilder {
         return this;
     }
 
+    public PluginConfigurationBuilder withScanThreads(final int newScanThreads) {
+        this.scanThreads = newScanThreads;
+        return this;
+    }
+
+    public PluginConfigurationBuilder withScanChunkSize(final int newScanChunkSize) {
+        this.scanChunkSize = newScanChunkSize;
+        return this;
+    }
+
+    public PluginConfigurationBuilder withMergeLocations(final boolean newMergeLocations) {
+        this.mergeLocations = newMergeLocations;
+        return this;
+    }
+
+    public PluginConfigurationBuilder withInspectionTimeout(final int newInspectionTimeout) {
+        this.inspectionTimeout = newInspectionTimeout;
+        return this;
+    }
+
     public PluginConfigurationBuilder withLocations(@NotNull final SortedSet<ConfigurationLocation> newLocations) {
         this.locations = newLocations;
         return this;
@@ -145,6 +193,10 @@ public final class PluginConfigurationBuilder {
                 Objects.requireNonNullElseGet(thirdPartyClasspath, ArrayList::new),
                 Objects.requireNonNullElseGet(activeLocationIds, TreeSet::new),
                 scanBeforeCheckin,
+                Math.max(1, scanThreads),
+                Math.max(0, scanChunkSize),
+                mergeLocations,
+                inspectionTimeout > 0 ? inspectionTimeout : DEFAULT_INSPECTION_TIMEOUT,
                 lastActivePluginVersion);
     }
 
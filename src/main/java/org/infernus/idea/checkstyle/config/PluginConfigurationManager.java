@@ -15,6 +15,8 @@ public class PluginConfigurationManager {
 
     private final Project project;
 
+    private volatile Snapshot currentSnapshot;
+
     public PluginConfigurationManager(@NotNull final Project project) {
         this.project = project;
     }
@@ -39,17 +41,39 @@ public class PluginConfigurationManager {
                 .build(), true);
     }
 
+    /**
+     * The current configuration. This is built from the persisted state only when that state has changed, so
+     * callers may use this freely; but a long-running operation should take one snapshot and use it throughout.
+     *
+     * @return an immutable snapshot of the current configuration.
+     */
     @NotNull
     public PluginConfiguration getCurrent() {
+        final ProjectConfigurationState projectState = projectConfigurationState();
+        final ApplicationConfigurationState applicationState = applicationConfigurationState();
+        final long projectStateVersion = projectState.getModificationCount();
+        final long applicationStateVersion = applicationState.getModificationCount();
+
+        final Snapshot snapshot = currentSnapshot;
+        if (snapshot != null && snapshot.isVersion(projectStateVersion, applicationStateVersion)) {
+            return snapshot.configuration;
+        }
+
         final PluginConfigurationBuilder defaultConfig = PluginConfigurationBuilder.defaultConfiguration(project);
-        return projectConfigurationState()
-                .populate(applicationConfigurationState().populate(defaultConfig))
+        final PluginConfiguration configuration = projectState
+                .populate(applicationState.populate(defaultConfig))
                 .build();
+        currentSnapshot = new Snapshot(projectStateVersion, applicationStateVersion, configuration);
+        return configuration;
     }
 
     public void setCurrent(@NotNull final PluginConfiguration updatedConfiguration, final boolean fireEvents) {
-        projectConfigurationState().setCurrentConfig(updatedConfiguration);
-        applicationConfigurationState().setCurrentConfig(updatedConfiguration);
+        synchronized (this) {
+            projectConfigurationState().setCurrentConfig(updatedConfiguration);
+            applicationConfigurationState().setCurrentConfig(updatedConfiguration);
+            currentSnapshot = null;
+            getCurrent();
+        }
         if (fireEvents) {
             fireConfigurationChanged();
         }
@@ -62,4 +86,26 @@ public class PluginConfigurationManager {
     private ApplicationConfigurationState applicationConfigurationState() {
         return ApplicationManager.getApplication().getService(ApplicationConfigurationState.class);
     }
+
+    /**
+     * A configuration, and the versions of the persisted state it was built from.
+     */
+    private static final class Snapshot {
+        private final long projectStateVersion;
+        private final long applicationStateVersion;
+        private final PluginConfiguration configuration;
+
+        Snapshot(final long projectStateVersion,
+                 final long applicationStateVersion,
+                 @NotNull final PluginConfiguration configuration) {
+            this.projectStateVersion = projectStateVersion;
+            this.applicationStateVersion = applicationStateVersion;
+            this.configuration = configuration;
+        }
+
+        boolean isVersion(final long expectedProjectStateVersion, final long expectedApplicationStateVersion) {
+            return projectStateVersion == expectedProjectStateVersion
+                    && applicationStateVersion == expectedApplicationStateVersion;
+        }
+    }
 }
@@ -6,6 +6,8 @@ import com.intellij.openapi.components.Storage;
 import com.intellij.openapi.diagnostic.ControlFlowException;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.openapi.util.SimpleModificationTracker;
 import com.intellij.psi.search.scope.packageSet.NamedScope;
 import com.intellij.util.xmlb.annotations.*;
 import org.infernus.idea.checkstyle.CheckStylePlugin;
@@ -21,7 +23,8 @@ import static java.util.Objects.requireNonNullElseGet;
 import static org.infernus.idea.checkstyle.config.PluginConfigurationBuilder.defaultConfiguration;
 
 @State(name = CheckStylePlugin.ID_PLUGIN, storages = {@Storage("checkstyle-idea.xml")})
-public class ProjectConfigurationState implements PersistentStateComponent<ProjectConfigurationState.ProjectSettings> {
+public class ProjectConfigurationState
+        implements PersistentStateComponent<ProjectConfigurationState.ProjectSettings>, ModificationTracker {
 
     private static final Logger LOG = Logger.getInstance(ProjectConfigurationState.class);
     static final String ACTIVE_CONFIG = "active-configuration";
@@ -37,6 +40,8 @@ public class ProjectConfigurationState implements PersistentStateComponent<Proje
 
     private final Project project;
 
+    private final SimpleModificationTracker modificationTracker = new SimpleModificationTracker();
+
     private ProjectSettings projectSettings;
 
     public ProjectConfigurationState(@NotNull final Project project) {
@@ -55,6 +60,12 @@ public class ProjectConfigurationState implements PersistentStateComponent<Proje
 
     public void loadState(@NotNull final ProjectSettings sourceProjectSettings) {
         projectSettings = sourceProjectSettings;
+        modificationTracker.incModificationCount();
+    }
+
+    @Override
+    public long getModificationCount() {
+        return modificationTracker.getModificationCount();
     }
 
     @NotNull
@@ -64,6 +75,7 @@ public class ProjectConfigurationState implements PersistentStateComponent<Proje
 
     void setCurrentConfig(@NotNull final PluginConfiguration currentPluginConfig) {
         projectSettings = ProjectSettings.create(currentPluginConfig);
+        modificationTracker.incModificationCount();
     }
 
     static class ProjectSettings {
@@ -81,6 +93,14 @@ public class ProjectConfigurationState implements PersistentStateComponent<Proje
         private boolean copyLibs;
         @Tag
         private boolean scanBeforeCheckin;
+        @Tag
+        private int scanThreads;
+        @Tag
+        private int scanChunkSize;
+        @Tag
+        private boolean mergeLocations;
+        @Tag
+        private int inspectionTimeout;
         @XCollection
         private List<String> thirdPartyClasspath;
         @XCollection
@@ -101,6 +121,10 @@ public class ProjectConfigurationState implements PersistentStateComponent<Proje
             projectSettings.suppressErrors = currentPluginConfig.isSuppressErrors();
             projectSettings.copyLibs = currentPluginConfig.isCopyLibs();
             projectSettings.scanBeforeCheckin = currentPluginConfig.isScanBeforeCheckin();
+            projectSettings.scanThreads = currentPluginConfig.getScanThreads();
+            projectSettings.scanChunkSize = currentPluginConfig.getScanChunkSize();
+            projectSettings.mergeLocations = currentPluginConfig.isMergeLocations();
+            projectSettings.inspectionTimeout = currentPluginConfig.getInspectionTimeout();
 
             projectSettings.thirdPartyClasspath = new ArrayList<>(currentPluginConfig.getThirdPartyClasspath());
             projectSettings.activeLocationIds = new ArrayList<>(currentPluginConfig.getActiveLocationIds());
@@ -142,6 +166,10 @@ public class ProjectConfigurationState implements PersistentStateComponent<Proje
                         .withSuppressErrors(suppressErrors)
                         .withCopyLibraries(copyLibs)
                         .withScanBeforeCheckin(scanBeforeCheckin)
+                        .withScanThreads(lookupScanThreads())
+                        .withScanChunkSize(Math.max(0, scanChunkSize))
+                        .withMergeLocations(mergeLocations)
+                        .withInspectionTimeout(lookupInspectionTimeout())
                         .withThirdPartyClassPath(requireNonNullElseGet(thirdPartyClasspath, ArrayList::new))
                         .withLocations(deserialiseLocations(project))
                         .withActiveLocationIds(new TreeSet<>(requireNonNullElseGet(activeLocationIds, ArrayList::new)));
@@ -165,6 +193,20 @@ public class ProjectConfigurationState implements PersistentStateComponent<Proje
             return configurationLocations;
         }
 
+        private int lookupScanThreads() {
+            if (scanThreads > 0) {
+                return scanThreads;
+            }
+            return PluginConfigurationBuilder.DEFAULT_SCAN_THREADS;
+        }
+
+        private int lookupInspectionTimeout() {
+            if (inspectionTimeout > 0) {
+                return inspectionTimeout;
+            }
+            return PluginConfigurationBuilder.DEFAULT_INSPECTION_TIMEOUT;
+        }
+
         @NotNull
         private ScanScope lookupScanScope() {
             if (scanScope != null) {
@@ -77,6 +77,46 @@ public interface CheckstyleActions {
                                      Optional<String> baseDir);
 
 
+    /**
+     * Run a Checkstyle audit with the given checker on the given files, returning the raw issues rather than
+     * mapping them onto the PSI.
+     *
+     * @param checkerWithConfig the checker along with its configuration
+     * @param scannableFiles    the list of files to audit
+     * @return the issues reported by Checkstyle, in the order they were reported
+     */
+    List<Issue> audit(@NotNull CheckstyleInternalObject checkerWithConfig,
+                      @NotNull List<ScannableFile> scannableFiles);
+
+
+    /**
+     * Compose the configurations of several checkers into a single checker, so that a file need only be read and
+     * parsed once to apply the rules of all of them.
+     *
+     * @param checkersWithConfig  the checkers to compose, as created by {@link #createChecker}
+     * @param loaderOfCheckedCode class loader which Checkstyle shall use to load classes and resources of the code
+     *                            that it is checking
+     * @return the composed checker, or <code>null</code> if the configurations cannot be composed without changing
+     * their results
+     */
+    @Nullable
+    CheckstyleInternalObject mergeCheckers(@NotNull List<CheckstyleInternalObject> checkersWithConfig,
+                                           @NotNull ClassLoader loaderOfCheckedCode);
+
+
+    /**
+     * Run a Checkstyle audit with a checker created by {@link #mergeCheckers(List, ClassLoader)}, attributing each
+     * issue to the checker whose configuration reported it.
+     *
+     * @param mergedChecker  the composed checker
+     * @param scannableFiles the list of files to audit
+     * @return the issues reported for each of the checkers the composed checker was created from, in the order
+     * they were given
+     */
+    List<List<Issue>> auditMerged(@NotNull CheckstyleInternalObject mergedChecker,
+                                  @NotNull List<ScannableFile> scannableFiles);
+
+
     /**
      * Load a Checkstyle configuration file.
      *
@@ -0,0 +1,101 @@
+package org.infernus.idea.checkstyle.csapi;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * The start offsets of each line in a text, used to map Checkstyle's line and column numbers to offsets.
+ * <p>
+ * Lines may be terminated by CR, LF or CRLF. Columns are expanded for tabs as Checkstyle does, each tab
+ * advancing to the next multiple of {@code tabWidth} columns.
+ */
+final class LineIndex {
+
+    private final char[] text;
+    private final int tabWidth;
+    private final int[] lineStarts;
+    private final int lineCount;
+
+    private LineIndex(final char[] text, final int tabWidth, final int[] lineStarts, final int lineCount) {
+        this.text = text;
+        this.tabWidth = tabWidth;
+        this.lineStarts = lineStarts;
+        this.lineCount = lineCount;
+    }
+
+    @NotNull
+    static LineIndex of(@NotNull final char[] text, final int tabWidth) {
+        int[] lineStarts = new int[Math.max(16, text.length / 32)];
+        int lineCount = 1; // line 1 is offset 0
+
+        for (int i = 0; i < text.length; ++i) {
+            final char character = text[i];
+            // for linefeeds we need to handle CR, LF and CRLF, hence we accept either and only trigger a
+            // new line on the LF of CRLF.
+            if (character == '\n' || character == '\r' && nextCharacter(text, i) != '\n') {
+                if (lineCount == lineStarts.length) {
+                    lineStarts = Arrays.copyOf(lineStarts, lineStarts.length * 2);
+                }
+                lineStarts[lineCount++] = i + 1;
+            }
+        }
+
+        return new LineIndex(text, tabWidth, lineStarts, lineCount);
+    }
+
+    int lineCount() {
+        return lineCount;
+    }
+
+    int textLength() {
+        return text.length;
+    }
+
+    /**
+     * Find the offset of a position.
+     *
+     * @param line   the line number, starting at 1.
+     * @param column the column number, with tabs expanded.
+     * @return the offset of the position; or, if the column is beyond the end of the line, of the end of the line;
+     * or, if the line does not exist, of the end of the text.
+     */
+    int offsetOf(final int line, final int column) {
+        if (line < 1 || line > lineCount) {
+            return text.length;
+        }
+
+        final int lineStart = lineStarts[line - 1];
+        final int lineEnd = endOfLine(line);
+        int offset = lineStart;
+        int currentColumn = 0;
+        while (currentColumn < column && offset < lineEnd) {
+            if (text[offset] == '\t') {
+                currentColumn = (currentColumn / tabWidth + 1) * tabWidth;
+            } else {
+                ++currentColumn;
+            }
+            ++offset;
+        }
+        return offset;
+    }
+
+    boolean isWhitespaceAt(final int offset) {
+        return offset >= 0 && offset < text.length && Character.isWhitespace(text[offset]);
+    }
+
+    private int endOfLine(final int line) {
+        int lineEnd = line < lineCount ? lineStarts[line] : text.length;
+        while (lineEnd > lineStarts[line - 1] && (text[lineEnd - 1] == '\n' || text[lineEnd - 1] == '\r')) {
+            --lineEnd;
+        }
+        return lineEnd;
+    }
+
+    private static char nextCharacter(final char[] text, final int i) {
+        if ((i + 1) < text.length) {
+            return text[i + 1];
+        }
+        return '\0';
+    }
+}
@@ -7,6 +7,7 @@ import com.intellij.psi.PsiInvalidElementAccessException;
 import com.intellij.util.ThrowableRunnable;
 import org.infernus.idea.checkstyle.checker.Problem;
 import org.infernus.idea.checkstyle.checks.Check;
+import org.infernus.idea.checkstyle.util.ReadActions;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.File;
@@ -19,6 +20,9 @@ public class ProcessResultsThread implements ThrowableRunnable<RuntimeException>
 
     private static final Logger LOG = Logger.getInstance(ProcessResultsThread.class);
 
+    /** The number of files whose issues are mapped in a single read action. */
+    private static final int FILES_PER_READ_ACTION = 25;
+
     private final boolean suppressErrors;
     private final List<Check> checks;
     private final int tabWidth;
@@ -69,38 +73,84 @@ public class ProcessResultsThread implements ThrowableRunnable<RuntimeException>
 
     @Override
     public void run() {
-        final Map<PsiFile, List<Integer>> lineLengthCachesByFile = new HashMap<>();
-
+        final Map<PsiFile, List<Issue>> eventsByFile = new LinkedHashMap<>();
         for (final Issue event : errors) {
             final PsiFile psiFile = fileNamesToPsiFiles.get(filenameFrom(event));
             if (psiFile == null) {
                 LOG.info("Could not find mapping for file: " + event.fileName + " in " + fileNamesToPsiFiles);
-                return;
+                continue;
             }
+            eventsByFile.computeIfAbsent(psiFile, key -> new ArrayList<>()).add(event);
+        }
 
-            List<Integer> lineLengthCache = lineLengthCachesByFile.get(psiFile);
-            if (lineLengthCache == null) {
-                // we cache the offset of each line as it is created, so as to
-                // avoid retreating ground we've already covered.
-                lineLengthCache = new ArrayList<>();
-                lineLengthCache.add(0); // line 1 is offset 0
-
-                lineLengthCachesByFile.put(psiFile, lineLengthCache);
+        eventsByFile.forEach((psiFile, events) -> {
+            // the text and its line index are built once per file, and the events processed in order of position
+            events.sort(Comparator.comparingInt((Issue event) -> event.lineNumber)
+                    .thenComparingInt(event -> event.columnNumber));
+            final LineIndex lineIndex = LineIndex.of(psiFile.textToCharArray(), tabWidth);
+            for (final Issue event : events) {
+                processEvent(psiFile, lineIndex, event);
             }
+        });
+    }
 
-            processEvent(psiFile, lineLengthCache, event);
+    /**
+     * Map issues to the files they were reported against, a few files at a time, each in its own read action. This
+     * must be called without the read lock held if writes are to go ahead between the files.
+     *
+     * @param suppressErrors      whether errors should be reported as warnings.
+     * @param checks              the additional checks to apply.
+     * @param tabWidth            the tab width of the files.
+     * @param baseDir             the base directory of the checker which reported the issues, if any.
+     * @param issues              the issues.
+     * @param fileNamesToPsiFiles the files which were scanned, by their normalised path.
+     * @return the problems found, by file.
+     */
+    @NotNull
+    public static Map<PsiFile, List<Problem>> processInChunks(final boolean suppressErrors,
+                                                              final List<Check> checks,
+                                                              final int tabWidth,
+                                                              final Optional<String> baseDir,
+                                                              final List<Issue> issues,
+                                                              final Map<String, PsiFile> fileNamesToPsiFiles) {
+        final Map<String, List<Issue>> issuesByFileName = new LinkedHashMap<>();
+        for (final Issue issue : issues) {
+            issuesByFileName.computeIfAbsent(fileNameOf(issue, baseDir), key -> new ArrayList<>()).add(issue);
         }
+
+        final Map<PsiFile, List<Problem>> problems = new HashMap<>();
+        ReadActions.computeInChunks("mapping results to files", new ArrayList<>(issuesByFileName.values()),
+                FILES_PER_READ_ACTION, chunk -> {
+                    final List<Issue> chunkIssues = new ArrayList<>();
+                    chunk.forEach(chunkIssues::addAll);
+                    final ProcessResultsThread processResults = new ProcessResultsThread(suppressErrors, checks,
+                            tabWidth, baseDir, chunkIssues, fileNamesToPsiFiles);
+                    processResults.run();
+                    return processResults.getProblems();
+                }).forEach(problems::putAll);
+        return problems;
     }
 
     private String filenameFrom(final Issue event) {
+        return fileNameOf(event, baseDir);
+    }
+
+    /**
+     * Resolve the file an issue was reported against, in the form used as a key for the files being scanned.
+     *
+     * @param event   the issue.
+     * @param baseDir the base directory of the checker which reported the issue, if any.
+     * @return the normalised path of the file.
+     */
+    public static String fileNameOf(@NotNull final Issue event, @NotNull final Optional<String> baseDir) {
         return baseDir
                 .map(prefix -> withTrailingSeparator(prefix) + event.fileName)
-                .map(this::normalisePath)
+                .map(ProcessResultsThread::normalisePath)
                 .filter(normalisedFileName -> new File(normalisedFileName).exists())
                 .orElseGet(() -> normalisePath(event.fileName));
     }
 
-    private String normalisePath(final String prefixedFileName) {
+    private static String normalisePath(final String prefixedFileName) {
         try {
             return Paths.get(prefixedFileName).normalize().toString();
         } catch (InvalidPathException e) {
@@ -108,19 +158,19 @@ public class ProcessResultsThread implements ThrowableRunnable<RuntimeException>
         }
     }
 
-    private String withTrailingSeparator(final String path) {
+    private static String withTrailingSeparator(final String path) {
         if (path != null && !path.endsWith(File.separator)) {
             return path + File.separator;
         }
         return path;
     }
 
-    private void processEvent(final PsiFile psiFile, final List<Integer> lineLengthCache, final Issue event) {
+    private void processEvent(final PsiFile psiFile, final LineIndex lineIndex, final Issue event) {
         if (additionalChecksFail(psiFile, event)) {
             return;
         }
 
-        final Position position = findPosition(lineLengthCache, event, psiFile.textToCharArray());
+        final Position position = findPosition(lineIndex, event);
         final PsiElement victim = position.element(psiFile);
 
         if (victim != null) {
@@ -154,66 +204,20 @@ public class ProcessResultsThread implements ThrowableRunnable<RuntimeException>
     }
 
     @NotNull
-    private Position findPosition(final List<Integer> lineLengthCache, final Issue event, final char[] text) {
+    private Position findPosition(final LineIndex lineIndex, final Issue event) {
         if (event.lineNumber == 0) {
             return Position.at(event.columnNumber);
-        } else if (event.lineNumber <= lineLengthCache.size()) {
-            return Position.at(lineLengthCache.get(event.lineNumber - 1) + event.columnNumber);
-        } else {
-            return searchFromEndOfCachedData(lineLengthCache, event, text);
+        } else if (event.lineNumber > lineIndex.lineCount()) {
+            return Position.at(lineIndex.textLength());
         }
-    }
 
-    @NotNull
-    private Position searchFromEndOfCachedData(final List<Integer> lineLengthCache,
-                                               final Issue event,
-                                               final char[] text) {
-        final Position position;
-        int offset = lineLengthCache.get(lineLengthCache.size() - 1);
-        boolean afterEndOfLine = false;
-        int line = lineLengthCache.size();
-
-        int column = 0;
-        for (int i = offset; i < text.length; ++i) {
-            final char character = text[i];
-
-            // for linefeeds we need to handle CR, LF and CRLF,
-            // hence we accept either and only trigger a new
-            // line on the LF of CRLF.
-            final char nextChar = nextCharacter(text, i);
-            if (character == '\n' || character == '\r' && nextChar != '\n') {
-                ++line;
-                ++offset;
-                lineLengthCache.add(offset);
-                column = 0;
-            } else if (character == '\t') {
-                column += tabWidth;
-                ++offset;
-            } else {
-                ++column;
-                ++offset;
-            }
-
-            if (event.lineNumber == line && event.columnNumber == column) {
-                if (column == 0 && Character.isWhitespace(nextChar)) {
-                    afterEndOfLine = true;
-                }
-                break;
-            }
-        }
-
-        position = Position.at(offset, afterEndOfLine);
-        return position;
+        final int offset = lineIndex.offsetOf(event.lineNumber, event.columnNumber);
+        final boolean afterEndOfLine = event.lineNumber > 1
+                && event.columnNumber == 0
+                && lineIndex.isWhitespaceAt(offset);
+        return Position.at(offset, afterEndOfLine);
     }
 
-    private char nextCharacter(final char[] text, final int i) {
-        if ((i + 1) < text.length) {
-            return text[i + 1];
-        }
-        return '\0';
-    }
-
-
     @NotNull
     public Map<PsiFile, List<Problem>> getProblems() {
         return Collections.unmodifiableMap(problems);
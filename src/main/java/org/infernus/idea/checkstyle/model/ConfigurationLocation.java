@@ -217,28 +217,11 @@ public abstract class ConfigurationLocation implements Cloneable, Comparable<Con
         return null;
     }
 
-    @SuppressWarnings("EmptyTryBlock")
-    public synchronized void ensurePropertiesAreUpToDate(@NotNull final ClassLoader checkstyleClassLoader) throws IOException {
-        if (!propertiesCheckedThisSession) {
-            try (InputStream ignored = resolve(checkstyleClassLoader)) {
-                // ignored
-            }
-        }
-    }
-
     public synchronized InputStream resolve(@NotNull final ClassLoader checkstyleClassLoader) throws IOException {
         InputStream is = resolveFile(checkstyleClassLoader);
 
         if (!propertiesCheckedThisSession) {
-            final List<String> propertiesInFile = extractProperties(is, checkstyleClassLoader);
-
-            for (final String propertyName : propertiesInFile) {
-                if (!properties.containsKey(propertyName)) {
-                    properties.put(propertyName, "");
-                }
-            }
-
-            properties.keySet().removeIf(propertyName -> !propertiesInFile.contains(propertyName));
+            setPropertiesInFile(extractProperties(is, checkstyleClassLoader));
 
             try {
                 is.reset();
@@ -246,12 +229,42 @@ public abstract class ConfigurationLocation implements Cloneable, Comparable<Con
                 is = resolveFile(checkstyleClassLoader); // JAR IS doesn't support this, for instance
             }
 
-            propertiesCheckedThisSession = true;
         }
 
         return is;
     }
 
+    /**
+     * Resolve the rules for a caller which will parse them, and so can find the properties they use without the rules
+     * being parsed for these separately.
+     *
+     * @param checkstyleClassLoader the Checkstyle class loader.
+     * @return the rules, which the caller must close.
+     * @throws IOException if the rules cannot be read.
+     * @see #setPropertiesInFile(Collection)
+     */
+    public synchronized InputStream resolveForParsing(@NotNull final ClassLoader checkstyleClassLoader)
+            throws IOException {
+        return resolveFile(checkstyleClassLoader);
+    }
+
+    /**
+     * Update the properties to those used by the rules, retaining the values of any already known.
+     *
+     * @param propertiesInFile the names of the properties used by the rules.
+     */
+    public synchronized void setPropertiesInFile(@NotNull final Collection<String> propertiesInFile) {
+        for (final String propertyName : propertiesInFile) {
+            if (!properties.containsKey(propertyName)) {
+                properties.put(propertyName, "");
+            }
+        }
+
+        properties.keySet().removeIf(propertyName -> !propertiesInFile.contains(propertyName));
+
+        propertiesCheckedThisSession = true;
+    }
+
     @Nullable
     public synchronized String resolveAssociatedFile(@Nullable final String filename,
                                                      @Nullable final Module module,
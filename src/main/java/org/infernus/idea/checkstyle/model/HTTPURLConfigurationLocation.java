@@ -1,35 +1,51 @@
 package org.infernus.idea.checkstyle.model;
 
+import com.intellij.openapi.application.Application;
+import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
+import com.intellij.util.concurrency.AppExecutorUtil;
 
+import org.infernus.idea.checkstyle.checker.CheckerFactoryCache;
+import org.infernus.idea.checkstyle.model.RemoteRulesCache.CachedRules;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLConnection;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.infernus.idea.checkstyle.util.Streams.readContentOf;
 
 /**
  * A configuration file accessible via a HTTP URL.
+ * <p>
+ * The rules are fetched when first needed, and thereafter served from the last copy fetched, which is kept on disk by
+ * the {@link RemoteRulesCache}. Once a copy is older than {@link #REVALIDATE_AFTER_SECONDS} it is still served, and is
+ * revalidated with the server in the background, using any ETag or Last-Modified date it was given; should the rules
+ * have changed, the checkers created from them are discarded. If the server cannot be reached, the last copy remains
+ * in use.
  */
 public class HTTPURLConfigurationLocation extends ConfigurationLocation {
 
 	private static final Logger LOG = Logger.getInstance(HTTPURLConfigurationLocation.class);
 
-	private static final int CONTENT_CACHE_SECONDS = 2;
+	private static final int REVALIDATE_AFTER_SECONDS = 60;
 	private static final int ONE_SECOND = 1000;
 	private static final int HTTP_TIMEOUT_IN_MS = 5000;
 
-	private byte[] cachedContent;
-	private long cacheExpiry;
+	private final AtomicBoolean revalidating = new AtomicBoolean();
+
+	private volatile CachedRules cachedRules;
 
 	HTTPURLConfigurationLocation(@NotNull final Project project,
 								 @NotNull final String id) {
@@ -44,23 +60,121 @@ public class HTTPURLConfigurationLocation extends ConfigurationLocation {
 
 	@NotNull
 	protected InputStream resolveFile(@NotNull ClassLoader checkstyleClassLoader) throws IOException {
-		if (cachedContent != null && cacheExpiry > System.currentTimeMillis()) {
-			return new ByteArrayInputStream(cachedContent);
+		final String location = getLocation();
+
+		final CachedRules knownRules = knownRulesFor(location);
+		if (knownRules == null) {
+			return new ByteArrayInputStream(fetch(location, null).getContent());
+		}
+
+		if (!knownRules.isValidatedWithin(REVALIDATE_AFTER_SECONDS * ONE_SECOND)) {
+			revalidateInBackground(location, knownRules);
+		}
+		return new ByteArrayInputStream(knownRules.getContent());
+	}
+
+	@Nullable
+	private CachedRules knownRulesFor(final String location) {
+		final CachedRules rules = cachedRules;
+		if (rules != null && rules.isFor(location)) {
+			return rules;
 		}
 
+		final RemoteRulesCache remoteRulesCache = remoteRulesCache();
+		if (remoteRulesCache != null) {
+			final CachedRules storedRules = remoteRulesCache.get(location).orElse(null);
+			if (storedRules != null) {
+				cachedRules = storedRules;
+			}
+			return storedRules;
+		}
+		return null;
+	}
+
+	private void revalidateInBackground(final String location, final CachedRules knownRules) {
+		if (!revalidating.compareAndSet(false, true)) {
+			return;
+		}
+
+		AppExecutorUtil.getAppExecutorService().execute(() -> {
+			try {
+				final CachedRules currentRules = fetch(location, knownRules);
+				if (!Arrays.equals(currentRules.getContent(), knownRules.getContent())) {
+					rulesHaveChanged();
+				}
+			} catch (IOException e) {
+				// we'll try again once the copy we have is due for revalidation again
+				cachedRules = knownRules.validatedNow();
+			} finally {
+				revalidating.set(false);
+			}
+		});
+	}
+
+	private void rulesHaveChanged() {
+		LOG.debug("Remote rules have changed: ", getLocation());
+		final CheckerFactoryCache checkerFactoryCache = getProject().getServiceIfCreated(CheckerFactoryCache.class);
+		if (checkerFactoryCache != null) {
+			checkerFactoryCache.invalidateCheckersFor(this);
+		}
+	}
+
+	@NotNull
+	private CachedRules fetch(final String location, @Nullable final CachedRules knownRules) throws IOException {
 		try {
-			cachedContent = readContentOf(streamFrom(connectionTo(getLocation())));
-			cacheExpiry = System.currentTimeMillis() + (CONTENT_CACHE_SECONDS * ONE_SECOND);
-			return new ByteArrayInputStream(cachedContent);
+			final URLConnection connection = connectionTo(location);
+			if (knownRules != null) {
+				withValidatorsOf(knownRules, connection);
+			}
+			connection.connect();
+
+			final CachedRules currentRules;
+			if (knownRules != null && isNotModified(connection)) {
+				currentRules = knownRules.validatedNow();
+			} else {
+				try (InputStream stream = new BufferedInputStream(connection.getInputStream())) {
+					currentRules = new CachedRules(location, readContentOf(stream),
+							connection.getHeaderField("ETag"), connection.getHeaderField("Last-Modified"),
+							System.currentTimeMillis());
+				}
+				final RemoteRulesCache remoteRulesCache = remoteRulesCache();
+				if (remoteRulesCache != null) {
+					remoteRulesCache.put(currentRules);
+				}
+			}
+
+			cachedRules = currentRules;
+			return currentRules;
 
 		} catch (IOException e) {
-			LOG.info("Couldn't read URL: " + getLocation(), e);
-			cachedContent = null;
-			cacheExpiry = 0;
+			LOG.info("Couldn't read URL: " + location, e);
 			throw e;
 		}
 	}
 
+	private void withValidatorsOf(final CachedRules knownRules, final URLConnection urlConnection) {
+		if (knownRules.getETag() != null) {
+			urlConnection.setRequestProperty("If-None-Match", knownRules.getETag());
+		}
+		if (knownRules.getLastModified() != null) {
+			urlConnection.setRequestProperty("If-Modified-Since", knownRules.getLastModified());
+		}
+	}
+
+	private boolean isNotModified(final URLConnection urlConnection) throws IOException {
+		return urlConnection instanceof HttpURLConnection
+				&& ((HttpURLConnection) urlConnection).getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED;
+	}
+
+	@Nullable
+	RemoteRulesCache remoteRulesCache() {
+		final Application application = ApplicationManager.getApplication();
+		if (application != null) {
+			return application.getService(RemoteRulesCache.class);
+		}
+		return null;
+	}
+
 	@NotNull
 	URLConnection connectionTo(final String location) throws IOException {
 		final URL url = new URL(location);
@@ -84,11 +198,6 @@ public class HTTPURLConfigurationLocation extends ConfigurationLocation {
 		return urlConnection;
 	}
 
-	private InputStream streamFrom(final URLConnection urlConnection) throws IOException {
-		urlConnection.connect();
-		return new BufferedInputStream(urlConnection.getInputStream());
-	}
-
 	@Override
 	public Object clone() {
 		return cloneCommonPropertiesTo(new HTTPURLConfigurationLocation(getProject(), getId()));
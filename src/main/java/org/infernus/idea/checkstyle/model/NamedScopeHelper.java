@@ -2,11 +2,13 @@ package org.infernus.idea.checkstyle.model;
 
 import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.packageDependencies.DependencyValidationManager;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.search.scope.packageSet.NamedScope;
 import com.intellij.psi.search.scope.packageSet.NamedScopeManager;
 import com.intellij.psi.search.scope.packageSet.PackageSet;
+import com.intellij.psi.search.scope.packageSet.PackageSetBase;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Arrays;
@@ -49,15 +51,39 @@ public final class NamedScopeHelper {
     }
 
     public static boolean isFileInScope(final PsiFile psiFile, @NotNull final NamedScope namedScope) {
-        return ReadAction.compute(() -> {
-            final PackageSet packageSet = namedScope.getValue();
-            if (packageSet == null) {
-                return true;
-            }
-
-            return packageSet.contains(
-                    psiFile,
-                    DependencyValidationManager.getInstance(psiFile.getProject()));
-        });
+        return ReadAction.compute(() -> isFileInScopeUnderReadLock(psiFile, namedScope));
+    }
+
+    /**
+     * As {@link #isFileInScope(PsiFile, NamedScope)}, for callers which already hold the read lock.
+     */
+    public static boolean isFileInScopeUnderReadLock(final PsiFile psiFile, @NotNull final NamedScope namedScope) {
+        final PackageSet packageSet = namedScope.getValue();
+        if (packageSet == null) {
+            return true;
+        }
+
+        return packageSet.contains(
+                psiFile,
+                DependencyValidationManager.getInstance(psiFile.getProject()));
+    }
+
+    /**
+     * Checks a file against a scope without resolving its PSI file. Package sets which can only be evaluated
+     * against a PSI file are assumed to contain it, so a file for which this is true should still be checked with
+     * {@link #isFileInScope(PsiFile, NamedScope)}.
+     */
+    public static boolean mayContain(@NotNull final Project project,
+                                     @NotNull final VirtualFile file,
+                                     @NotNull final NamedScope namedScope) {
+        final PackageSet packageSet = namedScope.getValue();
+        if (!(packageSet instanceof PackageSetBase)) {
+            return true;
+        }
+
+        return ((PackageSetBase) packageSet).contains(
+                file,
+                project,
+                DependencyValidationManager.getInstance(project));
     }
 }
@@ -0,0 +1,176 @@
+package org.infernus.idea.checkstyle.model;
+
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.diagnostic.Logger;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * The last copy fetched of each remote rules file, kept on disk so that the rules are available immediately when the
+ * IDE is restarted, and when the server cannot be reached. Registered in {@code plugin.xml}.
+ */
+public class RemoteRulesCache {
+
+    private static final Logger LOG = Logger.getInstance(RemoteRulesCache.class);
+
+    private static final String CONTENT_EXTENSION = ".xml";
+    private static final String VALIDATORS_EXTENSION = ".properties";
+    private static final String ETAG = "etag";
+    private static final String LAST_MODIFIED = "lastModified";
+
+    private final Path cacheDir;
+
+    @SuppressWarnings("unused") // IDEA's DI
+    public RemoteRulesCache() {
+        this(Paths.get(PathManager.getSystemPath(), "checkstyle-idea", "remote-rules"));
+    }
+
+    RemoteRulesCache(@NotNull final Path cacheDir) {
+        this.cacheDir = cacheDir;
+    }
+
+    /**
+     * @param url the location of the rules.
+     * @return the last copy of the rules stored, which has not been validated since it was loaded.
+     */
+    @NotNull
+    Optional<CachedRules> get(@NotNull final String url) {
+        final Path contentFile = contentFileFor(url);
+        if (!Files.isRegularFile(contentFile)) {
+            return Optional.empty();
+        }
+
+        try {
+            final Properties validators = new Properties();
+            final Path validatorsFile = validatorsFileFor(url);
+            if (Files.isRegularFile(validatorsFile)) {
+                try (InputStream in = Files.newInputStream(validatorsFile)) {
+                    validators.load(in);
+                }
+            }
+            return Optional.of(new CachedRules(url, Files.readAllBytes(contentFile),
+                    validators.getProperty(ETAG), validators.getProperty(LAST_MODIFIED), 0));
+
+        } catch (IOException | IllegalArgumentException e) {
+            LOG.debug("Unable to read stored copy of " + url, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Store a copy of the rules, replacing any previous copy. Failures are logged, as the rules can still be used.
+     *
+     * @param rules the rules.
+     */
+    void put(@NotNull final CachedRules rules) {
+        try {
+            Files.createDirectories(cacheDir);
+
+            final Properties validators = new Properties();
+            if (rules.getETag() != null) {
+                validators.setProperty(ETAG, rules.getETag());
+            }
+            if (rules.getLastModified() != null) {
+                validators.setProperty(LAST_MODIFIED, rules.getLastModified());
+            }
+            final Path validatorsFile = Files.createTempFile(cacheDir, "rules", ".tmp");
+            try (OutputStream out = Files.newOutputStream(validatorsFile)) {
+                validators.store(out, null);
+            }
+            final Path contentFile = Files.createTempFile(cacheDir, "rules", ".tmp");
+            Files.write(contentFile, rules.getContent());
+
+            // the validators are replaced first, so a failure can only leave them without their content
+            moveAtomically(validatorsFile, validatorsFileFor(rules.getUrl()));
+            moveAtomically(contentFile, contentFileFor(rules.getUrl()));
+
+        } catch (IOException e) {
+            LOG.info("Unable to store copy of " + rules.getUrl(), e);
+        }
+    }
+
+    private void moveAtomically(@NotNull final Path source, @NotNull final Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(source);
+        }
+    }
+
+    @NotNull
+    private Path contentFileFor(@NotNull final String url) {
+        return cacheDir.resolve(DigestUtils.sha256Hex(url) + CONTENT_EXTENSION);
+    }
+
+    @NotNull
+    private Path validatorsFileFor(@NotNull final String url) {
+        return cacheDir.resolve(DigestUtils.sha256Hex(url) + VALIDATORS_EXTENSION);
+    }
+
+    /**
+     * A copy of remote rules, with the validators the server gave for it, if any.
+     */
+    static final class CachedRules {
+        private final String url;
+        private final byte[] content;
+        private final String eTag;
+        private final String lastModified;
+        private final long validatedAt;
+
+        CachedRules(@NotNull final String url,
+                    @NotNull final byte[] content,
+                    @Nullable final String eTag,
+                    @Nullable final String lastModified,
+                    final long validatedAt) {
+            this.url = url;
+            this.content = content;
+            this.eTag = eTag;
+            this.lastModified = lastModified;
+            this.validatedAt = validatedAt;
+        }
+
+        @NotNull
+        String getUrl() {
+            return url;
+        }
+
+        @NotNull
+        byte[] getContent() {
+            return content;
+        }
+
+        @Nullable
+        String getETag() {
+            return eTag;
+        }
+
+        @Nullable
+        String getLastModified() {
+            return lastModified;
+        }
+
+        boolean isFor(@NotNull final String location) {
+            return url.equals(location);
+        }
+
+        boolean isValidatedWithin(final long millis) {
+            return validatedAt + millis > System.currentTimeMillis();
+        }
+
+        @NotNull
+        CachedRules validatedNow() {
+            return new CachedRules(url, content, eTag, lastModified, System.currentTimeMillis());
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.infernus.idea.checkstyle.startup;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleManager;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.startup.StartupActivity;
+import org.infernus.idea.checkstyle.checker.CheckerFactory;
+import org.infernus.idea.checkstyle.checker.CheckerFactoryCache;
+import org.infernus.idea.checkstyle.config.ConfigurationLocationSource;
+import org.infernus.idea.checkstyle.model.ConfigurationLocation;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.infernus.idea.checkstyle.CheckStyleBundle.message;
+
+/**
+ * Creates the checkers for each module's active locations in the background when a project is opened, so that the
+ * first inspection need not wait for Checkstyle to be loaded and configured.
+ * <p>
+ * Checkers are created one at a time, at minimum priority on the checker factory's bounded creation executor, so
+ * this competes for no more than a single creation thread; and an inspection requesting a checker being pre-warmed
+ * shares its creation.
+ */
+public class PrewarmCheckers implements StartupActivity, DumbAware {
+
+    private static final Logger LOG = Logger.getInstance(PrewarmCheckers.class);
+
+    @Override
+    public void runActivity(@NotNull final Project project) {
+        if (ApplicationManager.getApplication().isUnitTestMode()) {
+            return;
+        }
+
+        new Task.Backgroundable(project, message("plugin.status.prewarming"), true) {
+            @Override
+            public void run(@NotNull final ProgressIndicator indicator) {
+                prewarm(project, indicator);
+            }
+        }.queue();
+    }
+
+    private void prewarm(@NotNull final Project project, @NotNull final ProgressIndicator indicator) {
+        final List<Map.Entry<Module, ConfigurationLocation>> checkersToCreate = checkersToCreate(project);
+        LOG.debug("Pre-warming ", checkersToCreate.size(), " checkers");
+
+        indicator.setIndeterminate(false);
+        for (int i = 0; i < checkersToCreate.size(); i++) {
+            indicator.checkCanceled();
+            if (project.isDisposed()) {
+                return;
+            }
+
+            final Module module = checkersToCreate.get(i).getKey();
+            final ConfigurationLocation location = checkersToCreate.get(i).getValue();
+            indicator.setText2(location.getDescription());
+            indicator.setFraction((double) i / checkersToCreate.size());
+            try {
+                project.getService(CheckerFactory.class).prewarm(module, location);
+            } catch (ProcessCanceledException e) {
+                throw e;
+            } catch (Exception e) {
+                // the factory reports a location it can't load, and blocks it, while creating the checker, as it
+                // would for an inspection; anything else is left for the location's next use
+                LOG.debug("Failed to pre-warm checker for " + location, e);
+            }
+        }
+    }
+
+    @NotNull
+    private List<Map.Entry<Module, ConfigurationLocation>> checkersToCreate(@NotNull final Project project) {
+        final int maxCheckers = project.getService(CheckerFactoryCache.class).getMaxEntries();
+        final ConfigurationLocationSource locationSource = project.getService(ConfigurationLocationSource.class);
+
+        final List<Map.Entry<Module, ConfigurationLocation>> checkersToCreate = new ArrayList<>();
+        for (final Module module : ModuleManager.getInstance(project).getModules()) {
+            for (final ConfigurationLocation location : locationSource.getConfigurationLocations(module, null)) {
+                if (checkersToCreate.size() >= maxCheckers) {
+                    // any more would just displace those we've created
+                    return checkersToCreate;
+                }
+                if (!location.isBlocked()) {
+                    checkersToCreate.add(new SimpleImmutableEntry<>(module, location));
+                }
+            }
+        }
+        return checkersToCreate;
+    }
+}
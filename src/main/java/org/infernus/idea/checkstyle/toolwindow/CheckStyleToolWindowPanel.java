@@ -111,6 +111,7 @@ public class CheckStyleToolWindowPanel extends JPanel implements ConfigurationLi
     }
 
     private Map<PsiFile, List<Problem>> currentResults;
+    private boolean displayingPartialResults;
 
     /**
      * Create a tool window for the given project.
@@ -304,10 +305,21 @@ public class CheckStyleToolWindowPanel extends JPanel implements ConfigurationLi
         resetProgressBar();
     }
 
+    /**
+     * Increase the maximum limit of the progress bar by a given number, as more files to scan are found.
+     * <p>
+     * You should call {@link #displayInProgress()} first for useful semantics.
+     *
+     * @param size the size to increase by.
+     */
+    public void increaseProgressBarMaximumBy(final int size) {
+        progressBar.setMaximum(progressBar.getMaximum() + size);
+    }
+
     /**
      * Increment the progress of the progress bar by a given number.
      * <p>
-     * You should call {@link #displayInProgress(int)} first for useful semantics.
+     * You should call {@link #displayInProgress()} first for useful semantics.
      *
      * @param size the size to increment by.
      */
@@ -416,12 +428,13 @@ public class CheckStyleToolWindowPanel extends JPanel implements ConfigurationLi
     }
 
     /**
-     * Clear the results and display a 'scan in progress' notice.
-     *
-     * @param size the number of files being scanned.
+     * Clear the results and display a 'scan in progress' notice. The progress bar starts empty, and grows as files to
+     * scan are found.
      */
-    public void displayInProgress(final int size) {
-        setProgressBarMax(size);
+    public void displayInProgress() {
+        setProgressBarMax(0);
+        currentResults = null;
+        displayingPartialResults = false;
 
         treeModel.clear();
         treeModel.setRootMessage("plugin.results.in-progress", AllIcons.General.Information);
@@ -502,16 +515,49 @@ public class CheckStyleToolWindowPanel extends JPanel implements ConfigurationLi
         treeModel.filter(getDisplayedSeverities());
     }
 
+    /**
+     * Add the results of part of a scan to those already displayed, while the scan continues.
+     * <p>
+     * You should call {@link #displayInProgress()} first for useful semantics.
+     *
+     * @param partialResults the map of checked files to problem descriptors for the completed part of the scan.
+     */
+    public void displayPartialResults(final Map<PsiFile, List<Problem>> partialResults) {
+        if (currentResults == null) {
+            currentResults = new HashMap<>();
+        }
+        currentResults.putAll(partialResults);
+        displayingPartialResults = true;
+
+        treeModel.addResults(partialResults, groupedBy, flattenModules, flattenPackages, getDisplayedSeverities());
+    }
+
     /**
      * Display the passed results.
      *
      * @param results the map of checked files to problem descriptors.
      */
     public void displayResults(final Map<PsiFile, List<Problem>> results) {
+        if (displayingPartialResults && currentResults != null) {
+            completePartialResults(results);
+            return;
+        }
+
         currentResults = results;
         updateTree();
     }
 
+    private void completePartialResults(final Map<PsiFile, List<Problem>> results) {
+        final Map<PsiFile, List<Problem>> remainingResults = new HashMap<>(results);
+        remainingResults.keySet().removeAll(currentResults.keySet());
+        treeModel.addResults(remainingResults, groupedBy, flattenModules, flattenPackages, getDisplayedSeverities());
+        treeModel.setTotalResults(results.size());
+
+        currentResults = results;
+        displayingPartialResults = false;
+        clearProgress();
+    }
+
     private void updateTree() {
         treeModel.setModel(currentResults, groupedBy, flattenModules, flattenPackages, getDisplayedSeverities());
 
@@ -519,7 +565,9 @@ public class CheckStyleToolWindowPanel extends JPanel implements ConfigurationLi
         repaint();
 
         expandTree();
-        clearProgress();
+        if (!displayingPartialResults) {
+            clearProgress();
+        }
     }
 
     public boolean isGroupedBy(final ResultTreeModel.GroupedBy groupedBy) {
@@ -24,6 +24,8 @@ import javax.swing.tree.DefaultTreeModel;
 import javax.swing.tree.TreeNode;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -37,6 +39,10 @@ public class ResultTreeModel extends DefaultTreeModel {
     @NotNull
     private final TogglableTreeNode visibleRootNode;
     private int maxNodeDepth;
+    /**
+     * The nodes inserted since the last call to {@link #setModel} or {@link #addResults}.
+     */
+    private transient Set<TogglableTreeNode> insertedNodes = new HashSet<>();
 
     public ResultTreeModel() {
         super(new DefaultMutableTreeNode());
@@ -172,22 +178,10 @@ public class ResultTreeModel extends DefaultTreeModel {
                          @NotNull final List<SeverityLevel> levels) {
 
         visibleRootNode.removeAllChildren();
+        insertedNodes = new HashSet<>();
         final ResultTreeRootNode root = (ResultTreeRootNode) visibleRootNode.getUserObject();
         if (results != null && !results.isEmpty()) {
-            switch (groupedBy) {
-                case File:
-                    createProblemNodes(results, groupByFile(visibleRootNode));
-                    break;
-                case Module:
-                    createProblemNodes(results, groupByModule(visibleRootNode, flattenModules, flattenPackages));
-                    break;
-                case SourceCheck:
-                    createProblemNodes(results, groupByCheck(visibleRootNode, flattenModules, flattenPackages));
-                    break;
-                case Severity:
-                    createProblemNodes(results, groupBySeverity(visibleRootNode, flattenModules, flattenPackages));
-                    break;
-            }
+            createProblemNodes(results, parentNodeSupplier(groupedBy, flattenModules, flattenPackages));
 
             root.setTotalResults(results.size());
         } else {
@@ -198,6 +192,101 @@ public class ResultTreeModel extends DefaultTreeModel {
         nodeStructureChanged(visibleRootNode);
     }
 
+    /**
+     * Add results to the displayed model, leaving the existing nodes (and hence their expansion state) in place.
+     * <p>
+     * This is intended for showing the results of a scan as it progresses, so the root text is not updated. The
+     * grouping and levels must match those used to build the existing model.
+     *
+     * @param results         the results to add.
+     * @param groupedBy       how to group the nodes
+     * @param flattenModules  {@code true} to use flat Module names, or {@code false} to show a hierarchy.
+     * @param flattenPackages {@code true} to use flat Package names, or {@code false} to show a hierarchy.
+     * @param levels          the levels to display.
+     */
+    public void addResults(@NotNull final Map<PsiFile, List<Problem>> results,
+                           @NotNull final GroupedBy groupedBy,
+                           final boolean flattenModules,
+                           final boolean flattenPackages,
+                           @NotNull final List<SeverityLevel> levels) {
+        if (results.isEmpty()) {
+            return;
+        }
+
+        insertedNodes = new HashSet<>();
+        final Set<TogglableTreeNode> updatedNodes = createProblemNodes(results,
+                parentNodeSupplier(groupedBy, flattenModules, flattenPackages));
+        updatedNodes.removeAll(insertedNodes);
+
+        final Map<TogglableTreeNode, Boolean> previousVisibility = new HashMap<>();
+        updatedNodes.forEach(node -> previousVisibility.put(node, node.isVisible()));
+        filter(false, levels);
+
+        if (updatedNodes.stream().anyMatch(node -> node.isVisible() != previousVisibility.get(node))) {
+            // a hidden branch has become visible; the visible indices of its siblings have changed
+            nodeStructureChanged(visibleRootNode);
+            return;
+        }
+
+        insertedNodes.stream()
+                .filter(TogglableTreeNode::isVisible)
+                .filter(node -> !insertedNodes.contains(node.getParent()))
+                .collect(Collectors.groupingBy(node -> (TogglableTreeNode) node.getParent()))
+                .forEach((parent, children) -> nodesWereInserted(parent, children.stream()
+                        .mapToInt(child -> visibleIndexOf(parent, child))
+                        .sorted()
+                        .toArray()));
+        updatedNodes.stream()
+                .filter(TogglableTreeNode::isVisible)
+                .forEach(this::nodeChanged);
+    }
+
+    /**
+     * Update the root node to show the total number of results, once all results have been added.
+     *
+     * @param totalResults the number of files with results.
+     */
+    public void setTotalResults(final int totalResults) {
+        final ResultTreeRootNode root = (ResultTreeRootNode) visibleRootNode.getUserObject();
+        if (totalResults > 0) {
+            root.setTotalResults(totalResults);
+        } else {
+            root.setDefaultText();
+        }
+        nodeChanged(visibleRootNode);
+    }
+
+    private static int visibleIndexOf(@NotNull final TogglableTreeNode parentNode,
+                                      @NotNull final TogglableTreeNode childNode) {
+        int visibleIndex = 0;
+        for (final TogglableTreeNode node : parentNode.getAllChildren()) {
+            if (node == childNode) {
+                return visibleIndex;
+            }
+            if (node.isVisible()) {
+                ++visibleIndex;
+            }
+        }
+        return -1;
+    }
+
+    @NotNull
+    private Function<Problem, TogglableTreeNode> parentNodeSupplier(@NotNull final GroupedBy groupedBy,
+                                                                    final boolean flattenModules,
+                                                                    final boolean flattenPackages) {
+        switch (groupedBy) {
+            case Module:
+                return groupByModule(visibleRootNode, flattenModules, flattenPackages);
+            case SourceCheck:
+                return groupByCheck(visibleRootNode, flattenModules, flattenPackages);
+            case Severity:
+                return groupBySeverity(visibleRootNode, flattenModules, flattenPackages);
+            case File:
+            default:
+                return groupByFile(visibleRootNode);
+        }
+    }
+
     /**
      * Create the parent-node supplier function when grouping by {@link PsiFile}.
      * <p>
@@ -382,7 +471,9 @@ public class ResultTreeModel extends DefaultTreeModel {
 
     /**
      * Insert the given {@link ResultTreeNode} as a new {@link TogglableTreeNode} as a child of the parentNode.
-     * We'll group package nodes at the top of the children list followed by other nodes.
+     * We'll group package nodes at the top of the children list, sorted A-Z, followed by other nodes. File nodes
+     * are placed before the first file node with a later name, so that files added as a scan progresses are
+     * sorted as if they had been added together.
      *
      * @param parentNode     to attach the new child to
      * @param resultTreeNode to create a new child for
@@ -392,26 +483,42 @@ public class ResultTreeModel extends DefaultTreeModel {
                                             @NotNull final ResultTreeNode resultTreeNode) {
 
         final TogglableTreeNode treeNode = new TogglableTreeNode(resultTreeNode);
-        parentNode.add(treeNode);
-
-        final Icon nodeType = AllIcons.Nodes.Package;
-
-        if (nodeType.equals(resultTreeNode.getIcon())) {
-            // (re)sort the package nodes and (re)insert them at the start of the list
-            parentNode.getAllChildren().stream()
-                    .filter(node -> node.getUserObject() instanceof ResultTreeTextNode)
-                    .filter(node -> nodeType.equals(node.getUserObject().getIcon()))
-                    // sort Z-A
-                    .sorted(Comparator.comparing(
-                                    node -> ((ResultTreeTextNode) (((TogglableTreeNode) node).getUserObject()))
-                                            .getText())
-                                    .reversed())
-                    // and then re-inserted at the top, so we'll end up with A-Z packages followed by the other nodes.
-                    .forEach(node -> parentNode.insert(node, 0));
+        if (isPackageNode(treeNode)) {
+            // existing package nodes are already sorted at the start of the list, so insert in order between them
+            final String packageName = ((ResultTreeTextNode) resultTreeNode).getText();
+            int index = 0;
+            for (final TogglableTreeNode node : parentNode.getAllChildren()) {
+                if (!isPackageNode(node)
+                        || ((ResultTreeTextNode) node.getUserObject()).getText().compareTo(packageName) >= 0) {
+                    break;
+                }
+                ++index;
+            }
+            parentNode.insert(treeNode, index);
+        } else if (resultTreeNode instanceof ResultTreeFileNode) {
+            final String fileName = ((ResultTreeFileNode) resultTreeNode).getFile().getName();
+            int index = 0;
+            for (final TogglableTreeNode node : parentNode.getAllChildren()) {
+                if (node.getUserObject() instanceof ResultTreeFileNode
+                        && ((ResultTreeFileNode) node.getUserObject()).getFile().getName().compareTo(fileName) > 0) {
+                    break;
+                }
+                ++index;
+            }
+            parentNode.insert(treeNode, index);
+        } else {
+            parentNode.add(treeNode);
         }
+
+        insertedNodes.add(treeNode);
         return treeNode;
     }
 
+    private boolean isPackageNode(@NotNull final TogglableTreeNode node) {
+        return node.getUserObject() instanceof ResultTreeTextNode
+                && AllIcons.Nodes.Package.equals(node.getUserObject().getIcon());
+    }
+
     /**
      * Find or create the appropriate node attached to the given parent where
      * we will attach the {@link Problem} node to.
@@ -437,9 +544,11 @@ public class ResultTreeModel extends DefaultTreeModel {
      *
      * @param results            the model.
      * @param parentNodeSupplier determines and supplies to actual parent node to attach a problem to
+     * @return the branch nodes whose item count has changed.
      */
-    private void createProblemNodes(@NotNull final Map<PsiFile, List<Problem>> results,
-                                    @NotNull final Function<Problem, TogglableTreeNode> parentNodeSupplier) {
+    private Set<TogglableTreeNode> createProblemNodes(@NotNull final Map<PsiFile, List<Problem>> results,
+                                                      @NotNull final Function<Problem, TogglableTreeNode> parentNodeSupplier) {
+        final Set<TogglableTreeNode> updatedNodes = new HashSet<>();
 
         results.values().stream().flatMap(Collection::stream)
                 .filter(problem -> problem.severityLevel() != SeverityLevel.Ignore)
@@ -450,6 +559,7 @@ public class ResultTreeModel extends DefaultTreeModel {
                     final TogglableTreeNode problemNode = new TogglableTreeNode(new ResultTreeProblemNode(problem));
                     TogglableTreeNode parentNode = parentNodeSupplier.apply(problem);
                     parentNode.add(problemNode);
+                    insertedNodes.add(problemNode);
 
                     if (problemNode.getLevel() > maxNodeDepth) {
                         maxNodeDepth = problemNode.getLevel();
@@ -458,6 +568,7 @@ public class ResultTreeModel extends DefaultTreeModel {
                     // adjust the item-count of all parent nodes
                     do {
                         ((ResultTreeBranchNode) (parentNode.getUserObject())).increaseItemCount();
+                        updatedNodes.add(parentNode);
                         final TreeNode parent = parentNode.getParent();
                         // quit going up when we get to our root.
                         if (parent instanceof TogglableTreeNode) {
@@ -467,6 +578,8 @@ public class ResultTreeModel extends DefaultTreeModel {
                         }
                     } while (parentNode != null);
                 });
+
+        return updatedNodes;
     }
 
     public enum GroupedBy {
@@ -14,6 +14,7 @@ import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.ui.AnActionButton;
 import com.intellij.ui.AnActionButtonRunnable;
 import com.intellij.ui.AnActionButtonUpdater;
+import com.intellij.ui.JBIntSpinner;
 import com.intellij.ui.TitledSeparator;
 import com.intellij.ui.ToolbarDecorator;
 import com.intellij.ui.components.JBList;
@@ -52,6 +53,12 @@ public class CheckStyleConfigPanel extends JPanel {
     private static final int DESC_COL_MIN_WIDTH = 100;
     private static final int DESC_COL_MAX_WIDTH = 200;
     private static final Dimension DECORATOR_DIMENSIONS = new Dimension(300, 50);
+    private static final int MAX_SCAN_THREADS = 64;
+    private static final int MAX_SCAN_CHUNK_SIZE = 100000;
+    private static final int SCAN_CHUNK_SIZE_STEP = 50;
+    private static final int MIN_INSPECTION_TIMEOUT = 500;
+    private static final int MAX_INSPECTION_TIMEOUT = 600000;
+    private static final int INSPECTION_TIMEOUT_STEP = 500;
 
     private final JList<String> pathList = new JBList<>(new DefaultListModel<>());
 
@@ -61,6 +68,16 @@ public class CheckStyleConfigPanel extends JPanel {
     private final ComboBox<ScanScope> scopeDropdown = new ComboBox<>(ScanScope.values());
     private final JCheckBox suppressErrorsCheckbox = new JCheckBox();
     private final JCheckBox copyLibsCheckbox = new JCheckBox();
+    private final JCheckBox mergeLocationsCheckbox = new JCheckBox();
+    private final JLabel scanThreadsLabel = new JLabel(CheckStyleBundle.message("config.scan-threads.labelText") + ":");
+    private final JBIntSpinner scanThreadsSpinner = new JBIntSpinner(
+            PluginConfigurationBuilder.DEFAULT_SCAN_THREADS, 1, MAX_SCAN_THREADS);
+    private final JLabel scanChunkSizeLabel = new JLabel(CheckStyleBundle.message("config.scan-chunk-size.labelText") + ":");
+    private final JBIntSpinner scanChunkSizeSpinner = new JBIntSpinner(
+            PluginConfigurationBuilder.DEFAULT_SCAN_CHUNK_SIZE, 0, MAX_SCAN_CHUNK_SIZE, SCAN_CHUNK_SIZE_STEP);
+    private final JLabel inspectionTimeoutLabel = new JLabel(CheckStyleBundle.message("config.inspection-timeout.labelText") + ":");
+    private final JBIntSpinner inspectionTimeoutSpinner = new JBIntSpinner(PluginConfigurationBuilder.DEFAULT_INSPECTION_TIMEOUT,
+            MIN_INSPECTION_TIMEOUT, MAX_INSPECTION_TIMEOUT, INSPECTION_TIMEOUT_STEP);
 
     private final LocationTableModel locationModel = new LocationTableModel();
     private final JBTable locationTable = new JBTable(locationModel);
@@ -111,6 +128,16 @@ public class CheckStyleConfigPanel extends JPanel {
         copyLibsCheckbox.setText(CheckStyleBundle.message("config.stabilize-classpath.text"));
         copyLibsCheckbox.setToolTipText(CheckStyleBundle.message("config.stabilize-classpath.tooltip"));
 
+        mergeLocationsCheckbox.setText(CheckStyleBundle.message("config.merge-locations.text"));
+        mergeLocationsCheckbox.setToolTipText(CheckStyleBundle.message("config.merge-locations.tooltip"));
+
+        scanThreadsLabel.setToolTipText(CheckStyleBundle.message("config.scan-threads.tooltip"));
+        scanThreadsSpinner.setToolTipText(CheckStyleBundle.message("config.scan-threads.tooltip"));
+        scanChunkSizeLabel.setToolTipText(CheckStyleBundle.message("config.scan-chunk-size.tooltip"));
+        scanChunkSizeSpinner.setToolTipText(CheckStyleBundle.message("config.scan-chunk-size.tooltip"));
+        inspectionTimeoutLabel.setToolTipText(CheckStyleBundle.message("config.inspection-timeout.tooltip"));
+        inspectionTimeoutSpinner.setToolTipText(CheckStyleBundle.message("config.inspection-timeout.tooltip"));
+
         final JPanel configFilePanel = new JPanel(new GridBagLayout());
         configFilePanel.setOpaque(false);
 
@@ -132,11 +159,32 @@ public class CheckStyleConfigPanel extends JPanel {
         configFilePanel.add(copyLibsCheckbox, new GridBagConstraints(
                 2, 1, 2, 1, 1.0, 0.0, GridBagConstraints.WEST,
                 GridBagConstraints.HORIZONTAL, COMPONENT_INSETS, 0, 0));
+        configFilePanel.add(scanThreadsLabel, new GridBagConstraints(
+                0, 2, 1, 1, 0.0, 0.0, GridBagConstraints.WEST,
+                GridBagConstraints.NONE, COMPONENT_INSETS, 0, 0));
+        configFilePanel.add(scanThreadsSpinner, new GridBagConstraints(
+                1, 2, 1, 1, 0.0, 0.0, GridBagConstraints.WEST,
+                GridBagConstraints.NONE, COMPONENT_INSETS, 0, 0));
+        configFilePanel.add(scanChunkSizeLabel, new GridBagConstraints(
+                2, 2, 1, 1, 0.0, 0.0, GridBagConstraints.WEST,
+                GridBagConstraints.NONE, COMPONENT_INSETS, 0, 0));
+        configFilePanel.add(scanChunkSizeSpinner, new GridBagConstraints(
+                3, 2, 1, 1, 0.0, 0.0, GridBagConstraints.WEST,
+                GridBagConstraints.NONE, COMPONENT_INSETS, 0, 0));
+        configFilePanel.add(mergeLocationsCheckbox, new GridBagConstraints(
+                0, 3, 4, 1, 1.0, 0.0, GridBagConstraints.WEST,
+                GridBagConstraints.HORIZONTAL, COMPONENT_INSETS, 0, 0));
+        configFilePanel.add(inspectionTimeoutLabel, new GridBagConstraints(
+                0, 4, 1, 1, 0.0, 0.0, GridBagConstraints.WEST,
+                GridBagConstraints.NONE, COMPONENT_INSETS, 0, 0));
+        configFilePanel.add(inspectionTimeoutSpinner, new GridBagConstraints(
+                1, 4, 1, 1, 0.0, 0.0, GridBagConstraints.WEST,
+                GridBagConstraints.NONE, COMPONENT_INSETS, 0, 0));
         configFilePanel.add(buildRuleFilePanel(), new GridBagConstraints(
-                0, 2, 4, 1, 1.0, 1.0, GridBagConstraints.WEST,
+                0, 5, 4, 1, 1.0, 1.0, GridBagConstraints.WEST,
                 GridBagConstraints.BOTH, COMPONENT_INSETS, 0, 0));
         configFilePanel.add(buildClassPathPanel(), new GridBagConstraints(
-                0, 3, 4, 1, 1.0, 1.0, GridBagConstraints.WEST,
+                0, 6, 4, 1, 1.0, 1.0, GridBagConstraints.WEST,
                 GridBagConstraints.BOTH, COMPONENT_INSETS, 0, 0));
 
         return configFilePanel;
@@ -239,6 +287,11 @@ public class CheckStyleConfigPanel extends JPanel {
         scopeDropdown.setSelectedItem(pluginConfig.getScanScope());
         suppressErrorsCheckbox.setSelected(pluginConfig.isSuppressErrors());
         copyLibsCheckbox.setSelected(pluginConfig.isCopyLibs());
+        scanThreadsSpinner.setNumber(Math.min(pluginConfig.getScanThreads(), MAX_SCAN_THREADS));
+        scanChunkSizeSpinner.setNumber(Math.min(pluginConfig.getScanChunkSize(), MAX_SCAN_CHUNK_SIZE));
+        mergeLocationsCheckbox.setSelected(pluginConfig.isMergeLocations());
+        inspectionTimeoutSpinner.setNumber(Math.max(MIN_INSPECTION_TIMEOUT,
+                Math.min(pluginConfig.getInspectionTimeout(), MAX_INSPECTION_TIMEOUT)));
         locationModel.setLocations(new ArrayList<>(pluginConfig.getLocations()));
         setThirdPartyClasspath(pluginConfig.getThirdPartyClasspath());
         locationModel.setActiveLocations(pluginConfig.getActiveLocations());
@@ -257,6 +310,10 @@ public class CheckStyleConfigPanel extends JPanel {
                 .withScanScope(scanScope)
                 .withSuppressErrors(suppressErrorsCheckbox.isSelected())
                 .withCopyLibraries(copyLibsCheckbox.isSelected())
+                .withScanThreads(scanThreadsSpinner.getNumber())
+                .withScanChunkSize(scanChunkSizeSpinner.getNumber())
+                .withMergeLocations(mergeLocationsCheckbox.isSelected())
+                .withInspectionTimeout(inspectionTimeoutSpinner.getNumber())
                 .withLocations(new TreeSet<>(locationModel.getLocations()))
                 .withThirdPartyClassPath(getThirdPartyClasspath())
                 .withActiveLocationIds(locationModel.getActiveLocations().stream()
@@ -1,14 +1,16 @@
 package org.infernus.idea.checkstyle.util;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.progress.ProcessCanceledException;
 import com.intellij.openapi.progress.ProgressManager;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
 
 public final class Async {
     private static final Logger LOG = Logger.getInstance(Async.class);
@@ -18,18 +20,6 @@ public final class Async {
     private Async() {
     }
 
-    @Nullable
-    public static <T> T asyncResultOf(@NotNull final Callable<T> callable,
-                                      @Nullable final T defaultValue,
-                                      final long timeoutInMs) {
-        try {
-            return whenFinished(executeOnPooledThread(callable), timeoutInMs).get();
-
-        } catch (Exception e) {
-            return defaultValue;
-        }
-    }
-
     public static <T> Future<T> executeOnPooledThread(final Callable<T> callable) {
         return ApplicationManager.getApplication().executeOnPooledThread(callable);
     }
@@ -50,6 +40,63 @@ public final class Async {
         return future;
     }
 
+    /**
+     * Wait for a future to complete, without cancelling it if the current progress is cancelled, so that it may
+     * be shared by several waiters.
+     *
+     * @param future the future to wait for.
+     * @param <T>    the type of the result.
+     * @return the result of the future.
+     * @throws ExecutionException       if the future failed.
+     * @throws ProcessCanceledException if the current progress is cancelled while waiting.
+     */
+    public static <T> T resultOf(@NotNull final Future<T> future) throws ExecutionException {
+        try {
+            return resultOf(future, 0);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Wait without a timeout has timed out", e);
+        }
+    }
+
+    /**
+     * Wait for a future to complete, for at most the given time, without cancelling it if the current progress is
+     * cancelled or the time runs out. The result is returned as soon as it is available; the current progress is
+     * checked for cancellation between waits.
+     *
+     * @param future      the future to wait for.
+     * @param timeoutInMs the maximum time to wait, or 0 to wait until the future completes.
+     * @param <T>         the type of the result.
+     * @return the result of the future.
+     * @throws ExecutionException       if the future failed.
+     * @throws TimeoutException         if the future didn't complete in time.
+     * @throws ProcessCanceledException if the current progress is cancelled while waiting.
+     */
+    public static <T> T resultOf(@NotNull final Future<T> future,
+                                 final long timeoutInMs) throws ExecutionException, TimeoutException {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutInMs);
+        while (true) {
+            ProgressManager.checkCanceled();
+
+            long waitInNanos = TimeUnit.MILLISECONDS.toNanos(FIFTY_MS);
+            if (timeoutInMs > 0) {
+                final long remainingInNanos = deadline - System.nanoTime();
+                if (remainingInNanos <= 0) {
+                    throw new TimeoutException("Async task exhausted timeout of " + timeoutInMs + "ms");
+                }
+                waitInNanos = Math.min(waitInNanos, remainingInNanos);
+            }
+
+            try {
+                return future.get(waitInNanos, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException ignored) {
+                // check for cancellation and continue waiting
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ProcessCanceledException(e);
+            }
+        }
+    }
+
     private static long waitFor(final int millis) {
         try {
             Thread.sleep(millis);
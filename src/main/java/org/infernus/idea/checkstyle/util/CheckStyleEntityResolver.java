@@ -23,6 +23,9 @@ import static java.util.Arrays.asList;
 
 /**
  * Entity resolver for CheckStyle DTDs.
+ * <p>
+ * Bundled DTDs, local files and remote entities are served from an {@link EntityCache} shared by all resolvers, so
+ * that parsing rules repeatedly does not read unchanged entities again.
  */
 public class CheckStyleEntityResolver implements EntityResolver, XMLResolver {
 
@@ -30,6 +33,8 @@ public class CheckStyleEntityResolver implements EntityResolver, XMLResolver {
 
     private static final Map<DTDKey, String> DTD_MAP = new HashMap<>();
 
+    private static final EntityCache ENTITY_CACHE = new EntityCache(EntityCache.DEFAULT_MAX_BYTES);
+
     static {
         for (String host : asList("www.puppycrawl.com", "checkstyle.sourceforge.net", "checkstyle.org")) {
             for (String protocol : asList("http", "https")) {
@@ -124,7 +129,12 @@ public class CheckStyleEntityResolver implements EntityResolver, XMLResolver {
                                 final String baseURI,
                                 final String namespace) throws XMLStreamException {
         try {
-            return resolveEntity(publicID, systemID);
+            // StAX expects the stream itself, rather than a SAX source
+            final InputSource inputSource = resolveEntity(publicID, systemID);
+            if (inputSource != null && inputSource.getByteStream() != null) {
+                return inputSource.getByteStream();
+            }
+            return inputSource;
         } catch (IOException e) {
             throw new XMLStreamException(e);
         }
@@ -136,6 +146,11 @@ public class CheckStyleEntityResolver implements EntityResolver, XMLResolver {
             URI systemIdUrl = new URI(systemId);
             if ("file".equals(systemIdUrl.getScheme())) {
                 return loadFromLocalFile(systemIdUrl);
+            } else if ("http".equals(systemIdUrl.getScheme()) || "https".equals(systemIdUrl.getScheme())) {
+                final InputSource inputSource = new InputSource(
+                        new ByteArrayInputStream(ENTITY_CACHE.remoteContent(systemId)));
+                inputSource.setSystemId(systemId);
+                return inputSource;
             } else {
                 return new InputSource(systemId);
             }
@@ -165,15 +180,19 @@ public class CheckStyleEntityResolver implements EntityResolver, XMLResolver {
     }
 
     @NotNull
-    private InputSource sourceFromFile(final String filePath) throws FileNotFoundException {
-        return new InputSource(new BufferedInputStream(new FileInputStream(filePath)));
+    private InputSource sourceFromFile(final String filePath) throws IOException {
+        return new InputSource(new ByteArrayInputStream(ENTITY_CACHE.fileContent(Paths.get(filePath))));
     }
 
     @Nullable
     private InputSource loadFromResource(final String resource) throws IOException {
         final URL resourceUrl = getClass().getResource(resource);
         if (resourceUrl != null) {
-            return new InputSource(resourceUrl.openStream());
+            return new InputSource(new ByteArrayInputStream(ENTITY_CACHE.resourceContent(resource, () -> {
+                try (InputStream resourceStream = resourceUrl.openStream()) {
+                    return Streams.readContentOf(resourceStream);
+                }
+            })));
         } else {
             LOG.warn("Configured DTD cannot be found: " + resource);
             return null;
@@ -0,0 +1,179 @@
+package org.infernus.idea.checkstyle.util;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.infernus.idea.checkstyle.util.Streams.readContentOf;
+
+/**
+ * The content of the entities, such as DTDs, resolved by {@link CheckStyleEntityResolver}s, so that parsing rules
+ * repeatedly need not read unchanged entities again. The cache is bounded by the total size of the content, the least
+ * recently used entities being discarded first.
+ * <p>
+ * Entities bundled with the plugin never change. Local files are read again when their size or modification time
+ * changes. Remote entities are revalidated with the server, using any ETag or Last-Modified date given, once they are
+ * older than {@link #REMOTE_REVALIDATE_AFTER_MS}; should the server be unreachable, the last copy is used.
+ */
+final class EntityCache {
+
+    private static final Log LOG = LogFactory.getLog(EntityCache.class);
+
+    static final long DEFAULT_MAX_BYTES = 4L * 1024L * 1024L;
+
+    private static final long REMOTE_REVALIDATE_AFTER_MS = TimeUnit.MINUTES.toMillis(5);
+    private static final int HTTP_TIMEOUT_IN_MS = 5000;
+
+    @FunctionalInterface
+    interface ContentLoader {
+        byte[] load() throws IOException;
+    }
+
+    private final long maxBytes;
+    private final Map<String, CachedEntity> entities = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    EntityCache(final long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    @NotNull
+    byte[] resourceContent(@NotNull final String resource, @NotNull final ContentLoader loader) throws IOException {
+        final String key = "resource:" + resource;
+        final CachedEntity cachedEntity = get(key);
+        if (cachedEntity != null) {
+            return cachedEntity.content;
+        }
+        return put(key, new CachedEntity(loader.load(), null, null, null, 0)).content;
+    }
+
+    @NotNull
+    byte[] fileContent(@NotNull final Path file) throws IOException {
+        final String key = "file:" + file.toAbsolutePath();
+        final BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        final String fileVersion = attributes.size() + ":" + attributes.lastModifiedTime().toMillis();
+
+        final CachedEntity cachedEntity = get(key);
+        if (cachedEntity != null && fileVersion.equals(cachedEntity.fileVersion)) {
+            return cachedEntity.content;
+        }
+        return put(key, new CachedEntity(Files.readAllBytes(file), fileVersion, null, null, 0)).content;
+    }
+
+    @NotNull
+    byte[] remoteContent(@NotNull final String url) throws IOException {
+        final String key = "url:" + url;
+        final CachedEntity cachedEntity = get(key);
+        if (cachedEntity != null
+                && cachedEntity.validatedAt + REMOTE_REVALIDATE_AFTER_MS > System.currentTimeMillis()) {
+            return cachedEntity.content;
+        }
+
+        try {
+            return put(key, fetch(url, cachedEntity)).content;
+        } catch (IOException e) {
+            if (cachedEntity == null) {
+                throw e;
+            }
+            LOG.info("Entity could not be revalidated; using the last copy: " + url, e);
+            return put(key, cachedEntity.validatedNow()).content;
+        }
+    }
+
+    @NotNull
+    private CachedEntity fetch(@NotNull final String url, @Nullable final CachedEntity cachedEntity)
+            throws IOException {
+        final URLConnection connection = new URL(url).openConnection();
+        connection.setConnectTimeout(HTTP_TIMEOUT_IN_MS);
+        connection.setReadTimeout(HTTP_TIMEOUT_IN_MS);
+        connection.setAllowUserInteraction(false);
+        if (cachedEntity != null) {
+            if (cachedEntity.eTag != null) {
+                connection.setRequestProperty("If-None-Match", cachedEntity.eTag);
+            }
+            if (cachedEntity.lastModified != null) {
+                connection.setRequestProperty("If-Modified-Since", cachedEntity.lastModified);
+            }
+        }
+        connection.connect();
+
+        if (cachedEntity != null && connection instanceof HttpURLConnection
+                && ((HttpURLConnection) connection).getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+            return cachedEntity.validatedNow();
+        }
+
+        try (InputStream stream = new BufferedInputStream(connection.getInputStream())) {
+            return new CachedEntity(readContentOf(stream), null,
+                    connection.getHeaderField("ETag"), connection.getHeaderField("Last-Modified"),
+                    System.currentTimeMillis());
+        }
+    }
+
+    @Nullable
+    private synchronized CachedEntity get(@NotNull final String key) {
+        return entities.get(key);
+    }
+
+    @NotNull
+    private synchronized CachedEntity put(@NotNull final String key, @NotNull final CachedEntity cachedEntity) {
+        final CachedEntity replacedEntity = entities.put(key, cachedEntity);
+        if (replacedEntity != null) {
+            totalBytes -= replacedEntity.content.length;
+        }
+        totalBytes += cachedEntity.content.length;
+
+        final Iterator<CachedEntity> leastRecentlyUsed = entities.values().iterator();
+        while (totalBytes > maxBytes && leastRecentlyUsed.hasNext()) {
+            final CachedEntity discardedEntity = leastRecentlyUsed.next();
+            if (discardedEntity != cachedEntity) {
+                totalBytes -= discardedEntity.content.length;
+                leastRecentlyUsed.remove();
+            }
+        }
+        return cachedEntity;
+    }
+
+    synchronized int size() {
+        return entities.size();
+    }
+
+    private static final class CachedEntity {
+        private final byte[] content;
+        private final String fileVersion;
+        private final String eTag;
+        private final String lastModified;
+        private final long validatedAt;
+
+        CachedEntity(@NotNull final byte[] content,
+                     @Nullable final String fileVersion,
+                     @Nullable final String eTag,
+                     @Nullable final String lastModified,
+                     final long validatedAt) {
+            this.content = content;
+            this.fileVersion = fileVersion;
+            this.eTag = eTag;
+            this.lastModified = lastModified;
+            this.validatedAt = validatedAt;
+        }
+
+        @NotNull
+        CachedEntity validatedNow() {
+            return new CachedEntity(content, fileVersion, eTag, lastModified, System.currentTimeMillis());
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.infernus.idea.checkstyle.util;
+
+import java.util.Arrays;
+
+/**
+ * The most recent latencies of an operation, from which percentiles may be taken.
+ * <p>
+ * Only a fixed number of samples is kept, the oldest being replaced first, so the percentiles follow recent
+ * behaviour.
+ */
+public final class LatencySamples {
+
+    private final long[] samples;
+    private int retainedCount;
+    private int nextSample;
+    private long totalCount;
+
+    /**
+     * @param maximumSamples the number of samples to keep.
+     */
+    public LatencySamples(final int maximumSamples) {
+        if (maximumSamples <= 0) {
+            throw new IllegalArgumentException("At least one sample must be kept: " + maximumSamples);
+        }
+        this.samples = new long[maximumSamples];
+    }
+
+    /**
+     * @param latencyInMs the latency of an operation.
+     */
+    public synchronized void record(final long latencyInMs) {
+        samples[nextSample] = latencyInMs;
+        nextSample = (nextSample + 1) % samples.length;
+        retainedCount = Math.min(retainedCount + 1, samples.length);
+        ++totalCount;
+    }
+
+    /**
+     * @return the number of latencies recorded, including those no longer kept.
+     */
+    public synchronized long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * @param percentile the percentile, between 0 and 100.
+     * @return the latency of the given percentile of the kept samples, by the nearest rank, or 0 if there are none.
+     */
+    public synchronized long percentile(final double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Invalid percentile: " + percentile);
+        }
+        if (retainedCount == 0) {
+            return 0;
+        }
+
+        final long[] sortedSamples = Arrays.copyOf(samples, retainedCount);
+        Arrays.sort(sortedSamples);
+        final int rank = (int) Math.ceil(percentile / 100 * retainedCount);
+        return sortedSamples[Math.max(0, rank - 1)];
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "p50=" + percentile(50) + "ms, p95=" + percentile(95) + "ms, p99=" + percentile(99)
+                + "ms over the last " + retainedCount;
+    }
+}
@@ -0,0 +1,91 @@
+package org.infernus.idea.checkstyle.util;
+
+import com.intellij.openapi.application.Application;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ReadAction;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Read actions for background work over many files, which must not hold off write actions for long.
+ * <p>
+ * Work is run in non-blocking read actions: when a write action is waiting, the read action is cancelled, the write
+ * goes ahead, and the work is started again. Work may therefore be run more than once, and must only have an effect
+ * through its result. Large amounts of work are split into chunks with {@link #computeInChunks}, so that only the
+ * chunk in progress is started again, and the work resumes from where it stopped.
+ * <p>
+ * If the caller already holds the read lock, or is on the event thread, the work is run in an ordinary read action.
+ * <p>
+ * Each hold of the lock is reported to the {@link ReadLockMonitor} of the thread, if it has one. A non-blocking read
+ * action expires, rather than starting again, once the thread is interrupted or the monitor's work is cancelled.
+ */
+public final class ReadActions {
+
+    private ReadActions() {
+    }
+
+    /**
+     * Run work in a non-blocking read action.
+     *
+     * @param activity a description of the work, for the read lock monitor.
+     * @param work     the work, which may be run more than once.
+     * @param <T>      the type of the result.
+     * @return the result of the work.
+     * @throws com.intellij.openapi.progress.ProcessCanceledException if the current progress or the monitored work
+     *                                                                is cancelled, or the thread is interrupted.
+     */
+    public static <T> T compute(@NotNull final String activity,
+                                @NotNull final Supplier<T> work) {
+        final ReadLockMonitor monitor = ReadLockMonitor.current();
+        final Supplier<T> monitoredWork = () -> {
+            final long startTime = System.nanoTime();
+            try {
+                return work.get();
+            } finally {
+                if (monitor != null) {
+                    monitor.record(activity, System.nanoTime() - startTime);
+                }
+            }
+        };
+
+        final Application application = ApplicationManager.getApplication();
+        if (application.isReadAccessAllowed()) {
+            return work.get();
+        }
+        if (application.isDispatchThread()) {
+            return ReadAction.compute(monitoredWork::get);
+        }
+        final Thread workingThread = Thread.currentThread();
+        return ReadAction.nonBlocking(monitoredWork::get)
+                .expireWhen(() -> workingThread.isInterrupted() || (monitor != null && monitor.isCancelled()))
+                .executeSynchronously();
+    }
+
+    /**
+     * Run work over a list of items a chunk at a time, each chunk in its own non-blocking read action.
+     *
+     * @param activity  a description of the work, for the read lock monitor.
+     * @param items     the items to work on.
+     * @param chunkSize the maximum number of items in a chunk.
+     * @param work      the work for a chunk, which may be run more than once.
+     * @param <T>       the type of the items.
+     * @param <R>       the type of the result of a chunk.
+     * @return the results of the chunks, in order.
+     * @throws com.intellij.openapi.progress.ProcessCanceledException if the current progress is cancelled.
+     */
+    public static <T, R> List<R> computeInChunks(@NotNull final String activity,
+                                                 @NotNull final List<T> items,
+                                                 final int chunkSize,
+                                                 @NotNull final Function<List<T>, R> work) {
+        final List<R> results = new ArrayList<>();
+        for (int start = 0; start < items.size(); start += chunkSize) {
+            final List<T> chunk = items.subList(start, Math.min(start + chunkSize, items.size()));
+            results.add(compute(activity, () -> work.apply(chunk)));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,117 @@
+package org.infernus.idea.checkstyle.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Records how long the read lock is held by the read actions of a piece of work, such as a scan, as long holds keep
+ * write actions - and so typing - waiting.
+ * <p>
+ * A monitor is made current for a thread while it runs work given to {@link #compute(Supplier)} or
+ * {@link #wrap(Runnable)}, and the read actions run by {@link ReadActions} on that thread report to it. Those read
+ * actions are also abandoned once the work is cancelled, as pool threads have no progress indicator to tell them.
+ */
+public final class ReadLockMonitor {
+
+    private static final ThreadLocal<ReadLockMonitor> CURRENT = new ThreadLocal<>();
+
+    private final BooleanSupplier cancelled;
+
+    private int holdCount;
+    private long totalHoldNanos;
+    private long longestHoldNanos;
+    private String longestHoldActivity;
+
+    public ReadLockMonitor() {
+        this(() -> false);
+    }
+
+    /**
+     * @param cancelled whether the monitored work has been cancelled.
+     */
+    public ReadLockMonitor(@NotNull final BooleanSupplier cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    /**
+     * @return the monitor of the current thread, or null if its read actions aren't monitored.
+     */
+    @Nullable
+    static ReadLockMonitor current() {
+        return CURRENT.get();
+    }
+
+    boolean isCancelled() {
+        return cancelled.getAsBoolean();
+    }
+
+    synchronized void record(@NotNull final String activity, final long holdNanos) {
+        ++holdCount;
+        totalHoldNanos += holdNanos;
+        if (holdNanos > longestHoldNanos) {
+            longestHoldNanos = holdNanos;
+            longestHoldActivity = activity;
+        }
+    }
+
+    /**
+     * Run work on the current thread with this monitor current.
+     *
+     * @param work the work.
+     * @param <T>  the type of the result.
+     * @return the result of the work.
+     */
+    public <T> T compute(@NotNull final Supplier<T> work) {
+        final ReadLockMonitor previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return work.get();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * @param work the work.
+     * @return the work, which makes this monitor current for whichever thread runs it.
+     */
+    @NotNull
+    public Runnable wrap(@NotNull final Runnable work) {
+        return () -> compute(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * @param executor an executor.
+     * @return an executor which runs the work given to it with this monitor current.
+     */
+    @NotNull
+    public Executor wrap(@NotNull final Executor executor) {
+        return work -> executor.execute(wrap(work));
+    }
+
+    public synchronized int getHoldCount() {
+        return holdCount;
+    }
+
+    public synchronized long getLongestHoldMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(longestHoldNanos);
+    }
+
+    @Override
+    public synchronized String toString() {
+        if (holdCount == 0) {
+            return "no read actions";
+        }
+        return holdCount + " read actions, holding the lock for "
+                + TimeUnit.NANOSECONDS.toMillis(totalHoldNanos) + "ms in total; the longest held it for "
+                + TimeUnit.NANOSECONDS.toMillis(longestHoldNanos) + "ms while " + longestHoldActivity;
+    }
+}
@@ -113,6 +113,19 @@ public class TempDirProvider {
                 .orElseGet(() -> new File(System.getProperty("java.io.tmpdir"), "csi-" + projectUnique(pProject) + "-libs"));
     }
 
+    /**
+     * Locate the file in which scan results are persisted between sessions. This sits alongside our other files in
+     * the project's IDEA folder where possible, as the results are only valid for this project.
+     *
+     * @param pProject the current project
+     * @return the file, which may not yet exist
+     */
+    @NotNull
+    public File forScanResultCache(@NotNull final Project pProject) {
+        return getIdeaFolder(pProject).map(pVirtualFile -> new File(pVirtualFile.getPath(), "checkstyleidea.cache"))
+                .orElseGet(() -> new File(System.getProperty("java.io.tmpdir"), "csi-" + projectUnique(pProject) + ".cache"));
+    }
+
     @NotNull
     private String projectUnique(@NotNull final Project pProject) {
         return pProject.getLocationHash().replaceAll(" ", "_");
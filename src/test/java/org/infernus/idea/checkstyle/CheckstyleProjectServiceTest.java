@@ -3,10 +3,18 @@ package org.infernus.idea.checkstyle;
 import com.intellij.openapi.project.Project;
 import org.infernus.idea.checkstyle.config.PluginConfigurationBuilder;
 import org.infernus.idea.checkstyle.config.PluginConfigurationManager;
+import org.infernus.idea.checkstyle.csapi.CheckstyleActions;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.List;
 import java.util.SortedSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.hamcrest.Matchers.*;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -50,4 +58,40 @@ public class CheckstyleProjectServiceTest {
         assertThat(underTest.underlyingClassLoader().loadClass("com.puppycrawl.tools.checkstyle.Checker"),
                 is(not(nullValue())));
     }
+
+    @Test
+    public void theCheckstyleInstanceIsSharedBetweenCallers() {
+        assertThat(underTest.getCheckstyleInstance(), is(sameInstance(underTest.getCheckstyleInstance())));
+    }
+
+    @Test
+    public void theCheckstyleInstanceIsReplacedWhenAVersionIsActivated() {
+        final CheckstyleActions previousInstance = underTest.getCheckstyleInstance();
+        final ClassLoader previousClassLoader = underTest.underlyingClassLoader();
+
+        underTest.activateCheckstyleVersion(CHECKSTYLE_VERSION, null);
+
+        assertThat(underTest.getCheckstyleInstance(), is(not(sameInstance(previousInstance))));
+        assertThat(underTest.underlyingClassLoader(), is(not(sameInstance(previousClassLoader))));
+    }
+
+    @Test
+    public void concurrentCallersShareASingleCheckstyleInstance() throws Exception {
+        final int callers = 8;
+        final ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            final List<Callable<CheckstyleActions>> calls = IntStream.range(0, callers)
+                    .mapToObj(i -> (Callable<CheckstyleActions>) underTest::getCheckstyleInstance)
+                    .collect(Collectors.toList());
+
+            final List<Future<CheckstyleActions>> instances = executor.invokeAll(calls);
+
+            final CheckstyleActions firstInstance = instances.get(0).get();
+            for (final Future<CheckstyleActions> instance : instances) {
+                assertThat(instance.get(), is(sameInstance(firstInstance)));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 }
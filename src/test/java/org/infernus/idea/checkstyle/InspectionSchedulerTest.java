@@ -0,0 +1,149 @@
+package org.infernus.idea.checkstyle;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import org.infernus.idea.checkstyle.checker.Problem;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.mock;
+
+public class InspectionSchedulerTest {
+
+    private final List<Runnable> queuedTasks = new ArrayList<>();
+    private final InspectionScheduler underTest = new InspectionScheduler(queuedTasks::add);
+
+    private final VirtualFile file = mock(VirtualFile.class);
+    private final AtomicInteger inspections = new AtomicInteger();
+    private final AtomicInteger cleanups = new AtomicInteger();
+
+    @Test
+    public void aRequestForTheVersionBeingInspectedJoinsThatInspection() throws Exception {
+        final Future<List<Problem>> firstRequest = underTest.schedule(file, 1, inspection(), cleanup());
+        final Future<List<Problem>> secondRequest = underTest.schedule(file, 1, inspection(), cleanup());
+
+        assertThat(secondRequest, is(sameInstance(firstRequest)));
+        assertThat(queuedTasks, hasSize(1));
+        assertThat(cleanups.get(), is(1));
+
+        runQueuedTasks();
+
+        assertThat(inspections.get(), is(1));
+        assertThat(cleanups.get(), is(2));
+    }
+
+    @Test
+    public void aRequestForANewerVersionCancelsTheSupersededInspection() throws Exception {
+        final Future<List<Problem>> supersededRequest = underTest.schedule(file, 1, inspection(), cleanup());
+        final Future<List<Problem>> newerRequest = underTest.schedule(file, 2, inspection(), cleanup());
+
+        assertThat(supersededRequest.isCancelled(), is(true));
+        assertThat(cleanups.get(), is(1));
+
+        runQueuedTasks();
+
+        assertThat(inspections.get(), is(1));
+        assertThat(cleanups.get(), is(2));
+        assertThat(newerRequest.get(), is(empty()));
+    }
+
+    @Test
+    public void inspectionsOfDifferentFilesAreIndependent() {
+        underTest.schedule(file, 1, inspection(), cleanup());
+        underTest.schedule(mock(VirtualFile.class), 1, inspection(), cleanup());
+
+        runQueuedTasks();
+
+        assertThat(inspections.get(), is(2));
+        assertThat(cleanups.get(), is(2));
+    }
+
+    @Test
+    public void aFileIsInspectedAgainOnceItsInspectionHasFinished() {
+        underTest.schedule(file, 1, inspection(), cleanup());
+        runQueuedTasks();
+        underTest.schedule(file, 1, inspection(), cleanup());
+        runQueuedTasks();
+
+        assertThat(inspections.get(), is(2));
+    }
+
+    @Test
+    public void theLatencyOfACompletedInspectionIsRecorded() {
+        underTest.schedule(file, 1, inspection(), cleanup());
+        underTest.schedule(file, 2, inspection(), cleanup());
+        runQueuedTasks();
+
+        assertThat(underTest.getLatencies().getTotalCount(), is(1L));
+    }
+
+    @Test
+    public void aTimedOutRequestDoesNotCancelAnInspectionAnotherRequestIsWaitingFor() {
+        final Future<List<Problem>> firstRequest = underTest.schedule(file, 1, inspection(), cleanup());
+        final Future<List<Problem>> secondRequest = underTest.schedule(file, 1, inspection(), cleanup());
+
+        underTest.stopWaiting(firstRequest, true);
+
+        assertThat(firstRequest.isCancelled(), is(false));
+
+        underTest.stopWaiting(secondRequest, false);
+
+        assertThat(secondRequest.isCancelled(), is(true));
+    }
+
+    @Test
+    public void anInspectionIsNotCancelledWhenNoRequestTimedOut() {
+        final Future<List<Problem>> request = underTest.schedule(file, 1, inspection(), cleanup());
+
+        underTest.stopWaiting(request, false);
+
+        assertThat(request.isCancelled(), is(false));
+    }
+
+    @Test
+    public void aRequestDoesNotJoinAnInspectionCancelledAfterTimingOut() {
+        final Future<List<Problem>> timedOutRequest = underTest.schedule(file, 1, inspection(), cleanup());
+        underTest.stopWaiting(timedOutRequest, true);
+
+        final Future<List<Problem>> laterRequest = underTest.schedule(file, 1, inspection(), cleanup());
+
+        assertThat(timedOutRequest.isCancelled(), is(true));
+        assertThat(laterRequest, is(not(sameInstance(timedOutRequest))));
+    }
+
+    @Test(expected = ExecutionException.class)
+    public void aFailedInspectionIsReported() throws Exception {
+        final Future<List<Problem>> request = underTest.schedule(file, 1, () -> {
+            throw new IllegalStateException("aFailure");
+        }, cleanup());
+        runQueuedTasks();
+
+        assertThat(cleanups.get(), is(1));
+        request.get();
+    }
+
+    private Callable<List<Problem>> inspection() {
+        return () -> {
+            inspections.incrementAndGet();
+            return Collections.emptyList();
+        };
+    }
+
+    private Runnable cleanup() {
+        return cleanups::incrementAndGet;
+    }
+
+    private void runQueuedTasks() {
+        final List<Runnable> tasks = new ArrayList<>(queuedTasks);
+        queuedTasks.clear();
+        tasks.forEach(Runnable::run);
+    }
+}
@@ -0,0 +1,83 @@
+package org.infernus.idea.checkstyle.checker;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class BatchPipelineTest {
+
+    @Test
+    public void batchesArePassedInOrderFollowedByTheEnd() throws InterruptedException {
+        final BatchPipeline<Integer> pipeline = new BatchPipeline<>((batchSize, consumer) -> {
+            consumer.accept(List.of(1, 2));
+            consumer.accept(List.of(3));
+        }, 2, 4);
+
+        pipeline.run();
+
+        assertThat(pipeline.next(), is(equalTo(List.of(1, 2))));
+        assertThat(pipeline.next(), is(equalTo(List.of(3))));
+        assertThat(pipeline.next(), is(nullValue()));
+    }
+
+    @Test
+    public void theEndIsReturnedByEachLaterCall() throws InterruptedException {
+        final BatchPipeline<Integer> pipeline = new BatchPipeline<>((batchSize, consumer) -> {
+        }, 2, 4);
+
+        pipeline.run();
+
+        assertThat(pipeline.next(), is(nullValue()));
+        assertThat(pipeline.next(), is(nullValue()));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void aFailureOfTheSourceIsThrownAfterItsBatches() throws InterruptedException {
+        final BatchPipeline<Integer> pipeline = new BatchPipeline<>((batchSize, consumer) -> {
+            consumer.accept(List.of(1));
+            throw new IllegalStateException("aFailure");
+        }, 2, 4);
+
+        pipeline.run();
+
+        assertThat(pipeline.next(), is(equalTo(List.of(1))));
+        pipeline.next();
+    }
+
+    @Test
+    public void theSourceWaitsWhileTheQueuedBatchesAreFull() throws InterruptedException {
+        final AtomicInteger batchesPassed = new AtomicInteger();
+        final BatchPipeline<Integer> pipeline = new BatchPipeline<>((batchSize, consumer) -> {
+            for (int i = 0; i < 3; ++i) {
+                consumer.accept(List.of(i));
+                batchesPassed.incrementAndGet();
+            }
+        }, 1, 1);
+
+        final Thread sourceThread = new Thread(pipeline);
+        sourceThread.start();
+        awaitWaiting(sourceThread);
+
+        assertThat(batchesPassed.get(), is(1));
+
+        assertThat(pipeline.next(), is(equalTo(List.of(0))));
+        assertThat(pipeline.next(), is(equalTo(List.of(1))));
+        assertThat(pipeline.next(), is(equalTo(List.of(2))));
+        assertThat(pipeline.next(), is(nullValue()));
+        sourceThread.join();
+        assertThat(batchesPassed.get(), is(3));
+    }
+
+    private static void awaitWaiting(final Thread thread) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5_000;
+        while (thread.getState() != Thread.State.WAITING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package org.infernus.idea.checkstyle.checker;
+
+import org.junit.Test;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.*;
+
+public class CachedCheckerTest {
+
+    private final CheckStyleChecker initialChecker = mock(CheckStyleChecker.class);
+    private final CheckStyleChecker additionalChecker = mock(CheckStyleChecker.class);
+
+    @SuppressWarnings("unchecked")
+    private final Supplier<CheckStyleChecker> additionalCheckers = mock(Supplier.class);
+
+    @Test
+    public void theInitialCheckerIsReusedWhenIdle() {
+        final CachedChecker underTest = new CachedChecker(initialChecker, additionalCheckers, 4);
+
+        underTest.returnChecker(underTest.borrowChecker());
+
+        assertThat(underTest.borrowChecker(), is(initialChecker));
+        assertThat(underTest.size(), is(1));
+        verifyNoInteractions(additionalCheckers);
+    }
+
+    @Test
+    public void thePoolGrowsWhenAllCheckersAreBusy() {
+        when(additionalCheckers.get()).thenReturn(additionalChecker);
+        final CachedChecker underTest = new CachedChecker(initialChecker, additionalCheckers, 4);
+
+        final CheckStyleChecker first = underTest.borrowChecker();
+        final CheckStyleChecker second = underTest.borrowChecker();
+
+        assertThat(second, is(not(sameInstance(first))));
+        assertThat(underTest.size(), is(2));
+    }
+
+    @Test
+    public void thePoolGrowsOnTheCreationExecutorWhileTheBorrowerWaits() throws InterruptedException {
+        when(additionalCheckers.get()).thenReturn(additionalChecker);
+        final BlockingQueue<Runnable> creations = new LinkedBlockingQueue<>();
+        final CachedChecker underTest = new CachedChecker(initialChecker, additionalCheckers, creations::add,
+                2, null, null, CheckerDependencies.NONE);
+        underTest.borrowChecker();
+
+        final AtomicReference<CheckStyleChecker> borrowed = new AtomicReference<>();
+        final Thread borrower = new Thread(() -> borrowed.set(underTest.borrowChecker()));
+        borrower.start();
+
+        final Runnable creation = creations.poll(5, TimeUnit.SECONDS);
+        assertThat(creation, is(notNullValue()));
+        verifyNoInteractions(additionalCheckers);
+
+        creation.run();
+        borrower.join();
+
+        assertThat(borrowed.get(), is(additionalChecker));
+        assertThat(underTest.size(), is(2));
+    }
+
+    @Test
+    public void thePoolDoesNotGrowBeyondItsMaximumSize() throws InterruptedException {
+        when(additionalCheckers.get()).thenReturn(additionalChecker);
+        final CachedChecker underTest = new CachedChecker(initialChecker, additionalCheckers, 2);
+
+        final CheckStyleChecker first = underTest.borrowChecker();
+        underTest.borrowChecker();
+
+        final Thread returner = new Thread(() -> underTest.returnChecker(first));
+        returner.start();
+
+        assertThat(underTest.borrowChecker(), is(first));
+        returner.join();
+        assertThat(underTest.size(), is(2));
+        verify(additionalCheckers, times(1)).get();
+    }
+
+    @Test
+    public void aFailureToGrowThePoolWaitsForAnExistingChecker() throws InterruptedException {
+        when(additionalCheckers.get()).thenReturn(null);
+        final CachedChecker underTest = new CachedChecker(initialChecker, additionalCheckers, 2);
+
+        final CheckStyleChecker first = underTest.borrowChecker();
+        final Thread returner = new Thread(() -> underTest.returnChecker(first));
+        returner.start();
+
+        assertThat(underTest.borrowChecker(), is(initialChecker));
+        returner.join();
+        assertThat(underTest.size(), is(1));
+    }
+
+    @Test
+    public void destroyingThePoolDestroysIdleCheckersImmediatelyAndBusyCheckersOnReturn() {
+        when(additionalCheckers.get()).thenReturn(additionalChecker);
+        final CachedChecker underTest = new CachedChecker(initialChecker, additionalCheckers, 2);
+        final CheckStyleChecker first = underTest.borrowChecker();
+        underTest.returnChecker(underTest.borrowChecker());
+
+        underTest.destroy();
+
+        verify(additionalChecker).destroy();
+        verify(initialChecker, never()).destroy();
+
+        underTest.returnChecker(first);
+
+        verify(initialChecker).destroy();
+    }
+
+    @Test
+    public void destroyActionsRunOnceNoCheckersRemainInUse() {
+        final Runnable destroyAction = mock(Runnable.class);
+        final CachedChecker underTest = new CachedChecker(initialChecker, additionalCheckers, 2);
+        underTest.onDestroyed(destroyAction);
+        final CheckStyleChecker checker = underTest.borrowChecker();
+
+        underTest.destroy();
+
+        verify(destroyAction, never()).run();
+
+        underTest.returnChecker(checker);
+
+        verify(destroyAction, times(1)).run();
+    }
+
+    @Test
+    public void destroyActionsRegisteredAfterThePoolIsReleasedRunImmediately() {
+        final Runnable destroyAction = mock(Runnable.class);
+        final CachedChecker underTest = new CachedChecker(initialChecker, additionalCheckers, 2);
+        underTest.destroy();
+
+        underTest.onDestroyed(destroyAction);
+
+        verify(destroyAction).run();
+    }
+
+    @Test
+    public void aWithdrawnDestroyActionIsNotRun() {
+        final Runnable destroyAction = mock(Runnable.class);
+        final CachedChecker underTest = new CachedChecker(initialChecker, additionalCheckers, 2);
+        underTest.onDestroyed(destroyAction);
+
+        underTest.removeOnDestroyed(destroyAction);
+        underTest.destroy();
+
+        verify(destroyAction, never()).run();
+    }
+}
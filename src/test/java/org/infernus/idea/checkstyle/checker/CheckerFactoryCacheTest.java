@@ -0,0 +1,141 @@
+package org.infernus.idea.checkstyle.checker;
+
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.project.Project;
+import org.infernus.idea.checkstyle.model.ConfigurationLocation;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.*;
+
+public class CheckerFactoryCacheTest {
+
+    private final ConfigurationLocation location = mock(ConfigurationLocation.class);
+    private final ConfigurationLocation anotherLocation = mock(ConfigurationLocation.class);
+
+    private final CheckerFactoryCache underTest = new CheckerFactoryCache(2);
+
+    @Test
+    public void checkersAreRetainedUntilInvalidated() {
+        final CachedChecker checker = checkerDependingOn("/project/checkstyle.xml");
+        underTest.put(location, null, checker);
+
+        assertThat(underTest.get(location, null).isPresent(), is(true));
+        verify(checker, never()).destroy();
+    }
+
+    @Test
+    public void theLeastRecentlyUsedCheckerIsDestroyedWhenTheCacheIsFull() {
+        final CachedChecker leastRecentlyUsed = checkerDependingOn();
+        final CachedChecker mostRecentlyUsed = checkerDependingOn();
+        underTest.put(location, null, leastRecentlyUsed);
+        underTest.put(anotherLocation, null, mostRecentlyUsed);
+        underTest.get(anotherLocation, null);
+
+        underTest.put(location, moduleNamed("aModule"), checkerDependingOn());
+
+        assertThat(underTest.size(), is(2));
+        assertThat(underTest.get(location, null).isPresent(), is(false));
+        verify(leastRecentlyUsed).destroy();
+        verify(mostRecentlyUsed, never()).destroy();
+    }
+
+    @Test
+    public void aReplacedCheckerIsDestroyed() {
+        final CachedChecker replacedChecker = checkerDependingOn();
+        underTest.put(location, null, replacedChecker);
+
+        underTest.put(location, null, checkerDependingOn());
+
+        verify(replacedChecker).destroy();
+    }
+
+    @Test
+    public void checkersCreatedFromAChangedFileAreDestroyed() {
+        final CachedChecker affectedChecker = checkerDependingOn("/project/checkstyle.xml", "/project/suppressions.xml");
+        final CachedChecker unaffectedChecker = checkerDependingOn("/project/other.xml");
+        underTest.put(location, null, affectedChecker);
+        underTest.put(anotherLocation, null, unaffectedChecker);
+
+        assertThat(underTest.invalidateCheckersAffectedBy(List.of("/project/suppressions.xml")), is(true));
+
+        assertThat(underTest.get(location, null).isPresent(), is(false));
+        assertThat(underTest.get(anotherLocation, null).isPresent(), is(true));
+        verify(affectedChecker).destroy();
+        verify(unaffectedChecker, never()).destroy();
+    }
+
+    @Test
+    public void checkersCreatedFromAFileInAChangedDirectoryAreDestroyed() {
+        underTest.put(location, null, checkerDependingOn("/project/config/checkstyle.xml"));
+
+        assertThat(underTest.invalidateCheckersAffectedBy(List.of("/project/config")), is(true));
+        assertThat(underTest.get(location, null).isPresent(), is(false));
+    }
+
+    @Test
+    public void checkersAreNotDestroyedForAFileWithACommonPrefix() {
+        underTest.put(location, null, checkerDependingOn("/project/checkstyle.xml"));
+
+        assertThat(underTest.invalidateCheckersAffectedBy(List.of("/project/checkstyle")), is(false));
+        assertThat(underTest.get(location, null).isPresent(), is(true));
+    }
+
+    @Test
+    public void onlyModuleCheckersAreDestroyedWhenModuleRootsChange() {
+        final Module module = moduleNamed("aModule");
+        final CachedChecker moduleChecker = checkerDependingOn();
+        final CachedChecker projectChecker = checkerDependingOn();
+        underTest.put(location, module, moduleChecker);
+        underTest.put(location, null, projectChecker);
+
+        assertThat(underTest.invalidateModuleCheckers(moduleName -> "aClasspath"), is(true));
+
+        assertThat(underTest.get(location, module).isPresent(), is(false));
+        assertThat(underTest.get(location, null).isPresent(), is(true));
+        verify(moduleChecker).destroy();
+        verify(projectChecker, never()).destroy();
+    }
+
+    @Test
+    public void moduleCheckersAreRetainedWhenModuleRootsChangeWithoutChangingTheClasspath() {
+        final Module module = moduleNamed("aModule");
+        final Module changedModule = moduleNamed("aChangedModule");
+        final CachedChecker unchangedChecker = checkerWithClasspath("aClasspath");
+        final CachedChecker changedChecker = checkerWithClasspath("aClasspath");
+        underTest.put(location, module, unchangedChecker);
+        underTest.put(location, changedModule, changedChecker);
+
+        underTest.invalidateModuleCheckers(moduleName ->
+                "aChangedModule".equals(moduleName) ? "anotherClasspath" : "aClasspath");
+
+        assertThat(underTest.get(location, module).isPresent(), is(true));
+        assertThat(underTest.get(location, changedModule).isPresent(), is(false));
+        verify(unchangedChecker, never()).destroy();
+        verify(changedChecker).destroy();
+    }
+
+    private CachedChecker checkerWithClasspath(final String classpathFingerprint) {
+        final CachedChecker checker = mock(CachedChecker.class);
+        when(checker.getDependencies()).thenReturn(new CheckerDependencies("10.0", List.of(), classpathFingerprint));
+        return checker;
+    }
+
+    private CachedChecker checkerDependingOn(final String... filePaths) {
+        final CachedChecker checker = mock(CachedChecker.class);
+        when(checker.getDependencies()).thenReturn(new CheckerDependencies("10.0", List.of(filePaths)));
+        return checker;
+    }
+
+    private Module moduleNamed(final String moduleName) {
+        final Project project = mock(Project.class);
+        when(project.getName()).thenReturn("aProject");
+        final Module module = mock(Module.class);
+        when(module.getProject()).thenReturn(project);
+        when(module.getName()).thenReturn(moduleName);
+        return module;
+    }
+}
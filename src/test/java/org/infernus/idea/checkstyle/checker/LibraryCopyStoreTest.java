@@ -0,0 +1,119 @@
+package org.infernus.idea.checkstyle.checker;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class LibraryCopyStoreTest {
+
+    private static final long MAX_SIZE_BYTES = 10;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path storeDir;
+    private LibraryCopyStore underTest;
+
+    @Before
+    public void setUp() throws IOException {
+        storeDir = temporaryFolder.newFolder("store").toPath();
+        underTest = new LibraryCopyStore(storeDir, MAX_SIZE_BYTES);
+    }
+
+    @Test
+    public void aCopyHasTheContentOfTheLibrary() throws IOException {
+        final Path target = temporaryFolder.getRoot().toPath().resolve("copies/lib1.jar");
+
+        underTest.copy(library("lib1.jar", "abcdef"), target);
+
+        assertThat(Files.readString(target), is("abcdef"));
+    }
+
+    @Test
+    public void anExistingCopyIsReplaced() throws IOException {
+        final Path target = temporaryFolder.getRoot().toPath().resolve("copies/lib1.jar");
+        underTest.copy(library("lib1.jar", "abcdef"), target);
+
+        underTest.copy(library("lib1.jar", "ghijkl"), target);
+
+        assertThat(Files.readString(target), is("ghijkl"));
+    }
+
+    @Test
+    public void aLibraryIsCopiedDirectlyWhenItsCopyCannotBeLinkedToTheStore() throws IOException {
+        final LibraryCopyStore storeOnAnotherFilesystem = new LibraryCopyStore(storeDir, MAX_SIZE_BYTES) {
+            @Override
+            boolean isLinkable(@NotNull final FileStore targetFileStore) {
+                return false;
+            }
+        };
+        final Path target = temporaryFolder.getRoot().toPath().resolve("copies/lib1.jar");
+
+        storeOnAnotherFilesystem.copy(library("lib1.jar", "abcdef"), target);
+
+        assertThat(Files.readString(target), is("abcdef"));
+        assertThat(storedLibraries(), is(empty()));
+    }
+
+    @Test
+    public void librariesWithTheSameContentAreStoredOnce() throws IOException {
+        final Path copies = temporaryFolder.getRoot().toPath().resolve("copies");
+
+        underTest.copy(library("lib1.jar", "abcdef"), copies.resolve("project1/lib1.jar"));
+        underTest.copy(library("lib2.jar", "abcdef"), copies.resolve("project2/lib2.jar"));
+
+        assertThat(storedLibraries(), hasSize(1));
+    }
+
+    @Test
+    public void theLeastRecentlyUsedLibrariesAreRemovedWhenTheStoreIsTooLarge() throws IOException {
+        final Path copies = temporaryFolder.getRoot().toPath().resolve("copies");
+        underTest.copy(library("lib1.jar", "abcdef"), copies.resolve("lib1.jar"));
+        final Path leastRecentlyUsed = storedLibraries().get(0);
+        Files.setLastModifiedTime(leastRecentlyUsed, FileTime.fromMillis(0));
+        underTest.copy(library("lib2.jar", "ghijkl"), copies.resolve("lib2.jar"));
+
+        underTest.cleanUp();
+
+        assertThat(storedLibraries(), hasSize(1));
+        assertThat(Files.exists(leastRecentlyUsed), is(false));
+        assertThat(Files.readString(copies.resolve("lib1.jar")), is("abcdef"));
+    }
+
+    @Test
+    public void librariesAreRetainedWhileTheStoreIsWithinItsSize() throws IOException {
+        underTest.copy(library("lib1.jar", "abcdef"), temporaryFolder.getRoot().toPath().resolve("copies/lib1.jar"));
+
+        underTest.cleanUp();
+
+        assertThat(storedLibraries(), hasSize(1));
+    }
+
+    private Path library(final String fileName, final String content) throws IOException {
+        final Path library = temporaryFolder.getRoot().toPath().resolve("libraries").resolve(fileName);
+        Files.createDirectories(library.getParent());
+        Files.write(library, content.getBytes(StandardCharsets.UTF_8));
+        return library;
+    }
+
+    private List<Path> storedLibraries() throws IOException {
+        try (Stream<Path> paths = Files.walk(storeDir)) {
+            return paths.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+    }
+}
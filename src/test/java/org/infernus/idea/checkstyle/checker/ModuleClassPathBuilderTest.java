@@ -0,0 +1,102 @@
+package org.infernus.idea.checkstyle.checker;
+
+import com.intellij.openapi.project.Project;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.mock;
+
+public class ModuleClassPathBuilderTest {
+
+    private static final String RESOURCE_NAME = "module-class-path-builder-test.txt";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final ModuleClassPathBuilder underTest = new ModuleClassPathBuilder(mock(Project.class));
+
+    private URL firstClasspathEntry;
+    private URL secondClasspathEntry;
+
+    @Before
+    public void setUp() throws IOException {
+        firstClasspathEntry = classpathEntryWithResource("first");
+        secondClasspathEntry = classpathEntryWithResource("second");
+    }
+
+    @Test
+    public void classLoadersAreSharedForTheSameClasspath() {
+        final ClassLoader first = underTest.acquire(new URL[]{firstClasspathEntry, secondClasspathEntry});
+        final ClassLoader second = underTest.acquire(new URL[]{firstClasspathEntry, secondClasspathEntry});
+
+        assertThat(second, is(sameInstance(first)));
+        assertThat(underTest.size(), is(1));
+    }
+
+    @Test
+    public void classLoadersAreNotSharedForADifferentlyOrderedClasspath() {
+        final ClassLoader first = underTest.acquire(new URL[]{firstClasspathEntry, secondClasspathEntry});
+        final ClassLoader second = underTest.acquire(new URL[]{secondClasspathEntry, firstClasspathEntry});
+
+        assertThat(second, is(not(sameInstance(first))));
+        assertThat(underTest.size(), is(2));
+    }
+
+    @Test
+    public void aClassLoaderIsOpenUntilItsLastUserReleasesIt() {
+        final ClassLoader classLoader = underTest.acquire(new URL[]{firstClasspathEntry});
+        underTest.acquire(new URL[]{firstClasspathEntry});
+
+        underTest.release(classLoader);
+
+        assertThat(classLoader.getResource(RESOURCE_NAME), is(not(nullValue())));
+        assertThat(underTest.size(), is(1));
+    }
+
+    @Test
+    public void aClassLoaderIsClosedWhenItsLastUserReleasesIt() {
+        final ClassLoader classLoader = underTest.acquire(new URL[]{firstClasspathEntry});
+        underTest.acquire(new URL[]{firstClasspathEntry});
+
+        underTest.release(classLoader);
+        underTest.release(classLoader);
+
+        assertThat(classLoader.getResource(RESOURCE_NAME), is(nullValue()));
+        assertThat(underTest.size(), is(0));
+    }
+
+    @Test
+    public void aNewClassLoaderIsCreatedForAClasspathAfterItsLastWasReleased() {
+        final ClassLoader first = underTest.acquire(new URL[]{firstClasspathEntry});
+        underTest.release(first);
+
+        final ClassLoader second = underTest.acquire(new URL[]{firstClasspathEntry});
+
+        assertThat(second, is(not(sameInstance(first))));
+        assertThat(second.getResource(RESOURCE_NAME), is(not(nullValue())));
+    }
+
+    @Test
+    public void disposingClosesAllClassLoaders() {
+        final ClassLoader classLoader = underTest.acquire(new URL[]{firstClasspathEntry});
+
+        underTest.dispose();
+
+        assertThat(classLoader.getResource(RESOURCE_NAME), is(nullValue()));
+        assertThat(underTest.size(), is(0));
+    }
+
+    private URL classpathEntryWithResource(final String directoryName) throws IOException {
+        final File directory = temporaryFolder.newFolder(directoryName);
+        assertThat(new File(directory, RESOURCE_NAME).createNewFile(), is(true));
+        return directory.toURI().toURL();
+    }
+}
@@ -0,0 +1,175 @@
+package org.infernus.idea.checkstyle.checker;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.Application;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.search.scope.packageSet.NamedScope;
+import org.infernus.idea.checkstyle.checker.PsiFileValidator.DirectoryFacts;
+import org.infernus.idea.checkstyle.config.PluginConfiguration;
+import org.infernus.idea.checkstyle.config.PluginConfigurationBuilder;
+import org.infernus.idea.checkstyle.model.ConfigurationLocation;
+import org.infernus.idea.checkstyle.model.ScanScope;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Answers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+public class PsiFileValidatorTest {
+
+    private static final int MODULES = 5;
+    private static final int DIRECTORIES = 500;
+    private static final int FILES_PER_DIRECTORY = 100;
+
+    private final List<Module> modules = new ArrayList<>();
+    private final ConfigurationLocation location = mock(ConfigurationLocation.class);
+    private final FakeFileFacts fileFacts = new FakeFileFacts();
+
+    @Before
+    public void configureMocks() {
+        final Application application = mock(Application.class);
+        when(application.isReadAccessAllowed()).thenReturn(true);
+        ApplicationManager.setApplication(application, mock(Disposable.class));
+
+        for (int i = 0; i < MODULES; ++i) {
+            modules.add(mock(Module.class));
+        }
+        when(location.getNamedScope()).thenReturn(Optional.of(mock(NamedScope.class)));
+    }
+
+    @Test
+    public void directoriesAreLookedUpOnceForAllOfTheirFiles() {
+        final List<PsiFile> files = new ArrayList<>();
+        for (int directory = 0; directory < DIRECTORIES; ++directory) {
+            final DirectoryFacts facts = sourceDirectoryOf(modules.get(directory % MODULES));
+            for (int file = 0; file < FILES_PER_DIRECTORY; ++file) {
+                files.add(fileIn(directory, facts));
+            }
+        }
+
+        final Map<Module, List<PsiFile>> filesByModule = validatorFor(ScanScope.AllSources).scannableFilesByModule(files);
+
+        assertThat(fileFacts.directoryLookups, is(DIRECTORIES));
+        assertThat(filesByModule.keySet(), containsInAnyOrder(modules.toArray()));
+        filesByModule.values().forEach(moduleFiles ->
+                assertThat(moduleFiles, hasSize(DIRECTORIES * FILES_PER_DIRECTORY / MODULES)));
+    }
+
+    @Test
+    public void filesInGeneratedDirectoriesAreNotScannable() {
+        final PsiFile file = fileIn(0, new DirectoryFacts(modules.get(0), true, false, true));
+
+        assertThat(validatorFor(ScanScope.AllSources).scannableFilesByModule(List.of(file)).isEmpty(), is(true));
+    }
+
+    @Test
+    public void filesInTestDirectoriesAreOnlyScannableWhenTheScopeIncludesTests() {
+        final PsiFile file = fileIn(0, new DirectoryFacts(modules.get(0), true, true, false));
+
+        assertThat(validatorFor(ScanScope.AllSources).scannableFilesByModule(List.of(file)).isEmpty(), is(true));
+        assertThat(validatorFor(ScanScope.AllSourcesWithTests).scannableFilesByModule(List.of(file)),
+                hasEntry(modules.get(0), List.of(file)));
+    }
+
+    @Test
+    public void filesOutsideOfSourceDirectoriesAreOnlyScannableWhenTheScopeIsEverything() {
+        final PsiFile file = fileIn(0, new DirectoryFacts(modules.get(0), false, false, false));
+
+        assertThat(validatorFor(ScanScope.AllSourcesWithTests).scannableFilesByModule(List.of(file)).isEmpty(),
+                is(true));
+        assertThat(validatorFor(ScanScope.Everything).scannableFilesByModule(List.of(file)),
+                hasEntry(modules.get(0), List.of(file)));
+    }
+
+    @Test
+    public void filesOutsideOfAModuleAreLeftOut() {
+        final PsiFile file = fileIn(0, new DirectoryFacts(null, true, false, false));
+
+        assertThat(validatorFor(ScanScope.Everything).scannableFilesByModule(List.of(file)).isEmpty(), is(true));
+    }
+
+    @Test
+    public void aFileIsNotScannableForAModuleItDoesNotBelongTo() {
+        final PsiFile file = fileIn(0, sourceDirectoryOf(modules.get(0)));
+
+        final PsiFileValidator validator = validatorFor(ScanScope.AllSources);
+        assertThat(validator.isScannable(file, Optional.of(modules.get(0))), is(true));
+        assertThat(validator.isScannable(file, Optional.of(modules.get(1))), is(false));
+    }
+
+    @Test
+    public void filesOutsideOfTheNamedScopesAreNotScannable() {
+        final PsiFile file = fileIn(0, sourceDirectoryOf(modules.get(0)));
+        fileFacts.filesOutOfScope.add(file);
+
+        assertThat(validatorFor(ScanScope.AllSources).scannableFilesByModule(List.of(file)).isEmpty(), is(true));
+    }
+
+    private PsiFileValidator validatorFor(final ScanScope scanScope) {
+        final PluginConfiguration pluginConfiguration = PluginConfigurationBuilder.testInstance("8.0")
+                .withScanScope(scanScope)
+                .build();
+        return new PsiFileValidator(pluginConfiguration, location, fileFacts);
+    }
+
+    private static DirectoryFacts sourceDirectoryOf(final Module module) {
+        return new DirectoryFacts(module, true, false, false);
+    }
+
+    private PsiFile fileIn(final int directory, final DirectoryFacts facts) {
+        final PsiFile file = mock(PsiFile.class, withSettings().defaultAnswer(invocation ->
+                invocation.getMethod().getReturnType() == boolean.class
+                        ? Boolean.TRUE
+                        : Answers.RETURNS_DEFAULTS.answer(invocation)));
+        final VirtualFile directoryFile = fileFacts.directories.computeIfAbsent(directory,
+                key -> mock(VirtualFile.class));
+        fileFacts.directoryOfFile.put(file, directoryFile);
+        fileFacts.factsOfDirectory.put(directoryFile, facts);
+        return file;
+    }
+
+    private static final class FakeFileFacts implements PsiFileValidator.FileFacts {
+        private final Map<Integer, VirtualFile> directories = new HashMap<>();
+        private final Map<PsiFile, VirtualFile> directoryOfFile = new HashMap<>();
+        private final Map<VirtualFile, DirectoryFacts> factsOfDirectory = new HashMap<>();
+        private final List<PsiFile> filesOutOfScope = new ArrayList<>();
+
+        private int directoryLookups;
+
+        @Override
+        public VirtualFile directoryOf(@NotNull final PsiFile psiFile) {
+            return directoryOfFile.get(psiFile);
+        }
+
+        @NotNull
+        @Override
+        public DirectoryFacts directoryFactsFor(@NotNull final PsiFile psiFile) {
+            ++directoryLookups;
+            return factsOfDirectory.get(directoryOf(psiFile));
+        }
+
+        @Override
+        public boolean hasDocument(@NotNull final PsiFile psiFile) {
+            return true;
+        }
+
+        @Override
+        public boolean isInNamedScope(@NotNull final PsiFile psiFile, @NotNull final NamedScope namedScope) {
+            return !filesOutOfScope.contains(psiFile);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package org.infernus.idea.checkstyle.checker;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+public class ScanFilesTest {
+
+    @Test
+    public void aChunkSizeOfZeroReturnsASingleChunk() {
+        assertThat(ScanFiles.chunksOf(List.of(1, 2, 3), 0), is(equalTo(List.of(List.of(1, 2, 3)))));
+    }
+
+    @Test
+    public void itemsAreSplitIntoChunksOfTheGivenSize() {
+        assertThat(ScanFiles.chunksOf(List.of(1, 2, 3, 4, 5), 2),
+                is(equalTo(List.of(List.of(1, 2), List.of(3, 4), List.of(5)))));
+    }
+
+    @Test
+    public void noItemsResultInNoChunks() {
+        assertThat(ScanFiles.chunksOf(List.of(), 2), is(empty()));
+    }
+}
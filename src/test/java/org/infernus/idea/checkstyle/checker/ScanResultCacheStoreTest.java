@@ -0,0 +1,124 @@
+package org.infernus.idea.checkstyle.checker;
+
+import org.infernus.idea.checkstyle.csapi.Issue;
+import org.infernus.idea.checkstyle.csapi.SeverityLevel;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class ScanResultCacheStoreTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void persistedResultsCanBeLoaded() throws IOException {
+        final ScanResultCacheStore underTest = new ScanResultCacheStore(temporaryFolder.newFile("results.cache"));
+
+        underTest.save("10.0", Map.of(keyFor("/src/A.java"), List.of(
+                new Issue("/tmp/A.java", 3, 4, "aMessage", SeverityLevel.Error, "aSource"),
+                new Issue("/tmp/A.java", 5, 6, null, null, null))));
+        final Map<ScanResultCacheKey, List<Issue>> loaded = underTest.load("10.0", 10);
+
+        assertThat(loaded.keySet(), contains(keyFor("/src/A.java")));
+        final List<Issue> issues = loaded.get(keyFor("/src/A.java"));
+        assertThat(issues, hasSize(2));
+        assertThat(issues.get(0).fileName, is("/src/A.java"));
+        assertThat(issues.get(0).lineNumber, is(3));
+        assertThat(issues.get(0).columnNumber, is(4));
+        assertThat(issues.get(0).message, is("aMessage"));
+        assertThat(issues.get(0).severityLevel, is(SeverityLevel.Error));
+        assertThat(issues.get(0).sourceName, is("aSource"));
+        assertThat(issues.get(1).message, is(nullValue()));
+        assertThat(issues.get(1).severityLevel, is(nullValue()));
+    }
+
+    @Test
+    public void resultsFromAnotherCheckstyleVersionAreDiscarded() throws IOException {
+        final ScanResultCacheStore underTest = new ScanResultCacheStore(temporaryFolder.newFile("results.cache"));
+
+        underTest.save("10.0", Map.of(keyFor("/src/A.java"), List.of()));
+
+        assertThat(underTest.load("10.1", 10), is(anEmptyMap()));
+    }
+
+    @Test
+    public void onlyTheMostRecentlyUsedEntriesAreLoadedWhenOverTheLimit() throws IOException {
+        final ScanResultCacheStore underTest = new ScanResultCacheStore(temporaryFolder.newFile("results.cache"));
+        final Map<ScanResultCacheKey, List<Issue>> entries = new LinkedHashMap<>();
+        entries.put(keyFor("/src/A.java"), List.of());
+        entries.put(keyFor("/src/B.java"), List.of());
+        entries.put(keyFor("/src/C.java"), List.of());
+
+        underTest.save("10.0", entries);
+
+        assertThat(underTest.load("10.0", 2).keySet(), contains(keyFor("/src/B.java"), keyFor("/src/C.java")));
+    }
+
+    @Test
+    public void messagesLongerThan64KBArePersisted() throws IOException {
+        final ScanResultCacheStore underTest = new ScanResultCacheStore(temporaryFolder.newFile("results.cache"));
+        final String longMessage = "\u00e9".repeat(70_000);
+
+        underTest.save("10.0", Map.of(keyFor("/src/A.java"), List.of(
+                new Issue("/tmp/A.java", 1, 2, longMessage, SeverityLevel.Warning, "aSource"))));
+
+        assertThat(underTest.load("10.0", 10).get(keyFor("/src/A.java")).get(0).message, is(longMessage));
+    }
+
+    @Test
+    public void aCorruptFileIsDiscarded() throws IOException {
+        final File storeFile = temporaryFolder.newFile("results.cache");
+        Files.write(storeFile.toPath(), new byte[]{1, 2, 3});
+
+        assertThat(new ScanResultCacheStore(storeFile).load("10.0", 10), is(anEmptyMap()));
+    }
+
+    @Test
+    public void resultsFromBeforeTheFingerprintCoveredDependencyFilesAreDiscarded() throws IOException {
+        final File storeFile = temporaryFolder.newFile("results.cache");
+        final ScanResultCacheStore underTest = new ScanResultCacheStore(storeFile);
+        underTest.save("10.0", Map.of(keyFor("/src/A.java"), List.of(
+                new Issue("/tmp/A.java", 3, 4, "aMessage", SeverityLevel.Error, "aSource"))));
+
+        final byte[] content;
+        try (InputStream in = new GZIPInputStream(new FileInputStream(storeFile))) {
+            content = in.readAllBytes();
+        }
+        ByteBuffer.wrap(content).putInt(Integer.BYTES, 2);
+        try (OutputStream out = new GZIPOutputStream(new FileOutputStream(storeFile))) {
+            out.write(content);
+        }
+
+        assertThat(underTest.load("10.0", 10), is(anEmptyMap()));
+    }
+
+    @Test
+    public void aMissingFileLoadsNothing() {
+        final ScanResultCacheStore underTest = new ScanResultCacheStore(
+                new File(temporaryFolder.getRoot(), "missing.cache"));
+
+        assertThat(underTest.load("10.0", 10), is(anEmptyMap()));
+    }
+
+    private ScanResultCacheKey keyFor(final String filePath) {
+        return new ScanResultCacheKey(filePath, "aHash", "aFingerprint", false);
+    }
+}
@@ -0,0 +1,188 @@
+package org.infernus.idea.checkstyle.checker;
+
+import com.intellij.openapi.project.Project;
+import org.infernus.idea.checkstyle.CheckstyleProjectService;
+import org.infernus.idea.checkstyle.csapi.Issue;
+import org.infernus.idea.checkstyle.csapi.SeverityLevel;
+import org.infernus.idea.checkstyle.model.ConfigurationLocation;
+import org.infernus.idea.checkstyle.model.ConfigurationType;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class ScanResultCacheTest {
+
+    private static final List<Issue> ISSUES = List.of(
+            new Issue("/src/A.java", 1, 2, "aMessage", SeverityLevel.Warning, "aSource"));
+
+    private final ScanResultCache underTest = new ScanResultCache(mock(Project.class), 2);
+
+    @Test
+    public void cachedIssuesAreReturnedForAMatchingKey() {
+        underTest.put(keyFor("/src/A.java", "hash"), ISSUES);
+
+        assertThat(underTest.get(keyFor("/src/A.java", "hash")), is(equalTo(ISSUES)));
+    }
+
+    @Test
+    public void nothingIsReturnedWhenTheContentHasChanged() {
+        underTest.put(keyFor("/src/A.java", "hash"), ISSUES);
+
+        assertThat(underTest.get(keyFor("/src/A.java", "anotherHash")), is(nullValue()));
+    }
+
+    @Test
+    public void theLeastRecentlyUsedEntryIsEvictedWhenTheCacheIsFull() {
+        underTest.put(keyFor("/src/A.java", "hash"), ISSUES);
+        underTest.put(keyFor("/src/B.java", "hash"), ISSUES);
+        underTest.get(keyFor("/src/A.java", "hash"));
+
+        underTest.put(keyFor("/src/C.java", "hash"), ISSUES);
+
+        assertThat(underTest.size(), is(2));
+        assertThat(underTest.get(keyFor("/src/A.java", "hash")), is(notNullValue()));
+        assertThat(underTest.get(keyFor("/src/B.java", "hash")), is(nullValue()));
+    }
+
+    @Test
+    public void invalidationClearsTheCache() {
+        underTest.put(keyFor("/src/A.java", "hash"), ISSUES);
+
+        underTest.invalidate();
+
+        assertThat(underTest.size(), is(0));
+    }
+
+    @Test
+    public void theFingerprintChangesWithTheRulesContent() throws IOException {
+        final ConfigurationLocation location = mock(ConfigurationLocation.class);
+        when(location.getId()).thenReturn("anId");
+        when(location.getType()).thenReturn(ConfigurationType.LOCAL_FILE);
+        when(location.getLocation()).thenReturn("/rules.xml");
+
+        assertThat(fingerprintOf(location, "<module name=\"Checker\"/>"),
+                is(not(equalTo(fingerprintOf(location, "<module name=\"TreeWalker\"/>")))));
+        assertThat(fingerprintOf(location, "<module name=\"Checker\"/>"),
+                is(equalTo(fingerprintOf(location, "<module name=\"Checker\"/>"))));
+    }
+
+    @Test
+    public void theFingerprintChangesWithTheContentOfTheFilesTheRulesDependOn() throws IOException {
+        final ConfigurationLocation location = mock(ConfigurationLocation.class);
+        when(location.getId()).thenReturn("anId");
+        when(location.getType()).thenReturn(ConfigurationType.LOCAL_FILE);
+        when(location.getLocation()).thenReturn("/rules.xml");
+        final File suppressions = File.createTempFile("suppressions", ".xml");
+        try {
+            Files.writeString(suppressions.toPath(), "<suppressions/>");
+            final List<String> dependencyPaths = List.of(suppressions.getAbsolutePath());
+            final String originalFingerprint = fingerprintOf(location, "<module name=\"Checker\"/>", dependencyPaths);
+
+            Files.writeString(suppressions.toPath(), "<suppressions><suppress checks=\".*\"/></suppressions>");
+
+            assertThat(fingerprintOf(location, "<module name=\"Checker\"/>", dependencyPaths),
+                    is(not(equalTo(originalFingerprint))));
+        } finally {
+            Files.deleteIfExists(suppressions.toPath());
+        }
+    }
+
+    @Test
+    public void anUnchangedFileIsOnlyHashedOnce() throws IOException {
+        final File file = File.createTempFile("scan-result-cache", ".java");
+        try {
+            final ScannableFile scannableFile = mock(ScannableFile.class);
+            when(scannableFile.getAbsolutePath()).thenReturn(file.getAbsolutePath());
+            when(scannableFile.getContentHash()).thenReturn("hash");
+
+            underTest.contentHashOf(scannableFile);
+            assertThat(underTest.contentHashOf(scannableFile), is(equalTo("hash")));
+
+            verify(scannableFile, times(1)).getContentHash();
+        } finally {
+            Files.deleteIfExists(file.toPath());
+        }
+    }
+
+    @Test
+    public void aModifiedFileIsHashedAgain() throws IOException {
+        final File file = File.createTempFile("scan-result-cache", ".java");
+        try {
+            final ScannableFile scannableFile = mock(ScannableFile.class);
+            when(scannableFile.getAbsolutePath()).thenReturn(file.getAbsolutePath());
+            when(scannableFile.getContentHash()).thenReturn("hash", "anotherHash");
+            underTest.contentHashOf(scannableFile);
+
+            assertThat(file.setLastModified(file.lastModified() - 10_000L), is(true));
+
+            assertThat(underTest.contentHashOf(scannableFile), is(equalTo("anotherHash")));
+        } finally {
+            Files.deleteIfExists(file.toPath());
+        }
+    }
+
+    @Test
+    public void theStoreIsLoadedOnceWithoutHoldingTheCache() throws InterruptedException {
+        final CountDownLatch loadStarted = new CountDownLatch(1);
+        final CountDownLatch loadMayFinish = new CountDownLatch(1);
+        final ScanResultCacheStore store = mock(ScanResultCacheStore.class);
+        when(store.load(anyString(), anyInt())).thenAnswer(invocation -> {
+            loadStarted.countDown();
+            loadMayFinish.await(5, TimeUnit.SECONDS);
+            return Map.of(keyFor("/src/A.java", "hash"), ISSUES);
+        });
+        final ScanResultCache cacheWithStore = new ScanResultCache(projectWithCheckstyleVersion("10.0"), 2, store);
+
+        final Thread firstReader = new Thread(() -> cacheWithStore.get(keyFor("/src/A.java", "hash")));
+        firstReader.start();
+        assertThat(loadStarted.await(5, TimeUnit.SECONDS), is(true));
+        final Thread secondReader = new Thread(() -> cacheWithStore.get(keyFor("/src/A.java", "hash")));
+        secondReader.start();
+
+        assertThat(cacheWithStore.size(), is(0));
+
+        loadMayFinish.countDown();
+        firstReader.join();
+        secondReader.join();
+
+        assertThat(cacheWithStore.get(keyFor("/src/A.java", "hash")), is(equalTo(ISSUES)));
+        verify(store, times(1)).load(anyString(), anyInt());
+    }
+
+    private Project projectWithCheckstyleVersion(final String checkstyleVersion) {
+        final CheckstyleProjectService checkstyleProjectService = mock(CheckstyleProjectService.class);
+        when(checkstyleProjectService.getActiveCheckstyleVersion()).thenReturn(checkstyleVersion);
+        final Project project = mock(Project.class);
+        when(project.getServiceIfCreated(CheckstyleProjectService.class)).thenReturn(checkstyleProjectService);
+        return project;
+    }
+
+    private String fingerprintOf(final ConfigurationLocation location, final String rules) throws IOException {
+        return fingerprintOf(location, rules, List.of());
+    }
+
+    private String fingerprintOf(final ConfigurationLocation location,
+                                 final String rules,
+                                 final List<String> dependencyPaths) throws IOException {
+        return ScanResultCache.fingerprintOf(location, Map.of("aProperty", "aValue"), "10.0",
+                new ByteArrayInputStream(rules.getBytes(UTF_8)), dependencyPaths);
+    }
+
+    private ScanResultCacheKey keyFor(final String filePath, final String contentHash) {
+        return new ScanResultCacheKey(filePath, contentHash, "aFingerprint", false);
+    }
+}
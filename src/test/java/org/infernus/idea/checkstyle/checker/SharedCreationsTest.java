@@ -0,0 +1,93 @@
+package org.infernus.idea.checkstyle.checker;
+
+import org.junit.Test;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class SharedCreationsTest {
+
+    private final SharedCreations<String, Object> underTest = new SharedCreations<>();
+
+    @Test
+    public void concurrentRequestsForTheSameKeyShareASingleCreation() throws Exception {
+        final AtomicInteger creations = new AtomicInteger();
+        final CountDownLatch creationMayFinish = new CountDownLatch(1);
+        final CountDownLatch requestsMade = new CountDownLatch(2);
+        final ExecutorService creationExecutor = Executors.newCachedThreadPool();
+        final ExecutorService requesters = Executors.newFixedThreadPool(2);
+        try {
+            final Future<CompletableFuture<Object>> firstRequest = requesters.submit(() -> {
+                final CompletableFuture<Object> creation = underTest.createOrJoin("aLocation:aModule",
+                        () -> created(creations, creationMayFinish), creationExecutor);
+                requestsMade.countDown();
+                return creation;
+            });
+            final Future<CompletableFuture<Object>> secondRequest = requesters.submit(() -> {
+                final CompletableFuture<Object> creation = underTest.createOrJoin("aLocation:aModule",
+                        () -> created(creations, creationMayFinish), creationExecutor);
+                requestsMade.countDown();
+                return creation;
+            });
+            assertThat(requestsMade.await(5, TimeUnit.SECONDS), is(true));
+            creationMayFinish.countDown();
+
+            final Object firstValue = firstRequest.get(5, TimeUnit.SECONDS).get(5, TimeUnit.SECONDS);
+            final Object secondValue = secondRequest.get(5, TimeUnit.SECONDS).get(5, TimeUnit.SECONDS);
+
+            assertThat(secondValue, is(sameInstance(firstValue)));
+            assertThat(creations.get(), is(1));
+        } finally {
+            creationMayFinish.countDown();
+            requesters.shutdownNow();
+            creationExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void aCompletedCreationIsForgotten() throws ExecutionException, InterruptedException, TimeoutException {
+        final AtomicInteger creations = new AtomicInteger();
+
+        underTest.createOrJoin("aLocation:aModule", creations::incrementAndGet, Runnable::run)
+                .get(5, TimeUnit.SECONDS);
+        underTest.createOrJoin("aLocation:aModule", creations::incrementAndGet, Runnable::run)
+                .get(5, TimeUnit.SECONDS);
+
+        assertThat(creations.get(), is(2));
+        assertThat(underTest.size(), is(0));
+    }
+
+    @Test
+    public void requestsForDifferentKeysAreCreatedSeparately() {
+        final BlockingQueue<Runnable> pendingCreations = new LinkedBlockingQueue<>();
+
+        underTest.createOrJoin("aLocation:aModule", Object::new, pendingCreations::add);
+        underTest.createOrJoin("aLocation:anotherModule", Object::new, pendingCreations::add);
+
+        assertThat(pendingCreations.size(), is(2));
+        assertThat(underTest.size(), is(2));
+    }
+
+    private Object created(final AtomicInteger creations, final CountDownLatch creationMayFinish) {
+        creations.incrementAndGet();
+        try {
+            creationMayFinish.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return new Object();
+    }
+}
@@ -0,0 +1,66 @@
+package org.infernus.idea.checkstyle.csapi;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class LineIndexTest {
+
+    private static final int TAB_WIDTH = 4;
+
+    @Test
+    public void linesAreSplitOnLfCrAndCrLf() {
+        final LineIndex underTest = indexOf("a\nbb\rccc\r\nd");
+
+        assertThat(underTest.lineCount(), is(4));
+        assertThat(underTest.offsetOf(2, 0), is(2));
+        assertThat(underTest.offsetOf(3, 0), is(5));
+        assertThat(underTest.offsetOf(4, 0), is(10));
+    }
+
+    @Test
+    public void columnsAreOffsetsWithinTheLine() {
+        assertThat(indexOf("first\nsecond").offsetOf(2, 3), is(9));
+    }
+
+    @Test
+    public void tabsAreExpandedWhenMappingColumns() {
+        assertThat(indexOf("x\n\t\tint a;").offsetOf(2, 8), is(4));
+    }
+
+    @Test
+    public void aColumnWithinATabMapsToTheCharacterAfterTheTab() {
+        assertThat(indexOf("\tint a;").offsetOf(1, 2), is(1));
+    }
+
+    @Test
+    public void aTabWithinALineAdvancesToTheNextTabStop() {
+        final LineIndex underTest = indexOf("abc\tdefgh");
+
+        assertThat(underTest.offsetOf(1, 4), is(4));
+        assertThat(underTest.offsetOf(1, 8), is(8));
+    }
+
+    @Test
+    public void aColumnBeyondTheEndOfTheLineMapsToTheEndOfTheLine() {
+        assertThat(indexOf("ab\r\ncd").offsetOf(1, 10), is(2));
+    }
+
+    @Test
+    public void aLineBeyondTheEndOfTheTextMapsToTheEndOfTheText() {
+        assertThat(indexOf("ab\ncd").offsetOf(3, 0), is(5));
+    }
+
+    @Test
+    public void aTrailingLineBreakStartsAnEmptyLine() {
+        final LineIndex underTest = indexOf("ab\n");
+
+        assertThat(underTest.lineCount(), is(2));
+        assertThat(underTest.offsetOf(2, 0), is(3));
+    }
+
+    private LineIndex indexOf(final String text) {
+        return LineIndex.of(text.toCharArray(), TAB_WIDTH);
+    }
+}
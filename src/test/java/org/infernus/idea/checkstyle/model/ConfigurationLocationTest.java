@@ -83,6 +83,18 @@ public class ConfigurationLocationTest {
         assertThat(underTest.getProperties(), hasEntry("property-two", "aValue"));
     }
 
+    @Test
+    public void propertiesFoundByParsingTheRulesReplaceThoseKnownRetainingTheirValues() throws IOException {
+        underTest.resolve(getClass().getClassLoader()).close();
+        updatePropertyOn(underTest, "property-two", "aValue");
+
+        underTest.setPropertiesInFile(List.of("property-two", "property-four"));
+
+        assertThat(underTest.getProperties(), hasEntry("property-two", "aValue"));
+        assertThat(underTest.getProperties(), hasEntry("property-four", ""));
+        assertThat(underTest.getProperties(), not(hasKey("property-one")));
+    }
+
     @Test
     public void theDescriptionIsSetToThePassedStringWhenNotNull() {
         underTest.setDescription("aNewDescription");
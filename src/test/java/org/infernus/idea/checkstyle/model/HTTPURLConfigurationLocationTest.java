@@ -7,7 +7,9 @@ import org.infernus.idea.checkstyle.TestHelper;
 import org.jetbrains.annotations.NotNull;
 import org.junit.After;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -18,6 +20,9 @@ import java.net.SocketTimeoutException;
 import java.net.URLConnection;
 import java.util.Scanner;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
 
 import static java.lang.String.format;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -25,9 +30,19 @@ import static org.hamcrest.Matchers.is;
 
 public class HTTPURLConfigurationLocationTest {
 
+    private static final String ETAG = "\"anETag\"";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     private HttpServer httpServer;
     private int serverPort = -1;
 
+    private final AtomicInteger etaggedRequests = new AtomicInteger();
+    private final AtomicInteger notModifiedResponses = new AtomicInteger();
+    private volatile String etaggedResponse = "A tagged response";
+    private volatile String etaggedResponseTag = ETAG;
+
     @Before
     public void startHttpServer() throws IOException {
         httpServer = HttpServer.create(new InetSocketAddress(0), 0);
@@ -66,6 +81,69 @@ public class HTTPURLConfigurationLocationTest {
         aTimingOutLocation().resolveFile(getClass().getClassLoader());
     }
 
+    @Test
+    public void aStoredCopyIsServedWhileItIsRevalidatedWithItsETag() throws IOException {
+        final RemoteRulesCache remoteRulesCache = new RemoteRulesCache(temporaryFolder.getRoot().toPath());
+        aCachingLocationWithPath("/etagged", remoteRulesCache).resolveFile(getClass().getClassLoader());
+
+        final InputStream stream = aCachingLocationWithPath("/etagged", remoteRulesCache)
+                .resolveFile(getClass().getClassLoader());
+
+        assertThat(toString(stream), is("A tagged response"));
+        waitUntil(() -> notModifiedResponses.get() == 1);
+        assertThat(etaggedRequests.get(), is(2));
+    }
+
+    @Test
+    public void changedRulesAreServedOnceRevalidated() throws IOException {
+        final RemoteRulesCache remoteRulesCache = new RemoteRulesCache(temporaryFolder.getRoot().toPath());
+        aCachingLocationWithPath("/etagged", remoteRulesCache).resolveFile(getClass().getClassLoader());
+        etaggedResponse = "A changed response";
+        etaggedResponseTag = "\"anotherETag\"";
+
+        final HTTPURLConfigurationLocation underTest = aCachingLocationWithPath("/etagged", remoteRulesCache);
+        assertThat(toString(underTest.resolveFile(getClass().getClassLoader())), is("A tagged response"));
+
+        waitUntil(() -> etaggedRequests.get() == 2);
+        waitUntil(() -> "A changed response".equals(resolve(underTest)));
+        assertThat(notModifiedResponses.get(), is(0));
+    }
+
+    @Test
+    public void aStoredCopyIsServedWhenTheServerIsUnavailable() throws IOException {
+        final RemoteRulesCache remoteRulesCache = new RemoteRulesCache(temporaryFolder.getRoot().toPath());
+        aCachingLocationWithPath("/etagged", remoteRulesCache).resolveFile(getClass().getClassLoader());
+        httpServer.stop(0);
+
+        final InputStream stream = aCachingLocationWithPath("/etagged", remoteRulesCache)
+                .resolveFile(getClass().getClassLoader());
+
+        assertThat(toString(stream), is("A tagged response"));
+    }
+
+    private String resolve(final HTTPURLConfigurationLocation location) {
+        try {
+            return toString(location.resolveFile(getClass().getClassLoader()));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void waitUntil(final BooleanSupplier condition) {
+        final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Timed out waiting for condition");
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError("Interrupted waiting for condition", e);
+            }
+        }
+    }
+
     private String toString(final InputStream is) {
         Scanner s = new Scanner(is).useDelimiter("\\A");
         return s.hasNext() ? s.next() : "";
@@ -79,6 +157,15 @@ public class HTTPURLConfigurationLocationTest {
         return location;
     }
 
+    @NotNull
+    private HTTPURLConfigurationLocation aCachingLocationWithPath(final String path,
+                                                                 final RemoteRulesCache remoteRulesCache) {
+        final HTTPURLConfigurationLocation location = new CachingHTTPURLConfigurationLocation(remoteRulesCache);
+        location.setDescription("aCachingTestLocation");
+        location.setLocation(format("http://localhost:%s%s", serverPort, path));
+        return location;
+    }
+
     @NotNull
     private HTTPURLConfigurationLocation aTimingOutLocation() {
         final TimingOutHTTPURLConfigurationLocation location = new TimingOutHTTPURLConfigurationLocation();
@@ -103,6 +190,18 @@ public class HTTPURLConfigurationLocationTest {
                 response = "A delayed test response";
                 status = 200;
                 break;
+            case "/etagged":
+                etaggedRequests.incrementAndGet();
+                if (etaggedResponseTag.equals(exch.getRequestHeaders().getFirst("If-None-Match"))) {
+                    notModifiedResponses.incrementAndGet();
+                    exch.sendResponseHeaders(304, -1);
+                    exch.close();
+                    return;
+                }
+                response = etaggedResponse;
+                status = 200;
+                exch.getResponseHeaders().add("ETag", etaggedResponseTag);
+                break;
             case "/redirect":
                 response = "A redirect";
                 status = 301;
@@ -127,6 +226,20 @@ public class HTTPURLConfigurationLocationTest {
         }
     }
 
+    private static class CachingHTTPURLConfigurationLocation extends HTTPURLConfigurationLocation {
+        private final RemoteRulesCache remoteRulesCache;
+
+        CachingHTTPURLConfigurationLocation(final RemoteRulesCache remoteRulesCache) {
+            super(TestHelper.mockProject(), UUID.randomUUID().toString());
+            this.remoteRulesCache = remoteRulesCache;
+        }
+
+        @Override
+        RemoteRulesCache remoteRulesCache() {
+            return remoteRulesCache;
+        }
+    }
+
     private static class TimingOutHTTPURLConfigurationLocation extends HTTPURLConfigurationLocation {
         TimingOutHTTPURLConfigurationLocation() {
             super(TestHelper.mockProject(), UUID.randomUUID().toString());
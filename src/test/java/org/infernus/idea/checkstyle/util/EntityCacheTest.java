@@ -0,0 +1,88 @@
+package org.infernus.idea.checkstyle.util;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class EntityCacheTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final EntityCache underTest = new EntityCache(10);
+
+    @Test
+    public void aResourceIsLoadedOnce() throws IOException {
+        final AtomicInteger loads = new AtomicInteger();
+        final EntityCache.ContentLoader loader = () -> {
+            loads.incrementAndGet();
+            return bytes("aDtd");
+        };
+
+        underTest.resourceContent("/dtd/a.dtd", loader);
+        final byte[] content = underTest.resourceContent("/dtd/a.dtd", loader);
+
+        assertThat(new String(content, StandardCharsets.UTF_8), is("aDtd"));
+        assertThat(loads.get(), is(1));
+    }
+
+    @Test
+    public void anUnchangedFileIsServedFromTheCache() throws IOException {
+        final Path file = fileContaining("before");
+        underTest.fileContent(file);
+        final FileTime lastModified = Files.getLastModifiedTime(file);
+
+        Files.write(file, bytes("during"));
+        Files.setLastModifiedTime(file, lastModified);
+
+        assertThat(new String(underTest.fileContent(file), StandardCharsets.UTF_8), is("before"));
+    }
+
+    @Test
+    public void aChangedFileIsReadAgain() throws IOException {
+        final Path file = fileContaining("before");
+        underTest.fileContent(file);
+
+        Files.write(file, bytes("afterwards"));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 1000));
+
+        assertThat(new String(underTest.fileContent(file), StandardCharsets.UTF_8), is("afterwards"));
+    }
+
+    @Test
+    public void theLeastRecentlyUsedEntitiesAreDiscardedWhenTheCacheIsFull() throws IOException {
+        final AtomicInteger loads = new AtomicInteger();
+        final EntityCache.ContentLoader loader = () -> {
+            loads.incrementAndGet();
+            return bytes("aDtd");
+        };
+        underTest.resourceContent("/dtd/a.dtd", loader);
+        underTest.resourceContent("/dtd/b.dtd", loader);
+
+        underTest.resourceContent("/dtd/c.dtd", loader);
+        underTest.resourceContent("/dtd/a.dtd", loader);
+
+        assertThat(underTest.size(), is(2));
+        assertThat(loads.get(), is(4));
+    }
+
+    private Path fileContaining(final String content) throws IOException {
+        final Path file = temporaryFolder.newFile().toPath();
+        Files.write(file, bytes(content));
+        return file;
+    }
+
+    private static byte[] bytes(final String content) {
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,38 @@
+package org.infernus.idea.checkstyle.util;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class LatencySamplesTest {
+
+    @Test
+    public void percentilesAreTakenByNearestRank() {
+        final LatencySamples underTest = new LatencySamples(100);
+        for (int latency = 100; latency >= 1; --latency) {
+            underTest.record(latency);
+        }
+
+        assertThat(underTest.percentile(50), is(50L));
+        assertThat(underTest.percentile(95), is(95L));
+        assertThat(underTest.percentile(99), is(99L));
+        assertThat(underTest.percentile(100), is(100L));
+    }
+
+    @Test
+    public void onlyTheMostRecentSamplesAreKept() {
+        final LatencySamples underTest = new LatencySamples(2);
+        underTest.record(1000);
+        underTest.record(10);
+        underTest.record(20);
+
+        assertThat(underTest.percentile(100), is(20L));
+        assertThat(underTest.getTotalCount(), is(3L));
+    }
+
+    @Test
+    public void thereAreNoPercentilesWithoutSamples() {
+        assertThat(new LatencySamples(10).percentile(99), is(0L));
+    }
+}
@@ -0,0 +1,65 @@
+package org.infernus.idea.checkstyle.util;
+
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class ReadLockMonitorTest {
+
+    private final ReadLockMonitor underTest = new ReadLockMonitor();
+
+    @Test
+    public void theLongestHoldIsReported() {
+        underTest.record("aShortHold", TimeUnit.MILLISECONDS.toNanos(5));
+        underTest.record("aLongHold", TimeUnit.MILLISECONDS.toNanos(300));
+        underTest.record("anotherShortHold", TimeUnit.MILLISECONDS.toNanos(10));
+
+        assertThat(underTest.getHoldCount(), is(3));
+        assertThat(underTest.getLongestHoldMillis(), is(300L));
+        assertThat(underTest.toString(), containsString("aLongHold"));
+    }
+
+    @Test
+    public void theMonitoredWorkIsCancelledWhenItsConditionHolds() {
+        final AtomicBoolean stopped = new AtomicBoolean();
+        final ReadLockMonitor monitor = new ReadLockMonitor(stopped::get);
+
+        assertThat(monitor.isCancelled(), is(false));
+
+        stopped.set(true);
+
+        assertThat(monitor.isCancelled(), is(true));
+        assertThat(underTest.isCancelled(), is(false));
+    }
+
+    @Test
+    public void theMonitorIsOnlyCurrentWhileItsWorkRuns() {
+        assertThat(ReadLockMonitor.current(), is(nullValue()));
+
+        final ReadLockMonitor currentDuringWork = underTest.compute(ReadLockMonitor::current);
+
+        assertThat(currentDuringWork, is(sameInstance(underTest)));
+        assertThat(ReadLockMonitor.current(), is(nullValue()));
+    }
+
+    @Test
+    public void theMonitorIsCurrentForWorkGivenToAWrappedExecutor() throws InterruptedException {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final ReadLockMonitor[] currentDuringWork = new ReadLockMonitor[1];
+            underTest.wrap(executor).execute(() -> currentDuringWork[0] = ReadLockMonitor.current());
+            executor.shutdown();
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+
+            assertThat(currentDuringWork[0], is(sameInstance(underTest)));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}